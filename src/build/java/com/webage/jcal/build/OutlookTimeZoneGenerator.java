@@ -0,0 +1,647 @@
+package com.webage.jcal.build;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ibm.icu.util.LocaleData;
+import com.ibm.icu.util.TimeZone;
+import com.ibm.icu.util.VTimeZone;
+import com.ibm.icu.util.VersionInfo;
+
+/**
+ * Writes OutlookTimeZone.java from the CLDR windowsZones mapping and the
+ * time zone rules that come with ICU4J.
+ *
+ * Every Windows time zone becomes an enum constant. Its VTIMEZONE is made
+ * from the current rules of the IANA zone CLDR gives for territory 001. The
+ * lookups by Windows ID and by IANA ID use perfect hash tables that are
+ * worked out here, so a lookup at run time is a hash, one probe and an
+ * equals().
+ *
+ * Run it with: mvn -Ptimezones generate-sources
+ */
+public class OutlookTimeZoneGenerator {
+    //The rules in effect on this date go into the VTIMEZONE. Fixed so the output does not change from run to run.
+    private static final long RULES_DATE = 1704067200000L; //2024-01-01T00:00:00Z
+    //The rules are checked against tzdata for this many years from RULES_DATE
+    private static final int CHECK_YEARS = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: OutlookTimeZoneGenerator <OutlookTimeZone.java>");
+            System.exit(2);
+        }
+
+        //Windows ID to the IANA IDs that map to it
+        var windowsZones = new TreeMap<String, List<String>>();
+
+        for (var id : TimeZone.getAvailableIDs()) {
+            var windowsId = TimeZone.getWindowsID(id);
+
+            if (windowsId != null) {
+                windowsZones.computeIfAbsent(windowsId, k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        var source = new Generator(windowsZones).generate();
+
+        Files.writeString(Path.of(args[0]), source, StandardCharsets.UTF_8);
+        System.out.println("Wrote " + windowsZones.size() + " Windows time zones to " + args[0]);
+    }
+
+    private static class Generator {
+        private final Map<String, List<String>> windowsZones;
+        private final String[] windowsIds;
+        private final StringBuilder out = new StringBuilder(256 * 1024);
+
+        Generator(Map<String, List<String>> windowsZones) {
+            this.windowsZones = windowsZones;
+            this.windowsIds = windowsZones.keySet().toArray(new String[0]);
+        }
+
+        String generate() throws IOException {
+            var ianaIds = new ArrayList<String>();
+            var ianaZones = new ArrayList<Integer>();
+
+            for (int i = 0; i < windowsIds.length; ++i) {
+                for (var id : windowsZones.get(windowsIds[i])) {
+                    ianaIds.add(id);
+                    ianaZones.add(i);
+                }
+            }
+
+            var windowsHash = PerfectHash.of(windowsIds);
+            var ianaHash = PerfectHash.of(ianaIds.toArray(new String[0]));
+
+            header();
+
+            for (int i = 0; i < windowsIds.length; ++i) {
+                constant(windowsIds[i], i == windowsIds.length - 1);
+            }
+
+            out.append("\n");
+            out.append("    private final String tzId;\n");
+            out.append("    private final String ianaTzId;\n");
+            out.append("    private final String vTimeZone;\n");
+            out.append("\n");
+            out.append("    private OutlookTimeZone(String tzId, String ianaTzId, String vTimeZone) {\n");
+            out.append("        this.tzId = tzId;\n");
+            out.append("        this.ianaTzId = ianaTzId;\n");
+            out.append("        this.vTimeZone = vTimeZone;\n");
+            out.append("    }\n");
+            out.append("    \n");
+            out.append("    @Override\n");
+            out.append("    public String toString() {\n");
+            out.append("        return tzId;\n");
+            out.append("    }\n");
+            out.append("\n");
+            out.append("    /**\n");
+            out.append("     * Gets the VTIMEZONE section for this time zone.\n");
+            out.append("     * @return The VTIMEZONE section wrapped in BEGIN:VTIMEZONE and END:VTIMEZONE.\n");
+            out.append("     */\n");
+            out.append("    public String toVTimeZone() {\n");
+            out.append("        return vTimeZone;\n");
+            out.append("    }\n");
+            out.append("\n");
+            out.append("    /**\n");
+            out.append("     * Gets the IANA time zone ID that CLDR gives for this time zone\n");
+            out.append("     * when the country is not known.\n");
+            out.append("     * @return The IANA time zone ID. Such as \"Europe/Paris\"\n");
+            out.append("     */\n");
+            out.append("    public String getIANATimeZone() {\n");
+            out.append("        return ianaTzId;\n");
+            out.append("    }\n");
+            out.append("\n");
+            out.append("    /**\n");
+            out.append("     * Converts a IANA time zone ID to OutlookTimeZone.\n");
+            out.append("     * A list of IANA ids can be found at:\n");
+            out.append("     * \n");
+            out.append("     * https://en.wikipedia.org/wiki/List_of_tz_database_time_zones\n");
+            out.append("     * \n");
+            out.append("     * @param tzId IANA time zone id. Such as \"Europe/Lisbon\"\n");
+            out.append("     * @return The matching OutlookTimeZone.\n");
+            out.append("     */\n");
+            out.append("    public static Optional<OutlookTimeZone> fromIANATimeZone(String tzId) {\n");
+            out.append("        if (tzId == null) {\n");
+            out.append("            return Optional.empty();\n");
+            out.append("        }\n");
+            out.append("\n");
+            out.append("        int slot = Tables.slot(tzId, Tables.IANA_SEEDS, Tables.IANA_IDS.length - 1);\n");
+            out.append("\n");
+            out.append("        return tzId.equals(Tables.IANA_IDS[slot])\n");
+            out.append("            ? Tables.FOUND[Tables.IANA_ZONES[slot]]\n");
+            out.append("            : Optional.empty();\n");
+            out.append("    }\n");
+            out.append("\n");
+            out.append("    /**\n");
+            out.append("     * Converts a Windows time zone ID to OutlookTimeZone.\n");
+            out.append("     * \n");
+            out.append("     * @param tzId Windows time zone id. Such as \"Romance Standard Time\"\n");
+            out.append("     * @return The matching OutlookTimeZone.\n");
+            out.append("     */\n");
+            out.append("    public static Optional<OutlookTimeZone> fromWindowsTimeZone(String tzId) {\n");
+            out.append("        if (tzId == null) {\n");
+            out.append("            return Optional.empty();\n");
+            out.append("        }\n");
+            out.append("\n");
+            out.append("        int zone = Tables.WINDOWS_ZONES[Tables.slot(tzId, Tables.WINDOWS_SEEDS, Tables.WINDOWS_ZONES.length - 1)];\n");
+            out.append("\n");
+            out.append("        return zone >= 0 && Tables.ZONES[zone].tzId.equals(tzId)\n");
+            out.append("            ? Tables.FOUND[zone]\n");
+            out.append("            : Optional.empty();\n");
+            out.append("    }\n");
+            out.append("\n");
+            out.append("    /*\n");
+            out.append("    Perfect hash tables. A key goes to a bucket. The seed of the bucket\n");
+            out.append("    sends every key in it to its own slot. The tables are only loaded\n");
+            out.append("    on the first lookup.\n");
+            out.append("    */\n");
+            out.append("    private static class Tables {\n");
+            out.append("        static final OutlookTimeZone[] ZONES = values();\n");
+            out.append("        //A lookup hands out the same Optional every time instead of a new one\n");
+            out.append("        static final Optional<OutlookTimeZone>[] FOUND = found();\n");
+            out.append("\n");
+            intArray("WINDOWS_SEEDS", windowsHash.seeds);
+            shortArray("WINDOWS_ZONES", windowsHash.slots);
+            intArray("IANA_SEEDS", ianaHash.seeds);
+
+            var ianaSlotIds = new String[ianaHash.slots.length];
+            var ianaSlotZones = new int[ianaHash.slots.length];
+
+            Arrays.fill(ianaSlotZones, -1);
+
+            for (int slot = 0; slot < ianaHash.slots.length; ++slot) {
+                int key = ianaHash.slots[slot];
+
+                if (key >= 0) {
+                    ianaSlotIds[slot] = ianaIds.get(key);
+                    ianaSlotZones[slot] = ianaZones.get(key);
+                }
+            }
+
+            stringArray("IANA_IDS", ianaSlotIds);
+            shortArray("IANA_ZONES", ianaSlotZones);
+
+            out.append("        static int slot(String key, int[] seeds, int mask) {\n");
+            out.append("            int h = key.hashCode();\n");
+            out.append("\n");
+            out.append("            return mix(h, seeds[mix(h, 0) & (seeds.length - 1)]) & mask;\n");
+            out.append("        }\n");
+            out.append("\n");
+            out.append("        static int mix(int h, int seed) {\n");
+            out.append("            h ^= seed;\n");
+            out.append("            h *= 0x9E3779B1;\n");
+            out.append("            h ^= h >>> 16;\n");
+            out.append("            h *= 0x85EBCA6B;\n");
+            out.append("            h ^= h >>> 13;\n");
+            out.append("\n");
+            out.append("            return h;\n");
+            out.append("        }\n");
+            out.append("\n");
+            out.append("        @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            out.append("        private static Optional<OutlookTimeZone>[] found() {\n");
+            out.append("            Optional<OutlookTimeZone>[] result = new Optional[ZONES.length];\n");
+            out.append("\n");
+            out.append("            for (int i = 0; i < ZONES.length; ++i) {\n");
+            out.append("                result[i] = Optional.of(ZONES[i]);\n");
+            out.append("            }\n");
+            out.append("\n");
+            out.append("            return result;\n");
+            out.append("        }\n");
+            out.append("    }\n");
+            out.append("}\n");
+
+            return out.toString();
+        }
+
+        private void header() {
+            out.append("package com.webage.jcal;\n");
+            out.append("\n");
+            out.append("import java.util.Optional;\n");
+            out.append("\n");
+            out.append("/*\n");
+            out.append("Generated by src/build/java/com/webage/jcal/build/OutlookTimeZoneGenerator.java\n");
+            out.append("from CLDR ").append(LocaleData.getCLDRVersion()).append(", ICU ").append(VersionInfo.ICU_VERSION)
+                .append(" and tzdata ").append(TimeZone.getTZDataVersion()).append(". Do not edit.\n");
+            out.append("Run: mvn -Ptimezones generate-sources\n");
+            out.append("*/\n");
+            out.append("\n");
+            out.append("/**\n");
+            out.append("    * These are non-standard time zone IDs used by Windows\n");
+            out.append("    * and Outlook. A full list is available from:\n");
+            out.append("    * https://learn.microsoft.com/en-us/windows-hardware/manufacture/desktop/default-time-zones?view=windows-11\n");
+            out.append("    *\n");
+            out.append("    * Every Windows time zone in the CLDR windowsZones mapping is here.\n");
+            out.append("    * For maximum compatibility with Outlook try to use these time zones.\n");
+            out.append("    */\n");
+            out.append("public enum OutlookTimeZone {\n");
+        }
+
+        private void constant(String windowsId, boolean last) throws IOException {
+            var ianaId = TimeZone.getIDForWindowsID(windowsId, null);
+            var lines = vTimeZone(windowsId, ianaId);
+            boolean fixed = !matchesTzdata(lines, TimeZone.getTimeZone(ianaId));
+
+            if (fixed) {
+                lines = fixedOffset(windowsId, TimeZone.getTimeZone(ianaId));
+            }
+
+            out.append("    /**\n");
+            out.append("     * ").append(windowsId).append("\n");
+            if (fixed) {
+                out.append("     * <p>\n");
+                out.append("     * The daylight saving time rules of this zone are not yearly rules.\n");
+                out.append("     * The VTIMEZONE has the offset that is in effect most of the time and\n");
+                out.append("     * no daylight saving time.\n");
+            }
+            out.append("     */\n");
+            out.append("    ").append(constantName(windowsId)).append("(\"").append(windowsId).append("\", \"")
+                .append(ianaId).append("\",\n");
+
+            for (int i = 0; i < lines.size(); ++i) {
+                out.append("        \"").append(lines.get(i)).append("\\r\\n\"")
+                    .append(i < lines.size() - 1 ? " + \n" : ")");
+            }
+
+            out.append(last ? ";\n" : ",\n");
+        }
+
+        /*
+        ICU writes the rules with its own extensions and six digit offsets.
+        Outlook writes the TZID of the Windows zone, DTSTART in 1601 and
+        four digit offsets. The ICU output is rewritten to look like Outlook's.
+        */
+        private static List<String> vTimeZone(String windowsId, String ianaId) throws IOException {
+            var writer = new StringWriter();
+
+            VTimeZone.create(ianaId).writeSimple(writer, RULES_DATE);
+
+            var result = new ArrayList<String>();
+            var component = new ArrayList<String>();
+
+            for (var line : writer.toString().split("\r\n")) {
+                if (line.startsWith("X-") || line.startsWith("TZNAME:")) {
+                    continue;
+                }
+                if (line.startsWith("TZID:")) {
+                    result.add("TZID:" + windowsId);
+                } else if (line.equals("BEGIN:STANDARD") || line.equals("BEGIN:DAYLIGHT")) {
+                    component.clear();
+                    component.add(line);
+                } else if (line.equals("END:STANDARD") || line.equals("END:DAYLIGHT")) {
+                    component.add(line);
+                    result.addAll(outlookComponent(component));
+                    component.clear();
+                } else if (!component.isEmpty()) {
+                    component.add(line);
+                } else {
+                    result.add(line);
+                }
+            }
+
+            return result;
+        }
+
+        /*
+        The rules in effect on RULES_DATE are written as if they never
+        change. That is wrong for a zone without a yearly rule, such as
+        Morocco, whose changes follow Ramadan, or Israel, whose spring change
+        is the Friday before the last Sunday of March. Such rules are found by
+        checking the offset they give every hour for CHECK_YEARS years.
+        */
+        private static boolean matchesTzdata(List<String> lines, TimeZone tz) {
+            var rules = VTimeZoneRules.of(lines);
+
+            for (long t = RULES_DATE, end = RULES_DATE + CHECK_YEARS * 366L * 86400_000L; t < end; t += 3600_000L) {
+                if (rules.offsetAt(t) != tz.getOffset(t)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /*
+        A VTIMEZONE with the offset that is in effect for most of the
+        checked years and no daylight saving time.
+        */
+        private static List<String> fixedOffset(String windowsId, TimeZone tz) {
+            var hours = new TreeMap<Integer, Integer>();
+
+            for (long t = RULES_DATE, end = RULES_DATE + CHECK_YEARS * 366L * 86400_000L; t < end; t += 3600_000L) {
+                hours.merge(tz.getOffset(t), 1, Integer::sum);
+            }
+
+            int offset = hours.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+            var text = formatOffset(offset);
+
+            System.err.println(windowsId + ": the rules do not match tzdata. Using a fixed offset of " + text + ".");
+
+            return List.of(
+                "BEGIN:VTIMEZONE",
+                "TZID:" + windowsId,
+                "BEGIN:STANDARD",
+                "DTSTART:16010101T000000",
+                "TZOFFSETFROM:" + text,
+                "TZOFFSETTO:" + text,
+                "END:STANDARD",
+                "END:VTIMEZONE");
+        }
+
+        private static String formatOffset(int millis) {
+            int seconds = Math.abs(millis / 1000);
+            var text = String.format("%s%02d%02d", millis < 0 ? "-" : "+", seconds / 3600, seconds / 60 % 60);
+
+            return seconds % 60 == 0 ? text : text + String.format("%02d", seconds % 60);
+        }
+
+        private static List<String> outlookComponent(List<String> lines) {
+            boolean repeats = lines.stream().anyMatch(l -> l.startsWith("RRULE:"));
+            var result = new ArrayList<String>();
+
+            for (var line : lines) {
+                if (line.startsWith("DTSTART:")) {
+                    var time = repeats ? line.substring(line.lastIndexOf('T') + 1) : "000000";
+
+                    result.add("DTSTART:16010101T" + time);
+                } else if (line.startsWith("TZOFFSETFROM:") || line.startsWith("TZOFFSETTO:")) {
+                    int colon = line.indexOf(':');
+                    var offset = line.substring(colon + 1);
+
+                    if (offset.length() == 7 && offset.endsWith("00")) {
+                        offset = offset.substring(0, 5);
+                    }
+
+                    result.add(line.substring(0, colon + 1) + offset);
+                } else {
+                    result.add(line);
+                }
+            }
+
+            //Outlook lists DTSTART first, then the rule, then the offsets
+            result.sort((a, b) -> Integer.compare(order(a), order(b)));
+
+            return result;
+        }
+
+        private static int order(String line) {
+            if (line.startsWith("BEGIN:")) {
+                return 0;
+            }
+            if (line.startsWith("DTSTART:")) {
+                return 1;
+            }
+            if (line.startsWith("RRULE:")) {
+                return 2;
+            }
+            if (line.startsWith("TZOFFSETFROM:")) {
+                return 3;
+            }
+            if (line.startsWith("TZOFFSETTO:")) {
+                return 4;
+            }
+
+            return 5;
+        }
+
+        /*
+        "Central Standard Time (Mexico)" becomes TZ_CENTRAL_STANDARD_TIME_MEXICO
+        and "UTC+12" becomes TZ_UTC_PLUS_12.
+        */
+        private static String constantName(String windowsId) {
+            var name = windowsId
+                .replace("+", " plus ")
+                .replace("-", " minus ")
+                .replaceAll("[^A-Za-z0-9]+", "_")
+                .replaceAll("^_|_$", "")
+                .toUpperCase(Locale.ROOT);
+
+            return "TZ_" + name;
+        }
+
+        private void intArray(String name, int[] values) {
+            out.append("        static final int[] ").append(name).append(" = {");
+            values(values);
+            out.append("};\n\n");
+        }
+
+        private void shortArray(String name, int[] values) {
+            out.append("        static final short[] ").append(name).append(" = {");
+            values(values);
+            out.append("};\n\n");
+        }
+
+        private void values(int[] values) {
+            for (int i = 0; i < values.length; ++i) {
+                out.append(i % 12 == 0 ? "\n            " : " ").append(values[i]).append(i < values.length - 1 ? "," : "");
+            }
+
+            out.append("\n        ");
+        }
+
+        private void stringArray(String name, String[] values) {
+            out.append("        static final String[] ").append(name).append(" = {");
+
+            for (int i = 0; i < values.length; ++i) {
+                out.append(i % 4 == 0 ? "\n            " : " ")
+                    .append(values[i] == null ? "null" : "\"" + values[i] + "\"")
+                    .append(i < values.length - 1 ? "," : "");
+            }
+
+            out.append("\n        };\n\n");
+        }
+    }
+
+    /*
+    The offsets of the STANDARD and DAYLIGHT parts of a generated VTIMEZONE.
+    A part repeats with FREQ=YEARLY;BYMONTH=m;BYDAY=nDD or does not repeat.
+    */
+    private static class VTimeZoneRules {
+        private static final List<String> DAYS = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+        private final List<int[]> parts = new ArrayList<>();
+        private int fixedOffset;
+
+        static VTimeZoneRules of(List<String> lines) {
+            var result = new VTimeZoneRules();
+            //Month, week, day of week, seconds of the day, offset from and offset to
+            int[] part = null;
+
+            for (var line : lines) {
+                if (line.equals("BEGIN:STANDARD") || line.equals("BEGIN:DAYLIGHT")) {
+                    part = new int[6];
+                } else if (line.startsWith("DTSTART:")) {
+                    var time = line.substring(line.lastIndexOf('T') + 1);
+
+                    part[3] = Integer.parseInt(time.substring(0, 2)) * 3600
+                        + Integer.parseInt(time.substring(2, 4)) * 60
+                        + Integer.parseInt(time.substring(4, 6));
+                } else if (line.startsWith("RRULE:")) {
+                    for (var rulePart : line.substring(6).split(";")) {
+                        if (rulePart.startsWith("BYMONTH=")) {
+                            part[0] = Integer.parseInt(rulePart.substring(8));
+                        } else if (rulePart.startsWith("BYDAY=")) {
+                            var day = rulePart.substring(6);
+
+                            part[1] = day.length() > 2 ? Integer.parseInt(day.substring(0, day.length() - 2)) : 1;
+                            part[2] = DAYS.indexOf(day.substring(day.length() - 2)) + 1;
+                        } else if (!rulePart.equals("FREQ=YEARLY")) {
+                            throw new IllegalArgumentException("Unexpected rule: " + line);
+                        }
+                    }
+                } else if (line.startsWith("TZOFFSETFROM:")) {
+                    part[4] = parseOffset(line.substring(13));
+                } else if (line.startsWith("TZOFFSETTO:")) {
+                    part[5] = parseOffset(line.substring(11));
+                } else if (line.startsWith("END:STANDARD") || line.startsWith("END:DAYLIGHT")) {
+                    if (part[0] == 0) {
+                        result.fixedOffset = part[5];
+                    } else {
+                        result.parts.add(part);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        private static int parseOffset(String text) {
+            return java.time.ZoneOffset.of(text).getTotalSeconds() * 1000;
+        }
+
+        /*
+        The offset of the latest change at or before t.
+        */
+        int offsetAt(long t) {
+            if (parts.isEmpty()) {
+                return fixedOffset;
+            }
+
+            int year = java.time.Instant.ofEpochMilli(t).atOffset(java.time.ZoneOffset.UTC).getYear();
+            long latest = Long.MIN_VALUE;
+            int offset = 0;
+
+            for (int y = year - 1; y <= year; ++y) {
+                for (var p : parts) {
+                    var month = java.time.YearMonth.of(y, p[0]);
+                    var day = java.time.DayOfWeek.of(p[2]);
+                    var date = p[1] > 0
+                        ? month.atDay(1).with(java.time.temporal.TemporalAdjusters.dayOfWeekInMonth(p[1], day))
+                        : month.atEndOfMonth().with(java.time.temporal.TemporalAdjusters.dayOfWeekInMonth(p[1], day));
+                    long change = (date.toEpochDay() * 86400 + p[3]) * 1000 - p[4];
+
+                    if (change <= t && change > latest) {
+                        latest = change;
+                        offset = p[5];
+                    }
+                }
+            }
+
+            return offset;
+        }
+    }
+
+    /*
+    Hash and displace. The keys are split in buckets. Starting from the largest
+    bucket, a seed is found that sends every key of the bucket to a free slot.
+    */
+    private static class PerfectHash {
+        final int[] seeds;
+        //The key in each slot. -1 if the slot is free.
+        final int[] slots;
+
+        private PerfectHash(int[] seeds, int[] slots) {
+            this.seeds = seeds;
+            this.slots = slots;
+        }
+
+        static PerfectHash of(String[] keys) {
+            int bucketCount = Integer.highestOneBit(Math.max(1, keys.length / 2));
+            int size = Integer.highestOneBit(keys.length) * 2;
+            var buckets = new ArrayList<List<Integer>>();
+
+            for (int i = 0; i < bucketCount; ++i) {
+                buckets.add(new ArrayList<>());
+            }
+            for (int i = 0; i < keys.length; ++i) {
+                buckets.get(mix(keys[i].hashCode(), 0) & (bucketCount - 1)).add(i);
+            }
+
+            var order = new Integer[bucketCount];
+
+            for (int i = 0; i < bucketCount; ++i) {
+                order[i] = i;
+            }
+
+            //Largest first. Ties by index so the output is the same on every run.
+            Arrays.sort(order, (a, b) -> buckets.get(a).size() != buckets.get(b).size()
+                ? buckets.get(b).size() - buckets.get(a).size()
+                : a - b);
+
+            var seeds = new int[bucketCount];
+            var slots = new int[size];
+
+            Arrays.fill(slots, -1);
+
+            for (int b : order) {
+                var bucket = buckets.get(b);
+
+                if (bucket.isEmpty()) {
+                    break;
+                }
+
+                for (int seed = 1;; ++seed) {
+                    var taken = new int[bucket.size()];
+                    boolean fits = true;
+
+                    for (int k = 0; k < bucket.size() && fits; ++k) {
+                        int slot = mix(keys[bucket.get(k)].hashCode(), seed) & (size - 1);
+
+                        fits = slots[slot] < 0;
+
+                        for (int j = 0; j < k && fits; ++j) {
+                            fits = taken[j] != slot;
+                        }
+
+                        taken[k] = slot;
+                    }
+
+                    if (fits) {
+                        for (int k = 0; k < bucket.size(); ++k) {
+                            slots[taken[k]] = bucket.get(k);
+                        }
+
+                        seeds[b] = seed;
+
+                        break;
+                    }
+                    if (seed == Integer.MAX_VALUE) {
+                        throw new IllegalStateException("No seed for bucket " + b);
+                    }
+                }
+            }
+
+            return new PerfectHash(seeds, slots);
+        }
+
+        //Must match OutlookTimeZone.Tables.mix()
+        static int mix(int h, int seed) {
+            h ^= seed;
+            h *= 0x9E3779B1;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+
+            return h;
+        }
+    }
+}
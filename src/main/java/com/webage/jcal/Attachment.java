@@ -0,0 +1,503 @@
+package com.webage.jcal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An ATTACH property of an event. An attachment is either a URI
+ * or inline binary data.
+ *
+ * Inline data is read from a file or a channel and base64 encoded at the time
+ * the event is written. It is never loaded into memory as a whole. A file is
+ * memory-mapped and encoded a chunk at a time. When a VCalendar is written to
+ * a stream, the encoded data goes straight to the stream in folded lines.
+ */
+public final class Attachment {
+    /**
+     * Opens the channel that inline data is read from. It is called every
+     * time the attachment is written.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Opens the channel. The caller closes it.
+         * @return the channel
+         * @throws IOException if the channel can not be opened
+         */
+        ReadableByteChannel open() throws IOException;
+    }
+
+    private static final int MAX_LINE_LENGTH = 75;
+    private static final int KIND_URI = 0;
+    private static final int KIND_PATH = 1;
+    private static final int KIND_DATA = 2;
+    //A multiple of 3 so that every chunk but the last encodes without padding
+    private static final int CHUNK_SIZE = 3 * 16 * 1024;
+
+    private final String uri;
+    private final Path path;
+    private final Source source;
+    private final String formatType;
+    private final String fileName;
+
+    private Attachment(String uri, Path path, Source source, String formatType, String fileName) {
+        this.uri = uri;
+        this.path = path;
+        this.source = source;
+        this.formatType = formatType;
+        this.fileName = fileName;
+    }
+
+    /**
+     * An attachment that is a link to a document.
+     * @param uri the URI of the document
+     * @return the attachment
+     */
+    public static Attachment uri(String uri) {
+        return new Attachment(Objects.requireNonNull(uri), null, null, null, null);
+    }
+
+    /**
+     * An attachment that is a link to a document.
+     * @param uri the URI of the document
+     * @param formatType the media type. Example: "application/pdf"
+     * @return the attachment
+     */
+    public static Attachment uri(String uri, String formatType) {
+        return new Attachment(Objects.requireNonNull(uri), null, null, formatType, null);
+    }
+
+    /**
+     * An inline attachment read from a file. The file is read every time
+     * the event is written.
+     * @param file the file
+     * @param formatType the media type. Example: "application/pdf"
+     * @return the attachment
+     */
+    public static Attachment inline(Path file, String formatType) {
+        return new Attachment(null, Objects.requireNonNull(file), null, formatType, file.getFileName().toString());
+    }
+
+    /**
+     * An inline attachment read from a channel.
+     * @param source opens the channel every time the event is written
+     * @param formatType the media type. Example: "application/pdf"
+     * @param fileName the file name shown to the user. Can be null.
+     * @return the attachment
+     */
+    public static Attachment inline(Source source, String formatType, String fileName) {
+        return new Attachment(null, null, Objects.requireNonNull(source), formatType, fileName);
+    }
+
+    /**
+     * Returns true if the data is inline
+     * @return true if the data is inline
+     */
+    public boolean isInline() {
+        return uri == null;
+    }
+
+    /**
+     * Get the URI. Empty for an inline attachment.
+     * @return the URI
+     */
+    public Optional<String> getUri() {
+        return Optional.ofNullable(uri);
+    }
+
+    /**
+     * Get the file of an inline attachment. Empty for a URI or a channel.
+     * @return the file
+     */
+    public Optional<Path> getPath() {
+        return Optional.ofNullable(path);
+    }
+
+    /**
+     * Get the media type
+     * @return the media type
+     */
+    public Optional<String> getFormatType() {
+        return Optional.ofNullable(formatType);
+    }
+
+    /**
+     * Get the file name of an inline attachment
+     * @return the file name
+     */
+    public Optional<String> getFileName() {
+        return Optional.ofNullable(fileName);
+    }
+
+    /*
+    The property name and parameters up to and including the colon.
+    */
+    private String prefix() {
+        var sb = new StringBuilder("ATTACH");
+
+        if (formatType != null) {
+            sb.append(";FMTTYPE=").append(formatType);
+        }
+        if (isInline()) {
+            sb.append(";ENCODING=BASE64;VALUE=BINARY");
+
+            if (fileName != null) {
+                sb.append(";X-FILENAME=");
+                appendParameterValue(sb, fileName);
+            }
+        }
+
+        return sb.append(':').toString();
+    }
+
+    private static void appendParameterValue(StringBuilder sb, String value) {
+        //A double quote is not allowed in a parameter value
+        value = value.replace("\"", "");
+
+        if (value.indexOf(';') >= 0 || value.indexOf(':') >= 0 || value.indexOf(',') >= 0) {
+            sb.append('"').append(value).append('"');
+        } else {
+            sb.append(value);
+        }
+    }
+
+    /**
+     * Writes the ATTACH line to a StringBuilder. Inline data is base64
+     * encoded into the StringBuilder.
+     * @param sb the StringBuilder
+     */
+    void output(StringBuilder sb) {
+        if (!isInline()) {
+            Util.outputRawProperty(sb, prefix(), uri);
+
+            return;
+        }
+
+        var start = sb.length();
+
+        sb.append(prefix());
+        Util.breakLine(sb, start);
+
+        try {
+            writeBase64(asciiStream(sb), column(sb));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        sb.append("\r\n");
+    }
+
+    /**
+     * Writes the ATTACH property to a jCal or xCal writer. Inline data is
+     * base64 encoded on one line.
+     * @param w the writer
+     */
+    void writeComponent(ComponentWriter w) {
+        if (!isInline()) {
+            w.property("attach", "uri", uri, "fmttype", formatType);
+
+            return;
+        }
+
+        var sb = new StringBuilder();
+
+        try {
+            writeBase64(asciiStream(sb), 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        w.property("attach", "binary", sb.toString(), "fmttype", formatType, "encoding", "BASE64", "x-filename", fileName);
+    }
+
+    /**
+     * Writes the ATTACH line to a stream.
+     * @param out the stream
+     * @param buff a scratch buffer
+     * @throws IOException if the data can not be read or the stream fails
+     */
+    void writeTo(OutputStream out, byte[] buff) throws IOException {
+        var sb = new StringBuilder(prefix());
+
+        Util.breakLine(sb);
+        Util.writeUTF8(sb, out, buff);
+
+        writeBase64(out, column(sb));
+
+        out.write('\r');
+        out.write('\n');
+    }
+
+    /**
+     * Writes the attachment in a compact binary form. A file is stored by
+     * its path. The data of a channel is stored. The channel is read twice,
+     * once for the size and once for the data, a chunk at a time.
+     * @param out the output
+     * @throws IOException if the output fails or the channel can not be read
+     */
+    void writeFields(DataOutput out) throws IOException {
+        Util.writeString(out, formatType);
+        Util.writeString(out, fileName);
+
+        if (uri != null) {
+            out.writeByte(KIND_URI);
+            Util.writeString(out, uri);
+        } else if (path != null) {
+            out.writeByte(KIND_PATH);
+            Util.writeString(out, path.toString());
+        } else {
+            out.writeByte(KIND_DATA);
+
+            long size = dataSize();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Attachment is too large: " + size + " bytes");
+            }
+
+            out.writeInt((int) size);
+
+            var buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            long written = 0;
+
+            try (var channel = source.open()) {
+                int n;
+
+                while ((n = channel.read(buffer)) >= 0) {
+                    written += n;
+
+                    if (written > size) {
+                        break;
+                    }
+
+                    out.write(buffer.array(), 0, n);
+                    buffer.clear();
+                }
+            }
+
+            if (written != size) {
+                throw new IOException("The attachment data changed while it was written");
+            }
+        }
+    }
+
+    /**
+     * Reads an attachment written by writeFields().
+     * @param in the input
+     * @return the attachment
+     * @throws IOException if the input fails
+     */
+    static Attachment readFields(DataInput in) throws IOException {
+        var formatType = Util.readString(in);
+        var fileName = Util.readString(in);
+        int kind = in.readByte();
+
+        switch (kind) {
+        case KIND_URI:
+            return new Attachment(Util.readString(in), null, null, formatType, fileName);
+        case KIND_PATH:
+            return new Attachment(null, Path.of(Util.readString(in)), null, formatType, fileName);
+        case KIND_DATA:
+            var data = new byte[in.readInt()];
+
+            in.readFully(data);
+
+            return new Attachment(null, null, () -> Channels.newChannel(new ByteArrayInputStream(data)), formatType, fileName);
+        default:
+            throw new IOException("Unknown attachment kind: " + kind);
+        }
+    }
+
+    /**
+     * Returns the number of bytes the ATTACH line takes in UTF-8.
+     * The size of a file is looked up. A Source is read to the end.
+     * @return the number of bytes
+     */
+    long encodedLength() {
+        if (!isInline()) {
+            return Util.rawPropertyLength(prefix(), uri);
+        }
+
+        long size;
+
+        try {
+            size = dataSize();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Util.LineLength().add(prefix(), false).end((size + 2) / 3 * 4);
+    }
+
+    private long dataSize() throws IOException {
+        if (path != null) {
+            return Files.size(path);
+        }
+
+        long size = 0;
+        var buffer = ByteBuffer.allocate(CHUNK_SIZE);
+
+        try (var channel = source.open()) {
+            int n;
+
+            while ((n = channel.read(buffer)) >= 0) {
+                size += n;
+                buffer.clear();
+            }
+        }
+
+        return size;
+    }
+
+    /*
+    A stream that appends ASCII bytes to a StringBuilder.
+    */
+    private static OutputStream asciiStream(StringBuilder sb) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                sb.append((char) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                for (int i = off, end = off + len; i < end; ++i) {
+                    sb.append((char) b[i]);
+                }
+            }
+        };
+    }
+
+    /*
+    The number of characters on the last line.
+    */
+    private static int column(StringBuilder sb) {
+        return sb.length() - (sb.lastIndexOf("\n") + 1);
+    }
+
+    private void writeBase64(OutputStream out, int column) throws IOException {
+        writeBase64(out, column, MAX_LINE_LENGTH);
+    }
+
+    private void writeBase64(OutputStream out, int column, int lineLength) throws IOException {
+        var folder = new FoldingWriter(out, column, lineLength);
+        var encoder = Base64.getEncoder();
+        var in = new byte[CHUNK_SIZE];
+        var encoded = new byte[CHUNK_SIZE / 3 * 4];
+
+        if (path != null) {
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Attachment is too large: " + path);
+                }
+
+                var map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+                while (map.hasRemaining()) {
+                    int n = Math.min(CHUNK_SIZE, map.remaining());
+
+                    map.get(in, 0, n);
+                    folder.write(encoded, encodeChunk(encoder, in, n, encoded));
+                }
+            }
+        } else {
+            try (var channel = source.open()) {
+                var buffer = ByteBuffer.wrap(in);
+
+                while (channel.read(buffer) >= 0) {
+                    if (!buffer.hasRemaining()) {
+                        folder.write(encoded, encodeChunk(encoder, in, buffer.position(), encoded));
+                        buffer.clear();
+                    }
+                }
+
+                if (buffer.position() > 0) {
+                    folder.write(encoded, encodeChunk(encoder, in, buffer.position(), encoded));
+                }
+            }
+        }
+
+        folder.flush();
+    }
+
+    private static int encodeChunk(Base64.Encoder encoder, byte[] in, int length, byte[] encoded) {
+        if (length == in.length) {
+            return encoder.encode(in, encoded);
+        }
+
+        var tail = new byte[length];
+
+        System.arraycopy(in, 0, tail, 0, length);
+
+        return encoder.encode(tail, encoded);
+    }
+
+    /*
+    Writes ASCII bytes and inserts a fold every lineLength characters. The
+    leading space of a continuation line counts toward the limit.
+    */
+    private static class FoldingWriter {
+        private static final byte[] FOLD = {'\r', '\n', ' '};
+
+        private final OutputStream out;
+        private final int lineLength;
+        private final byte[] buff = new byte[8192];
+        private int pos;
+        private int column;
+
+        FoldingWriter(OutputStream out, int column, int lineLength) {
+            this.out = out;
+            this.column = column;
+            this.lineLength = lineLength;
+        }
+
+        void write(byte[] b, int length) throws IOException {
+            int off = 0;
+
+            while (off < length) {
+                if (column == lineLength) {
+                    put(FOLD, 0, FOLD.length);
+                    column = 1;
+                }
+
+                int n = Math.min(length - off, lineLength - column);
+
+                put(b, off, n);
+                off += n;
+                column += n;
+            }
+        }
+
+        private void put(byte[] b, int off, int len) throws IOException {
+            if (pos + len > buff.length) {
+                out.write(buff, 0, pos);
+                pos = 0;
+            }
+
+            System.arraycopy(b, off, buff, pos, len);
+            pos += len;
+        }
+
+        void flush() throws IOException {
+            if (pos > 0) {
+                out.write(buff, 0, pos);
+                pos = 0;
+            }
+        }
+    }
+}
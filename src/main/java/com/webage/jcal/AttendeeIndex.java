@@ -0,0 +1,188 @@
+package com.webage.jcal;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An index from e-mail to the events where the person is the organizer or
+ * an attendee. The events are kept as EventBitmap sets of ordinals, so
+ * questions like "the events both A and B are invited to" are answered
+ * with and() and or() on the sets.
+ *
+ * view() builds a calendar of some of the events without copying them.
+ * A personal feed for each user is view(getEvents(email)).
+ *
+ * <pre>
+ * var index = AttendeeIndex.of(master);
+ * var both = index.getAttendeeEvents("a@example.com")
+ *     .and(index.getAttendeeEvents("b@example.com"));
+ * var feed = index.view(index.getEvents("a@example.com"));
+ * </pre>
+ *
+ * The index is a snapshot. Events added to the calendar later are not in
+ * it. E-mails are compared in lower case.
+ */
+public final class AttendeeIndex {
+    private final VCalendar calendar;
+    private final VEvent[] events;
+    private final Map<String, EventBitmap> attendees;
+    private final Map<String, EventBitmap> organizers;
+
+    private AttendeeIndex(VCalendar calendar, VEvent[] events, Map<String, EventBitmap> attendees, Map<String, EventBitmap> organizers) {
+        this.calendar = calendar;
+        this.events = events;
+        this.attendees = attendees;
+        this.organizers = organizers;
+    }
+
+    /**
+     * Indexes the events of a calendar.
+     * @param calendar the calendar
+     * @return the index
+     */
+    public static AttendeeIndex of(VCalendar calendar) {
+        var events = calendar.getEventList().toArray(new VEvent[0]);
+        var attendees = new HashMap<String, EventBitmap.Builder>();
+        var organizers = new HashMap<String, EventBitmap.Builder>();
+
+        //The events are visited in order so every builder gets its ordinals in ascending order
+        for (int i = 0; i < events.length; ++i) {
+            var event = events[i];
+
+            if (event.getOrganizerEmail() != null) {
+                builderOf(organizers, event.getOrganizerEmail()).add(i);
+            }
+
+            for (var attendee : event.attendees()) {
+                builderOf(attendees, attendee).add(i);
+            }
+        }
+
+        return new AttendeeIndex(calendar, events, build(attendees), build(organizers));
+    }
+
+    private static EventBitmap.Builder builderOf(Map<String, EventBitmap.Builder> map, String person) {
+        return map.computeIfAbsent(Util.normalizeEmail(VEvent.emailOf(person)), k -> EventBitmap.builder());
+    }
+
+    private static Map<String, EventBitmap> build(Map<String, EventBitmap.Builder> builders) {
+        var result = new HashMap<String, EventBitmap>(builders.size() * 4 / 3 + 1);
+
+        builders.forEach((email, builder) -> result.put(email, builder.build()));
+
+        return result;
+    }
+
+    /**
+     * Get the events an e-mail is invited to as an attendee
+     * @param email the e-mail
+     * @return the ordinals of the events
+     */
+    public EventBitmap getAttendeeEvents(String email) {
+        return attendees.getOrDefault(Util.normalizeEmail(email), EventBitmap.empty());
+    }
+
+    /**
+     * Get the events an e-mail organizes
+     * @param email the e-mail
+     * @return the ordinals of the events
+     */
+    public EventBitmap getOrganizerEvents(String email) {
+        return organizers.getOrDefault(Util.normalizeEmail(email), EventBitmap.empty());
+    }
+
+    /**
+     * Get the events an e-mail organizes or is invited to
+     * @param email the e-mail
+     * @return the ordinals of the events
+     */
+    public EventBitmap getEvents(String email) {
+        return getAttendeeEvents(email).or(getOrganizerEvents(email));
+    }
+
+    /**
+     * Get every e-mail in the index
+     * @return the e-mails in lower case
+     */
+    public Set<String> getEmails() {
+        var result = new HashSet<String>(attendees.keySet());
+
+        result.addAll(organizers.keySet());
+
+        return result;
+    }
+
+    /**
+     * Get the number of events that were indexed
+     * @return the number of events
+     */
+    public int size() {
+        return events.length;
+    }
+
+    /**
+     * Get an event by ordinal
+     * @param ordinal the ordinal
+     * @return the event
+     */
+    public VEvent getEvent(int ordinal) {
+        return events[ordinal];
+    }
+
+    /**
+     * Get the events of a list by ordinal
+     * @param ordinals the ordinals
+     * @return the events. The list can not be changed.
+     */
+    public List<VEvent> getEvents(EventBitmap ordinals) {
+        return new EventView(events, ordinals.toArray());
+    }
+
+    /**
+     * Returns a calendar with some of the events of the indexed calendar.
+     * The events are not copied. The view has the METHOD, PRODID and VTIMEZONE
+     * of the indexed calendar. Its lists can not be changed.
+     *
+     * @param ordinals the ordinals of the events
+     * @return the calendar
+     */
+    public VCalendar view(EventBitmap ordinals) {
+        var view = new VCalendar();
+
+        view.setMethod(calendar.getMethod());
+        view.setProductId(calendar.getProductId());
+        view.setVTimeZones(Collections.unmodifiableList(calendar.getVTimeZones()));
+        view.setEventList(getEvents(ordinals));
+
+        return view;
+    }
+
+    /*
+    A read only list of some of the events.
+    */
+    private static final class EventView extends AbstractList<VEvent> implements RandomAccess {
+        private final VEvent[] events;
+        private final int[] ordinals;
+
+        EventView(VEvent[] events, int[] ordinals) {
+            this.events = events;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public VEvent get(int index) {
+            return events[ordinals[index]];
+        }
+
+        @Override
+        public int size() {
+            return ordinals.length;
+        }
+    }
+}
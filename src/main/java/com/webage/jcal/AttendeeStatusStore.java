@@ -0,0 +1,194 @@
+package com.webage.jcal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the latest PARTSTAT of every attendee of every event. Replies are
+ * applied from any number of threads. Each update only touches the entry of
+ * one UID and attendee, so threads do not wait on each other.
+ *
+ * Email replies arrive out of order. A reply only replaces the one that is
+ * stored if it is newer: it has a higher SEQUENCE, or the same SEQUENCE and
+ * a later DTSTAMP.
+ *
+ * Call applyTo() before sending the next REQUEST so that it shows the
+ * responses of the attendees.
+ */
+public final class AttendeeStatusStore {
+    private final ConcurrentHashMap<String, Reply> replies = new ConcurrentHashMap<>();
+
+    /**
+     * The outcome of ingesting a batch of messages.
+     */
+    public static final class Result {
+        private final long applied;
+        private final long stale;
+        private final long ignored;
+        private final List<String> errors;
+        private final List<Reply> counters;
+
+        Result(long applied, long stale, long ignored, List<String> errors, List<Reply> counters) {
+            this.applied = applied;
+            this.stale = stale;
+            this.ignored = ignored;
+            this.errors = errors;
+            this.counters = counters;
+        }
+
+        /**
+         * Get the number of replies that updated the store
+         * @return the number of replies
+         */
+        public long getApplied() {
+            return applied;
+        }
+
+        /**
+         * Get the number of replies that were older than the one in the store
+         * @return the number of replies
+         */
+        public long getStale() {
+            return stale;
+        }
+
+        /**
+         * Get the number of replies about a single occurrence of a repeating
+         * event. The store only tracks responses to the whole event.
+         * @return the number of replies
+         */
+        public long getIgnored() {
+            return ignored;
+        }
+
+        /**
+         * Get the reason each message that could not be read was rejected
+         * @return the errors
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Get the COUNTER proposals. They are not applied to the store.
+         * The organizer decides whether to accept them.
+         * @return the COUNTER proposals
+         */
+        public List<Reply> getCounters() {
+            return counters;
+        }
+    }
+
+    private static String key(String uid, String email) {
+        return uid + '\u0000' + email;
+    }
+
+    /**
+     * Applies a REPLY if it is newer than the reply that is stored.
+     * COUNTER messages and replies about a single occurrence are not applied.
+     *
+     * @param reply the reply
+     * @return true if the store was updated
+     */
+    public boolean apply(Reply reply) {
+        if (reply.getMethod() != MethodType.REPLY || reply.getRecurrenceId().isPresent()) {
+            return false;
+        }
+
+        var key = key(reply.getUID(), reply.getAttendee());
+        var stored = replies.merge(key, reply, (old, r) -> r.isNewerThan(old) ? r : old);
+
+        return stored == reply;
+    }
+
+    /**
+     * Reads and applies a batch of REPLY and COUNTER calendars. The messages
+     * are parsed and applied in parallel.
+     *
+     * @param messages the calendars
+     * @return what happened to the messages
+     */
+    public Result ingest(Collection<? extends CharSequence> messages) {
+        var applied = new LongAdder();
+        var stale = new LongAdder();
+        var ignored = new LongAdder();
+        var errors = new ConcurrentLinkedQueue<String>();
+        var counters = new ConcurrentLinkedQueue<Reply>();
+
+        messages.parallelStream().forEach(message -> {
+            List<Reply> parsed;
+
+            try {
+                parsed = Reply.parse(message);
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+
+                return;
+            }
+
+            for (var reply : parsed) {
+                if (reply.getMethod() == MethodType.COUNTER) {
+                    counters.add(reply);
+                } else if (reply.getRecurrenceId().isPresent()) {
+                    ignored.increment();
+                } else if (apply(reply)) {
+                    applied.increment();
+                } else {
+                    stale.increment();
+                }
+            }
+        });
+
+        return new Result(applied.sum(), stale.sum(), ignored.sum(), new ArrayList<>(errors), new ArrayList<>(counters));
+    }
+
+    /**
+     * Get the latest PARTSTAT of an attendee
+     * @param uid the UID of the event
+     * @param email the email of the attendee
+     * @return the PARTSTAT. Empty if the attendee has not responded.
+     */
+    public Optional<PartStatType> getStatus(String uid, String email) {
+        var reply = replies.get(key(uid, Util.normalizeEmail(email)));
+
+        return reply == null ? Optional.empty() : Optional.of(reply.getPartStat());
+    }
+
+    /**
+     * Sets the PARTSTAT of every attendee of the event that has responded.
+     * @param event the event
+     */
+    public void applyTo(VEvent event) {
+        for (var attendee : event.attendees()) {
+            var email = Util.normalizeEmail(VEvent.emailOf(attendee));
+            var reply = replies.get(key(event.getUID(), email));
+
+            if (reply != null) {
+                event.setAttendeeStatus(email, reply.getPartStat());
+            }
+        }
+    }
+
+    /**
+     * Forgets the responses to an event. Call this when an event is cancelled.
+     * @param uid the UID of the event
+     */
+    public void remove(String uid) {
+        var prefix = uid + '\u0000';
+
+        replies.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    /**
+     * Get the number of stored responses
+     * @return the number of stored responses
+     */
+    public int size() {
+        return replies.size();
+    }
+}
@@ -0,0 +1,183 @@
+package com.webage.jcal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The difference between two versions of a calendar. Events are matched by UID
+ * and compared by their fingerprint. The diff turns into the iTIP messages that
+ * bring the attendees up to date: a REQUEST for each new or changed event and
+ * a CANCEL for each removed event. Unchanged events produce no message.
+ *
+ * The events are updated in place. A changed event gets a higher SEQUENCE.
+ * An unchanged event keeps the SEQUENCE of the previous version. A removed
+ * event gets a higher SEQUENCE and STATUS:CANCELLED. This way the current
+ * calendar can be stored as the baseline for the next diff.
+ */
+public final class CalendarDiff {
+    private final VCalendar current;
+    private final List<VEvent> added = new ArrayList<>();
+    private final List<VEvent> changed = new ArrayList<>();
+    private final List<VEvent> removed = new ArrayList<>();
+    private int unchangedCount;
+
+    private CalendarDiff(VCalendar current) {
+        this.current = current;
+    }
+
+    /**
+     * Compares two versions of a calendar. Each event of a calendar must
+     * have a different UID. No event is updated if the check fails.
+     *
+     * @param previous the version that was last sent out
+     * @param current the new version
+     * @return the diff
+     * @throws IllegalArgumentException if a UID appears more than once in
+     * either calendar
+     */
+    public static CalendarDiff between(VCalendar previous, VCalendar current) {
+        var diff = new CalendarDiff(current);
+        var previousEvents = byUID(previous, "previous");
+
+        byUID(current, "current");
+
+        for (var event : current.getEventList()) {
+            var old = previousEvents.remove(event.getUID());
+
+            if (old == null) {
+                diff.added.add(event);
+
+                continue;
+            }
+
+            int oldSequence = old.getSequence().orElse(0);
+            int newSequence = event.getSequence().orElse(0);
+
+            if (old.fingerprint() != event.fingerprint()) {
+                event.setSequence(newSequence > oldSequence ? newSequence : oldSequence + 1);
+
+                diff.changed.add(event);
+            } else {
+                old.getSequence().ifPresent(s -> event.setSequence(Math.max(s, newSequence)));
+
+                ++diff.unchangedCount;
+            }
+        }
+
+        for (var event : previousEvents.values()) {
+            event.setSequence(event.getSequence().orElse(0) + 1);
+            event.setStatus(StatusType.CANCELLED);
+
+            diff.removed.add(event);
+        }
+
+        return diff;
+    }
+
+    /*
+    The events of a calendar by UID in calendar order.
+    */
+    private static LinkedHashMap<String, VEvent> byUID(VCalendar cal, String name) {
+        var result = new LinkedHashMap<String, VEvent>(cal.getEventList().size() * 4 / 3 + 1);
+
+        for (var event : cal.getEventList()) {
+            if (result.put(event.getUID(), event) != null) {
+                throw new IllegalArgumentException("UID " + event.getUID() + " appears more than once in the " + name + " calendar");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the events that are new in the current version
+     * @return the new events
+     */
+    public List<VEvent> getAdded() {
+        return added;
+    }
+
+    /**
+     * Get the events that have changed. Their SEQUENCE has been bumped.
+     * @return the changed events
+     */
+    public List<VEvent> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Get the events that are no longer in the current version. They have been
+     * marked as cancelled and their SEQUENCE has been bumped.
+     * @return the removed events
+     */
+    public List<VEvent> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Get the number of events that did not change
+     * @return the number of unchanged events
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * Returns true if there is nothing to send
+     * @return true if the two versions have the same events
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Returns a REQUEST invite for each new and changed event. Each invite
+     * has a single event since every event has its own attendees.
+     * @return the REQUEST invites
+     */
+    public List<VCalendar> toRequests() {
+        var result = new ArrayList<VCalendar>(added.size() + changed.size());
+
+        added.forEach(e -> result.add(message(MethodType.REQUEST, e)));
+        changed.forEach(e -> result.add(message(MethodType.REQUEST, e)));
+
+        return result;
+    }
+
+    /**
+     * Returns a CANCEL message for each removed event.
+     * @return the CANCEL messages
+     */
+    public List<VCalendar> toCancels() {
+        var result = new ArrayList<VCalendar>(removed.size());
+
+        removed.forEach(e -> result.add(message(MethodType.CANCEL, e)));
+
+        return result;
+    }
+
+    /**
+     * Returns all the messages needed to bring the attendees up to date.
+     * @return the REQUEST and CANCEL messages
+     */
+    public List<VCalendar> toMessages() {
+        var result = toRequests();
+
+        result.addAll(toCancels());
+
+        return result;
+    }
+
+    private VCalendar message(MethodType method, VEvent event) {
+        var cal = VCalendar.builder()
+            .method(method)
+            .event(event)
+            .build();
+
+        cal.setProductId(current.getProductId());
+        current.getVTimeZones().forEach(cal::addVTimeZone);
+
+        return cal;
+    }
+}
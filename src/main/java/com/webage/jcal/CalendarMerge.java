@@ -0,0 +1,479 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges several calendars into one without sorting them all in memory.
+ * Each source must already be in start order, see byStart(). The merged
+ * events come out in start order as well. Ties keep the order of the
+ * sources.
+ *
+ * Events with the same UID are kept once. The one with the highest
+ * SEQUENCE wins. If two have the same SEQUENCE the one from the earlier
+ * source wins. The VTIMEZONE blocks of all the sources are merged by TZID.
+ *
+ * <pre>
+ * var merge = CalendarMerge.builder()
+ *     .source(work)
+ *     .source(home)
+ *     .source(holidays)
+ *     .build();
+ *
+ * merge.writeTo(out);
+ * </pre>
+ *
+ * Every pass over the merged events reads the sources twice. The first
+ * read only notes the UID and SEQUENCE of each event in a table of 16
+ * bytes per UID. The second read merges the sources with a heap that
+ * holds one event per source.
+ */
+public final class CalendarMerge implements Iterable<VEvent> {
+    private final List<Iterable<VEvent>> sources;
+    private final List<String> vTimeZones;
+    private final MethodType method;
+    private final String productId;
+
+    private CalendarMerge(List<Iterable<VEvent>> sources, List<String> vTimeZones, MethodType method, String productId) {
+        this.sources = sources;
+        this.vTimeZones = vTimeZones;
+        this.method = method;
+        this.productId = productId;
+    }
+
+    /**
+     * Returns the merged events one at a time.
+     * @return the events in start order
+     * @throws IllegalStateException from next() if a source is not in start order
+     */
+    @Override
+    public Iterator<VEvent> iterator() {
+        var starts = new StartTimes();
+        var latest = new UidTable();
+
+        for (int s = 0; s < sources.size(); ++s) {
+            for (var event : sources.get(s)) {
+                if (event.getUID() != null) {
+                    latest.offer(Util.hash64(event.getUID()), event.getSequence().orElse(0), s);
+                }
+            }
+        }
+
+        return new Merger(starts, latest);
+    }
+
+    /**
+     * Get the VTIMEZONE blocks of all the sources. A TZID is only kept once.
+     * @return the VTIMEZONE blocks
+     */
+    public List<String> getVTimeZones() {
+        return vTimeZones;
+    }
+
+    /**
+     * Writes the merged calendar in UTF-8. The events are merged while they
+     * are written and are not kept in memory.
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        var ctx = SerializationContext.acquire();
+
+        try {
+            header().writeTo(out, ctx, this);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    /**
+     * Merges the sources into a new calendar.
+     * @return the calendar
+     */
+    public VCalendar toCalendar() {
+        var cal = header();
+        var events = new ArrayList<VEvent>();
+
+        forEach(events::add);
+        cal.setEventList(events);
+
+        return cal;
+    }
+
+    private VCalendar header() {
+        var cal = new VCalendar();
+
+        cal.setMethod(method);
+        cal.setProductId(productId);
+        cal.setVTimeZones(new ArrayList<>(vTimeZones));
+
+        return cal;
+    }
+
+    /**
+     * Returns a comparator that puts events in the order the merge needs.
+     * Events are ordered by the UTC time of DTSTART. A day long event
+     * starts at midnight UTC. Events without DTSTART come first.
+     * @return the comparator
+     */
+    public static Comparator<VEvent> byStart() {
+        var starts = new StartTimes();
+
+        return (a, b) -> Long.compare(starts.of(a), starts.of(b));
+    }
+
+    /*
+    Finds the UTC epoch second of DTSTART. The time zone tables are looked
+    up once per ID. Outlook time zone IDs are mapped to IANA ones. An ID that
+    can not be resolved is treated as UTC.
+    */
+    private static final class StartTimes {
+        private final Map<String, ZoneOffsetTable> tables = new HashMap<>();
+
+        long of(VEvent event) {
+            if (!event.hasStart()) {
+                return Long.MIN_VALUE;
+            }
+
+            long local = event.getStartLocalEpochSecond();
+            var tzId = event.getStartTimeZoneId();
+
+            return tzId.isEmpty() ? local : tables.computeIfAbsent(tzId.get(), ZoneOffsetTable::ofCalendarZone).toEpochSecond(local);
+        }
+    }
+
+    /*
+    The highest SEQUENCE of each UID and the source it is in. A UID is known
+    by its 64 bit hash, which is held in an open addressing table. A value
+    packs the SEQUENCE in the high half and the source in the low half.
+    */
+    private static final class UidTable {
+        private static final long EMPTY = 0;
+        private static final int EMITTED = -1;
+        private long[] hashes = new long[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        void offer(long hash, int sequence, int source) {
+            int i = slot(hash);
+
+            if (hashes[i] == EMPTY) {
+                hashes[i] = key(hash);
+                values[i] = pack(sequence, source);
+
+                if (++size * 4 > hashes.length * 3) {
+                    grow();
+                }
+            } else if (sequence > (int) (values[i] >> 32)) {
+                values[i] = pack(sequence, source);
+            }
+        }
+
+        /*
+        True if the event is the one to keep for its UID and has not been
+        kept yet. It is then marked so that a copy of it is not kept again.
+        */
+        boolean take(long hash, int sequence, int source) {
+            int i = slot(hash);
+
+            if (hashes[i] == EMPTY || values[i] != pack(sequence, source)) {
+                return false;
+            }
+
+            values[i] = pack(sequence, EMITTED);
+
+            return true;
+        }
+
+        private int slot(long hash) {
+            long key = key(hash);
+            int mask = hashes.length - 1;
+            int i = (int) key & mask;
+
+            while (hashes[i] != EMPTY && hashes[i] != key) {
+                i = (i + 1) & mask;
+            }
+
+            return i;
+        }
+
+        private void grow() {
+            var oldHashes = hashes;
+            var oldValues = values;
+
+            hashes = new long[oldHashes.length * 2];
+            values = new long[oldValues.length * 2];
+
+            for (int i = 0; i < oldHashes.length; ++i) {
+                if (oldHashes[i] != EMPTY) {
+                    int j = slot(oldHashes[i]);
+
+                    hashes[j] = oldHashes[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+
+        private static long key(long hash) {
+            return hash == EMPTY ? 1 : hash;
+        }
+
+        private static long pack(int sequence, int source) {
+            return (long) sequence << 32 | (source & 0xFFFFFFFFL);
+        }
+    }
+
+    /*
+    The k-way merge. The heap holds the source numbers ordered by the start
+    time of the next event of each source, then by source number.
+    */
+    private final class Merger implements Iterator<VEvent> {
+        private final StartTimes starts;
+        private final UidTable latest;
+        private final List<Iterator<VEvent>> iterators = new ArrayList<>();
+        private final VEvent[] heads;
+        private final long[] keys;
+        private final int[] heap;
+        private int heapSize;
+        private VEvent next;
+
+        Merger(StartTimes starts, UidTable latest) {
+            int n = sources.size();
+
+            this.starts = starts;
+            this.latest = latest;
+            this.heads = new VEvent[n];
+            this.keys = new long[n];
+            this.heap = new int[n];
+
+            for (int s = 0; s < n; ++s) {
+                iterators.add(sources.get(s).iterator());
+                keys[s] = Long.MIN_VALUE;
+
+                if (advance(s)) {
+                    heap[heapSize] = s;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && heapSize > 0) {
+                int s = heap[0];
+                var event = heads[s];
+
+                if (advance(s)) {
+                    siftDown(0);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(0);
+                }
+
+                if (keep(event, s)) {
+                    next = event;
+                }
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public VEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            var event = next;
+
+            next = null;
+
+            return event;
+        }
+
+        private boolean keep(VEvent event, int source) {
+            return event.getUID() == null
+                || latest.take(Util.hash64(event.getUID()), event.getSequence().orElse(0), source);
+        }
+
+        private boolean advance(int s) {
+            var it = iterators.get(s);
+
+            if (!it.hasNext()) {
+                heads[s] = null;
+
+                return false;
+            }
+
+            var event = it.next();
+            long key = starts.of(event);
+
+            if (key < keys[s]) {
+                throw new IllegalStateException("Source " + s + " is not in start order at UID " + event.getUID());
+            }
+
+            heads[s] = event;
+            keys[s] = key;
+
+            return true;
+        }
+
+        private boolean less(int a, int b) {
+            return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+        }
+
+        private void siftUp(int i) {
+            int s = heap[i];
+
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+
+                if (!less(s, heap[parent])) {
+                    break;
+                }
+
+                heap[i] = heap[parent];
+                i = parent;
+            }
+
+            heap[i] = s;
+        }
+
+        private void siftDown(int i) {
+            if (heapSize == 0) {
+                return;
+            }
+
+            int s = heap[i];
+
+            while (true) {
+                int child = 2 * i + 1;
+
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && less(heap[child + 1], heap[child])) {
+                    ++child;
+                }
+                if (!less(heap[child], s)) {
+                    break;
+                }
+
+                heap[i] = heap[child];
+                i = child;
+            }
+
+            heap[i] = s;
+        }
+    }
+
+    /*
+    The TZID of a VTIMEZONE block, or the whole block if it has none.
+    */
+    private static String tzIdOf(String vTimeZone) {
+        int i = vTimeZone.indexOf("\nTZID:");
+
+        if (i < 0) {
+            return vTimeZone;
+        }
+
+        i += "\nTZID:".length();
+
+        int end = vTimeZone.indexOf('\r', i);
+
+        return vTimeZone.substring(i, end < 0 ? vTimeZone.length() : end);
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a merge.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a merge.
+     */
+    public static class Builder {
+        private final List<Iterable<VEvent>> sources = new ArrayList<>();
+        private final Map<String, String> vTimeZones = new LinkedHashMap<>();
+        private MethodType method = MethodType.REQUEST;
+        private String productId = "jcal";
+
+        /**
+         * Adds the events and VTIMEZONE blocks of a calendar. The events
+         * must be in start order.
+         * @param calendar the calendar
+         * @return the builder
+         */
+        public Builder source(VCalendar calendar) {
+            return source(calendar.getEventList(), calendar.getVTimeZones());
+        }
+
+        /**
+         * Adds events that are in start order. They are read twice each time
+         * the merge is read.
+         * @param events the events
+         * @return the builder
+         */
+        public Builder source(Iterable<VEvent> events) {
+            return source(events, List.of());
+        }
+
+        /**
+         * Adds events that are in start order and the VTIMEZONE blocks they use.
+         * @param events the events
+         * @param vTimeZones the VTIMEZONE blocks
+         * @return the builder
+         */
+        public Builder source(Iterable<VEvent> events, Collection<String> vTimeZones) {
+            sources.add(events);
+
+            for (var tz : vTimeZones) {
+                this.vTimeZones.putIfAbsent(tzIdOf(tz), tz);
+            }
+
+            return this;
+        }
+
+        /**
+         * Sets the METHOD of the merged calendar. The default is REQUEST.
+         * @param method the method
+         * @return the builder
+         */
+        public Builder method(MethodType method) {
+            this.method = method;
+
+            return this;
+        }
+
+        /**
+         * Sets the PRODID of the merged calendar. The default is jcal.
+         * @param productId the PRODID
+         * @return the builder
+         */
+        public Builder productId(String productId) {
+            this.productId = productId;
+
+            return this;
+        }
+
+        /**
+         * Returns the merge
+         * @return the merge
+         */
+        public CalendarMerge build() {
+            return new CalendarMerge(new ArrayList<>(sources), List.copyOf(vTimeZones.values()), method, productId);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The common part of the jCal and xCal writers. Both formats are a tree of
+ * components, each with properties and sub-components. The tree is built
+ * from the fields of the calendar and its events, so text and parameter
+ * values are written as they are, with no iCalendar escaping to undo. Only
+ * VTIMEZONE, which the model keeps as iCalendar text, is read from its
+ * content lines. A calendar is translated one event at a time. Output is
+ * buffered and written to the Writer or stream in chunks.
+ *
+ * Subclasses write the tree. Values are typed the way RFC 5545 types them
+ * by default, or by the VALUE parameter.
+ */
+abstract class ComponentWriter {
+    private static final int WRITE_CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_DEPTH = 16;
+
+    private static final Map<String, String> TYPES = Map.ofEntries(
+        Map.entry("DTSTART", "date-time"),
+        Map.entry("DTEND", "date-time"),
+        Map.entry("DTSTAMP", "date-time"),
+        Map.entry("CREATED", "date-time"),
+        Map.entry("LAST-MODIFIED", "date-time"),
+        Map.entry("RECURRENCE-ID", "date-time"),
+        Map.entry("EXDATE", "date-time"),
+        Map.entry("RDATE", "date-time"),
+        Map.entry("DUE", "date-time"),
+        Map.entry("COMPLETED", "date-time"),
+        Map.entry("TZOFFSETFROM", "utc-offset"),
+        Map.entry("TZOFFSETTO", "utc-offset"),
+        Map.entry("RRULE", "recur"),
+        Map.entry("EXRULE", "recur"),
+        Map.entry("SEQUENCE", "integer"),
+        Map.entry("PRIORITY", "integer"),
+        Map.entry("PERCENT-COMPLETE", "integer"),
+        Map.entry("REPEAT", "integer"),
+        Map.entry("ORGANIZER", "cal-address"),
+        Map.entry("ATTENDEE", "cal-address"),
+        Map.entry("URL", "uri"),
+        Map.entry("TZURL", "uri"),
+        Map.entry("ATTACH", "uri"),
+        Map.entry("DURATION", "duration"),
+        Map.entry("TRIGGER", "duration")
+    );
+    private static final Set<String> NUMERIC_RECUR_PARTS = Set.of(
+        "count", "interval", "bysecond", "byminute", "byhour", "bymonthday", "byyearday", "byweekno", "bymonth", "bysetpos");
+
+    private final Writer writer;
+    private final OutputStream stream;
+    private final SerializationContext outCtx;
+    //The output that is not yet written
+    final StringBuilder out;
+    private final String[] names = new String[MAX_DEPTH];
+    private final boolean[] inProperties = new boolean[MAX_DEPTH];
+    private final int[] items = new int[MAX_DEPTH];
+    private int depth;
+
+    ComponentWriter(Writer writer, OutputStream stream) {
+        this.writer = writer;
+        this.stream = stream;
+        this.outCtx = SerializationContext.acquire();
+        this.out = outCtx.chars();
+    }
+
+    /**
+     * Writes the document start
+     */
+    abstract void startDocument();
+
+    /**
+     * Writes the document end
+     */
+    abstract void endDocument();
+
+    /**
+     * Writes the start of a component and its properties.
+     * @param name the component name in lower case
+     * @param first true if this is the first component in its parent
+     */
+    abstract void beginComponent(String name, boolean first);
+
+    /**
+     * Writes the end of the properties of a component.
+     * @param hasComponents true if sub-components follow
+     */
+    abstract void endProperties(boolean hasComponents);
+
+    /**
+     * Writes the end of a component.
+     * @param name the component name in lower case
+     * @param hasComponents true if the component had sub-components
+     */
+    abstract void endComponent(String name, boolean hasComponents);
+
+    /**
+     * Writes a property.
+     * @param name the property name in lower case
+     * @param parameters the parameters without VALUE. Each is a name in
+     * lower case and a value.
+     * @param type the value type, such as "date-time"
+     * @param value the value. Text is not escaped. Other types are in the
+     * iCalendar form, such as "20240506T093000".
+     * @param first true if this is the first property of the component
+     */
+    abstract void writeProperty(String name, List<String[]> parameters, String type, String value, boolean first);
+
+    /**
+     * Writes a calendar and releases the buffers. The Writer or stream is
+     * flushed but not closed.
+     * @param calendar the calendar
+     * @throws IOException if the output fails
+     */
+    final void write(VCalendar calendar) throws IOException {
+        try {
+            startDocument();
+            begin("vcalendar");
+
+            property("prodid", "text", calendar.getProductId());
+            property("version", "text", "2.0");
+            property("calscale", "text", "GREGORIAN");
+            property("method", "text", calendar.getMethod().getMethod());
+
+            for (var tz : calendar.getVTimeZones()) {
+                translate(tz);
+            }
+
+            for (var event : calendar.getEventList()) {
+                event.writeComponent(this);
+
+                if (out.length() >= WRITE_CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            end();
+            endDocument();
+            flush();
+
+            if (writer != null) {
+                writer.flush();
+            } else {
+                stream.flush();
+            }
+        } finally {
+            outCtx.release();
+        }
+    }
+
+    /**
+     * Writes a property of the component that is open.
+     * @param name the property name in lower case
+     * @param type the value type, such as "date-time"
+     * @param value the value. Text is not escaped.
+     * @param parameters parameter names in lower case, each followed by its
+     * value. A parameter with a null value is left out.
+     */
+    final void property(String name, String type, String value, String... parameters) {
+        var params = new ArrayList<String[]>(parameters.length / 2);
+
+        for (int i = 0; i < parameters.length; i += 2) {
+            if (parameters[i + 1] != null) {
+                params.add(new String[] {parameters[i], parameters[i + 1]});
+            }
+        }
+
+        writeProperty(name, params, type, value, items[depth - 1]++ == 0);
+    }
+
+    /**
+     * Writes components and properties from iCalendar text, such as a
+     * VTIMEZONE. The text is unfolded and unescaped.
+     * @param ics the content lines
+     */
+    final void translate(CharSequence ics) {
+        for (var line : ContentLines.of(ics)) {
+            var name = line.getName();
+
+            if (name.equals("BEGIN")) {
+                begin(line.getValue().toLowerCase(Locale.ROOT));
+            } else if (name.equals("END")) {
+                end();
+            } else {
+                var type = typeOf(line);
+                var value = type.equals("text") ? Util.unescape(line.getValue()) : line.getValue();
+
+                writeProperty(name.toLowerCase(Locale.ROOT), parameters(line), type, value, items[depth - 1]++ == 0);
+            }
+        }
+    }
+
+    /**
+     * Writes the start of a component.
+     * @param name the component name in lower case
+     */
+    final void begin(String name) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Components are nested too deep at " + name);
+        }
+        if (depth > 0 && inProperties[depth - 1]) {
+            endProperties(true);
+            inProperties[depth - 1] = false;
+            items[depth - 1] = 0;
+        }
+
+        beginComponent(name, depth == 0 || items[depth - 1]++ == 0);
+        names[depth] = name;
+        inProperties[depth] = true;
+        items[depth] = 0;
+        ++depth;
+    }
+
+    /**
+     * Writes the end of the component that is open.
+     */
+    final void end() {
+        --depth;
+
+        if (inProperties[depth]) {
+            endProperties(false);
+        }
+
+        endComponent(names[depth], !inProperties[depth]);
+    }
+
+    private void flush() throws IOException {
+        if (writer != null) {
+            writer.append(out);
+        } else {
+            Util.writeUTF8(out, stream, outCtx.bytes());
+        }
+
+        out.setLength(0);
+    }
+
+    /*
+    The VALUE parameter, or the default type of the property.
+    */
+    private static String typeOf(ContentLines.Line line) {
+        var value = line.getParameter("VALUE");
+
+        if (value.isPresent()) {
+            return value.get().toLowerCase(Locale.ROOT);
+        }
+
+        var name = line.getName();
+
+        return TYPES.getOrDefault(name, name.startsWith("X-") ? "unknown" : "text");
+    }
+
+    /*
+    The parameters of a line, without VALUE. The names are in lower case.
+    */
+    private static List<String[]> parameters(ContentLines.Line line) {
+        var result = new ArrayList<String[]>();
+
+        line.getParameters().forEach((name, value) -> {
+            if (!name.equals("VALUE")) {
+                result.add(new String[] {name.toLowerCase(Locale.ROOT), value});
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Converts an iCalendar date or date and time to the ISO form.
+     * "20240506T093000Z" becomes "2024-05-06T09:30:00Z". A value of another
+     * shape is returned as is.
+     * @param value the value
+     * @return the ISO form
+     */
+    static String isoDateTime(String value) {
+        int length = value.length();
+
+        if (length != 8 && length != 15 && !(length == 16 && value.charAt(15) == 'Z')) {
+            return value;
+        }
+
+        var sb = new StringBuilder(20)
+            .append(value, 0, 4).append('-')
+            .append(value, 4, 6).append('-')
+            .append(value, 6, 8);
+
+        if (length > 8) {
+            sb.append('T')
+                .append(value, 9, 11).append(':')
+                .append(value, 11, 13).append(':')
+                .append(value, 13, length);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Converts an iCalendar UTC offset to the ISO form. "-0500" becomes "-05:00".
+     * @param value the value
+     * @return the ISO form
+     */
+    static String isoUtcOffset(String value) {
+        if (value.length() != 5 && value.length() != 7) {
+            return value;
+        }
+
+        var sb = new StringBuilder(9).append(value, 0, 3).append(':').append(value, 3, 5);
+
+        if (value.length() == 7) {
+            sb.append(':').append(value, 5, 7);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Splits a RECUR value into its parts. Each part is a name in lower
+     * case and one or more values.
+     * @param value the value
+     * @return the parts
+     */
+    static List<String[]> recurParts(String value) {
+        var result = new ArrayList<String[]>();
+
+        for (var part : value.split(";")) {
+            int eq = part.indexOf('=');
+
+            if (eq > 0) {
+                var name = part.substring(0, eq).toLowerCase(Locale.ROOT);
+                var values = part.substring(eq + 1).split(",");
+
+                if (name.equals("until")) {
+                    values[0] = isoDateTime(values[0]);
+                }
+
+                var p = new String[values.length + 1];
+
+                p[0] = name;
+                System.arraycopy(values, 0, p, 1, values.length);
+                result.add(p);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns true if a RECUR part has numbers for values.
+     * @param name the part name in lower case
+     * @return true if the values are numbers
+     */
+    static boolean isNumericRecurPart(String name) {
+        return NUMERIC_RECUR_PARTS.contains(name);
+    }
+}
@@ -0,0 +1,240 @@
+package com.webage.jcal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Reads the content lines of an iCalendar text. Folded lines are joined.
+ * Both CRLF and a bare LF end a line. Blank lines are skipped.
+ */
+final class ContentLines implements Iterable<ContentLines.Line> {
+    private final CharSequence text;
+
+    private ContentLines(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Returns the content lines of a text.
+     * @param text the iCalendar text
+     * @return the content lines
+     */
+    static ContentLines of(CharSequence text) {
+        return new ContentLines(text);
+    }
+
+    @Override
+    public Iterator<Line> iterator() {
+        return new Iterator<>() {
+            private int pos;
+            private Line next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Line next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                var line = next;
+
+                next = advance();
+
+                return line;
+            }
+
+            private Line advance() {
+                int length = text.length();
+
+                while (pos < length) {
+                    var sb = new StringBuilder(80);
+
+                    while (pos < length) {
+                        char c = text.charAt(pos++);
+
+                        if (c == '\r' && pos < length && text.charAt(pos) == '\n') {
+                            continue;
+                        }
+                        if (c == '\n') {
+                            //A line that starts with a space or tab continues the previous line
+                            if (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+                                ++pos;
+
+                                continue;
+                            }
+
+                            break;
+                        }
+
+                        sb.append(c);
+                    }
+
+                    if (sb.length() > 0) {
+                        return parseLine(sb.toString());
+                    }
+                }
+
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Parses an unfolded content line.
+     * @param text the line
+     * @return the line
+     * @throws IllegalArgumentException if the line has no colon
+     */
+    static Line parseLine(String text) {
+        int nameEnd = -1;
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ';' || c == ':') && nameEnd < 0) {
+                nameEnd = i;
+            }
+
+            if (!quoted && c == ':') {
+                return new Line(text, nameEnd, i + 1);
+            }
+        }
+
+        throw new IllegalArgumentException("Not a content line: " + text);
+    }
+
+    /**
+     * A content line: a name, parameters and a value.
+     */
+    static final class Line {
+        private final String text;
+        private final String name;
+        private final int nameEnd;
+        private final int valueStart;
+
+        Line(String text, int nameEnd, int valueStart) {
+            this.text = text;
+            this.name = text.substring(0, nameEnd).toUpperCase(Locale.ROOT);
+            this.nameEnd = nameEnd;
+            this.valueStart = valueStart;
+        }
+
+        /**
+         * Get the property name in upper case
+         * @return the name
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Get the value. It is not unescaped.
+         * @return the value
+         */
+        String getValue() {
+            return text.substring(valueStart);
+        }
+
+        /**
+         * Get the whole line
+         * @return the line
+         */
+        String getText() {
+            return text;
+        }
+
+        /**
+         * Get the value of a parameter. Quotes are removed.
+         * @param paramName the parameter name
+         * @return the value
+         */
+        Optional<String> getParameter(String paramName) {
+            int pos = nameEnd;
+            int paramsEnd = valueStart - 1;
+
+            while (pos < paramsEnd) {
+                //text.charAt(pos) is the ';' in front of a parameter
+                int start = pos + 1;
+                int end = start;
+                boolean quoted = false;
+
+                while (end < paramsEnd && (quoted || text.charAt(end) != ';')) {
+                    if (text.charAt(end) == '"') {
+                        quoted = !quoted;
+                    }
+
+                    ++end;
+                }
+
+                int eq = text.indexOf('=', start);
+
+                if (eq > 0 && eq < end && text.regionMatches(true, start, paramName, 0, paramName.length())
+                        && eq - start == paramName.length()) {
+                    var value = text.substring(eq + 1, end);
+
+                    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+
+                    return Optional.of(value);
+                }
+
+                pos = end;
+            }
+
+            return Optional.empty();
+        }
+
+        /**
+         * Get all the parameters in the order they appear. The names are in
+         * upper case. Quotes are removed from the values.
+         * @return the parameters
+         */
+        Map<String, String> getParameters() {
+            var result = new LinkedHashMap<String, String>();
+            int pos = nameEnd;
+            int paramsEnd = valueStart - 1;
+
+            while (pos < paramsEnd) {
+                int start = pos + 1;
+                int end = start;
+                boolean quoted = false;
+
+                while (end < paramsEnd && (quoted || text.charAt(end) != ';')) {
+                    if (text.charAt(end) == '"') {
+                        quoted = !quoted;
+                    }
+
+                    ++end;
+                }
+
+                int eq = text.indexOf('=', start);
+
+                if (eq > 0 && eq < end) {
+                    var value = text.substring(eq + 1, end);
+
+                    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+
+                    result.put(text.substring(start, eq).toUpperCase(Locale.ROOT), value);
+                }
+
+                pos = end;
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.webage.jcal;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A calendar invite encoded in UTF-8 together with a digest of the bytes.
+ * The digest is computed while the invite is written. Use the ETag to
+ * answer a conditional GET of an ICS feed with 304 Not Modified.
+ */
+public final class EncodedCalendar {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ByteBuffer bytes;
+    private final byte[] digest;
+    private String eTag;
+
+    EncodedCalendar(ByteBuffer bytes, byte[] digest) {
+        this.bytes = bytes;
+        this.digest = digest;
+    }
+
+    /**
+     * Get the UTF-8 encoded invite. Each call returns a new view of the same bytes.
+     * @return the bytes
+     */
+    public ByteBuffer getBytes() {
+        return bytes.duplicate();
+    }
+
+    /**
+     * Get the number of bytes
+     * @return the number of bytes
+     */
+    public int getLength() {
+        return bytes.remaining();
+    }
+
+    /**
+     * Get the digest of the bytes
+     * @return the digest
+     */
+    public byte[] getDigest() {
+        return digest.clone();
+    }
+
+    /**
+     * Get a strong ETag made from the digest. The value is quoted
+     * and can be used as the ETag header as is.
+     * @return the ETag
+     */
+    public String getETag() {
+        if (eTag == null) {
+            var sb = new StringBuilder(digest.length * 2 + 2);
+
+            sb.append('"');
+
+            for (byte b : digest) {
+                sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+
+            sb.append('"');
+
+            eTag = sb.toString();
+        }
+
+        return eTag;
+    }
+
+    /**
+     * Checks the value of an If-None-Match request header against the ETag.
+     * If this returns true the server should reply with 304 Not Modified.
+     *
+     * @param ifNoneMatch the header value. Can be null.
+     * @return true if the client already has this version
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        var tag = getETag();
+
+        for (var candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            //If-None-Match uses the weak comparison
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+    Hands out the internal array without a copy.
+    */
+    static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(8192);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of encoded events that keeps the bytes outside the Java heap.
+ * A feed with millions of events can be served without encoding them
+ * again, and without the garbage collector having to walk the bytes.
+ *
+ * <pre>
+ * var cache = EncodedEventCache.builder().maxBytes(512L * 1024 * 1024).build();
+ *
+ * calendar.writeTo(channel, cache);
+ * </pre>
+ *
+ * An event is keyed by its UID and SEQUENCE. An event that is changed
+ * should get a higher SEQUENCE, as RFC 5545 asks for. Call invalidate()
+ * for a change that keeps the SEQUENCE, such as an attendee's reply.
+ * Events without a UID are encoded every time.
+ *
+ * The budget is split into segments, each with its own lock and its own
+ * direct buffer. A segment is allocated when the first event is put in it.
+ * The buffer is cut into blocks and an event takes as many blocks as it
+ * needs, so the cache never holds more than maxBytes. Each segment evicts
+ * its least recently used events. An event larger than 64 KB is not cached.
+ */
+public final class EncodedEventCache {
+    private static final int STAGING_SIZE = 64 * 1024;
+
+    private final Segment[] segments;
+    private final long maxBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    //Direct buffers are costly to allocate. Writers reuse them.
+    private final ConcurrentLinkedQueue<ByteBuffer> stagingBuffers = new ConcurrentLinkedQueue<>();
+
+    private EncodedEventCache(long maxBytes, int blockSize, int segmentCount) {
+        long blocks = maxBytes / segmentCount / blockSize;
+
+        if (blocks < 1) {
+            throw new IllegalArgumentException("maxBytes is too small for " + segmentCount + " segments of " + blockSize + " byte blocks");
+        }
+        if (blocks * blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A segment can not be larger than 2GB. Use more segments.");
+        }
+
+        segments = new Segment[segmentCount];
+
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new Segment((int) blocks, blockSize, evictions);
+        }
+
+        this.maxBytes = blocks * blockSize * segmentCount;
+    }
+
+    /**
+     * Writes an event from the cache, or encodes it, writes it and puts it
+     * in the cache.
+     */
+    void write(VEvent event, Output out, SerializationContext ctx) throws IOException {
+        var key = Key.of(event);
+        Segment segment = null;
+
+        if (key != null) {
+            segment = segmentOf(key.uid);
+
+            if (copy(segment, key, out)) {
+                hits.increment();
+
+                return;
+            }
+
+            misses.increment();
+        }
+
+        var sb = ctx.chars();
+        var buff = ctx.bytes();
+        var encoded = out.scratch;
+
+        encoded.reset();
+        event.writeTo(sb, encoded, buff);
+        Util.writeUTF8(sb, encoded, buff);
+
+        var bytes = encoded.toByteBuffer();
+
+        //A hit must fit in the staging buffer, or it would need a buffer of its own
+        if (segment != null && bytes.limit() <= STAGING_SIZE) {
+            segment.put(key, bytes.array(), bytes.limit());
+        }
+
+        out.write(bytes.array(), 0, bytes.limit());
+    }
+
+    /*
+    Copies a cached event into the staging buffer of the output. Returns
+    false if the event is not cached.
+    */
+    private boolean copy(Segment segment, Key key, Output out) throws IOException {
+        var staging = out.staging;
+        int start = staging.position();
+        int length = segment.copyTo(key, staging);
+
+        if (length < 0) {
+            return false;
+        }
+        if (staging.position() != start) {
+            return true;
+        }
+
+        //It did not fit in what is left of the staging buffer
+        out.drain();
+
+        //It may have been removed in the meantime
+        return segment.copyTo(key, staging) >= 0 && staging.position() != 0;
+    }
+
+    /**
+     * Returns a stream that writes to a channel through a direct staging
+     * buffer. Hand it back with release().
+     */
+    Output open(WritableByteChannel channel) {
+        var staging = stagingBuffers.poll();
+
+        if (staging == null) {
+            staging = ByteBuffer.allocateDirect(STAGING_SIZE);
+        }
+
+        return new Output(channel, staging);
+    }
+
+    void release(Output out) {
+        out.staging.clear();
+        stagingBuffers.offer(out.staging);
+    }
+
+    /**
+     * Removes every SEQUENCE of an event.
+     * @param uid the UID of the event
+     */
+    public void invalidate(String uid) {
+        segmentOf(uid).removeUID(uid);
+    }
+
+    /**
+     * Removes every event. The memory stays allocated for new events.
+     */
+    public void clear() {
+        for (var segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached events
+     * @return the number of events
+     */
+    public int size() {
+        int size = 0;
+
+        for (var segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Get the number of bytes taken by cached events. An event takes whole
+     * blocks, so this is a little more than the length of the events.
+     * @return the number of bytes
+     */
+    public long getBytes() {
+        long bytes = 0;
+
+        for (var segment : segments) {
+            bytes += segment.bytes();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Get the most bytes the cache holds. This is maxBytes rounded down to
+     * whole blocks.
+     * @return the number of bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the number of events that were written from the cache
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of events that had to be encoded
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of events removed to make room for others
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentOf(String uid) {
+        return segments[(int) ((Util.mix64(uid.hashCode()) >>> 1) % segments.length)];
+    }
+
+    private static final class Key {
+        private final String uid;
+        private final int sequence;
+
+        private Key(String uid, int sequence) {
+            this.uid = uid;
+            this.sequence = sequence;
+        }
+
+        /*
+        Null if the event has no UID.
+        */
+        static Key of(VEvent event) {
+            var uid = event.getUID();
+
+            return uid == null ? null : new Key(uid, event.getSequence().orElse(-1));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            var k = (Key) o;
+
+            return sequence == k.sequence && uid.equals(k.uid);
+        }
+
+        @Override
+        public int hashCode() {
+            return uid.hashCode() * 31 + sequence;
+        }
+    }
+
+    /*
+    The blocks of an event in the order they are read.
+    */
+    private static final class Entry {
+        final int[] blocks;
+        final int length;
+
+        Entry(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+    }
+
+    /*
+    A part of the cache with its own lock and direct buffer. The LinkedHashMap
+    is in access order, so the eldest entry is the least recently used.
+    */
+    private static final class Segment {
+        private final int blockCount;
+        private final int blockSize;
+        private final LongAdder evictions;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private ByteBuffer slab;
+        //A stack of the blocks not in use
+        private int[] free;
+        private int freeCount;
+
+        Segment(int blockCount, int blockSize, LongAdder evictions) {
+            this.blockCount = blockCount;
+            this.blockSize = blockSize;
+            this.evictions = evictions;
+        }
+
+        /*
+        Returns the length of an event, or -1 if it is not cached. The bytes
+        are copied to dst only if they fit in what is left of it.
+        */
+        synchronized int copyTo(Key key, ByteBuffer dst) {
+            var entry = entries.get(key);
+
+            if (entry == null) {
+                return -1;
+            }
+            if (entry.length > dst.remaining()) {
+                return entry.length;
+            }
+
+            int left = entry.length;
+
+            for (int block : entry.blocks) {
+                int start = block * blockSize;
+                int n = Math.min(left, blockSize);
+
+                slab.limit(start + n).position(start);
+                dst.put(slab);
+                left -= n;
+            }
+
+            slab.clear();
+
+            return entry.length;
+        }
+
+        synchronized void put(Key key, byte[] bytes, int length) {
+            int needed = (length + blockSize - 1) / blockSize;
+
+            //Bigger than the whole segment. Caching it would flush everything else.
+            if (needed > blockCount || needed == 0) {
+                return;
+            }
+
+            if (slab == null) {
+                slab = ByteBuffer.allocateDirect(blockCount * blockSize);
+                free = new int[blockCount];
+
+                for (int i = 0; i < blockCount; ++i) {
+                    free[i] = blockCount - 1 - i;
+                }
+
+                freeCount = blockCount;
+            }
+
+            var old = entries.remove(key);
+
+            if (old != null) {
+                release(old);
+            }
+
+            var it = entries.values().iterator();
+
+            while (freeCount < needed) {
+                release(it.next());
+                it.remove();
+                evictions.increment();
+            }
+
+            var blocks = new int[needed];
+            int offset = 0;
+
+            for (int i = 0; i < needed; ++i) {
+                int block = free[--freeCount];
+                int n = Math.min(length - offset, blockSize);
+
+                slab.position(block * blockSize);
+                slab.put(bytes, offset, n);
+                blocks[i] = block;
+                offset += n;
+            }
+
+            slab.clear();
+            entries.put(key, new Entry(blocks, length));
+        }
+
+        private void release(Entry entry) {
+            for (int block : entry.blocks) {
+                free[freeCount++] = block;
+            }
+        }
+
+        synchronized void removeUID(String uid) {
+            var it = entries.entrySet().iterator();
+
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> e = it.next();
+
+                if (e.getKey().uid.equals(uid)) {
+                    release(e.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        synchronized void clear() {
+            entries.values().forEach(this::release);
+            entries.clear();
+        }
+
+        synchronized long bytes() {
+            return slab == null ? 0 : (long) (blockCount - freeCount) * blockSize;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    /*
+    Writes to a channel through a direct buffer. Cached events are copied
+    straight into the buffer. The channel must be in blocking mode.
+    */
+    static final class Output extends OutputStream {
+        final WritableByteChannel channel;
+        final ByteBuffer staging;
+        //Holds an event while it is encoded
+        final EncodedCalendar.Buffer scratch = new EncodedCalendar.Buffer();
+
+        Output(WritableByteChannel channel, ByteBuffer staging) {
+            this.channel = channel;
+            this.staging = staging;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!staging.hasRemaining()) {
+                drain();
+            }
+
+            staging.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!staging.hasRemaining()) {
+                    drain();
+                }
+
+                int n = Math.min(len, staging.remaining());
+
+                staging.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        void drain() throws IOException {
+            staging.flip();
+            writeFully(staging);
+            staging.clear();
+        }
+
+        void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+
+        @Override
+        public void close() {
+            //The channel belongs to the caller
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a cache.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a cache.
+     */
+    public static class Builder {
+        private long maxBytes = 64L * 1024 * 1024;
+        private int blockSize = 256;
+        private int segments = 16;
+
+        /**
+         * Sets the most bytes the cache holds. The default is 64MB.
+         * @param maxBytes the number of bytes
+         * @return the builder
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+            }
+
+            this.maxBytes = maxBytes;
+
+            return this;
+        }
+
+        /**
+         * Sets the size of a block. An event takes whole blocks. Small
+         * blocks waste less space and large blocks copy a little faster.
+         * The default is 256 bytes.
+         * @param blockSize the number of bytes
+         * @return the builder
+         */
+        public Builder blockSize(int blockSize) {
+            if (blockSize < 16) {
+                throw new IllegalArgumentException("blockSize must be at least 16: " + blockSize);
+            }
+
+            this.blockSize = blockSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of segments. More segments let more threads use
+         * the cache at once. The default is 16.
+         * @param segments the number of segments
+         * @return the builder
+         */
+        public Builder segments(int segments) {
+            if (segments < 1) {
+                throw new IllegalArgumentException("segments must be positive: " + segments);
+            }
+
+            this.segments = segments;
+
+            return this;
+        }
+
+        /**
+         * Returns the cache
+         * @return the cache
+         * @throws IllegalArgumentException if maxBytes is less than a block
+         * per segment, or a segment would be over 2GB
+         */
+        public EncodedEventCache build() {
+            return new EncodedEventCache(maxBytes, blockSize, segments);
+        }
+    }
+}
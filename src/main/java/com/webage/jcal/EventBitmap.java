@@ -0,0 +1,572 @@
+package com.webage.jcal;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable, compressed set of event ordinals. An ordinal is the position
+ * of an event in the event list of a calendar.
+ *
+ * The layout is the one used by Roaring bitmaps. The ordinals are split in
+ * chunks of 65536 by their upper 16 bits. A chunk with up to 4096 ordinals is
+ * stored as a sorted array of the lower 16 bits. A fuller chunk is stored as a
+ * bitmap of 1024 longs. A sparse set takes about 2 bytes per ordinal and a dense
+ * one 1 bit per ordinal. and() and or() work a chunk at a time and never
+ * expand a set to single ordinals.
+ */
+public final class EventBitmap {
+    //A chunk with more values than this is a bitmap
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final EventBitmap EMPTY = new EventBitmap(new char[0], new Container[0], 0);
+
+    //The upper 16 bits of the ordinals in each chunk, in ascending order
+    private final char[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private EventBitmap(char[] keys, Container[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Returns the empty set.
+     * @return the empty set
+     */
+    public static EventBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a set of ordinals.
+     * @param ordinals the ordinals in any order. Must not be negative.
+     * @return the set
+     */
+    public static EventBitmap of(int... ordinals) {
+        var builder = builder();
+
+        for (int ordinal : ordinals) {
+            builder.add(ordinal);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Get the number of ordinals in the set
+     * @return the number of ordinals
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns true if the set is empty.
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Returns true if an ordinal is in the set.
+     * @param ordinal the ordinal
+     * @return true if the ordinal is in the set
+     */
+    public boolean contains(int ordinal) {
+        if (ordinal < 0) {
+            return false;
+        }
+
+        int i = Arrays.binarySearch(keys, (char) (ordinal >>> 16));
+
+        return i >= 0 && containers[i].contains((char) ordinal);
+    }
+
+    /**
+     * Returns the ordinals that are in both sets.
+     * @param other the other set
+     * @return the intersection
+     */
+    public EventBitmap and(EventBitmap other) {
+        int n = Math.min(keys.length, other.keys.length);
+        var resultKeys = new char[n];
+        var resultContainers = new Container[n];
+        int size = 0;
+        int total = 0;
+
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length;) {
+            if (keys[i] < other.keys[j]) {
+                ++i;
+            } else if (keys[i] > other.keys[j]) {
+                ++j;
+            } else {
+                var c = containers[i].and(other.containers[j]);
+
+                if (c.cardinality() > 0) {
+                    resultKeys[size] = keys[i];
+                    resultContainers[size++] = c;
+                    total += c.cardinality();
+                }
+
+                ++i;
+                ++j;
+            }
+        }
+
+        return make(resultKeys, resultContainers, size, total);
+    }
+
+    /**
+     * Returns the ordinals that are in either set.
+     * @param other the other set
+     * @return the union
+     */
+    public EventBitmap or(EventBitmap other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+
+        int n = keys.length + other.keys.length;
+        var resultKeys = new char[n];
+        var resultContainers = new Container[n];
+        int size = 0;
+        int total = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < keys.length || j < other.keys.length) {
+            Container c;
+            char key;
+
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                key = keys[i];
+                c = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                key = other.keys[j];
+                c = other.containers[j++];
+            } else {
+                key = keys[i];
+                c = containers[i++].or(other.containers[j++]);
+            }
+
+            resultKeys[size] = key;
+            resultContainers[size++] = c;
+            total += c.cardinality();
+        }
+
+        return make(resultKeys, resultContainers, size, total);
+    }
+
+    /**
+     * Returns the ordinals that are in every set.
+     * @param sets the sets
+     * @return the intersection. Empty if no set is given.
+     */
+    public static EventBitmap and(EventBitmap... sets) {
+        if (sets.length == 0) {
+            return EMPTY;
+        }
+
+        //Starting from the smallest set keeps the intermediate results small
+        var sorted = sets.clone();
+
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.cardinality, b.cardinality));
+
+        var result = sorted[0];
+
+        for (int i = 1; i < sorted.length && !result.isEmpty(); ++i) {
+            result = result.and(sorted[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the ordinals that are in any of the sets.
+     * @param sets the sets
+     * @return the union
+     */
+    public static EventBitmap or(EventBitmap... sets) {
+        var result = EMPTY;
+
+        for (var set : sets) {
+            result = result.or(set);
+        }
+
+        return result;
+    }
+
+    /**
+     * Calls an action for each ordinal in ascending order.
+     * @param action the action
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; ++i) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns the ordinals in ascending order.
+     * @return the ordinals
+     */
+    public int[] toArray() {
+        var result = new int[cardinality];
+        var pos = new int[1];
+
+        forEach(ordinal -> result[pos[0]++] = ordinal);
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EventBitmap)) {
+            return false;
+        }
+
+        var other = (EventBitmap) o;
+
+        return cardinality == other.cardinality && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private static EventBitmap make(char[] keys, Container[] containers, int size, int cardinality) {
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        return new EventBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), cardinality);
+    }
+
+    /*
+    The lower 16 bits of the ordinals in one chunk.
+    */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract void forEach(int high, IntConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+        //Sorted. Holds no more than ARRAY_MAX values.
+        final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            var result = new char[values.length];
+            int size = 0;
+
+            if (other instanceof BitmapContainer) {
+                for (char v : values) {
+                    if (other.contains(v)) {
+                        result[size++] = v;
+                    }
+                }
+            } else {
+                var b = ((ArrayContainer) other).values;
+
+                for (int i = 0, j = 0; i < values.length && j < b.length;) {
+                    if (values[i] < b[j]) {
+                        ++i;
+                    } else if (values[i] > b[j]) {
+                        ++j;
+                    } else {
+                        result[size++] = values[i];
+                        ++i;
+                        ++j;
+                    }
+                }
+            }
+
+            return new ArrayContainer(Arrays.copyOf(result, size));
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+
+            var b = ((ArrayContainer) other).values;
+            //The union can be small even if the two arrays together are not
+            var result = new char[values.length + b.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < values.length && j < b.length) {
+                if (values[i] < b[j]) {
+                    result[size++] = values[i++];
+                } else if (values[i] > b[j]) {
+                    result[size++] = b[j++];
+                } else {
+                    result[size++] = values[i];
+                    ++i;
+                    ++j;
+                }
+            }
+            while (i < values.length) {
+                result[size++] = values[i++];
+            }
+            while (j < b.length) {
+                result[size++] = b[j++];
+            }
+
+            if (size > ARRAY_MAX) {
+                return BitmapContainer.of(result, size);
+            }
+
+            return new ArrayContainer(Arrays.copyOf(result, size));
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (char v : values) {
+                action.accept(high | v);
+            }
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer of(char[] values) {
+            return of(values, values.length);
+        }
+
+        /*
+        The first size values, which are sorted and distinct.
+        */
+        static BitmapContainer of(char[] values, int size) {
+            var words = new long[BITMAP_WORDS];
+
+            for (int i = 0; i < size; ++i) {
+                char v = values[i];
+
+                words[v >>> 6] |= 1L << v;
+            }
+
+            return new BitmapContainer(words, size);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            var b = ((BitmapContainer) other).words;
+            var result = new long[BITMAP_WORDS];
+            int count = 0;
+
+            for (int i = 0; i < BITMAP_WORDS; ++i) {
+                result[i] = words[i] & b[i];
+                count += Long.bitCount(result[i]);
+            }
+
+            return count > ARRAY_MAX ? new BitmapContainer(result, count) : toArray(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            var result = words.clone();
+            int count = 0;
+
+            if (other instanceof ArrayContainer) {
+                for (char v : ((ArrayContainer) other).values) {
+                    result[v >>> 6] |= 1L << v;
+                }
+            } else {
+                var b = ((BitmapContainer) other).words;
+
+                for (int i = 0; i < BITMAP_WORDS; ++i) {
+                    result[i] |= b[i];
+                }
+            }
+
+            for (long w : result) {
+                count += Long.bitCount(w);
+            }
+
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; ++i) {
+                long w = words[i];
+
+                while (w != 0) {
+                    action.accept(high | (i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        private static ArrayContainer toArray(long[] words, int count) {
+            var values = new char[count];
+            int size = 0;
+
+            for (int i = 0; i < BITMAP_WORDS; ++i) {
+                long w = words[i];
+
+                while (w != 0) {
+                    values[size++] = (char) ((i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+
+            return new ArrayContainer(values);
+        }
+    }
+
+    /**
+     * Returns a builder that collects ordinals into a set.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that collects ordinals into a set. Adding the ordinals in
+     * ascending order is fastest. Duplicates are ignored.
+     */
+    public static class Builder {
+        private int[] ordinals = new int[8];
+        private int size;
+        private boolean sorted = true;
+
+        /**
+         * Adds an ordinal.
+         * @param ordinal the ordinal. Must not be negative.
+         * @return the builder
+         */
+        public Builder add(int ordinal) {
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("An ordinal can not be negative: " + ordinal);
+            }
+            if (size > 0) {
+                int last = ordinals[size - 1];
+
+                if (ordinal == last) {
+                    return this;
+                }
+                if (ordinal < last) {
+                    sorted = false;
+                }
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+
+            ordinals[size++] = ordinal;
+
+            return this;
+        }
+
+        /**
+         * Returns the set. The builder can be used again after reset().
+         * @return the set
+         */
+        public EventBitmap build() {
+            if (!sorted) {
+                Arrays.sort(ordinals, 0, size);
+            }
+
+            var keys = new char[Math.min(size, 65536)];
+            var containers = new Container[keys.length];
+            int count = 0;
+            int total = 0;
+            int i = 0;
+
+            while (i < size) {
+                int high = ordinals[i] >>> 16;
+                var chunk = new char[Math.min(size - i, 65536)];
+                int n = 0;
+
+                for (; i < size && ordinals[i] >>> 16 == high; ++i) {
+                    char low = (char) ordinals[i];
+
+                    if (n == 0 || chunk[n - 1] != low) {
+                        chunk[n++] = low;
+                    }
+                }
+
+                var values = Arrays.copyOf(chunk, n);
+
+                keys[count] = (char) high;
+                containers[count++] = n > ARRAY_MAX ? BitmapContainer.of(values) : new ArrayContainer(values);
+                total += n;
+            }
+
+            return make(keys, containers, count, total);
+        }
+
+        /**
+         * Removes the ordinals added so far.
+         * @return the builder
+         */
+        public Builder reset() {
+            size = 0;
+            sorted = true;
+
+            return this;
+        }
+    }
+}
@@ -0,0 +1,879 @@
+package com.webage.jcal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A durable store of events on the local disk, keyed by UID.
+ *
+ * Events are appended to a log split in segment files. Nothing in a segment
+ * is ever changed. A newer version of an event, or its removal, is a new
+ * record at the end of the log. Every record has a CRC so that a record cut
+ * short by a crash is found and dropped when the store is opened.
+ *
+ * The position of the latest record of each UID is kept in a hash table in
+ * a memory-mapped file. A store that was closed cleanly opens without
+ * reading the log. After a crash the table is rebuilt from the log.
+ *
+ * compact() copies the live events to new segments and deletes the old ones.
+ * The id of the first new segment is written to a marker file before the
+ * old segments are deleted. If the process stops before they are all gone
+ * open() deletes the rest.
+ *
+ * <pre>
+ * try (var store = EventStore.open(Path.of("events"))) {
+ *     store.put(ev);
+ *     store.writeTo(out);
+ * }
+ * </pre>
+ *
+ * The methods are thread safe. Only one store may have a directory open at a time.
+ */
+public final class EventStore implements Closeable {
+    private static final String INDEX_FILE = "uid.idx";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_FILE = "compact.id";
+    private static final long MAGIC = 0x6a63616c53746f72L;
+    private static final int VERSION = 1;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    //length, CRC and type
+    private static final int RECORD_HEADER = 9;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int TOMBSTONE = -1;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean syncWrites;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int count;
+    //Live slots and tombstones
+    private int used;
+
+    private EventStore(Path directory, long segmentSize, boolean syncWrites) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Opens a store with the default settings. The directory is created if
+     * it does not exist.
+     * @param directory the directory
+     * @return the store
+     * @throws IOException if the store can not be opened
+     */
+    public static EventStore open(Path directory) throws IOException {
+        return builder().directory(directory).open();
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                var name = file.getFileName().toString();
+
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    int id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+
+                    segments.put(id, new Segment(id, file));
+                }
+            }
+        }
+
+        var marker = directory.resolve(COMPACT_FILE);
+
+        if (Files.exists(marker)) {
+            finishCompaction(marker);
+        }
+        if (segments.isEmpty()) {
+            newSegment(1);
+        }
+
+        active = segments.lastEntry().getValue();
+
+        if (!openIndex()) {
+            recover();
+        }
+
+        //Until close() succeeds the index may not match the log
+        index.putInt(12, 0);
+        index.force();
+    }
+
+    /*
+    Deletes the segments that a compaction copied but did not get to delete.
+    A marker that can not be read was cut short by a crash. The copies may
+    not all be on disk then, so every segment is kept. The old and the new
+    records together are still a valid log.
+    */
+    private void finishCompaction(Path marker) throws IOException {
+        int first;
+
+        try {
+            first = Integer.parseInt(Files.readString(marker, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            first = 0;
+        }
+
+        for (var it = segments.headMap(first).values().iterator(); it.hasNext(); ) {
+            var segment = it.next();
+
+            segment.channel.close();
+            it.remove();
+            Files.delete(segment.path);
+        }
+
+        Files.delete(marker);
+    }
+
+    /*
+    Opens the index if it was closed cleanly and matches the log.
+    */
+    private boolean openIndex() throws IOException {
+        var file = directory.resolve(INDEX_FILE);
+
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+            return false;
+        }
+
+        mapIndex(file);
+
+        boolean valid = index.getLong(0) == MAGIC
+            && index.getInt(8) == VERSION
+            && index.getInt(12) == 1
+            && index.getInt(28) == active.id
+            && index.getLong(32) == active.size;
+
+        if (valid) {
+            capacity = index.getInt(16);
+            count = index.getInt(20);
+            used = index.getInt(24);
+            valid = Files.size(file) == HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        }
+        if (!valid) {
+            closeIndex();
+        }
+
+        return valid;
+    }
+
+    /*
+    Rebuilds the index from the log. A record cut short at the end of the last
+    segment is a write that did not finish. It is cut off.
+    */
+    private void recover() throws IOException {
+        createIndex(MIN_CAPACITY);
+
+        for (var segment : segments.values()) {
+            long end = scan(segment, (type, uid, offset, in) -> {
+                if (type == PUT) {
+                    putLocation(uid, segment.id, (int) offset);
+                } else {
+                    removeLocation(uid);
+                }
+            });
+
+            if (end < segment.size) {
+                if (segment != active) {
+                    throw new IOException("Corrupt record at " + end + " in " + segment.path);
+                }
+
+                segment.channel.truncate(end);
+                segment.channel.force(true);
+                segment.size = end;
+            }
+        }
+    }
+
+    /**
+     * Stores an event. It replaces the event with the same UID.
+     * @param event the event. It must have a UID.
+     * @throws IOException if the event can not be written
+     */
+    public synchronized void put(VEvent event) throws IOException {
+        var uid = event.getUID();
+
+        if (uid == null) {
+            throw new IllegalArgumentException("The event has no UID");
+        }
+
+        var payload = new ByteArrayOutputStream(512);
+        var out = new DataOutputStream(payload);
+
+        Util.writeString(out, uid);
+        event.writeFields(out);
+        out.flush();
+
+        long offset = append(PUT, payload.toByteArray());
+
+        putLocation(uid, active.id, (int) offset);
+    }
+
+    /**
+     * Removes an event.
+     * @param uid the UID of the event
+     * @return true if the event was in the store
+     * @throws IOException if the removal can not be written
+     */
+    public synchronized boolean remove(String uid) throws IOException {
+        if (find(uid) < 0) {
+            return false;
+        }
+
+        var payload = new ByteArrayOutputStream(uid.length() + 8);
+        var out = new DataOutputStream(payload);
+
+        Util.writeString(out, uid);
+        out.flush();
+        append(DELETE, payload.toByteArray());
+        removeLocation(uid);
+
+        return true;
+    }
+
+    /**
+     * Reads an event.
+     * @param uid the UID of the event
+     * @return the event. Empty if it is not in the store.
+     * @throws IOException if the event can not be read
+     */
+    public synchronized Optional<VEvent> get(String uid) throws IOException {
+        int slot = find(uid);
+
+        if (slot < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(read(slotSegment(slot), slotOffset(slot)));
+    }
+
+    /**
+     * Get the number of events in the store
+     * @return the number of events
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Reads every event into a calendar. The events are in the order they
+     * were last stored.
+     * @return the calendar
+     * @throws IOException if the log can not be read
+     */
+    public synchronized VCalendar toCalendar() throws IOException {
+        var cal = new VCalendar();
+        var events = new ArrayList<VEvent>(count);
+
+        for (var segment : segments.values()) {
+            scan(segment, (type, uid, offset, in) -> {
+                if (type == PUT && isLatest(uid, segment.id, offset)) {
+                    events.add(VEvent.readFields(in));
+                }
+            });
+        }
+
+        cal.setEventList(events);
+
+        return cal;
+    }
+
+    /**
+     * Writes every event as a calendar in UTF-8. The events are read from
+     * disk one at a time while they are written and are not kept in memory.
+     * @param out the stream
+     * @throws IOException if the log can not be read or the stream fails
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        var locations = new long[count];
+        var size = new int[1];
+
+        for (var segment : segments.values()) {
+            scan(segment, (type, uid, offset, in) -> {
+                if (type == PUT && isLatest(uid, segment.id, offset)) {
+                    locations[size[0]++] = (long) segment.id << 32 | offset;
+                }
+            });
+        }
+
+        var cal = new VCalendar();
+
+        cal.setEventList(new StoredEvents(locations));
+
+        try {
+            cal.writeTo(out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Copies the live events to new segments and deletes the old segments.
+     * The space taken by replaced and removed events is freed. If the process
+     * stops during compaction no event is lost. If it stops after the copies
+     * are on disk the next open() deletes the old segments that are left.
+     * @throws IOException if the log can not be rewritten
+     */
+    public synchronized void compact() throws IOException {
+        var old = new ArrayList<>(segments.values());
+
+        active.channel.force(true);
+        newSegment(active.id + 1);
+
+        for (var segment : old) {
+            scan(segment, (type, uid, offset, in) -> {
+                if (type != PUT || !isLatest(uid, segment.id, offset)) {
+                    return;
+                }
+
+                //The record is copied as it is, header and all
+                var record = ByteBuffer.allocate(RECORD_HEADER + readLength(segment, offset));
+
+                readFully(segment, record, offset);
+                putLocation(uid, active.id, (int) append(record.flip()));
+            });
+        }
+
+        active.channel.force(true);
+
+        //From here on open() deletes the old segments if we do not
+        var marker = directory.resolve(COMPACT_FILE);
+        int first = old.get(old.size() - 1).id + 1;
+
+        try (var out = FileChannel.open(marker, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var bytes = ByteBuffer.wrap(Integer.toString(first).getBytes(StandardCharsets.US_ASCII));
+
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+
+            out.force(true);
+        }
+
+        //Oldest first, so a crash never leaves a PUT whose DELETE was removed
+        for (var segment : old) {
+            segment.channel.close();
+            segments.remove(segment.id);
+            Files.delete(segment.path);
+        }
+
+        Files.delete(marker);
+
+        rehash(capacityFor(count));
+    }
+
+    /**
+     * Forces the written events to the disk.
+     * @throws IOException if the disk fails
+     */
+    public synchronized void flush() throws IOException {
+        active.channel.force(true);
+    }
+
+    /**
+     * Forces the events to the disk and closes the store. The index is marked
+     * as matching the log so the next open() does not read the log.
+     * @throws IOException if the disk fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (index == null) {
+            return;
+        }
+
+        active.channel.force(true);
+
+        writeHeader();
+        index.putInt(28, active.id);
+        index.putLong(32, active.size);
+        index.putInt(12, 1);
+        index.force();
+        closeIndex();
+
+        for (var segment : segments.values()) {
+            segment.channel.close();
+        }
+
+        segments.clear();
+    }
+
+    /*
+    A slot that points at the record holds its UID, so the UID does not have
+    to be read from disk to compare it.
+    */
+    private boolean isLatest(String uid, int segmentId, long offset) {
+        long h = hashOf(uid);
+
+        for (int i = (int) h & (capacity - 1);; i = (i + 1) & (capacity - 1)) {
+            int segment = slotSegment(i);
+
+            if (segment == 0) {
+                return false;
+            }
+            if (segment == segmentId && slotOffset(i) == offset) {
+                return slotHash(i) == h;
+            }
+        }
+    }
+
+    private VEvent read(int segmentId, long offset) throws IOException {
+        var segment = segments.get(segmentId);
+        var record = ByteBuffer.allocate(readLength(segment, offset));
+
+        readFully(segment, record, offset + RECORD_HEADER);
+
+        var in = new DataInputStream(new ByteArrayInputStream(record.array()));
+
+        Util.readString(in);
+
+        return VEvent.readFields(in);
+    }
+
+    private static int readLength(Segment segment, long offset) throws IOException {
+        var header = ByteBuffer.allocate(4);
+
+        readFully(segment, header, offset);
+
+        //The length counts the type byte which is part of the header
+        return header.getInt(0) - 1;
+    }
+
+    private static void readFully(Segment segment, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (segment.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Record past the end of " + segment.path);
+            }
+        }
+    }
+
+    /*
+    Appends a record to the active segment. Returns its offset.
+    */
+    private long append(byte type, byte[] payload) throws IOException {
+        var crc = new CRC32C();
+
+        crc.update(type);
+        crc.update(payload);
+
+        var record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+
+        record.putInt(payload.length + 1).putInt((int) crc.getValue()).put(type).put(payload).flip();
+
+        return append(record);
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        if (active.size > 0 && active.size + record.remaining() > segmentSize) {
+            active.channel.force(true);
+            newSegment(active.id + 1);
+        }
+
+        long offset = active.size;
+
+        while (record.hasRemaining()) {
+            active.size += active.channel.write(record, active.size);
+        }
+
+        if (syncWrites) {
+            active.channel.force(false);
+        }
+
+        return offset;
+    }
+
+    private void newSegment(int id) throws IOException {
+        var segment = new Segment(id, directory.resolve(String.format("%08d%s", id, SEGMENT_SUFFIX)));
+
+        segments.put(id, segment);
+        active = segment;
+    }
+
+    private interface RecordVisitor {
+        void visit(byte type, String uid, long offset, DataInputStream in) throws IOException;
+    }
+
+    /*
+    Reads the records of a segment in order. Returns the offset after the last
+    good record.
+    */
+    private static long scan(Segment segment, RecordVisitor visitor) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(segment.channel.position(0)), 64 * 1024));
+        var crc = new CRC32C();
+        byte[] body = new byte[256];
+        long offset = 0;
+
+        while (segment.size - offset >= RECORD_HEADER) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+
+            if (length < 1 || length > segment.size - offset - RECORD_HEADER + 1) {
+                break;
+            }
+            if (body.length < length) {
+                body = new byte[Math.max(length, body.length * 2)];
+            }
+
+            in.readFully(body, 0, length);
+            crc.reset();
+            crc.update(body, 0, length);
+
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            var record = new DataInputStream(new ByteArrayInputStream(body, 1, length - 1));
+
+            visitor.visit(body[0], Util.readString(record), offset, record);
+            offset += RECORD_HEADER - 1 + length;
+        }
+
+        return offset;
+    }
+
+    /*
+    The index is an open addressing hash table. A slot holds the hash of the
+    UID, the segment and the offset of the latest record. Segment 0 is an empty
+    slot and TOMBSTONE is a removed one. Hashes can collide, so a match is
+    checked against the UID in the record.
+    */
+
+    private static long hashOf(String uid) {
+        long h = Util.hash64(uid);
+
+        return h == 0 ? 1 : h;
+    }
+
+    private int find(String uid) {
+        long h = hashOf(uid);
+
+        for (int i = (int) h & (capacity - 1);; i = (i + 1) & (capacity - 1)) {
+            int segment = slotSegment(i);
+
+            if (segment == 0) {
+                return -1;
+            }
+            if (segment != TOMBSTONE && slotHash(i) == h && uid.equals(uidAt(segment, slotOffset(i)))) {
+                return i;
+            }
+        }
+    }
+
+    private String uidAt(int segmentId, long offset) {
+        var segment = segments.get(segmentId);
+
+        try {
+            var header = ByteBuffer.allocate(RECORD_HEADER + 4);
+
+            readFully(segment, header, offset);
+
+            var bytes = ByteBuffer.allocate(header.getInt(RECORD_HEADER));
+
+            readFully(segment, bytes, offset + RECORD_HEADER + 4);
+
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void putLocation(String uid, int segmentId, int offset) {
+        int slot = find(uid);
+
+        if (slot < 0) {
+            if ((used + 1) * 4L > capacity * 3L) {
+                rehash(capacityFor(count + 1));
+            }
+
+            long h = hashOf(uid);
+
+            slot = (int) h & (capacity - 1);
+
+            while (slotSegment(slot) > 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (slotSegment(slot) == 0) {
+                ++used;
+            }
+
+            ++count;
+            index.putLong(slotPosition(slot), h);
+        }
+
+        index.putInt(slotPosition(slot) + 8, segmentId);
+        index.putInt(slotPosition(slot) + 12, offset);
+    }
+
+    private void removeLocation(String uid) {
+        int slot = find(uid);
+
+        if (slot >= 0) {
+            index.putInt(slotPosition(slot) + 8, TOMBSTONE);
+            --count;
+        }
+    }
+
+    private static int capacityFor(int count) {
+        int capacity = MIN_CAPACITY;
+
+        while (count * 2L > capacity) {
+            capacity *= 2;
+        }
+
+        return capacity;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private long slotHash(int slot) {
+        return index.getLong(slotPosition(slot));
+    }
+
+    private int slotSegment(int slot) {
+        return index.getInt(slotPosition(slot) + 8);
+    }
+
+    private int slotOffset(int slot) {
+        return index.getInt(slotPosition(slot) + 12);
+    }
+
+    /*
+    Writes the live slots to a new index file that replaces the old one.
+    */
+    private void rehash(int newCapacity) {
+        var file = directory.resolve(INDEX_FILE);
+        var temp = directory.resolve(INDEX_FILE + ".tmp");
+
+        try {
+            var slots = new long[count * 2];
+            int n = 0;
+
+            for (int i = 0; i < capacity; ++i) {
+                if (slotSegment(i) > 0) {
+                    slots[n++] = slotHash(i);
+                    slots[n++] = (long) slotSegment(i) << 32 | slotOffset(i);
+                }
+            }
+
+            closeIndex();
+            Files.deleteIfExists(temp);
+            mapIndex(temp);
+            format(newCapacity);
+
+            for (int i = 0; i < n; i += 2) {
+                int slot = (int) slots[i] & (capacity - 1);
+
+                while (slotSegment(slot) != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+
+                index.putLong(slotPosition(slot), slots[i]);
+                index.putInt(slotPosition(slot) + 8, (int) (slots[i + 1] >>> 32));
+                index.putInt(slotPosition(slot) + 12, (int) slots[i + 1]);
+            }
+
+            count = n / 2;
+            used = count;
+            writeHeader();
+            index.force();
+            closeIndex();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            mapIndex(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void createIndex(int newCapacity) throws IOException {
+        var file = directory.resolve(INDEX_FILE);
+
+        Files.deleteIfExists(file);
+        mapIndex(file);
+        format(newCapacity);
+    }
+
+    private void format(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        count = 0;
+        used = 0;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        index.putLong(0, MAGIC);
+        index.putInt(8, VERSION);
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        index.putInt(16, capacity);
+        index.putInt(20, count);
+        index.putInt(24, used);
+    }
+
+    private void mapIndex(Path file) throws IOException {
+        indexChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(indexChannel.size(), HEADER_SIZE));
+    }
+
+    private void closeIndex() throws IOException {
+        index = null;
+        indexChannel.close();
+        indexChannel = null;
+    }
+
+    private static class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        long size;
+
+        Segment(int id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+    }
+
+    /*
+    The events of writeTo(). An event is read when the calendar asks for it.
+    */
+    private class StoredEvents extends AbstractList<VEvent> implements RandomAccess {
+        private final long[] locations;
+
+        StoredEvents(long[] locations) {
+            this.locations = locations;
+        }
+
+        @Override
+        public VEvent get(int i) {
+            try {
+                return read((int) (locations[i] >>> 32), (int) locations[i]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public int size() {
+            return locations.length;
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to open a store with custom settings.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to open a store with custom settings.
+     */
+    public static class Builder {
+        private Path directory;
+        private long segmentSize = 64L * 1024 * 1024;
+        private boolean syncWrites;
+
+        /**
+         * Sets the directory of the store.
+         * @param directory the directory
+         * @return the builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+
+            return this;
+        }
+
+        /**
+         * Sets the size at which a new segment is started. The default is 64 MB.
+         * @param segmentSize the size in bytes. No more than 1 GB.
+         * @return the builder
+         */
+        public Builder segmentSize(long segmentSize) {
+            if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+                throw new IllegalArgumentException("Bad segment size: " + segmentSize);
+            }
+
+            this.segmentSize = segmentSize;
+
+            return this;
+        }
+
+        /**
+         * Forces every write to the disk before put() and remove() return.
+         * The default is false. Then writes reach the disk on flush(), close()
+         * or when the system gets to them. A crash of the process loses nothing.
+         * A crash of the machine can lose the latest writes.
+         * @param syncWrites true to force every write
+         * @return the builder
+         */
+        public Builder syncWrites(boolean syncWrites) {
+            this.syncWrites = syncWrites;
+
+            return this;
+        }
+
+        /**
+         * Opens the store.
+         * @return the store
+         * @throws IOException if the store can not be opened
+         */
+        public EventStore open() throws IOException {
+            if (directory == null) {
+                throw new IllegalStateException("No directory");
+            }
+
+            var store = new EventStore(directory, segmentSize, syncWrites);
+
+            try {
+                store.load();
+            } catch (IOException | RuntimeException e) {
+                for (var segment : store.segments.values()) {
+                    segment.channel.close();
+                }
+                if (store.indexChannel != null) {
+                    store.closeIndex();
+                }
+
+                throw e;
+            }
+
+            return store;
+        }
+    }
+}
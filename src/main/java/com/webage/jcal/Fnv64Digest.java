@@ -0,0 +1,64 @@
+package com.webage.jcal;
+
+import java.security.MessageDigest;
+
+/**
+ * A fast, non-cryptographic 64 bit hash packaged as a MessageDigest.
+ * It is the FNV-1a hash followed by the MurmurHash3 finalizer. Use it
+ * with VCalendar.encode() when the digest is only used for an ETag
+ * and does not need to resist tampering.
+ */
+public final class Fnv64Digest extends MessageDigest {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    /**
+     * Creates a new digest
+     */
+    public Fnv64Digest() {
+        super("FNV-1a-64");
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        hash = (hash ^ (input & 0xFF)) * PRIME;
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        long h = hash;
+
+        for (int i = offset, end = offset + len; i < end; ++i) {
+            h = (h ^ (input[i] & 0xFF)) * PRIME;
+        }
+
+        hash = h;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return 8;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        long h = Util.mix64(hash);
+        var result = new byte[8];
+
+        for (int i = 7; i >= 0; --i) {
+            result[i] = (byte) h;
+            h >>>= 8;
+        }
+
+        engineReset();
+
+        return result;
+    }
+
+    @Override
+    protected void engineReset() {
+        hash = OFFSET_BASIS;
+    }
+}
@@ -0,0 +1,451 @@
+package com.webage.jcal;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Finds times when a group of people are all free. Each person is given as
+ * the events they attend. A slot is free if it is within working hours and
+ * does not overlap any event of any person.
+ *
+ * <pre>
+ * var finder = FreeSlotFinder.builder()
+ *     .timeZone("America/New_York")
+ *     .workingHours(LocalTime.of(9, 0), LocalTime.of(17, 0))
+ *     .build();
+ * var slots = finder.find(
+ *     List.of(bugsEvents, daffyEvents, porkyEvents),
+ *     LocalDateTime.of(2024, 5, 6, 0, 0),
+ *     LocalDateTime.of(2024, 5, 20, 0, 0),
+ *     Duration.ofMinutes(30),
+ *     3);
+ * </pre>
+ *
+ * Events are placed in time by the time zone of DTSTART and DTEND. A day
+ * long event is busy for whole days in the time zone of the working hours.
+ * An event with a time but no DTEND takes no time and is not busy.
+ * Cancelled events are not busy. Repeating events are expanded within the
+ * window, through an OccurrenceCache if one is set.
+ *
+ * The busy times of all the people are collected as two arrays of UTC epoch
+ * seconds, one of starts and one of ends, which are sorted. A sweep over
+ * the two counts how many events are in progress. When the count is zero
+ * everyone is free. The sweep stops as soon as enough slots are found.
+ *
+ * A finder can be used by many threads at once if its OccurrenceCache can.
+ */
+public final class FreeSlotFinder {
+    private final ZoneOffsetTable zone;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final Set<DayOfWeek> workingDays;
+    private final long step;
+    private final OccurrenceCache cache;
+
+    private FreeSlotFinder(Builder builder) {
+        this.zone = ZoneOffsetTable.of(builder.zone);
+        this.dayStart = builder.dayStart;
+        this.dayEnd = builder.dayEnd;
+        this.workingDays = EnumSet.copyOf(builder.workingDays);
+        this.step = builder.step.getSeconds();
+        this.cache = builder.cache;
+    }
+
+    /**
+     * A free slot.
+     */
+    public static final class Slot {
+        private final ZonedDateTime start;
+        private final ZonedDateTime end;
+
+        private Slot(ZonedDateTime start, ZonedDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Get the start of the slot in the time zone of the working hours
+         * @return the start
+         */
+        public ZonedDateTime getStart() {
+            return start;
+        }
+
+        /**
+         * Get the end of the slot in the time zone of the working hours
+         * @return the end
+         */
+        public ZonedDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Slot)) {
+                return false;
+            }
+
+            var s = (Slot) o;
+
+            return start.equals(s.start) && end.equals(s.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return start.hashCode() * 31 + end.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return start + "/" + end;
+        }
+    }
+
+    /**
+     * Returns the earliest free slots of a length in a window. Slots do not
+     * overlap. They start at working hours plus a multiple of the step.
+     *
+     * @param people the events of each person
+     * @param from The start of the window in the time zone of the working hours. Inclusive.
+     * @param to The end of the window in the time zone of the working hours. Exclusive.
+     * @param length the length of a slot
+     * @param count the largest number of slots to return
+     * @return the slots in chronological order
+     */
+    public List<Slot> find(Collection<? extends Iterable<VEvent>> people, LocalDateTime from, LocalDateTime to, Duration length, int count) {
+        if (length.isNegative() || length.isZero()) {
+            throw new IllegalArgumentException("The length must be positive: " + length);
+        }
+
+        long windowStart = zone.toEpochSecond(from);
+        long windowEnd = zone.toEpochSecond(to);
+        var result = new ArrayList<Slot>();
+
+        if (count <= 0 || windowStart >= windowEnd) {
+            return result;
+        }
+
+        var busy = new BusyTimes(windowStart, windowEnd);
+
+        for (var events : people) {
+            for (var event : events) {
+                busy.add(event);
+            }
+        }
+
+        busy.sort();
+
+        var out = new SlotWriter(length.getSeconds(), count, result);
+        long freeFrom = windowStart;
+        int depth = 0;
+
+        //Walk the starts and ends in time order. An end at the same time as a start comes first.
+        for (int s = 0, e = 0; s < busy.size && !out.isFull(); ) {
+            if (busy.ends[e] <= busy.starts[s]) {
+                if (--depth == 0) {
+                    freeFrom = busy.ends[e];
+                }
+
+                ++e;
+            } else {
+                if (depth++ == 0) {
+                    out.gap(freeFrom, busy.starts[s]);
+                }
+
+                ++s;
+            }
+        }
+
+        if (!out.isFull()) {
+            out.gap(Math.max(freeFrom, busy.size == 0 ? windowStart : busy.ends[busy.size - 1]), windowEnd);
+        }
+
+        return result;
+    }
+
+    /*
+    Collects the busy times within the window as UTC epoch seconds. The
+    starts and ends are sorted apart from each other. That is enough to
+    count how many events are in progress at any time.
+    */
+    private final class BusyTimes {
+        private final long windowStart;
+        private final long windowEnd;
+        private final Map<String, ZoneOffsetTable> tables = new HashMap<>();
+        private long[] starts = new long[256];
+        private long[] ends = new long[256];
+        private int size;
+
+        BusyTimes(long windowStart, long windowEnd) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+        }
+
+        void add(VEvent event) {
+            if (!event.hasStart() || event.getStatus().orElse(null) == StatusType.CANCELLED) {
+                return;
+            }
+
+            long start = event.getStartLocalEpochSecond();
+
+            if (event.isAllDay()) {
+                long days = event.hasEnd() ? event.getEndLocalEpochSecond() - start : 86400;
+
+                addOccurrences(event, zone, start, days, false);
+            } else if (event.hasEnd()) {
+                var startZone = table(event.getStartTimeZoneId().get());
+                var endZone = event.getEndTimeZoneId().map(this::table).orElse(zone);
+                long seconds = endZone.toEpochSecond(event.getEndLocalEpochSecond()) - startZone.toEpochSecond(start);
+
+                addOccurrences(event, startZone, start, seconds, true);
+            }
+        }
+
+        /*
+        The length of an event with a time is exact seconds. The length of a
+        day long event is local time, so a day is a day across a change of
+        the clocks.
+        */
+        private void addOccurrences(VEvent event, ZoneOffsetTable tz, long start, long length, boolean exact) {
+            if (length <= 0) {
+                return;
+            }
+            if (event.getRepeatFrequency().isEmpty()) {
+                addOccurrence(tz, start, length, exact);
+
+                return;
+            }
+
+            //The window in the local time of the event. Widened by a day for the change of offset.
+            var from = LocalDateTime.ofEpochSecond(tz.toLocalEpochSecond(windowStart) - length - 86400, 0, ZoneOffset.UTC);
+            var to = LocalDateTime.ofEpochSecond(tz.toLocalEpochSecond(windowEnd) + 86400, 0, ZoneOffset.UTC);
+            var occurrences = cache != null
+                ? cache.between(event, from, to)
+                : event.getRecurrence().get().between(from, to);
+
+            for (var occurrence : occurrences) {
+                addOccurrence(tz, occurrence.toEpochSecond(ZoneOffset.UTC), length, exact);
+            }
+        }
+
+        private void addOccurrence(ZoneOffsetTable tz, long localStart, long length, boolean exact) {
+            long start = tz.toEpochSecond(localStart);
+            long end = exact ? start + length : tz.toEpochSecond(localStart + length);
+
+            start = Math.max(start, windowStart);
+            end = Math.min(end, windowEnd);
+
+            if (start >= end) {
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+
+            starts[size] = start;
+            ends[size] = end;
+            ++size;
+        }
+
+        private ZoneOffsetTable table(String tzId) {
+            return tables.computeIfAbsent(tzId, ZoneOffsetTable::ofCalendarZone);
+        }
+
+        void sort() {
+            Arrays.sort(starts, 0, size);
+            Arrays.sort(ends, 0, size);
+        }
+    }
+
+    /*
+    Cuts the free gaps into slots within working hours.
+    */
+    private final class SlotWriter {
+        private final long length;
+        private final int count;
+        private final List<Slot> result;
+
+        SlotWriter(long length, int count, List<Slot> result) {
+            this.length = length;
+            this.count = count;
+            this.result = result;
+        }
+
+        boolean isFull() {
+            return result.size() >= count;
+        }
+
+        void gap(long from, long to) {
+            if (to - from < length) {
+                return;
+            }
+
+            var day = LocalDate.ofEpochDay(Math.floorDiv(zone.toLocalEpochSecond(from), 86400));
+            var lastDay = LocalDate.ofEpochDay(Math.floorDiv(zone.toLocalEpochSecond(to), 86400));
+
+            for (; !day.isAfter(lastDay) && !isFull(); day = day.plusDays(1)) {
+                if (!workingDays.contains(day.getDayOfWeek())) {
+                    continue;
+                }
+
+                long open = zone.toEpochSecond(day.atTime(dayStart));
+                long close = Math.min(to, zone.toEpochSecond(day.atTime(dayEnd)));
+                long t = open;
+
+                //The first step at or after the start of the gap
+                if (t < from) {
+                    t += (from - t + step - 1) / step * step;
+                }
+
+                while (t + length <= close && !isFull()) {
+                    result.add(new Slot(at(t), at(t + length)));
+                    //The next step at or after the end of this slot
+                    t += (length + step - 1) / step * step;
+                }
+            }
+        }
+
+        private ZonedDateTime at(long epochSecond) {
+            return Instant.ofEpochSecond(epochSecond).atZone(zone.getZone());
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a finder.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a finder.
+     */
+    public static class Builder {
+        private ZoneId zone = ZoneId.of("UTC");
+        private LocalTime dayStart = LocalTime.of(9, 0);
+        private LocalTime dayEnd = LocalTime.of(17, 0);
+        private Set<DayOfWeek> workingDays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+        private Duration step = Duration.ofMinutes(15);
+        private OccurrenceCache cache;
+
+        /**
+         * Sets the time zone of the working hours and of the window. The
+         * default is UTC.
+         * @param zone the time zone
+         * @return the builder
+         */
+        public Builder timeZone(ZoneId zone) {
+            this.zone = Objects.requireNonNull(zone);
+
+            return this;
+        }
+
+        /**
+         * Sets the time zone of the working hours and of the window.
+         * @param tzId the time zone ID. An IANA or Outlook time zone ID.
+         * @return the builder
+         */
+        public Builder timeZone(String tzId) {
+            var zone = Util
+                .toZoneId(tzId)
+                .or(() -> OutlookTimeZone.fromWindowsTimeZone(tzId).flatMap(tz -> Util.toZoneId(tz.getIANATimeZone())));
+
+            return timeZone(zone.orElseThrow(() -> new IllegalArgumentException("Unknown time zone: " + tzId)));
+        }
+
+        /**
+         * Sets the time zone of the working hours and of the window.
+         * @param tz the Outlook time zone
+         * @return the builder
+         */
+        public Builder timeZone(OutlookTimeZone tz) {
+            return timeZone(tz.getIANATimeZone());
+        }
+
+        /**
+         * Sets the working hours of a day. The default is 9:00 to 17:00.
+         * @param start the start of the working day
+         * @param end the end of the working day
+         * @return the builder
+         */
+        public Builder workingHours(LocalTime start, LocalTime end) {
+            if (!start.isBefore(end)) {
+                throw new IllegalArgumentException("The working day must start before it ends: " + start + " " + end);
+            }
+
+            this.dayStart = start;
+            this.dayEnd = end;
+
+            return this;
+        }
+
+        /**
+         * Sets the working days. The default is Monday to Friday.
+         * @param days the working days
+         * @return the builder
+         */
+        public Builder workingDays(DayOfWeek... days) {
+            if (days.length == 0) {
+                throw new IllegalArgumentException("No working days");
+            }
+
+            this.workingDays = EnumSet.copyOf(Arrays.asList(days));
+
+            return this;
+        }
+
+        /**
+         * Sets the step of the start of a slot. Slots start at the start of
+         * working hours plus a multiple of the step. The default is 15 minutes.
+         * @param step the step. At least a second.
+         * @return the builder
+         */
+        public Builder step(Duration step) {
+            if (step.getSeconds() < 1) {
+                throw new IllegalArgumentException("The step must be at least a second: " + step);
+            }
+
+            this.step = step;
+
+            return this;
+        }
+
+        /**
+         * Sets a cache for the occurrences of repeating events. By default
+         * they are expanded each time.
+         * @param cache the cache
+         * @return the builder
+         */
+        public Builder occurrenceCache(OccurrenceCache cache) {
+            this.cache = cache;
+
+            return this;
+        }
+
+        /**
+         * Returns the finder
+         * @return the finder
+         */
+        public FreeSlotFinder build() {
+            return new FreeSlotFinder(this);
+        }
+    }
+}
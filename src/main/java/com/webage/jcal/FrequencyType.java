@@ -20,7 +20,15 @@ public enum FrequencyType {
     /**
      * Frequency: Daily
      */
-    DAILY("DAILY");
+    DAILY("DAILY"),
+    /**
+     * Frequency: Hourly
+     */
+    HOURLY("HOURLY"),
+    /**
+     * Frequency: Every minute
+     */
+    MINUTELY("MINUTELY");
 
     private String frequency;
 
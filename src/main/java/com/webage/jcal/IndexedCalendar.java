@@ -0,0 +1,735 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TimeZone;
+
+/**
+ * An iCalendar text that is read on demand. Opening it only notes where
+ * each VEVENT and each of its properties start and end. The bytes are kept
+ * as they are. A property is unfolded, decoded and unescaped only when it
+ * is asked for, so properties that are never read cost next to nothing.
+ *
+ * <pre>
+ * var cal = IndexedCalendar.read(Path.of("import.ics"));
+ *
+ * for (var ev : cal.getEvents()) {
+ *     if (ev.getSequence().orElse(0) &gt; known(ev.getUID())) {
+ *         store.put(ev.toVEvent());
+ *     }
+ * }
+ * </pre>
+ *
+ * Properties of components inside a VEVENT, such as a VALARM, are not part
+ * of the event. VTIMEZONE blocks are kept as text. Other components are
+ * skipped. The calendar does not change and can be read by many threads.
+ */
+public final class IndexedCalendar {
+    private final byte[] bytes;
+    //Where the unfolded line starts and ends, not counting the line break
+    private int[] lineStarts = new int[1024];
+    private int[] lineEnds = new int[1024];
+    //Where the property name ends, at the first ';' or ':'
+    private int[] nameEnds = new int[1024];
+    //Lines that are folded and need to be unfolded
+    private final BitSet folded = new BitSet();
+    private int lineCount;
+    //The first line of each event. The lines of event i end where event i + 1 starts.
+    private int[] eventLines = new int[64];
+    private int eventCount;
+    private final List<int[]> vTimeZones = new ArrayList<>();
+
+    private IndexedCalendar(byte[] bytes) {
+        this.bytes = bytes;
+
+        index();
+    }
+
+    /**
+     * Indexes an iCalendar text in UTF-8. The array is kept, not copied,
+     * and must not be changed after.
+     * @param ics the text
+     * @return the calendar
+     * @throws IllegalArgumentException if the components are not nested properly
+     */
+    public static IndexedCalendar of(byte[] ics) {
+        return new IndexedCalendar(ics);
+    }
+
+    /**
+     * Reads and indexes an iCalendar file in UTF-8.
+     * @param file the file
+     * @return the calendar
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the components are not nested properly
+     */
+    public static IndexedCalendar read(Path file) throws IOException {
+        return new IndexedCalendar(Files.readAllBytes(file));
+    }
+
+    /**
+     * Get the number of events
+     * @return the number of events
+     */
+    public int size() {
+        return eventCount;
+    }
+
+    /**
+     * Get an event
+     * @param i the position of the event in the text
+     * @return the event
+     */
+    public Event getEvent(int i) {
+        if (i < 0 || i >= eventCount) {
+            throw new IndexOutOfBoundsException("No event " + i + " of " + eventCount);
+        }
+
+        return new Event(eventLines[i], eventLines[i + 1]);
+    }
+
+    /**
+     * Get all the events. The list is a view; an event is created when it is read.
+     * @return the events
+     */
+    public List<Event> getEvents() {
+        return new AbstractList<>() {
+            @Override
+            public Event get(int i) {
+                return getEvent(i);
+            }
+
+            @Override
+            public int size() {
+                return eventCount;
+            }
+        };
+    }
+
+    /**
+     * Get the VTIMEZONE blocks, each with its line breaks.
+     * @return the VTIMEZONE blocks
+     */
+    public List<String> getVTimeZones() {
+        var result = new ArrayList<String>(vTimeZones.size());
+
+        for (var range : vTimeZones) {
+            result.add(new String(bytes, range[0], range[1] - range[0], StandardCharsets.UTF_8));
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts every event into a new calendar with the VTIMEZONE blocks.
+     * @return the calendar
+     */
+    public VCalendar toCalendar() {
+        var cal = new VCalendar();
+        var events = new ArrayList<VEvent>(eventCount);
+
+        for (int i = 0; i < eventCount; ++i) {
+            events.add(getEvent(i).toVEvent());
+        }
+
+        cal.setEventList(events);
+        cal.setVTimeZones(getVTimeZones());
+
+        return cal;
+    }
+
+    /**
+     * An event of the calendar. Each getter decodes the properties it needs
+     * from the bytes when it is called. Nothing is cached.
+     */
+    public final class Event {
+        private final int firstLine;
+        private final int endLine;
+
+        private Event(int firstLine, int endLine) {
+            this.firstLine = firstLine;
+            this.endLine = endLine;
+        }
+
+        /**
+         * Get the value of the first property of a name. The value is
+         * unfolded but not unescaped.
+         * @param name the property name, such as "DTSTART"
+         * @return the value
+         */
+        public Optional<String> getValue(String name) {
+            return getLine(name).map(ContentLines.Line::getValue);
+        }
+
+        /**
+         * Get the values of all the properties of a name, such as "ATTENDEE".
+         * The values are unfolded but not unescaped.
+         * @param name the property name
+         * @return the values
+         */
+        public List<String> getValues(String name) {
+            var result = new ArrayList<String>();
+
+            for (int i = firstLine; i < endLine; ++i) {
+                if (nameIs(i, name)) {
+                    result.add(line(i).getValue());
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Get the first property of a name as text. Escapes are removed.
+         * @param name the property name, such as "SUMMARY"
+         * @return the text
+         */
+        public Optional<String> getText(String name) {
+            return getValue(name).map(Util::unescape);
+        }
+
+        /**
+         * Get a parameter of the first property of a name.
+         * @param name the property name, such as "DTSTART"
+         * @param parameter the parameter name, such as "TZID"
+         * @return the parameter value
+         */
+        public Optional<String> getParameter(String name, String parameter) {
+            return getLine(name).flatMap(l -> l.getParameter(parameter));
+        }
+
+        /**
+         * Get the UID of the event
+         * @return the UID. Null if there is none.
+         */
+        public String getUID() {
+            return getValue("UID").map(String::trim).orElse(null);
+        }
+
+        /**
+         * Get the sequence number of the event
+         * @return the sequence number
+         * @throws IllegalArgumentException if SEQUENCE is not a number
+         */
+        public Optional<Integer> getSequence() {
+            return getValue("SEQUENCE").map(IndexedCalendar::parseInt);
+        }
+
+        /**
+         * Get the DTSTAMP value, such as "20240101T000000Z"
+         * @return the DTSTAMP value
+         */
+        public Optional<String> getDateTimeStamp() {
+            return getValue("DTSTAMP").map(String::trim);
+        }
+
+        /**
+         * Get DTSTART in its own time zone. For a day long event this is the start of the day.
+         * @return the local start date and time
+         * @throws IllegalArgumentException if DTSTART is not a date or date and time
+         */
+        public Optional<LocalDateTime> getStartLocalDateTime() {
+            return getValue("DTSTART").map(IndexedCalendar::parseDateTime);
+        }
+
+        /**
+         * Get the time zone ID of DTSTART. This is "UTC" for a time in UTC and
+         * empty for a day long event or a floating time.
+         * @return the time zone ID
+         */
+        public Optional<String> getStartTimeZoneId() {
+            return getLine("DTSTART").flatMap(IndexedCalendar::timeZoneOf);
+        }
+
+        /**
+         * Get DTEND in its own time zone.
+         * @return the local end date and time
+         * @throws IllegalArgumentException if DTEND is not a date or date and time
+         */
+        public Optional<LocalDateTime> getEndLocalDateTime() {
+            return getValue("DTEND").map(IndexedCalendar::parseDateTime);
+        }
+
+        /**
+         * Get the time zone ID of DTEND. See getStartTimeZoneId().
+         * @return the time zone ID
+         */
+        public Optional<String> getEndTimeZoneId() {
+            return getLine("DTEND").flatMap(IndexedCalendar::timeZoneOf);
+        }
+
+        /**
+         * Returns true if this is a day long event, that is, DTSTART has a date but no time.
+         * @return true if this is a day long event
+         */
+        public boolean isAllDay() {
+            return getLine("DTSTART").map(IndexedCalendar::isDate).orElse(false);
+        }
+
+        /**
+         * Decodes every property that VEvent has into a new VEvent. A
+         * floating time is taken to be in UTC. Inline attachments and
+         * properties that VEvent does not have are left out.
+         * @return the event
+         * @throws IllegalArgumentException if a property can not be decoded
+         */
+        public VEvent toVEvent() {
+            var ev = new VEvent();
+
+            for (int i = firstLine; i < endLine; ++i) {
+                var line = line(i);
+
+                switch (line.getName()) {
+                case "UID":
+                    ev.setUID(line.getValue().trim());
+                    break;
+                case "DTSTART":
+                    if (isDate(line)) {
+                        ev.setStartDate(parseDateTime(line.getValue()).toLocalDate());
+                    } else {
+                        ev.setStartDateTime(parseDateTime(line.getValue()), timeZoneOf(line).orElse("UTC"));
+                    }
+                    break;
+                case "DTEND":
+                    if (isDate(line)) {
+                        ev.setEndDate(parseDateTime(line.getValue()).toLocalDate());
+                    } else {
+                        ev.setEndDateTime(parseDateTime(line.getValue()), timeZoneOf(line).orElse("UTC"));
+                    }
+                    break;
+                case "DTSTAMP":
+                    ev.setDateTimeStamp(line.getValue().trim());
+                    break;
+                case "CREATED":
+                    ev.setCreatedDate(parseDateTime(line.getValue()), TimeZone.getTimeZone("UTC"));
+                    break;
+                case "SEQUENCE":
+                    ev.setSequence(parseInt(line.getValue()));
+                    break;
+                case "STATUS":
+                    statusOf(line.getValue()).ifPresent(ev::setStatus);
+                    break;
+                case "SUMMARY":
+                    ev.setSummary(Util.unescape(line.getValue()));
+                    break;
+                case "DESCRIPTION":
+                    ev.setDescription(Util.unescape(line.getValue()));
+                    break;
+                case "LOCATION":
+                    ev.setLocation(Util.unescape(line.getValue()));
+                    line.getParameter("ALTREP").ifPresent(ev::setLocationURL);
+                    break;
+                case "ORGANIZER":
+                    ev.setOrganizer(commonName(line).orElse(mailbox(line)), mailbox(line));
+                    break;
+                case "ATTENDEE": {
+                    var email = mailbox(line);
+
+                    ev.addAttendee(commonName(line).orElse(email), email);
+                    line.getParameter("PARTSTAT").map(PartStatType::of).ifPresent(p -> ev.setAttendeeStatus(email, p));
+                    break;
+                }
+                case "RRULE":
+                    applyRule(ev, line.getValue());
+                    break;
+                case "ATTACH":
+                    if (line.getParameter("VALUE").filter("BINARY"::equalsIgnoreCase).isEmpty()) {
+                        ev.addAttachment(line.getParameter("FMTTYPE")
+                            .map(f -> Attachment.uri(line.getValue(), f))
+                            .orElseGet(() -> Attachment.uri(line.getValue())));
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+
+            return ev;
+        }
+
+        private Optional<ContentLines.Line> getLine(String name) {
+            for (int i = firstLine; i < endLine; ++i) {
+                if (nameIs(i, name)) {
+                    return Optional.of(line(i));
+                }
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    /*
+    One pass over the bytes. A line break is a LF, with or without a CR in
+    front. A line that starts with a space or tab continues the one before.
+    A UTF-8 byte order mark at the start is skipped.
+    */
+    private void index() {
+        int pos = hasByteOrderMark() ? 3 : 0;
+        int length = bytes.length;
+        int depth = 0;
+        int eventDepth = -1;
+        int tzDepth = -1;
+        int tzStart = 0;
+
+        while (pos < length) {
+            int start = pos;
+            int end = lineEnd(pos);
+            int firstEnd = end;
+            boolean isFolded = false;
+
+            pos = next(end);
+
+            while (pos < length && (bytes[pos] == ' ' || bytes[pos] == '\t')) {
+                isFolded = true;
+                end = lineEnd(pos);
+                pos = next(end);
+            }
+
+            if (end == start) {
+                continue;
+            }
+
+            int nameEnd = start;
+
+            while (nameEnd < firstEnd && bytes[nameEnd] != ';' && bytes[nameEnd] != ':') {
+                ++nameEnd;
+            }
+
+            if (is(start, nameEnd, "BEGIN")) {
+                ++depth;
+
+                if (eventDepth < 0 && tzDepth < 0) {
+                    if (is(nameEnd + 1, firstEnd, "VEVENT")) {
+                        eventDepth = depth;
+                        addEvent();
+                    } else if (is(nameEnd + 1, firstEnd, "VTIMEZONE")) {
+                        tzDepth = depth;
+                        tzStart = start;
+                    }
+                }
+            } else if (is(start, nameEnd, "END")) {
+                if (depth == 0) {
+                    throw new IllegalArgumentException("END without BEGIN at byte " + start);
+                }
+                if (depth == eventDepth) {
+                    eventDepth = -1;
+                } else if (depth == tzDepth) {
+                    tzDepth = -1;
+                    vTimeZones.add(new int[] {tzStart, pos});
+                }
+
+                --depth;
+            } else if (depth == eventDepth) {
+                addLine(start, end, nameEnd, isFolded);
+            }
+        }
+
+        if (depth != 0) {
+            throw new IllegalArgumentException("A component is not ended");
+        }
+
+        eventLines[eventCount] = lineCount;
+    }
+
+    private boolean hasByteOrderMark() {
+        return bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
+    }
+
+    private int lineEnd(int pos) {
+        int end = pos;
+
+        while (end < bytes.length && bytes[end] != '\n') {
+            ++end;
+        }
+
+        return end > pos && end < bytes.length && bytes[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    private int next(int end) {
+        if (end < bytes.length && bytes[end] == '\r') {
+            ++end;
+        }
+
+        return end < bytes.length ? end + 1 : end;
+    }
+
+    private void addEvent() {
+        if (eventCount + 1 == eventLines.length) {
+            eventLines = Arrays.copyOf(eventLines, eventLines.length * 2);
+        }
+
+        eventLines[eventCount++] = lineCount;
+    }
+
+    private void addLine(int start, int end, int nameEnd, boolean isFolded) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+            lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+            nameEnds = Arrays.copyOf(nameEnds, lineCount * 2);
+        }
+        if (isFolded) {
+            folded.set(lineCount);
+        }
+
+        lineStarts[lineCount] = start;
+        lineEnds[lineCount] = end;
+        nameEnds[lineCount] = nameEnd;
+        ++lineCount;
+    }
+
+    /*
+    True if the bytes are an ASCII word, ignoring case and trailing spaces.
+    */
+    private boolean is(int start, int end, String word) {
+        while (end > start && bytes[end - 1] == ' ') {
+            --end;
+        }
+        if (end - start != word.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < word.length(); ++i) {
+            if ((bytes[start + i] & 0xDF) != (word.charAt(i) & 0xDF)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean nameIs(int line, String name) {
+        return is(lineStarts[line], nameEnds[line], name);
+    }
+
+    /*
+    Unfolds and decodes a line. Folding is removed from the bytes before
+    they are decoded, so a character split across lines comes out whole.
+    */
+    private ContentLines.Line line(int i) {
+        int start = lineStarts[i];
+        int end = lineEnds[i];
+
+        if (!folded.get(i)) {
+            return ContentLines.parseLine(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+        }
+
+        var unfolded = new byte[end - start];
+        int length = 0;
+
+        for (int p = start; p < end; ++p) {
+            byte b = bytes[p];
+
+            if (b == '\r') {
+                continue;
+            }
+            if (b == '\n') {
+                //Skip the space or tab that starts the next line
+                ++p;
+
+                continue;
+            }
+
+            unfolded[length++] = b;
+        }
+
+        return ContentLines.parseLine(new String(unfolded, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private static boolean isDate(ContentLines.Line line) {
+        return line.getParameter("VALUE").map("DATE"::equalsIgnoreCase).orElse(false)
+            || line.getValue().trim().length() == 8;
+    }
+
+    private static Optional<String> timeZoneOf(ContentLines.Line line) {
+        if (isDate(line)) {
+            return Optional.empty();
+        }
+
+        var tzId = line.getParameter("TZID");
+
+        if (tzId.isPresent()) {
+            return tzId;
+        }
+
+        return line.getValue().trim().endsWith("Z") ? Optional.of("UTC") : Optional.empty();
+    }
+
+    /*
+    "20240506", "20240506T093000" or "20240506T093000Z". The Z is ignored.
+    */
+    static LocalDateTime parseDateTime(String value) {
+        var s = value.trim();
+        int date = s.length() >= 8 ? Util.digits(s, 0, 8) : -1;
+
+        try {
+            if (date >= 0 && s.length() == 8) {
+                return LocalDate.of(date / 10000, date / 100 % 100, date % 100).atStartOfDay();
+            }
+
+            int time = s.length() >= 15 && s.charAt(8) == 'T' ? Util.digits(s, 9, 15) : -1;
+
+            if (date >= 0 && time >= 0 && (s.length() == 15 || (s.length() == 16 && s.charAt(15) == 'Z'))) {
+                return LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, time / 10000, time / 100 % 100, time % 100);
+            }
+        } catch (DateTimeException e) {
+            //Reported below
+        }
+
+        throw new IllegalArgumentException("Bad date or date and time: " + value);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    private static String mailbox(ContentLines.Line line) {
+        var value = line.getValue().trim();
+
+        return value.regionMatches(true, 0, "mailto:", 0, 7) ? value.substring(7) : value;
+    }
+
+    /*
+    The CN parameter. VEvent escapes the name like text, so a ';' with a
+    backslash in front does not end it.
+    */
+    private static Optional<String> commonName(ContentLines.Line line) {
+        var text = line.getText();
+        int paramsEnd = text.length() - line.getValue().length() - 1;
+        int start = -1;
+
+        for (int i = 0; i + 4 <= paramsEnd; ++i) {
+            if (text.charAt(i) == ';' && text.regionMatches(true, i + 1, "CN=", 0, 3)) {
+                start = i + 4;
+
+                break;
+            }
+        }
+
+        if (start < 0) {
+            return Optional.empty();
+        }
+
+        int end = start;
+        boolean quoted = false;
+
+        while (end < paramsEnd && (quoted || text.charAt(end) != ';' || text.charAt(end - 1) == '\\')) {
+            if (text.charAt(end) == '"') {
+                quoted = !quoted;
+            }
+
+            ++end;
+        }
+
+        var name = text.substring(start, end);
+
+        if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+            return Optional.of(name.substring(1, name.length() - 1));
+        }
+
+        return Optional.of(Util.unescape(name));
+    }
+
+    private static Optional<StatusType> statusOf(String value) {
+        for (var status : StatusType.values()) {
+            if (status.getStatus().equalsIgnoreCase(value.trim())) {
+                return Optional.of(status);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static void applyRule(VEvent ev, String rule) {
+        for (var part : rule.split(";")) {
+            int eq = part.indexOf('=');
+
+            if (eq < 0) {
+                continue;
+            }
+
+            var name = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            var value = part.substring(eq + 1).trim();
+
+            switch (name) {
+            case "FREQ":
+                for (var f : FrequencyType.values()) {
+                    if (f.getFrequency().equalsIgnoreCase(value)) {
+                        ev.setRepeatFrequency(f);
+                    }
+                }
+                break;
+            case "UNTIL":
+                ev.setRepeatUntil(parseDateTime(value));
+                break;
+            case "COUNT":
+                ev.setRepeatCount(parseInt(value));
+                break;
+            case "INTERVAL":
+                ev.setRepeatInterval(parseInt(value));
+                break;
+            case "BYDAY": {
+                var days = new ArrayList<WeekdayNum>();
+
+                for (var d : value.split(",")) {
+                    days.add(WeekdayNum.parse(d));
+                }
+
+                ev.setRepeatByDay(days);
+                break;
+            }
+            case "BYMONTHDAY":
+                ev.setRepeatByMonthDay(parseInts(value));
+                break;
+            case "BYYEARDAY":
+                ev.setRepeatByYearDay(parseInts(value));
+                break;
+            case "BYWEEKNO":
+                ev.setRepeatByWeekNo(parseInts(value));
+                break;
+            case "BYMONTH":
+                ev.setRepeatByMonth(parseInts(value));
+                break;
+            case "BYHOUR":
+                ev.setRepeatByHour(parseInts(value));
+                break;
+            case "BYMINUTE":
+                ev.setRepeatByMinute(parseInts(value));
+                break;
+            case "BYSETPOS":
+                ev.setRepeatBySetPos(parseInts(value));
+                break;
+            case "WKST":
+                ev.setRepeatWeekStart(WeekdayNum.parse(value).getDayOfWeek());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private static List<Integer> parseInts(String value) {
+        var result = new ArrayList<Integer>();
+
+        for (var v : value.split(",")) {
+            result.add(parseInt(v));
+        }
+
+        return result;
+    }
+}
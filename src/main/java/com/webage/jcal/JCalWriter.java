@@ -0,0 +1,240 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes a calendar as jCal, the JSON form of iCalendar from RFC 7265.
+ *
+ * <pre>
+ * var cal = VCalendar.builder().event(ev).build();
+ *
+ * JCalWriter.write(cal, response.getOutputStream());
+ * </pre>
+ *
+ * The JSON has the same properties as toString() and is written one event
+ * at a time. Property and parameter names are in lower case. Dates and
+ * times are in the ISO form, such as "2024-05-06T09:30:00". Text and
+ * parameter values come from the model as they are, without iCalendar
+ * escaping. RRULE is an object. There is no white space between tokens.
+ */
+public final class JCalWriter extends ComponentWriter {
+    private JCalWriter(Writer writer, OutputStream stream) {
+        super(writer, stream);
+    }
+
+    /**
+     * Writes a calendar as jCal. The Writer is flushed but not closed.
+     * @param calendar the calendar
+     * @param out the Writer
+     * @throws IOException if the Writer fails
+     */
+    public static void write(VCalendar calendar, Writer out) throws IOException {
+        new JCalWriter(out, null).write(calendar);
+    }
+
+    /**
+     * Writes a calendar as jCal in UTF-8. The stream is flushed but not closed.
+     * @param calendar the calendar
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public static void write(VCalendar calendar, OutputStream out) throws IOException {
+        new JCalWriter(null, out).write(calendar);
+    }
+
+    /**
+     * Returns a calendar as jCal.
+     * @param calendar the calendar
+     * @return the JSON text
+     */
+    public static String toJson(VCalendar calendar) {
+        var out = new StringWriter();
+
+        try {
+            write(calendar, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toString();
+    }
+
+    @Override
+    void startDocument() {
+    }
+
+    @Override
+    void endDocument() {
+    }
+
+    @Override
+    void beginComponent(String name, boolean first) {
+        if (!first) {
+            out.append(',');
+        }
+
+        out.append("[\"").append(name).append("\",[");
+    }
+
+    @Override
+    void endProperties(boolean hasComponents) {
+        out.append("],[");
+    }
+
+    @Override
+    void endComponent(String name, boolean hasComponents) {
+        out.append("]]");
+    }
+
+    @Override
+    void writeProperty(String name, List<String[]> params, String type, String value, boolean first) {
+        if (!first) {
+            out.append(',');
+        }
+
+        out.append("[\"").append(name).append("\",{");
+
+        for (int i = 0; i < params.size(); ++i) {
+            if (i > 0) {
+                out.append(',');
+            }
+
+            appendString(params.get(i)[0]);
+            out.append(':');
+            appendString(params.get(i)[1]);
+        }
+
+        out.append("},\"").append(type).append('"');
+
+        switch (type) {
+        case "date":
+        case "date-time":
+            for (var v : value.split(",")) {
+                out.append(',');
+                appendString(isoDateTime(v));
+            }
+            break;
+        case "utc-offset":
+            out.append(',');
+            appendString(isoUtcOffset(value));
+            break;
+        case "integer":
+            out.append(',');
+            appendNumber(value);
+            break;
+        case "boolean":
+            out.append(',').append(value.equalsIgnoreCase("TRUE"));
+            break;
+        case "recur":
+            out.append(',');
+            appendRecur(value);
+            break;
+        default:
+            out.append(',');
+            appendString(value);
+        }
+
+        out.append(']');
+    }
+
+    private void appendRecur(String value) {
+        out.append('{');
+
+        var parts = recurParts(value);
+
+        for (int i = 0; i < parts.size(); ++i) {
+            var p = parts.get(i);
+            boolean numeric = isNumericRecurPart(p[0]);
+
+            if (i > 0) {
+                out.append(',');
+            }
+
+            appendString(p[0]);
+            out.append(':');
+
+            if (p.length > 2) {
+                out.append('[');
+            }
+
+            for (int j = 1; j < p.length; ++j) {
+                if (j > 1) {
+                    out.append(',');
+                }
+                if (numeric) {
+                    appendNumber(p[j]);
+                } else {
+                    appendString(p[j]);
+                }
+            }
+
+            if (p.length > 2) {
+                out.append(']');
+            }
+        }
+
+        out.append('}');
+    }
+
+    /*
+    A number as is, or as a string if it is not a plain integer.
+    */
+    private void appendNumber(String value) {
+        if (value.isEmpty()) {
+            appendString(value);
+
+            return;
+        }
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            if (!(c >= '0' && c <= '9') && !(i == 0 && (c == '-' || c == '+') && value.length() > 1)) {
+                appendString(value);
+
+                return;
+            }
+        }
+
+        out.append(value.charAt(0) == '+' ? value.substring(1) : value);
+    }
+
+    private void appendString(String value) {
+        out.append('"');
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+
+        out.append('"');
+    }
+}
@@ -12,7 +12,15 @@ public enum MethodType {
     /**
      * Method is CANCEL
      */
-    CANCEL("CANCEL");
+    CANCEL("CANCEL"),
+    /**
+     * Method is REPLY. An attendee responds to a REQUEST.
+     */
+    REPLY("REPLY"),
+    /**
+     * Method is COUNTER. An attendee proposes a change to an event.
+     */
+    COUNTER("COUNTER");
 
     private String method;
 
@@ -0,0 +1,459 @@
+package com.webage.jcal;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An e-mail invite. Writes a complete multipart/alternative MIME message
+ * with a text/plain part, an optional text/html part and a text/calendar
+ * part. The METHOD of the calendar part comes from VCalendar.getMethod().
+ *
+ * The message is streamed. The text parts are quoted-printable encoded
+ * and the calendar is base64 encoded straight from the serializer, so
+ * the invite is never copied into an intermediate String.
+ */
+public class MimeInvite {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private String from;
+    private List<String> to = new ArrayList<>();
+    private String subject = "";
+    private String textBody = "";
+    private String htmlBody;
+    private VCalendar calendar;
+    private ZonedDateTime date;
+    private String boundary = "jcal-" + UUID.randomUUID();
+
+    MimeInvite() {
+    }
+
+    /**
+     * Get the From address
+     * @return the From address
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Get the To addresses
+     * @return the To addresses
+     */
+    public List<String> getTo() {
+        return to;
+    }
+
+    /**
+     * Get the calendar invite
+     * @return the calendar invite
+     */
+    public VCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Writes the MIME message, headers included. The stream is not closed.
+     *
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(calendar, "calendar");
+
+        var ctx = SerializationContext.acquire();
+
+        try {
+            writeTo(out, ctx);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    private void writeTo(OutputStream out, SerializationContext ctx) throws IOException {
+        var buff = ctx.bytes();
+        var headers = ctx.chars();
+
+        headers.append("From: ").append(from).append("\r\n");
+        headers.append("To: ").append(String.join(",\r\n ", to)).append("\r\n");
+        headers.append("Subject: ").append(encodeHeader(subject)).append("\r\n");
+        headers.append("Date: ")
+            .append(DateTimeFormatter.RFC_1123_DATE_TIME.format(date != null ? date : ZonedDateTime.now(ZoneOffset.UTC)))
+            .append("\r\n");
+        headers.append("MIME-Version: 1.0\r\n");
+        headers.append("Content-Type: multipart/alternative; boundary=\"").append(boundary).append("\"\r\n");
+        headers.append("\r\n");
+
+        headers.append("--").append(boundary).append("\r\n");
+        headers.append("Content-Type: text/plain; charset=UTF-8\r\n");
+        headers.append("Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+        Util.writeUTF8(headers, out, buff);
+        writeQuotedPrintable(textBody, out, buff);
+
+        if (htmlBody != null) {
+            headers.setLength(0);
+            headers.append("\r\n--").append(boundary).append("\r\n");
+            headers.append("Content-Type: text/html; charset=UTF-8\r\n");
+            headers.append("Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+            Util.writeUTF8(headers, out, buff);
+            writeQuotedPrintable(htmlBody, out, buff);
+        }
+
+        headers.setLength(0);
+        headers.append("\r\n--").append(boundary).append("\r\n");
+        headers.append("Content-Type: text/calendar; charset=UTF-8; method=")
+            .append(calendar.getMethod().getMethod()).append("\r\n");
+        headers.append("Content-Transfer-Encoding: base64\r\n\r\n");
+        Util.writeUTF8(headers, out, buff);
+
+        //Closing the encoder writes the last base64 quantum. It must not close our stream.
+        try (var base64 = Base64.getMimeEncoder().wrap(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        })) {
+            calendar.writeTo(base64, ctx);
+        }
+
+        headers = ctx.chars();
+        headers.append("\r\n--").append(boundary).append("--\r\n");
+        Util.writeUTF8(headers, out, buff);
+    }
+
+    /*
+    Quoted-printable encoding from RFC 2045. Line breaks in the text become
+    CRLF. Lines longer than 76 characters get a soft line break.
+    */
+    private static void writeQuotedPrintable(String text, OutputStream out, byte[] buff) throws IOException {
+        var qp = new QuotedPrintableOutputStream(out);
+
+        Util.writeUTF8(text, qp, buff);
+
+        qp.finish();
+    }
+
+    private static class QuotedPrintableOutputStream extends FilterOutputStream {
+        private static final int MAX_LINE_LENGTH = 76;
+        private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+        private int lineLength;
+        //A space or tab is held back. It must be encoded if the line ends right after it.
+        private int pendingWhitespace = -1;
+        private boolean pendingCR;
+
+        QuotedPrintableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            b &= 0xFF;
+
+            if (pendingCR) {
+                pendingCR = false;
+
+                if (b == '\n') {
+                    return;
+                }
+            }
+            if (b == '\r' || b == '\n') {
+                pendingCR = b == '\r';
+
+                flushWhitespace(true);
+                out.write(CRLF);
+                lineLength = 0;
+
+                return;
+            }
+
+            flushWhitespace(false);
+
+            if (b == ' ' || b == '\t') {
+                pendingWhitespace = b;
+            } else if (b >= 33 && b <= 126 && b != '=') {
+                writeLiteral(b);
+            } else {
+                writeEncoded(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off, end = off + len; i < end; ++i) {
+                write(b[i]);
+            }
+        }
+
+        void finish() throws IOException {
+            flushWhitespace(true);
+        }
+
+        private void flushWhitespace(boolean atLineEnd) throws IOException {
+            if (pendingWhitespace < 0) {
+                return;
+            }
+
+            int b = pendingWhitespace;
+
+            pendingWhitespace = -1;
+
+            if (atLineEnd) {
+                writeEncoded(b);
+            } else {
+                writeLiteral(b);
+            }
+        }
+
+        private void writeLiteral(int b) throws IOException {
+            softBreak(1);
+            out.write(b);
+            ++lineLength;
+        }
+
+        private void writeEncoded(int b) throws IOException {
+            softBreak(3);
+            out.write('=');
+            out.write(HEX[b >> 4]);
+            out.write(HEX[b & 0xF]);
+            lineLength += 3;
+        }
+
+        private void softBreak(int needed) throws IOException {
+            //Leave room for the trailing "=" of a soft line break
+            if (lineLength + needed > MAX_LINE_LENGTH - 1) {
+                out.write('=');
+                out.write(CRLF);
+                lineLength = 0;
+            }
+        }
+    }
+
+    /*
+    Non-ASCII header text is sent as RFC 2047 encoded words of at most
+    45 bytes each. That keeps every encoded word within 75 characters.
+    */
+    static String encodeHeader(String text) {
+        boolean ascii = true;
+
+        for (int i = 0; i < text.length() && ascii; ++i) {
+            char c = text.charAt(i);
+
+            ascii = c >= 32 && c < 127;
+        }
+
+        if (ascii) {
+            return text;
+        }
+
+        var result = new StringBuilder();
+        var encoder = Base64.getEncoder();
+        int start = 0;
+
+        while (start < text.length()) {
+            int end = start;
+            int bytes = 0;
+
+            while (end < text.length()) {
+                int cp = text.codePointAt(end);
+                int n = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+
+                if (bytes + n > 45) {
+                    break;
+                }
+
+                bytes += n;
+                end += Character.charCount(cp);
+            }
+
+            if (result.length() > 0) {
+                result.append("\r\n ");
+            }
+
+            result.append("=?UTF-8?B?")
+                .append(encoder.encodeToString(text.substring(start, end).getBytes(StandardCharsets.UTF_8)))
+                .append("?=");
+
+            start = end;
+        }
+
+        return result.toString();
+    }
+
+    private static String address(String name, String email) {
+        checkAddress(email);
+
+        var encoded = encodeHeader(name);
+
+        if (encoded.equals(name)) {
+            encoded = "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        }
+
+        return encoded + " <" + email + ">";
+    }
+
+    /*
+    An address goes into the From and To headers as is. A line break in it
+    would start a header of the caller's choosing.
+    */
+    private static String checkAddress(String email) {
+        if (email != null && (email.indexOf('\r') >= 0 || email.indexOf('\n') >= 0)) {
+            throw new IllegalArgumentException("An e-mail address can not have a line break");
+        }
+
+        return email;
+    }
+
+    /**
+     * Returns a builder that makes it easy to create an e-mail invite.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to create an e-mail invite.
+     */
+    public static class Builder {
+        private MimeInvite invite = new MimeInvite();
+
+        /**
+         * Sets the sender. This is usually the organizer of the event.
+         * @param email the email of the sender
+         * @return the builder
+         * @throws IllegalArgumentException if the email has a line break
+         */
+        public Builder from(String email) {
+            invite.from = checkAddress(email);
+
+            return this;
+        }
+
+        /**
+         * Sets the sender. This is usually the organizer of the event.
+         * @param name the name of the sender
+         * @param email the email of the sender
+         * @return the builder
+         * @throws IllegalArgumentException if the email has a line break
+         */
+        public Builder from(String name, String email) {
+            invite.from = address(name, email);
+
+            return this;
+        }
+
+        /**
+         * Adds a recipient.
+         * @param email the email of the recipient
+         * @return the builder
+         * @throws IllegalArgumentException if the email has a line break
+         */
+        public Builder to(String email) {
+            invite.to.add(checkAddress(email));
+
+            return this;
+        }
+
+        /**
+         * Adds a recipient.
+         * @param name the name of the recipient
+         * @param email the email of the recipient
+         * @return the builder
+         * @throws IllegalArgumentException if the email has a line break
+         */
+        public Builder to(String name, String email) {
+            invite.to.add(address(name, email));
+
+            return this;
+        }
+
+        /**
+         * Sets the subject.
+         * @param subject the subject
+         * @return the builder
+         */
+        public Builder subject(String subject) {
+            invite.subject = subject;
+
+            return this;
+        }
+
+        /**
+         * Sets the plain text body.
+         * @param text the plain text body
+         * @return the builder
+         */
+        public Builder text(String text) {
+            invite.textBody = text;
+
+            return this;
+        }
+
+        /**
+         * Sets the HTML body. This part is left out if no HTML body is given.
+         * @param html the HTML body
+         * @return the builder
+         */
+        public Builder html(String html) {
+            invite.htmlBody = html;
+
+            return this;
+        }
+
+        /**
+         * Sets the calendar invite. This field is mandatory.
+         * @param calendar the calendar invite
+         * @return the builder
+         */
+        public Builder calendar(VCalendar calendar) {
+            invite.calendar = calendar;
+
+            return this;
+        }
+
+        /**
+         * Sets the Date header. The default is the time the message is written.
+         * @param date the date
+         * @return the builder
+         */
+        public Builder date(ZonedDateTime date) {
+            invite.date = date;
+
+            return this;
+        }
+
+        /**
+         * Sets the MIME boundary. The default is a random value.
+         * @param boundary the MIME boundary
+         * @return the builder
+         */
+        public Builder boundary(String boundary) {
+            invite.boundary = boundary;
+
+            return this;
+        }
+
+        /**
+         * Returns the e-mail invite.
+         * @return the e-mail invite
+         */
+        public MimeInvite build() {
+            return invite;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.webage.jcal;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the occurrences of events in a window. Feeds and free/busy
+ * lookups ask for the same popular events, like a weekly all-hands, over
+ * and over. The occurrences are computed once and shared.
+ *
+ * An entry is keyed by the window and a fingerprint of DTSTART, its time
+ * zone and the RRULE. Copies of an event that repeat the same way share
+ * their entries. An event that is changed gets a new key, so what was
+ * cached for it before is never returned. The old entries are evicted in
+ * time, or at once by invalidate().
+ *
+ * The size of the cache is bounded by the total number of occurrences it
+ * holds. It is split into segments so that threads seldom wait on each
+ * other. Each segment evicts its least recently used entries. Two threads
+ * that miss on the same key at the same time may both compute it.
+ *
+ * <pre>
+ * var cache = OccurrenceCache.builder().maxOccurrences(1_000_000).build();
+ *
+ * for (var event : calendar.getEventList()) {
+ *     for (var start : cache.between(event, from, to)) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public final class OccurrenceCache {
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private OccurrenceCache(long maxOccurrences, int segmentCount) {
+        segments = new Segment[segmentCount];
+
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new Segment(Math.max(1, maxOccurrences / segmentCount));
+        }
+    }
+
+    /**
+     * Returns the occurrences of an event that start within a window. They
+     * are in the local time of DTSTART, just like Recurrence.between(). An
+     * event that does not repeat has one occurrence, its DTSTART.
+     *
+     * @param event the event
+     * @param from The start of the window. Inclusive.
+     * @param to The end of the window. Exclusive.
+     * @return the occurrences in chronological order. The list can not be changed.
+     * @throws IllegalStateException if the event has no DTSTART
+     */
+    public List<LocalDateTime> between(VEvent event, LocalDateTime from, LocalDateTime to) {
+        if (!event.hasStart()) {
+            throw new IllegalStateException("DTSTART is not set");
+        }
+        if (event.getRepeatFrequency().isEmpty()) {
+            var start = event.getStartLocalDateTime();
+
+            return start.isBefore(from) || !start.isBefore(to) ? List.of() : List.of(start);
+        }
+
+        var key = new Key(event.recurrenceFingerprint(), from, to);
+        var segment = segmentOf(key);
+        var occurrences = segment.get(key);
+
+        if (occurrences != null) {
+            hits.increment();
+
+            return occurrences;
+        }
+
+        misses.increment();
+        occurrences = List.copyOf(event.getRecurrence().orElseThrow().between(from, to));
+        segment.put(key, occurrences);
+
+        return occurrences;
+    }
+
+    /**
+     * Removes every window of an event that is cached under its current
+     * DTSTART and RRULE.
+     * @param event the event
+     */
+    public void invalidate(VEvent event) {
+        long rule = event.recurrenceFingerprint();
+
+        for (var segment : segments) {
+            segment.removeRule(rule);
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        for (var segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Get the number of occurrences held by the cache. Each entry counts as
+     * at least one, even if its window is empty.
+     * @return the number of occurrences
+     */
+    public long getWeight() {
+        long weight = 0;
+
+        for (var segment : segments) {
+            weight += segment.weight();
+        }
+
+        return weight;
+    }
+
+    /**
+     * Get the number of cached windows
+     * @return the number of windows
+     */
+    public int size() {
+        int size = 0;
+
+        for (var segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Get the number of lookups that were answered from the cache
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that had to compute the occurrences
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private Segment segmentOf(Key key) {
+        return segments[(int) ((Util.mix64(key.rule) >>> 1) % segments.length)];
+    }
+
+    private static final class Key {
+        private final long rule;
+        private final long from;
+        private final long to;
+        private final int fromNanos;
+        private final int toNanos;
+
+        Key(long rule, LocalDateTime from, LocalDateTime to) {
+            this.rule = rule;
+            this.from = Util.toEpochSecond(from);
+            this.to = Util.toEpochSecond(to);
+            this.fromNanos = from.getNano();
+            this.toNanos = to.getNano();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            var k = (Key) o;
+
+            return rule == k.rule && from == k.from && to == k.to && fromNanos == k.fromNanos && toNanos == k.toNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(rule * 31 + from * 17 + to + fromNanos + toNanos);
+        }
+    }
+
+    /*
+    A part of the cache with its own lock and budget. The LinkedHashMap is in
+    access order, so the eldest entry is the least recently used.
+    */
+    private static final class Segment {
+        private final long maxWeight;
+        private final LinkedHashMap<Key, List<LocalDateTime>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized List<LocalDateTime> get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, List<LocalDateTime> occurrences) {
+            long w = weightOf(occurrences);
+
+            //Bigger than the whole segment. Caching it would flush everything else.
+            if (w > maxWeight) {
+                return;
+            }
+
+            var old = entries.put(key, occurrences);
+
+            if (old != null) {
+                weight -= weightOf(old);
+            }
+
+            weight += w;
+
+            var it = entries.values().iterator();
+
+            while (weight > maxWeight) {
+                weight -= weightOf(it.next());
+                it.remove();
+            }
+        }
+
+        synchronized void removeRule(long rule) {
+            var it = entries.entrySet().iterator();
+
+            while (it.hasNext()) {
+                Map.Entry<Key, List<LocalDateTime>> e = it.next();
+
+                if (e.getKey().rule == rule) {
+                    weight -= weightOf(e.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weight = 0;
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        private static long weightOf(List<LocalDateTime> occurrences) {
+            return Math.max(1, occurrences.size());
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a cache.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a cache.
+     */
+    public static class Builder {
+        private long maxOccurrences = 1_000_000;
+        private int segments = 16;
+
+        /**
+         * Sets the largest number of occurrences the cache holds. The
+         * default is one million.
+         * @param maxOccurrences the number of occurrences
+         * @return the builder
+         */
+        public Builder maxOccurrences(long maxOccurrences) {
+            if (maxOccurrences < 1) {
+                throw new IllegalArgumentException("maxOccurrences must be positive: " + maxOccurrences);
+            }
+
+            this.maxOccurrences = maxOccurrences;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of segments. More segments let more threads use
+         * the cache at once. The default is 16.
+         * @param segments the number of segments
+         * @return the builder
+         */
+        public Builder segments(int segments) {
+            if (segments < 1) {
+                throw new IllegalArgumentException("segments must be positive: " + segments);
+            }
+
+            this.segments = segments;
+
+            return this;
+        }
+
+        /**
+         * Returns the cache
+         * @return the cache
+         */
+        public OccurrenceCache build() {
+            return new OccurrenceCache(maxOccurrences, segments);
+        }
+    }
+}
@@ -1,128 +1,1954 @@
 package com.webage.jcal;
 
-import java.util.HashMap;
 import java.util.Optional;
 
+/*
+Generated by src/build/java/com/webage/jcal/build/OutlookTimeZoneGenerator.java
+from CLDR 44.1.0.0, ICU 74.2.0.0 and tzdata 2023c. Do not edit.
+Run: mvn -Ptimezones generate-sources
+*/
+
 /**
     * These are non-standard time zone IDs used by Windows
     * and Outlook. A full list is available from:
     * https://learn.microsoft.com/en-us/windows-hardware/manufacture/desktop/default-time-zones?view=windows-11
     *
+    * Every Windows time zone in the CLDR windowsZones mapping is here.
     * For maximum compatibility with Outlook try to use these time zones.
     */
 public enum OutlookTimeZone {
     /**
-     * Romance Standard Time
+     * AUS Central Standard Time
      */
-    TZ_ROMANCE_STANDARD_TIME("Romance Standard Time"),
+    TZ_AUS_CENTRAL_STANDARD_TIME("AUS Central Standard Time", "Australia/Darwin",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:AUS Central Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0930\r\n" + 
+        "TZOFFSETTO:+0930\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
     /**
-     * Singapore Standard Time
+     * AUS Eastern Standard Time
      */
-    TZ_SINGAPORE_STANDARD_TIME("Singapore Standard Time"),
+    TZ_AUS_EASTERN_STANDARD_TIME("AUS Eastern Standard Time", "Australia/Sydney",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:AUS Eastern Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1000\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
     /**
-     * India Standard Time
+     * Afghanistan Standard Time
+     */
+    TZ_AFGHANISTAN_STANDARD_TIME("Afghanistan Standard Time", "Asia/Kabul",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Afghanistan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0430\r\n" + 
+        "TZOFFSETTO:+0430\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Alaskan Standard Time
+     */
+    TZ_ALASKAN_STANDARD_TIME("Alaskan Standard Time", "America/Anchorage",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Alaskan Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0900\r\n" + 
+        "TZOFFSETTO:-0800\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0800\r\n" + 
+        "TZOFFSETTO:-0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Aleutian Standard Time
+     */
+    TZ_ALEUTIAN_STANDARD_TIME("Aleutian Standard Time", "America/Adak",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Aleutian Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-1000\r\n" + 
+        "TZOFFSETTO:-0900\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0900\r\n" + 
+        "TZOFFSETTO:-1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Altai Standard Time
+     */
+    TZ_ALTAI_STANDARD_TIME("Altai Standard Time", "Asia/Barnaul",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Altai Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Arab Standard Time
+     */
+    TZ_ARAB_STANDARD_TIME("Arab Standard Time", "Asia/Riyadh",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Arab Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Arabian Standard Time
+     */
+    TZ_ARABIAN_STANDARD_TIME("Arabian Standard Time", "Asia/Dubai",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Arabian Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Arabic Standard Time
+     */
+    TZ_ARABIC_STANDARD_TIME("Arabic Standard Time", "Asia/Baghdad",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Arabic Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Argentina Standard Time
+     */
+    TZ_ARGENTINA_STANDARD_TIME("Argentina Standard Time", "America/Buenos_Aires",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Argentina Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Astrakhan Standard Time
      */
-    TZ_INDIA_STANDARD_TIME("India Standard Time"),
+    TZ_ASTRAKHAN_STANDARD_TIME("Astrakhan Standard Time", "Europe/Astrakhan",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Astrakhan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Atlantic Standard Time
+     */
+    TZ_ATLANTIC_STANDARD_TIME("Atlantic Standard Time", "America/Halifax",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Atlantic Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Aus Central W. Standard Time
+     */
+    TZ_AUS_CENTRAL_W_STANDARD_TIME("Aus Central W. Standard Time", "Australia/Eucla",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Aus Central W. Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0845\r\n" + 
+        "TZOFFSETTO:+0845\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Azerbaijan Standard Time
+     */
+    TZ_AZERBAIJAN_STANDARD_TIME("Azerbaijan Standard Time", "Asia/Baku",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Azerbaijan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Azores Standard Time
+     */
+    TZ_AZORES_STANDARD_TIME("Azores Standard Time", "Atlantic/Azores",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Azores Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:-0100\r\n" + 
+        "TZOFFSETTO:+0000\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T010000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0000\r\n" + 
+        "TZOFFSETTO:-0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Bahia Standard Time
+     */
+    TZ_BAHIA_STANDARD_TIME("Bahia Standard Time", "America/Bahia",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Bahia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Bangladesh Standard Time
+     */
+    TZ_BANGLADESH_STANDARD_TIME("Bangladesh Standard Time", "Asia/Dhaka",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Bangladesh Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0600\r\n" + 
+        "TZOFFSETTO:+0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Belarus Standard Time
+     */
+    TZ_BELARUS_STANDARD_TIME("Belarus Standard Time", "Europe/Minsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Belarus Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Bougainville Standard Time
+     */
+    TZ_BOUGAINVILLE_STANDARD_TIME("Bougainville Standard Time", "Pacific/Bougainville",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Bougainville Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Canada Central Standard Time
+     */
+    TZ_CANADA_CENTRAL_STANDARD_TIME("Canada Central Standard Time", "America/Regina",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Canada Central Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Cape Verde Standard Time
+     */
+    TZ_CAPE_VERDE_STANDARD_TIME("Cape Verde Standard Time", "Atlantic/Cape_Verde",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Cape Verde Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0100\r\n" + 
+        "TZOFFSETTO:-0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Caucasus Standard Time
+     */
+    TZ_CAUCASUS_STANDARD_TIME("Caucasus Standard Time", "Asia/Yerevan",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Caucasus Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Cen. Australia Standard Time
+     */
+    TZ_CEN_AUSTRALIA_STANDARD_TIME("Cen. Australia Standard Time", "Australia/Adelaide",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Cen. Australia Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+0930\r\n" + 
+        "TZOFFSETTO:+1030\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1030\r\n" + 
+        "TZOFFSETTO:+0930\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central America Standard Time
+     */
+    TZ_CENTRAL_AMERICA_STANDARD_TIME("Central America Standard Time", "America/Guatemala",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central America Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Asia Standard Time
+     */
+    TZ_CENTRAL_ASIA_STANDARD_TIME("Central Asia Standard Time", "Asia/Almaty",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Asia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0600\r\n" + 
+        "TZOFFSETTO:+0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Brazilian Standard Time
+     */
+    TZ_CENTRAL_BRAZILIAN_STANDARD_TIME("Central Brazilian Standard Time", "America/Cuiaba",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Brazilian Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Europe Standard Time
+     */
+    TZ_CENTRAL_EUROPE_STANDARD_TIME("Central Europe Standard Time", "Europe/Budapest",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Europe Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central European Standard Time
+     */
+    TZ_CENTRAL_EUROPEAN_STANDARD_TIME("Central European Standard Time", "Europe/Warsaw",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central European Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Pacific Standard Time
+     */
+    TZ_CENTRAL_PACIFIC_STANDARD_TIME("Central Pacific Standard Time", "Pacific/Guadalcanal",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Pacific Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Standard Time
+     */
+    TZ_CENTRAL_STANDARD_TIME("Central Standard Time", "America/Chicago",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Central Standard Time (Mexico)
+     */
+    TZ_CENTRAL_STANDARD_TIME_MEXICO("Central Standard Time (Mexico)", "America/Mexico_City",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Central Standard Time (Mexico)\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Chatham Islands Standard Time
+     */
+    TZ_CHATHAM_ISLANDS_STANDARD_TIME("Chatham Islands Standard Time", "Pacific/Chatham",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Chatham Islands Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T024500\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=9;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+1245\r\n" + 
+        "TZOFFSETTO:+1345\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T034500\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1345\r\n" + 
+        "TZOFFSETTO:+1245\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * China Standard Time
+     */
+    TZ_CHINA_STANDARD_TIME("China Standard Time", "Asia/Shanghai",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:China Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Cuba Standard Time
+     */
+    TZ_CUBA_STANDARD_TIME("Cuba Standard Time", "America/Havana",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Cuba Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T010000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Dateline Standard Time
+     */
+    TZ_DATELINE_STANDARD_TIME("Dateline Standard Time", "Etc/GMT+12",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Dateline Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-1200\r\n" + 
+        "TZOFFSETTO:-1200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * E. Africa Standard Time
+     */
+    TZ_E_AFRICA_STANDARD_TIME("E. Africa Standard Time", "Africa/Nairobi",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:E. Africa Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * E. Australia Standard Time
+     */
+    TZ_E_AUSTRALIA_STANDARD_TIME("E. Australia Standard Time", "Australia/Brisbane",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:E. Australia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1000\r\n" + 
+        "TZOFFSETTO:+1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * E. Europe Standard Time
+     */
+    TZ_E_EUROPE_STANDARD_TIME("E. Europe Standard Time", "Europe/Chisinau",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:E. Europe Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * E. South America Standard Time
+     */
+    TZ_E_SOUTH_AMERICA_STANDARD_TIME("E. South America Standard Time", "America/Sao_Paulo",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:E. South America Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Easter Island Standard Time
+     */
+    TZ_EASTER_ISLAND_STANDARD_TIME("Easter Island Standard Time", "Pacific/Easter",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Easter Island Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T220000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=9;BYDAY=1SA\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T220000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SA\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Eastern Standard Time
+     */
+    TZ_EASTERN_STANDARD_TIME("Eastern Standard Time", "America/New_York",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Eastern Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Eastern Standard Time (Mexico)
+     */
+    TZ_EASTERN_STANDARD_TIME_MEXICO("Eastern Standard Time (Mexico)", "America/Cancun",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Eastern Standard Time (Mexico)\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Egypt Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_EGYPT_STANDARD_TIME("Egypt Standard Time", "Africa/Cairo",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Egypt Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Ekaterinburg Standard Time
+     */
+    TZ_EKATERINBURG_STANDARD_TIME("Ekaterinburg Standard Time", "Asia/Yekaterinburg",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Ekaterinburg Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0500\r\n" + 
+        "TZOFFSETTO:+0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
     /**
      * FLE Standard Time
      */
-    TZ_FLE_STANDARD_TIME("FLE Standard Time"),
+    TZ_FLE_STANDARD_TIME("FLE Standard Time", "Europe/Kiev",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:FLE Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T040000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Fiji Standard Time
+     */
+    TZ_FIJI_STANDARD_TIME("Fiji Standard Time", "Pacific/Fiji",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Fiji Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1200\r\n" + 
+        "TZOFFSETTO:+1200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
     /**
      * GMT Standard Time
      */
-    TZ_GMT_STANDARD_TIME("GMT Standard Time");
+    TZ_GMT_STANDARD_TIME("GMT Standard Time", "Europe/London",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:GMT Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T010000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0000\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * GTB Standard Time
+     */
+    TZ_GTB_STANDARD_TIME("GTB Standard Time", "Europe/Bucharest",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:GTB Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T040000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Georgian Standard Time
+     */
+    TZ_GEORGIAN_STANDARD_TIME("Georgian Standard Time", "Asia/Tbilisi",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Georgian Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Greenland Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_GREENLAND_STANDARD_TIME("Greenland Standard Time", "America/Godthab",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Greenland Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0100\r\n" + 
+        "TZOFFSETTO:-0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Greenwich Standard Time
+     */
+    TZ_GREENWICH_STANDARD_TIME("Greenwich Standard Time", "Atlantic/Reykjavik",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Greenwich Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0000\r\n" + 
+        "TZOFFSETTO:+0000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Haiti Standard Time
+     */
+    TZ_HAITI_STANDARD_TIME("Haiti Standard Time", "America/Port-au-Prince",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Haiti Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Hawaiian Standard Time
+     */
+    TZ_HAWAIIAN_STANDARD_TIME("Hawaiian Standard Time", "Pacific/Honolulu",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Hawaiian Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-1000\r\n" + 
+        "TZOFFSETTO:-1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * India Standard Time
+     */
+    TZ_INDIA_STANDARD_TIME("India Standard Time", "Asia/Calcutta",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:India Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0530\r\n" + 
+        "TZOFFSETTO:+0530\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Iran Standard Time
+     */
+    TZ_IRAN_STANDARD_TIME("Iran Standard Time", "Asia/Tehran",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Iran Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0330\r\n" + 
+        "TZOFFSETTO:+0330\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Israel Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_ISRAEL_STANDARD_TIME("Israel Standard Time", "Asia/Jerusalem",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Israel Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Jordan Standard Time
+     */
+    TZ_JORDAN_STANDARD_TIME("Jordan Standard Time", "Asia/Amman",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Jordan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Kaliningrad Standard Time
+     */
+    TZ_KALININGRAD_STANDARD_TIME("Kaliningrad Standard Time", "Europe/Kaliningrad",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Kaliningrad Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Korea Standard Time
+     */
+    TZ_KOREA_STANDARD_TIME("Korea Standard Time", "Asia/Seoul",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Korea Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0900\r\n" + 
+        "TZOFFSETTO:+0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Libya Standard Time
+     */
+    TZ_LIBYA_STANDARD_TIME("Libya Standard Time", "Africa/Tripoli",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Libya Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Line Islands Standard Time
+     */
+    TZ_LINE_ISLANDS_STANDARD_TIME("Line Islands Standard Time", "Pacific/Kiritimati",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Line Islands Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1400\r\n" + 
+        "TZOFFSETTO:+1400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Lord Howe Standard Time
+     */
+    TZ_LORD_HOWE_STANDARD_TIME("Lord Howe Standard Time", "Australia/Lord_Howe",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Lord Howe Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1030\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1030\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Magadan Standard Time
+     */
+    TZ_MAGADAN_STANDARD_TIME("Magadan Standard Time", "Asia/Magadan",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Magadan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Magallanes Standard Time
+     */
+    TZ_MAGALLANES_STANDARD_TIME("Magallanes Standard Time", "America/Punta_Arenas",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Magallanes Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Marquesas Standard Time
+     */
+    TZ_MARQUESAS_STANDARD_TIME("Marquesas Standard Time", "Pacific/Marquesas",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Marquesas Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0930\r\n" + 
+        "TZOFFSETTO:-0930\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Mauritius Standard Time
+     */
+    TZ_MAURITIUS_STANDARD_TIME("Mauritius Standard Time", "Indian/Mauritius",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Mauritius Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Middle East Standard Time
+     */
+    TZ_MIDDLE_EAST_STANDARD_TIME("Middle East Standard Time", "Asia/Beirut",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Middle East Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Montevideo Standard Time
+     */
+    TZ_MONTEVIDEO_STANDARD_TIME("Montevideo Standard Time", "America/Montevideo",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Montevideo Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Morocco Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_MOROCCO_STANDARD_TIME("Morocco Standard Time", "Africa/Casablanca",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Morocco Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Mountain Standard Time
+     */
+    TZ_MOUNTAIN_STANDARD_TIME("Mountain Standard Time", "America/Denver",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Mountain Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0600\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0600\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Mountain Standard Time (Mexico)
+     */
+    TZ_MOUNTAIN_STANDARD_TIME_MEXICO("Mountain Standard Time (Mexico)", "America/Mazatlan",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Mountain Standard Time (Mexico)\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Myanmar Standard Time
+     */
+    TZ_MYANMAR_STANDARD_TIME("Myanmar Standard Time", "Asia/Rangoon",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Myanmar Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0630\r\n" + 
+        "TZOFFSETTO:+0630\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * N. Central Asia Standard Time
+     */
+    TZ_N_CENTRAL_ASIA_STANDARD_TIME("N. Central Asia Standard Time", "Asia/Novosibirsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:N. Central Asia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Namibia Standard Time
+     */
+    TZ_NAMIBIA_STANDARD_TIME("Namibia Standard Time", "Africa/Windhoek",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Namibia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Nepal Standard Time
+     */
+    TZ_NEPAL_STANDARD_TIME("Nepal Standard Time", "Asia/Katmandu",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Nepal Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0545\r\n" + 
+        "TZOFFSETTO:+0545\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * New Zealand Standard Time
+     */
+    TZ_NEW_ZEALAND_STANDARD_TIME("New Zealand Standard Time", "Pacific/Auckland",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:New Zealand Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=9;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+1200\r\n" + 
+        "TZOFFSETTO:+1300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1300\r\n" + 
+        "TZOFFSETTO:+1200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Newfoundland Standard Time
+     */
+    TZ_NEWFOUNDLAND_STANDARD_TIME("Newfoundland Standard Time", "America/St_Johns",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Newfoundland Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0330\r\n" + 
+        "TZOFFSETTO:-0230\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0230\r\n" + 
+        "TZOFFSETTO:-0330\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Norfolk Standard Time
+     */
+    TZ_NORFOLK_STANDARD_TIME("Norfolk Standard Time", "Pacific/Norfolk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Norfolk Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1200\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * North Asia East Standard Time
+     */
+    TZ_NORTH_ASIA_EAST_STANDARD_TIME("North Asia East Standard Time", "Asia/Irkutsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:North Asia East Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * North Asia Standard Time
+     */
+    TZ_NORTH_ASIA_STANDARD_TIME("North Asia Standard Time", "Asia/Krasnoyarsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:North Asia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * North Korea Standard Time
+     */
+    TZ_NORTH_KOREA_STANDARD_TIME("North Korea Standard Time", "Asia/Pyongyang",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:North Korea Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0900\r\n" + 
+        "TZOFFSETTO:+0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Omsk Standard Time
+     */
+    TZ_OMSK_STANDARD_TIME("Omsk Standard Time", "Asia/Omsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Omsk Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0600\r\n" + 
+        "TZOFFSETTO:+0600\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Pacific SA Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_PACIFIC_SA_STANDARD_TIME("Pacific SA Standard Time", "America/Santiago",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Pacific SA Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Pacific Standard Time
+     */
+    TZ_PACIFIC_STANDARD_TIME("Pacific Standard Time", "America/Los_Angeles",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Pacific Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0800\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Pacific Standard Time (Mexico)
+     */
+    TZ_PACIFIC_STANDARD_TIME_MEXICO("Pacific Standard Time (Mexico)", "America/Tijuana",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Pacific Standard Time (Mexico)\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0800\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Pakistan Standard Time
+     */
+    TZ_PAKISTAN_STANDARD_TIME("Pakistan Standard Time", "Asia/Karachi",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Pakistan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0500\r\n" + 
+        "TZOFFSETTO:+0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Paraguay Standard Time
+     */
+    TZ_PARAGUAY_STANDARD_TIME("Paraguay Standard Time", "America/Asuncion",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Paraguay Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=4SU\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Qyzylorda Standard Time
+     */
+    TZ_QYZYLORDA_STANDARD_TIME("Qyzylorda Standard Time", "Asia/Qyzylorda",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Qyzylorda Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0500\r\n" + 
+        "TZOFFSETTO:+0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Romance Standard Time
+     */
+    TZ_ROMANCE_STANDARD_TIME("Romance Standard Time", "Europe/Paris",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Romance Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Russia Time Zone 10
+     */
+    TZ_RUSSIA_TIME_ZONE_10("Russia Time Zone 10", "Asia/Srednekolymsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Russia Time Zone 10\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Russia Time Zone 11
+     */
+    TZ_RUSSIA_TIME_ZONE_11("Russia Time Zone 11", "Asia/Kamchatka",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Russia Time Zone 11\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1200\r\n" + 
+        "TZOFFSETTO:+1200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Russia Time Zone 3
+     */
+    TZ_RUSSIA_TIME_ZONE_3("Russia Time Zone 3", "Europe/Samara",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Russia Time Zone 3\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Russian Standard Time
+     */
+    TZ_RUSSIAN_STANDARD_TIME("Russian Standard Time", "Europe/Moscow",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Russian Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * SA Eastern Standard Time
+     */
+    TZ_SA_EASTERN_STANDARD_TIME("SA Eastern Standard Time", "America/Cayenne",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:SA Eastern Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * SA Pacific Standard Time
+     */
+    TZ_SA_PACIFIC_STANDARD_TIME("SA Pacific Standard Time", "America/Bogota",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:SA Pacific Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * SA Western Standard Time
+     */
+    TZ_SA_WESTERN_STANDARD_TIME("SA Western Standard Time", "America/La_Paz",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:SA Western Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * SE Asia Standard Time
+     */
+    TZ_SE_ASIA_STANDARD_TIME("SE Asia Standard Time", "Asia/Bangkok",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:SE Asia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Saint Pierre Standard Time
+     */
+    TZ_SAINT_PIERRE_STANDARD_TIME("Saint Pierre Standard Time", "America/Miquelon",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Saint Pierre Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0200\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Sakhalin Standard Time
+     */
+    TZ_SAKHALIN_STANDARD_TIME("Sakhalin Standard Time", "Asia/Sakhalin",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Sakhalin Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Samoa Standard Time
+     */
+    TZ_SAMOA_STANDARD_TIME("Samoa Standard Time", "Pacific/Apia",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Samoa Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1300\r\n" + 
+        "TZOFFSETTO:+1300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Sao Tome Standard Time
+     */
+    TZ_SAO_TOME_STANDARD_TIME("Sao Tome Standard Time", "Africa/Sao_Tome",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Sao Tome Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0000\r\n" + 
+        "TZOFFSETTO:+0000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Saratov Standard Time
+     */
+    TZ_SARATOV_STANDARD_TIME("Saratov Standard Time", "Europe/Saratov",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Saratov Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0400\r\n" + 
+        "TZOFFSETTO:+0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Singapore Standard Time
+     */
+    TZ_SINGAPORE_STANDARD_TIME("Singapore Standard Time", "Asia/Singapore",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Singapore Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * South Africa Standard Time
+     */
+    TZ_SOUTH_AFRICA_STANDARD_TIME("South Africa Standard Time", "Africa/Johannesburg",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:South Africa Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * South Sudan Standard Time
+     */
+    TZ_SOUTH_SUDAN_STANDARD_TIME("South Sudan Standard Time", "Africa/Juba",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:South Sudan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Sri Lanka Standard Time
+     */
+    TZ_SRI_LANKA_STANDARD_TIME("Sri Lanka Standard Time", "Asia/Colombo",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Sri Lanka Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0530\r\n" + 
+        "TZOFFSETTO:+0530\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Sudan Standard Time
+     */
+    TZ_SUDAN_STANDARD_TIME("Sudan Standard Time", "Africa/Khartoum",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Sudan Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Syria Standard Time
+     */
+    TZ_SYRIA_STANDARD_TIME("Syria Standard Time", "Asia/Damascus",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Syria Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Taipei Standard Time
+     */
+    TZ_TAIPEI_STANDARD_TIME("Taipei Standard Time", "Asia/Taipei",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Taipei Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Tasmania Standard Time
+     */
+    TZ_TASMANIA_STANDARD_TIME("Tasmania Standard Time", "Australia/Hobart",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Tasmania Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1000\r\n" + 
+        "TZOFFSETTO:+1100\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:+1100\r\n" + 
+        "TZOFFSETTO:+1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Tocantins Standard Time
+     */
+    TZ_TOCANTINS_STANDARD_TIME("Tocantins Standard Time", "America/Araguaina",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Tocantins Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0300\r\n" + 
+        "TZOFFSETTO:-0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Tokyo Standard Time
+     */
+    TZ_TOKYO_STANDARD_TIME("Tokyo Standard Time", "Asia/Tokyo",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Tokyo Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0900\r\n" + 
+        "TZOFFSETTO:+0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Tomsk Standard Time
+     */
+    TZ_TOMSK_STANDARD_TIME("Tomsk Standard Time", "Asia/Tomsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Tomsk Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Tonga Standard Time
+     */
+    TZ_TONGA_STANDARD_TIME("Tonga Standard Time", "Pacific/Tongatapu",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Tonga Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1300\r\n" + 
+        "TZOFFSETTO:+1300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Transbaikal Standard Time
+     */
+    TZ_TRANSBAIKAL_STANDARD_TIME("Transbaikal Standard Time", "Asia/Chita",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Transbaikal Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0900\r\n" + 
+        "TZOFFSETTO:+0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Turkey Standard Time
+     */
+    TZ_TURKEY_STANDARD_TIME("Turkey Standard Time", "Europe/Istanbul",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Turkey Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Turks And Caicos Standard Time
+     */
+    TZ_TURKS_AND_CAICOS_STANDARD_TIME("Turks And Caicos Standard Time", "America/Grand_Turk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Turks And Caicos Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * US Eastern Standard Time
+     */
+    TZ_US_EASTERN_STANDARD_TIME("US Eastern Standard Time", "America/Indianapolis",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:US Eastern Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=2SU\r\n" + 
+        "TZOFFSETFROM:-0500\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=1SU\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * US Mountain Standard Time
+     */
+    TZ_US_MOUNTAIN_STANDARD_TIME("US Mountain Standard Time", "America/Phoenix",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:US Mountain Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC
+     */
+    TZ_UTC("UTC", "Etc/UTC",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0000\r\n" + 
+        "TZOFFSETTO:+0000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC+12
+     */
+    TZ_UTC_PLUS_12("UTC+12", "Etc/GMT-12",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC+12\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1200\r\n" + 
+        "TZOFFSETTO:+1200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC+13
+     */
+    TZ_UTC_PLUS_13("UTC+13", "Etc/GMT-13",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC+13\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1300\r\n" + 
+        "TZOFFSETTO:+1300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC-02
+     */
+    TZ_UTC_MINUS_02("UTC-02", "Etc/GMT+2",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC-02\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0200\r\n" + 
+        "TZOFFSETTO:-0200\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC-08
+     */
+    TZ_UTC_MINUS_08("UTC-08", "Etc/GMT+8",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC-08\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0800\r\n" + 
+        "TZOFFSETTO:-0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC-09
+     */
+    TZ_UTC_MINUS_09("UTC-09", "Etc/GMT+9",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC-09\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0900\r\n" + 
+        "TZOFFSETTO:-0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * UTC-11
+     */
+    TZ_UTC_MINUS_11("UTC-11", "Etc/GMT+11",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:UTC-11\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-1100\r\n" + 
+        "TZOFFSETTO:-1100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Ulaanbaatar Standard Time
+     */
+    TZ_ULAANBAATAR_STANDARD_TIME("Ulaanbaatar Standard Time", "Asia/Ulaanbaatar",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Ulaanbaatar Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Venezuela Standard Time
+     */
+    TZ_VENEZUELA_STANDARD_TIME("Venezuela Standard Time", "America/Caracas",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Venezuela Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0400\r\n" + 
+        "TZOFFSETTO:-0400\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Vladivostok Standard Time
+     */
+    TZ_VLADIVOSTOK_STANDARD_TIME("Vladivostok Standard Time", "Asia/Vladivostok",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Vladivostok Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1000\r\n" + 
+        "TZOFFSETTO:+1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Volgograd Standard Time
+     */
+    TZ_VOLGOGRAD_STANDARD_TIME("Volgograd Standard Time", "Europe/Volgograd",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Volgograd Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * W. Australia Standard Time
+     */
+    TZ_W_AUSTRALIA_STANDARD_TIME("W. Australia Standard Time", "Australia/Perth",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:W. Australia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0800\r\n" + 
+        "TZOFFSETTO:+0800\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * W. Central Africa Standard Time
+     */
+    TZ_W_CENTRAL_AFRICA_STANDARD_TIME("W. Central Africa Standard Time", "Africa/Lagos",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:W. Central Africa Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * W. Europe Standard Time
+     */
+    TZ_W_EUROPE_STANDARD_TIME("W. Europe Standard Time", "Europe/Berlin",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:W. Europe Standard Time\r\n" + 
+        "BEGIN:DAYLIGHT\r\n" + 
+        "DTSTART:16010101T020000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0100\r\n" + 
+        "TZOFFSETTO:+0200\r\n" + 
+        "END:DAYLIGHT\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T030000\r\n" + 
+        "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n" + 
+        "TZOFFSETFROM:+0200\r\n" + 
+        "TZOFFSETTO:+0100\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * W. Mongolia Standard Time
+     */
+    TZ_W_MONGOLIA_STANDARD_TIME("W. Mongolia Standard Time", "Asia/Hovd",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:W. Mongolia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0700\r\n" + 
+        "TZOFFSETTO:+0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * West Asia Standard Time
+     */
+    TZ_WEST_ASIA_STANDARD_TIME("West Asia Standard Time", "Asia/Tashkent",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:West Asia Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0500\r\n" + 
+        "TZOFFSETTO:+0500\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * West Bank Standard Time
+     * <p>
+     * The daylight saving time rules of this zone are not yearly rules.
+     * The VTIMEZONE has the offset that is in effect most of the time and
+     * no daylight saving time.
+     */
+    TZ_WEST_BANK_STANDARD_TIME("West Bank Standard Time", "Asia/Hebron",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:West Bank Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0300\r\n" + 
+        "TZOFFSETTO:+0300\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * West Pacific Standard Time
+     */
+    TZ_WEST_PACIFIC_STANDARD_TIME("West Pacific Standard Time", "Pacific/Port_Moresby",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:West Pacific Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+1000\r\n" + 
+        "TZOFFSETTO:+1000\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Yakutsk Standard Time
+     */
+    TZ_YAKUTSK_STANDARD_TIME("Yakutsk Standard Time", "Asia/Yakutsk",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Yakutsk Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:+0900\r\n" + 
+        "TZOFFSETTO:+0900\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n"),
+    /**
+     * Yukon Standard Time
+     */
+    TZ_YUKON_STANDARD_TIME("Yukon Standard Time", "America/Whitehorse",
+        "BEGIN:VTIMEZONE\r\n" + 
+        "TZID:Yukon Standard Time\r\n" + 
+        "BEGIN:STANDARD\r\n" + 
+        "DTSTART:16010101T000000\r\n" + 
+        "TZOFFSETFROM:-0700\r\n" + 
+        "TZOFFSETTO:-0700\r\n" + 
+        "END:STANDARD\r\n" + 
+        "END:VTIMEZONE\r\n");
 
     private final String tzId;
+    private final String ianaTzId;
+    private final String vTimeZone;
 
-    private static final HashMap<String, String> vTimeZoneMap;
-    private static final HashMap<String, OutlookTimeZone> ianaTzIdMap;
-
-    static {
-        vTimeZoneMap = new HashMap<>();
-
-        vTimeZoneMap.put(TZ_ROMANCE_STANDARD_TIME.toString(), 
-            "BEGIN:VTIMEZONE\r\n" + 
-            "TZID:Romance Standard Time\r\n" + 
-            "BEGIN:STANDARD\r\n" + 
-            "DTSTART:16010101T030000\r\n" + 
-            "TZOFFSETFROM:+0200\r\n" + 
-            "TZOFFSETTO:+0100\r\n" + 
-            "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=10\r\n" + 
-            "END:STANDARD\r\n" + 
-            "BEGIN:DAYLIGHT\r\n" + 
-            "DTSTART:16010101T020000\r\n" + 
-            "TZOFFSETFROM:+0100\r\n" + 
-            "TZOFFSETTO:+0200\r\n" + 
-            "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=3\r\n" + 
-            "END:DAYLIGHT\r\n" + 
-            "END:VTIMEZONE\r\n");
-
-        vTimeZoneMap.put(TZ_SINGAPORE_STANDARD_TIME.toString(), 
-            "BEGIN:VTIMEZONE\r\n" + 
-            "TZID:Singapore Standard Time\r\n" + 
-            "BEGIN:STANDARD\r\n" + 
-            "DTSTART:16010101T000000\r\n" + 
-            "TZOFFSETFROM:+0800\r\n" + 
-            "TZOFFSETTO:+0800\r\n" + 
-            "END:STANDARD\r\n" + 
-            "END:VTIMEZONE\r\n");
-
-        vTimeZoneMap.put(TZ_FLE_STANDARD_TIME.toString(), 
-            "BEGIN:VTIMEZONE\r\n" + 
-            "TZID:FLE Standard Time\r\n" + 
-            "BEGIN:STANDARD\r\n" + 
-            "DTSTART:16011028T040000\r\n" + 
-            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=10\r\n" + 
-            "TZOFFSETFROM:+0300\r\n" + 
-            "TZOFFSETTO:+0200\r\n" + 
-            "END:STANDARD\r\n" + 
-            "BEGIN:DAYLIGHT\r\n" + 
-            "DTSTART:16010325T030000\r\n" + 
-            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=3\r\n" + 
-            "TZOFFSETFROM:+0200\r\n" + 
-            "TZOFFSETTO:+0300\r\n" + 
-            "END:DAYLIGHT\r\n" + 
-            "END:VTIMEZONE\r\n");
-
-        vTimeZoneMap.put(TZ_GMT_STANDARD_TIME.toString(), 
-            "BEGIN:VTIMEZONE\r\n" + 
-            "TZID:GMT Standard Time\r\n" + 
-            "BEGIN:STANDARD\r\n" + 
-            "DTSTART:16011028T020000\r\n" + 
-            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=10\r\n" + 
-            "TZOFFSETFROM:+0100\r\n" + 
-            "TZOFFSETTO:-0000\r\n" + 
-            "END:STANDARD\r\n" + 
-            "BEGIN:DAYLIGHT\r\n" + 
-            "DTSTART:16010325T010000\r\n" + 
-            "RRULE:FREQ=YEARLY;BYDAY=-1SU;BYMONTH=3\r\n" + 
-            "TZOFFSETFROM:-0000\r\n" + 
-            "TZOFFSETTO:+0100\r\n" + 
-            "END:DAYLIGHT\r\n" + 
-            "END:VTIMEZONE\r\n");
-
-        vTimeZoneMap.put(TZ_INDIA_STANDARD_TIME.toString(), 
-            "BEGIN:VTIMEZONE\r\n" + 
-            "TZID:India Standard Time\r\n" + 
-            "BEGIN:STANDARD\r\n" + 
-            "DTSTART:16010101T000000\r\n" + 
-            "TZOFFSETFROM:+0530\r\n" + 
-            "TZOFFSETTO:+0530\r\n" + 
-            "END:STANDARD\r\n" + 
-            "END:VTIMEZONE\r\n");
-
-
-        ianaTzIdMap = new HashMap<>();
-
-        ianaTzIdMap.put("Asia/Singapore", TZ_SINGAPORE_STANDARD_TIME);
-        ianaTzIdMap.put("Asia/Kolkata", TZ_INDIA_STANDARD_TIME);
-        ianaTzIdMap.put("Europe/Lisbon", TZ_GMT_STANDARD_TIME);
-        ianaTzIdMap.put("Europe/Paris", TZ_ROMANCE_STANDARD_TIME);
-        ianaTzIdMap.put("Europe/Helsinki", TZ_FLE_STANDARD_TIME);
-    }
-
-    private OutlookTimeZone(String tzId) {
+    private OutlookTimeZone(String tzId, String ianaTzId, String vTimeZone) {
         this.tzId = tzId;
+        this.ianaTzId = ianaTzId;
+        this.vTimeZone = vTimeZone;
     }
     
     @Override
@@ -135,7 +1961,16 @@ public enum OutlookTimeZone {
      * @return The VTIMEZONE section wrapped in BEGIN:VTIMEZONE and END:VTIMEZONE.
      */
     public String toVTimeZone() {
-        return vTimeZoneMap.get(tzId);
+        return vTimeZone;
+    }
+
+    /**
+     * Gets the IANA time zone ID that CLDR gives for this time zone
+     * when the country is not known.
+     * @return The IANA time zone ID. Such as "Europe/Paris"
+     */
+    public String getIANATimeZone() {
+        return ianaTzId;
     }
 
     /**
@@ -148,6 +1983,477 @@ public enum OutlookTimeZone {
      * @return The matching OutlookTimeZone.
      */
     public static Optional<OutlookTimeZone> fromIANATimeZone(String tzId) {
-        return Optional.ofNullable(ianaTzIdMap.get(tzId));
+        if (tzId == null) {
+            return Optional.empty();
+        }
+
+        int slot = Tables.slot(tzId, Tables.IANA_SEEDS, Tables.IANA_IDS.length - 1);
+
+        return tzId.equals(Tables.IANA_IDS[slot])
+            ? Tables.FOUND[Tables.IANA_ZONES[slot]]
+            : Optional.empty();
+    }
+
+    /**
+     * Converts a Windows time zone ID to OutlookTimeZone.
+     * 
+     * @param tzId Windows time zone id. Such as "Romance Standard Time"
+     * @return The matching OutlookTimeZone.
+     */
+    public static Optional<OutlookTimeZone> fromWindowsTimeZone(String tzId) {
+        if (tzId == null) {
+            return Optional.empty();
+        }
+
+        int zone = Tables.WINDOWS_ZONES[Tables.slot(tzId, Tables.WINDOWS_SEEDS, Tables.WINDOWS_ZONES.length - 1)];
+
+        return zone >= 0 && Tables.ZONES[zone].tzId.equals(tzId)
+            ? Tables.FOUND[zone]
+            : Optional.empty();
+    }
+
+    /*
+    Perfect hash tables. A key goes to a bucket. The seed of the bucket
+    sends every key in it to its own slot. The tables are only loaded
+    on the first lookup.
+    */
+    private static class Tables {
+        static final OutlookTimeZone[] ZONES = values();
+        //A lookup hands out the same Optional every time instead of a new one
+        static final Optional<OutlookTimeZone>[] FOUND = found();
+
+        static final int[] WINDOWS_SEEDS = {
+            0, 1, 1, 2, 5, 4, 0, 1, 2, 1, 3, 1,
+            2, 2, 4, 3, 4, 1, 1, 0, 1, 1, 5, 3,
+            2, 2, 1, 2, 2, 5, 3, 0, 0, 2, 1, 8,
+            2, 0, 3, 0, 2, 5, 4, 2, 1, 1, 1, 4,
+            7, 3, 4, 3, 3, 1, 1, 0, 14, 1, 2, 2,
+            4, 2, 0, 1
+        };
+
+        static final short[] WINDOWS_ZONES = {
+            62, 9, 134, 129, 35, -1, 116, -1, 59, -1, -1, 84,
+            -1, 67, -1, 27, 106, -1, -1, -1, 45, 26, -1, 104,
+            -1, -1, -1, 138, 109, -1, -1, -1, 110, 117, 114, -1,
+            -1, -1, -1, 60, -1, -1, -1, -1, -1, -1, 4, -1,
+            -1, 57, 85, -1, -1, 65, -1, -1, -1, 11, -1, -1,
+            76, 89, -1, 46, 44, -1, -1, 39, 92, 93, -1, 5,
+            0, 71, -1, -1, 32, 3, -1, 7, -1, 10, -1, 80,
+            16, 73, 38, -1, 42, 105, -1, -1, 22, -1, 121, -1,
+            128, 13, 127, 88, 101, -1, 64, 41, 123, -1, 98, 118,
+            137, 102, -1, -1, 53, 125, 97, 48, 54, 119, 68, 94,
+            19, -1, -1, -1, 72, 95, -1, 66, -1, 20, -1, 79,
+            -1, -1, 51, 113, 18, -1, 99, -1, 2, 28, 77, 132,
+            -1, 120, 74, 37, -1, 91, -1, -1, -1, 82, -1, -1,
+            36, 24, -1, 135, 52, -1, -1, 86, -1, -1, 63, -1,
+            -1, -1, 103, -1, -1, -1, 69, -1, 70, -1, 6, 30,
+            -1, -1, 40, 12, -1, 33, 49, -1, -1, 112, -1, 108,
+            126, -1, -1, -1, 31, -1, -1, 107, -1, -1, -1, -1,
+            -1, 8, -1, 50, 56, 43, 34, 122, -1, 15, -1, 83,
+            87, -1, 58, -1, 47, 100, 55, 78, 29, -1, 81, 21,
+            -1, -1, -1, 14, 133, -1, -1, -1, -1, 131, 61, 124,
+            25, 75, -1, -1, 23, 1, -1, 136, -1, 96, 130, 17,
+            111, 115, -1, 90
+        };
+
+        static final int[] IANA_SEEDS = {
+            1, 0, 1, 1, 1, 1, 1, 1, 4, 1, 1, 1,
+            1, 4, 1, 6, 0, 2, 5, 2, 1, 2, 1, 0,
+            2, 2, 1, 1, 3, 1, 1, 2, 2, 0, 1, 0,
+            1, 4, 2, 0, 1, 1, 1, 1, 1, 0, 1, 5,
+            2, 8, 4, 0, 5, 10, 2, 4, 1, 4, 2, 1,
+            0, 1, 12, 2, 0, 0, 3, 2, 1, 7, 7, 2,
+            2, 1, 1, 5, 4, 4, 1, 1, 11, 1, 1, 1,
+            0, 2, 1, 1, 1, 4, 10, 6, 5, 3, 5, 1,
+            2, 0, 5, 2, 1, 4, 2, 3, 0, 3, 3, 7,
+            10, 2, 2, 2, 15, 0, 4, 1, 1, 0, 2, 11,
+            1, 1, 4, 4, 2, 6, 1, 2, 10, 19, 8, 3,
+            2, 3, 4, 2, 3, 1, 1, 1, 1, 2, 4, 1,
+            2, 1, 2, 1, 5, 1, 8, 6, 7, 1, 2, 5,
+            1, 24, 0, 0, 4, 1, 0, 2, 2, 1, 1, 2,
+            1, 2, 3, 4, 1, 1, 1, 1, 1, 1, 1, 1,
+            1, 12, 1, 2, 2, 4, 7, 1, 9, 2, 4, 3,
+            1, 3, 1, 2, 9, 1, 4, 5, 3, 0, 1, 2,
+            2, 8, 3, 12, 1, 1, 6, 3, 1, 1, 6, 3,
+            1, 6, 4, 0, 2, 2, 1, 2, 3, 1, 5, 1,
+            5, 2, 6, 1, 1, 2, 1, 3, 1, 2, 26, 2,
+            1, 2, 1, 10, 1, 3, 1, 0, 8, 1, 0, 4,
+            5, 2, 16, 3
+        };
+
+        static final String[] IANA_IDS = {
+            "Africa/Asmara", "Europe/Ulyanovsk", "America/Argentina/Mendoza", "Chile/Continental",
+            "Africa/Windhoek", "America/St_Vincent", null, "Pacific/Fakaofo",
+            "Pacific/Wake", null, "America/Indiana/Vincennes", null,
+            null, "Asia/Khandyga", "Asia/Omsk", null,
+            "Asia/Yangon", null, null, null,
+            null, null, "Africa/Porto-Novo", null,
+            null, null, null, null,
+            "ACT", "America/Argentina/La_Rioja", "Antarctica/Palmer", "Indian/Mahe",
+            null, null, null, null,
+            "Australia/South", "Indian/Kerguelen", "America/Argentina/Jujuy", "Africa/El_Aaiun",
+            "Asia/Phnom_Penh", null, "Africa/Conakry", "Canada/Central",
+            "Asia/Kuwait", null, "JST", null,
+            "America/Argentina/San_Juan", "MST", "Asia/Magadan", null,
+            null, "America/Sitka", null, "Etc/GMT-14",
+            null, "US/Eastern", null, null,
+            "Eire", "Pacific/Tongatapu", null, "Australia/West",
+            "Europe/Berlin", null, null, null,
+            "MST7MDT", "Pacific/Chatham", "Australia/Melbourne", "America/Grenada",
+            "Africa/Djibouti", "Asia/Bahrain", "Africa/Tripoli", "Kwajalein",
+            "America/Menominee", null, "America/St_Barthelemy", "America/Boa_Vista",
+            null, "Europe/Budapest", "ECT", "Asia/Aden",
+            "Etc/Universal", "Asia/Jerusalem", "America/Nome", null,
+            "Atlantic/St_Helena", null, "Pacific/Rarotonga", "Asia/Aqtobe",
+            null, null, "Navajo", "Pacific/Guam",
+            null, "Universal", "Asia/Dhaka", null,
+            null, null, null, "Pacific/Kiritimati",
+            null, "Etc/GMT-0", "Etc/GMT-11", "Etc/GMT-6",
+            "Asia/Gaza", "America/Indianapolis", "Indian/Mayotte", null,
+            "America/Montreal", "Iran", null, "PRC",
+            "Europe/Rome", "Europe/Uzhgorod", null, "CAT",
+            "America/Asuncion", null, "Pacific/Midway", "America/Rainy_River",
+            "Singapore", null, null, "Africa/Libreville",
+            "Asia/Irkutsk", null, "Europe/Belgrade", "America/Indiana/Knox",
+            "Asia/Vladivostok", null, "GB", null,
+            "Asia/Singapore", "Europe/Saratov", null, "Europe/Istanbul",
+            "Etc/GMT+12", "America/Grand_Turk", null, null,
+            "Mexico/General", "Europe/Andorra", "Asia/Chongqing", null,
+            "Asia/Aqtau", "Africa/Sao_Tome", "America/Santo_Domingo", "America/Boise",
+            "Asia/Damascus", null, null, "Canada/East-Saskatchewan",
+            "UCT", "Etc/GMT-8", "America/Lower_Princes", null,
+            "Australia/ACT", "Pacific/Tahiti", "America/Swift_Current", "Asia/Baghdad",
+            "Australia/Perth", null, null, "Africa/Malabo",
+            "Indian/Christmas", null, null, "Australia/LHI",
+            null, "America/North_Dakota/Center", null, null,
+            "Etc/Zulu", null, "America/Noronha", "America/Chihuahua",
+            "Asia/Yakutsk", null, null, null,
+            "Brazil/East", "Europe/Zagreb", null, null,
+            "Pacific/Noumea", "Asia/Atyrau", null, "America/Jujuy",
+            "Etc/Greenwich", null, "Atlantic/Cape_Verde", null,
+            "Asia/Dacca", "America/Indiana/Winamac", null, "Asia/Tokyo",
+            null, "Atlantic/Canary", "Africa/Ceuta", null,
+            "Europe/Ljubljana", "America/Indiana/Tell_City", "Africa/Blantyre", "Africa/Abidjan",
+            "America/Cambridge_Bay", "America/Iqaluit", "America/Nuuk", null,
+            null, "America/Godthab", "Asia/Ujung_Pandang", "CTT",
+            "Asia/Sakhalin", null, "America/Danmarkshavn", "Africa/Lagos",
+            "Asia/Calcutta", "Europe/Simferopol", "Etc/GMT0", "Africa/Casablanca",
+            "Pacific/Palau", null, "GMT+0", "Europe/Lisbon",
+            "Etc/GMT+8", "Pacific/Auckland", "America/Merida", "America/Marigot",
+            null, "Asia/Brunei", null, "Etc/GMT+5",
+            "Asia/Ho_Chi_Minh", "America/Kralendijk", null, "Europe/Bratislava",
+            "America/Resolute", null, "Australia/Victoria", "Europe/Gibraltar",
+            "Canada/Yukon", null, null, "Africa/Juba",
+            null, "Europe/Tallinn", null, "America/Glace_Bay",
+            "Japan", null, "Asia/Chungking", "Indian/Cocos",
+            "US/Pacific-New", null, null, "Egypt",
+            "Etc/GMT-2", "Etc/GMT+9", null, "Pacific/Bougainville",
+            "America/Indiana/Petersburg", "Australia/Yancowinna", null, "Asia/Bangkok",
+            "Europe/Skopje", "PRT", "Europe/Stockholm", "Pacific/Nauru",
+            null, null, null, null,
+            "America/Curacao", null, "Turkey", "Asia/Beirut",
+            null, null, null, null,
+            "America/Catamarca", "Portugal", null, "Africa/Brazzaville",
+            null, null, null, "Africa/Dakar",
+            null, "Asia/Samarkand", "EST", null,
+            "Asia/Ulaanbaatar", null, "Etc/GMT+6", null,
+            "Australia/Broken_Hill", "Asia/Srednekolymsk", "Canada/Mountain", null,
+            "America/Shiprock", "Europe/Chisinau", "America/Fort_Nelson", null,
+            "America/Inuvik", "Europe/Sofia", "Australia/NSW", null,
+            null, "Europe/Vaduz", "Africa/Dar_es_Salaam", "Asia/Macao",
+            null, null, "Asia/Tomsk", "Canada/Atlantic",
+            null, null, "Etc/GMT+7", "America/Scoresbysund",
+            "America/La_Paz", "Asia/Yerevan", "America/St_Kitts", "Etc/GMT",
+            "MIT", "Europe/Vatican", "ROC", null,
+            null, "Africa/Gaborone", null, "Pacific/Truk",
+            "PST", "America/Guayaquil", null, "America/Coral_Harbour",
+            "Asia/Qostanay", "America/Argentina/Cordoba", "America/Argentina/ComodRivadavia", "America/Phoenix",
+            "Atlantic/Faeroe", "America/Indiana/Marengo", "Europe/Guernsey", null,
+            null, "Etc/GMT+1", null, null,
+            "Africa/Ouagadougou", "Hongkong", null, "Asia/Choibalsan",
+            "Etc/GMT-12", "America/Creston", "US/Pacific", "Greenwich",
+            null, "Pacific/Samoa", "America/El_Salvador", "Atlantic/Madeira",
+            null, "Asia/Ashgabat", "America/Maceio", null,
+            "Africa/Monrovia", "Europe/Brussels", null, "America/Puerto_Rico",
+            null, "Europe/Bucharest", "Asia/Dubai", null,
+            null, null, "Africa/Harare", null,
+            "Asia/Hebron", null, null, null,
+            "Etc/GMT-5", "Etc/GMT-1", "America/Recife", "America/Pangnirtung",
+            null, null, "Asia/Rangoon", null,
+            "Pacific/Guadalcanal", null, null, "Africa/Timbuktu",
+            "Asia/Istanbul", null, null, "Indian/Reunion",
+            "Europe/Helsinki", "US/Hawaii", null, null,
+            "America/Dawson_Creek", "Libya", "Etc/GMT+0", null,
+            null, null, null, null,
+            null, "America/Argentina/Buenos_Aires", "GMT", null,
+            null, null, "America/Lima", null,
+            "Australia/Tasmania", "Pacific/Chuuk", null, "America/Edmonton",
+            "Europe/Luxembourg", null, null, null,
+            "Africa/Kinshasa", "Africa/Kigali", "Asia/Ust-Nera", null,
+            "Antarctica/McMurdo", null, null, "Pacific/Fiji",
+            "America/Guyana", null, null, null,
+            null, "Asia/Almaty", "Antarctica/Syowa", "Africa/Banjul",
+            null, null, null, null,
+            null, "Europe/Busingen", "HST", null,
+            "AST", "America/Antigua", null, "Mexico/BajaSur",
+            "Europe/Moscow", "Africa/Nouakchott", null, null,
+            null, "Africa/Algiers", null, "Europe/Mariehamn",
+            null, null, "America/Araguaina", "Asia/Kolkata",
+            "America/Kentucky/Monticello", "America/Punta_Arenas", null, "Etc/UTC",
+            null, "Europe/Zurich", null, null,
+            "Asia/Nicosia", "Africa/Maputo", "PNT", "America/Winnipeg",
+            "America/Bahia_Banderas", "Antarctica/DumontDUrville", "America/Ojinaga", "Indian/Comoro",
+            "Etc/GMT+3", "Asia/Tbilisi", "Pacific/Niue", "America/Costa_Rica",
+            "Africa/Khartoum", "Pacific/Pago_Pago", null, "America/Rio_Branco",
+            "Africa/Luanda", null, "Europe/Minsk", "Europe/Vienna",
+            null, null, "America/Bahia", "America/Adak",
+            null, "Asia/Yekaterinburg", "Etc/GMT+11", null,
+            null, "America/Detroit", null, "America/Atka",
+            null, null, null, null,
+            "Africa/Freetown", "America/Guadeloupe", null, "Pacific/Funafuti",
+            "Europe/Isle_of_Man", "Europe/Warsaw", null, "ROK",
+            "Asia/Oral", "America/Argentina/Rio_Gallegos", "Etc/GMT+4", null,
+            "Australia/Brisbane", null, "America/Halifax", null,
+            "America/Belem", "US/Alaska", null, "Africa/Cairo",
+            null, null, "BET", null,
+            "Pacific/Majuro", null, "Asia/Tashkent", "Europe/Amsterdam",
+            "America/Indiana/Vevay", null, null, "America/Santiago",
+            "Pacific/Marquesas", "America/Managua", "Australia/Eucla", null,
+            "Atlantic/Azores", "America/Monterrey", "Pacific/Johnston", null,
+            null, "Antarctica/Casey", "Asia/Kashgar", null,
+            "NET", "Indian/Antananarivo", "Europe/Podgorica", "Australia/Currie",
+            "Africa/Johannesburg", "Atlantic/Bermuda", null, null,
+            "America/Martinique", "Antarctica/Davis", null, "America/Kentucky/Louisville",
+            "CNT", null, "Canada/Eastern", null,
+            null, null, null, null,
+            null, "Asia/Kuching", "America/Argentina/Catamarca", null,
+            null, "Asia/Pontianak", "America/Ciudad_Juarez", "Asia/Novosibirsk",
+            "NZ-CHAT", null, null, null,
+            "UTC", "Chile/EasterIsland", null, null,
+            "Pacific/Norfolk", "America/Mexico_City", null, null,
+            null, null, "Europe/Kaliningrad", "Asia/Thimphu",
+            "Asia/Barnaul", "Asia/Chita", "Pacific/Saipan", null,
+            "Etc/GMT-3", "Pacific/Efate", null, null,
+            null, null, null, null,
+            null, "Etc/GMT-10", "Australia/Adelaide", "Africa/Kampala",
+            "Pacific/Enderbury", null, "America/Argentina/Salta", "Pacific/Apia",
+            null, null, "America/Santarem", null,
+            "America/Thunder_Bay", "America/Yellowknife", "Australia/Lindeman", null,
+            null, null, "America/Yakutat", null,
+            "America/Blanc-Sablon", null, "Arctic/Longyearbyen", "Pacific/Kwajalein",
+            "Indian/Maldives", null, "Europe/Prague", "Europe/Tirane",
+            null, "America/Atikokan", null, "IET",
+            null, "America/Argentina/Ushuaia", "Asia/Kathmandu", null,
+            "Europe/Samara", "GB-Eire", "Africa/Asmera", "VST",
+            null, null, null, "Asia/Qatar",
+            null, "Etc/GMT-13", "Europe/Jersey", null,
+            null, "Atlantic/Reykjavik", "Pacific/Pohnpei", "Europe/Volgograd",
+            "Pacific/Port_Moresby", null, null, "Asia/Taipei",
+            "Etc/UCT", null, null, "Europe/Kirov",
+            null, "America/Rosario", "Asia/Thimbu", "IST",
+            "America/Tortola", "Africa/Ndjamena", null, "GMT-0",
+            "America/Santa_Isabel", null, null, null,
+            "America/North_Dakota/New_Salem", null, "Asia/Saigon", null,
+            null, "Antarctica/South_Pole", "Asia/Jakarta", null,
+            "Asia/Muscat", null, "America/Thule", "Europe/Sarajevo",
+            null, null, null, "US/Central",
+            "Asia/Dili", "America/Tegucigalpa", "Asia/Baku", "America/Juneau",
+            "Pacific/Yap", null, null, null,
+            null, "Antarctica/Vostok", "America/Miquelon", "Etc/GMT-9",
+            null, "America/Montevideo", "US/Michigan", "Pacific/Kanton",
+            null, "America/Barbados", "America/St_Johns", null,
+            "Poland", null, null, "Indian/Chagos",
+            null, null, "Zulu", "Asia/Ashkhabad",
+            "Asia/Hong_Kong", "Asia/Urumqi", "Antarctica/Rothera", "Africa/Bangui",
+            null, null, "US/Mountain", null,
+            null, null, "Europe/Kiev", "Africa/Mogadishu",
+            null, null, "America/Los_Angeles", null,
+            "Asia/Vientiane", "GMT0", null, "Israel",
+            "America/Cancun", null, "America/Chicago", null,
+            null, null, "Asia/Ulan_Bator", "EST5EDT",
+            "Etc/GMT+10", null, "America/Panama", "Africa/Mbabane",
+            "Pacific/Galapagos", "America/Knox_IN", "Atlantic/South_Georgia", null,
+            "Europe/Monaco", null, "Pacific/Ponape", "Asia/Novokuznetsk",
+            "Asia/Kuala_Lumpur", null, "CST6CDT", "AGT",
+            null, "Europe/Kyiv", "America/Tijuana", null,
+            "Africa/Lubumbashi", null, "America/Nipigon", null,
+            "Asia/Karachi", null, null, null,
+            "Asia/Katmandu", null, "Mexico/BajaNorte", null,
+            null, null, "Asia/Kamchatka", null,
+            "Africa/Maseru", null, null, "America/Bogota",
+            "Etc/GMT-7", null, "US/East-Indiana", "Pacific/Pitcairn",
+            null, "America/Port-au-Prince", null, null,
+            "America/Dominica", "America/Hermosillo", null, null,
+            "Asia/Qyzylorda", null, "Asia/Seoul", null,
+            null, null, "America/Denver", null,
+            null, "Europe/Tiraspol", "Canada/Saskatchewan", "Europe/Riga",
+            "SST", "US/Indiana-Starke", "America/Vancouver", "America/Belize",
+            "America/Metlakatla", null, "America/Toronto", "Asia/Krasnoyarsk",
+            "America/Ensenada", null, "America/Rankin_Inlet", "America/New_York",
+            "America/Fort_Wayne", "America/Port_of_Spain", "America/Sao_Paulo", "Africa/Accra",
+            "Europe/Zaporozhye", "Europe/Oslo", "Atlantic/Stanley", "Pacific/Honolulu",
+            "Asia/Harbin", "Brazil/West", "Australia/Canberra", "NST",
+            null, "Antarctica/Mawson", "America/Porto_Velho", null,
+            null, "Australia/North", null, null,
+            "Atlantic/Faroe", null, null, null,
+            "Europe/Malta", null, "Asia/Dushanbe", null,
+            null, null, null, null,
+            "America/Havana", null, "America/Cayenne", "Europe/London",
+            "Africa/Bujumbura", null, null, null,
+            "US/Aleutian", "Cuba", null, null,
+            "Africa/Lusaka", "America/Argentina/San_Luis", "America/Matamoros", "Europe/Vilnius",
+            null, "Pacific/Wallis", null, "Etc/GMT+2",
+            null, null, "America/St_Thomas", null,
+            null, null, "Pacific/Kosrae", null,
+            "Africa/Lome", "Asia/Famagusta", "Asia/Kabul", "Australia/Sydney",
+            "America/Cayman", "Europe/Athens", null, "Europe/Dublin",
+            "Etc/GMT-4", null, null, null,
+            "Europe/Belfast", "America/Anchorage", null, "Asia/Anadyr",
+            null, "America/Campo_Grande", "America/Manaus", "America/Anguilla",
+            null, null, "Asia/Macau", "US/Arizona",
+            "America/Moncton", "Australia/Darwin", "America/Dawson", null,
+            null, null, "Asia/Manila", null,
+            null, "Brazil/DeNoronha", null, "Africa/Bissau",
+            "Asia/Hovd", null, null, "Asia/Pyongyang",
+            "NZ", "America/Porto_Acre", null, "America/North_Dakota/Beulah",
+            "Asia/Makassar", "Australia/Hobart", null, null,
+            "America/Paramaribo", "Asia/Riyadh", "Africa/Bamako", "Canada/Newfoundland",
+            "Antarctica/Macquarie", "America/Mendoza", "America/Guatemala", "Asia/Shanghai",
+            "Africa/Addis_Ababa", "Brazil/Acre", "US/Samoa", "Asia/Colombo",
+            "America/Eirunepe", "Pacific/Easter", "Jamaica", null,
+            "Canada/Pacific", "Asia/Bishkek", "Asia/Jayapura", "Africa/Nairobi",
+            "America/St_Lucia", null, "EAT", "America/Montserrat",
+            "Africa/Douala", null, "PST8PDT", "America/Cordoba",
+            "Pacific/Gambier", "America/Virgin", null, "Asia/Amman",
+            "America/Aruba", "Europe/Paris", "America/Caracas", null,
+            null, "Indian/Mauritius", "Australia/Lord_Howe", "America/Fortaleza",
+            "Africa/Tunis", "America/Jamaica", null, "Asia/Tehran",
+            "ART", null, "America/Nassau", "America/Buenos_Aires",
+            "Africa/Niamey", "Europe/Nicosia", null, "Europe/Copenhagen",
+            "Asia/Tel_Aviv", null, "BST", "AET",
+            "America/Louisville", null, "PLT", null,
+            "CST", "America/Goose_Bay", "America/Indiana/Indianapolis", "America/Cuiaba",
+            "W-SU", "Atlantic/Jan_Mayen", "Australia/Queensland", null,
+            null, "Iceland", "America/Argentina/Tucuman", "Pacific/Tarawa",
+            null, "America/Regina", "Europe/Madrid", "Europe/Astrakhan",
+            "America/Whitehorse", null, null, null,
+            "America/Mazatlan", null, null, "Europe/San_Marino"
+        };
+
+        static final short[] IANA_ZONES = {
+            35, 10, 9, 82, 73, 95, -1, 121, 120, -1, 40, -1,
+            -1, 137, 81, -1, 71, -1, -1, -1, -1, -1, 131, -1,
+            -1, -1, -1, -1, 0, 9, 93, 65, -1, -1, -1, -1,
+            22, 134, 9, 68, 96, -1, 50, 29, 6, -1, 111, -1,
+            9, 118, 62, -1, -1, 3, -1, 60, -1, 40, -1, -1,
+            46, 113, -1, 130, 132, -1, -1, -1, 69, 31, 1, 95,
+            35, 6, 59, 120, 29, -1, 95, 95, -1, 26, 88, 6,
+            119, 55, 3, -1, 50, -1, 52, 134, -1, -1, 69, 136,
+            -1, 119, 16, -1, -1, -1, -1, 60, -1, 119, 28, 24,
+            135, 117, 35, -1, 40, 54, -1, 32, 132, 44, -1, 103,
+            86, -1, 125, 29, 102, -1, -1, 131, 78, -1, 26, 29,
+            128, -1, 46, -1, 102, 101, -1, 115, 34, 116, -1, -1,
+            30, 132, 32, -1, 134, 100, 95, 69, 107, -1, -1, 19,
+            119, 102, 95, -1, 1, 52, 19, 8, 130, -1, -1, 131,
+            96, -1, -1, 61, -1, 29, -1, -1, 119, -1, 122, 30,
+            137, -1, -1, -1, 38, 27, -1, -1, 28, 134, -1, 9,
+            119, -1, 20, -1, 16, 40, -1, 111, -1, 46, 88, -1,
+            26, 29, 103, 50, 69, 40, 49, -1, -1, 49, 102, 32,
+            98, -1, 50, 131, 53, 92, 119, 68, 111, -1, 119, 46,
+            123, 75, 30, 95, -1, 102, -1, 94, 96, 95, -1, 26,
+            29, -1, 1, 132, 138, -1, -1, 104, -1, 44, -1, 11,
+            111, -1, 32, 71, 83, -1, -1, 42, 103, 124, -1, 18,
+            40, 22, -1, 96, 27, 95, 132, 120, -1, -1, -1, -1,
+            95, -1, 115, 66, -1, -1, -1, -1, 9, 46, -1, 131,
+            -1, -1, -1, 50, -1, 134, 94, -1, 126, -1, 23, -1,
+            22, 89, 69, -1, 69, 37, 118, -1, 69, 44, 1, -1,
+            -1, 132, 35, 32, -1, -1, 112, 11, -1, -1, 118, 14,
+            95, 21, 95, 119, 99, 132, 108, -1, -1, 103, -1, 136,
+            83, 94, -1, 94, 24, 9, 9, 118, 46, 117, 46, -1,
+            -1, 20, -1, -1, 50, 32, -1, 126, 120, 118, 83, 119,
+            -1, 125, 23, 46, -1, 134, 93, -1, 50, 88, -1, 95,
+            -1, 47, 7, -1, -1, -1, 103, -1, 135, -1, -1, -1,
+            134, 131, 93, 40, -1, -1, 71, -1, 28, -1, -1, 50,
+            115, -1, -1, 65, 44, 52, -1, -1, 118, 59, 119, -1,
+            -1, -1, -1, -1, -1, 9, 119, -1, -1, -1, 94, -1,
+            109, 136, -1, 69, 132, -1, -1, -1, 131, 103, 128, -1,
+            75, -1, -1, 45, 95, -1, -1, -1, -1, 24, 35, 50,
+            -1, -1, -1, -1, -1, 132, 52, -1, 3, 95, -1, 70,
+            92, 50, -1, -1, -1, 131, -1, 44, -1, -1, 110, 53,
+            40, 63, -1, 119, -1, 132, -1, -1, 47, 103, 118, 29,
+            30, 136, 29, 35, 93, 48, 125, 23, 106, 125, -1, 94,
+            131, -1, 17, 132, -1, -1, 15, 4, -1, 43, 125, -1,
+            -1, 40, -1, 4, -1, -1, -1, -1, 50, 95, -1, 120,
+            46, 27, -1, 58, 134, 9, 95, -1, 36, -1, 11, -1,
+            93, 3, -1, 42, -1, -1, 38, -1, 120, -1, 134, 132,
+            117, -1, -1, 82, 64, 23, 12, -1, 14, 30, 52, -1,
+            -1, 28, 24, -1, 21, 35, 26, 109, 103, 11, -1, -1,
+            95, 96, -1, 40, 76, -1, 40, -1, -1, -1, -1, -1,
+            -1, 102, 9, -1, -1, 96, 69, 72, 31, -1, -1, -1,
+            119, 39, -1, -1, 77, 30, -1, -1, -1, -1, 57, 16,
+            5, 114, 136, -1, 35, 28, -1, -1, -1, -1, -1, -1,
+            -1, 136, 22, 35, 121, -1, 9, 99, -1, -1, 93, -1,
+            40, 69, 36, -1, -1, -1, 3, -1, 95, -1, 132, 120,
+            134, -1, 26, 26, -1, 94, -1, 117, -1, 9, 74, -1,
+            91, 46, 35, 96, -1, -1, -1, 6, -1, 121, 46, -1,
+            -1, 50, 28, 129, 136, -1, -1, 108, 119, -1, -1, 92,
+            -1, 9, 16, 53, 95, 131, -1, 119, 84, -1, -1, -1,
+            29, -1, 96, -1, -1, 75, 96, -1, 7, -1, 11, 27,
+            -1, -1, -1, 29, 111, 23, 13, 3, 136, -1, -1, -1,
+            -1, 24, 97, 111, -1, 67, 40, 121, -1, 95, 76, -1,
+            27, -1, -1, 24, -1, -1, 119, 134, 32, 24, 93, 131,
+            -1, -1, 69, -1, -1, -1, 44, 35, -1, -1, 83, -1,
+            96, 119, -1, 55, 41, -1, 29, -1, -1, -1, 126, 40,
+            52, -1, 94, 103, 23, 29, 122, -1, 132, -1, 28, 79,
+            102, -1, 29, 9, -1, 44, 84, -1, 103, -1, 40, -1,
+            85, -1, -1, -1, 74, -1, 84, -1, -1, -1, 90, -1,
+            103, -1, -1, 94, 96, -1, 117, 123, -1, 51, -1, -1,
+            95, 118, -1, -1, 87, -1, 58, -1, -1, -1, 69, -1,
+            -1, 37, 19, 44, 28, 29, 83, 23, 3, -1, 40, 79,
+            84, -1, 29, 40, 117, 95, 38, 50, 44, 132, 93, 52,
+            32, 95, 1, 75, -1, 134, 95, -1, -1, 0, -1, -1,
+            46, -1, -1, -1, 132, -1, 134, -1, -1, -1, -1, -1,
+            33, -1, 93, 46, 103, -1, -1, -1, 4, 33, -1, -1,
+            103, 9, 29, 44, -1, 120, -1, 122, -1, -1, 95, -1,
+            -1, -1, 28, -1, 50, 47, 2, 1, 94, 47, -1, 46,
+            7, -1, -1, -1, 46, 3, -1, 90, -1, 25, 95, 95,
+            -1, -1, 32, 118, 11, 0, 138, -1, -1, -1, 102, -1,
+            -1, 122, -1, 50, 133, -1, -1, 80, 75, 94, -1, 29,
+            102, 109, -1, -1, 93, 6, 50, 76, 109, 9, 23, 32,
+            35, 94, 125, 105, 94, 39, 94, -1, 83, 24, 111, 35,
+            95, -1, 35, 95, 131, -1, 83, 9, 124, 95, -1, 56,
+            95, 88, 127, -1, -1, 65, 61, 93, 131, 94, -1, 54,
+            42, -1, 40, 9, 131, 47, -1, 88, 55, -1, 16, 1,
+            40, -1, 85, -1, 29, 11, 117, 25, 92, 132, 36, -1,
+            -1, 50, 9, 120, -1, 19, 88, 10, 138, -1, -1, -1,
+            70, -1, -1, 132
+        };
+
+        static int slot(String key, int[] seeds, int mask) {
+            int h = key.hashCode();
+
+            return mix(h, seeds[mix(h, 0) & (seeds.length - 1)]) & mask;
+        }
+
+        static int mix(int h, int seed) {
+            h ^= seed;
+            h *= 0x9E3779B1;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+
+            return h;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Optional<OutlookTimeZone>[] found() {
+            Optional<OutlookTimeZone>[] result = new Optional[ZONES.length];
+
+            for (int i = 0; i < ZONES.length; ++i) {
+                result[i] = Optional.of(ZONES[i]);
+            }
+
+            return result;
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.webage.jcal;
+
+/**
+ * An enumeration type used to indicate how an attendee has responded to an event.
+ */
+public enum PartStatType {
+    /**
+     * The attendee has not responded yet
+     */
+    NEEDS_ACTION("NEEDS-ACTION"),
+    /**
+     * Accepted
+     */
+    ACCEPTED("ACCEPTED"),
+    /**
+     * Declined
+     */
+    DECLINED("DECLINED"),
+    /**
+     * Tentatively accepted
+     */
+    TENTATIVE("TENTATIVE"),
+    /**
+     * Delegated to someone else
+     */
+    DELEGATED("DELEGATED");
+
+    private String partStat;
+
+    private PartStatType(String partStat) {
+        this.partStat = partStat;
+    }
+
+    /**
+     * Returns the String value of a participation status.
+     * @return the String value of a participation status
+     */
+    public String getPartStat() {
+        return partStat;
+    }
+
+    /**
+     * Returns the participation status with the given String value.
+     * @param partStat the String value. Example: "NEEDS-ACTION"
+     * @return the participation status or null if the value is not known
+     */
+    static PartStatType of(String partStat) {
+        for (var p : values()) {
+            if (p.partStat.equalsIgnoreCase(partStat)) {
+                return p;
+            }
+        }
+
+        return null;
+    }
+}
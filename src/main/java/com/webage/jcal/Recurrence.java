@@ -0,0 +1,957 @@
+package com.webage.jcal;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * A RRULE compiled into an evaluator that generates the occurrences of an event.
+ *
+ * Dates are generated directly from the BY* parts of the rule. For example,
+ * the second Tuesday of a month is computed from the first day of the month
+ * instead of testing every day of the month. The rule is evaluated in the local
+ * time of DTSTART. Occurrences are returned in that local time as well.
+ *
+ * As RFC 5545 requires, DTSTART is always the first occurrence and counts
+ * toward COUNT, even if the rule does not match it. A monthly rule for the
+ * second Tuesday that starts on Monday 2024-01-01 occurs on 2024-01-01,
+ * 2024-01-09, 2024-02-13 and so on.
+ *
+ * Rules without any BY* part are evaluated in closed form. The n-th occurrence
+ * is DTSTART plus n times the interval. Seeking into a window, counting the
+ * occurrences in a window and finding the last occurrence then take constant
+ * time no matter how far the window is from DTSTART.
+ *
+ * Use VEvent.getRecurrence() to obtain an instance.
+ */
+public final class Recurrence implements Iterable<LocalDateTime> {
+    private static final int MAX_YEAR = 9999;
+    private static final LocalDateTime END = LocalDateTime.of(MAX_YEAR + 1, 1, 1, 0, 0);
+    private static final long FOREVER = Long.MAX_VALUE - 1;
+
+    private final FrequencyType frequency;
+    private final LocalDateTime start;
+    private final int interval;
+    private final int count;
+    private final LocalDateTime until;
+    private final int[] byMonth;
+    private final int[] byWeekNo;
+    private final int[] byYearDay;
+    private final int[] byMonthDay;
+    private final int[] byDayOrdinal;
+    private final DayOfWeek[] byDayWeekday;
+    private final int[] bySetPos;
+    private final DayOfWeek weekStart;
+    private final boolean monthScopedByDay;
+    //Hours and minutes of the day used by the DAILY and coarser frequencies
+    private final int[] hours;
+    private final int[] minutes;
+    //Hours and minutes used by the HOURLY and MINUTELY frequencies
+    private final int[] allHours;
+    private final int[] allMinutes;
+    //True if the n-th occurrence can be computed directly
+    private final boolean closedForm;
+
+    Recurrence(VEvent event) {
+        if (event.getStartLocalDateTime() == null) {
+            throw new IllegalStateException("DTSTART is not set");
+        }
+
+        frequency = event.getRepeatFrequency().orElseThrow();
+        start = event.getStartLocalDateTime();
+        interval = event.getRepeatInterval().orElse(1);
+        count = event.getRepeatCount().orElse(-1);
+        until = event.getRepeatUntil()
+            .map(u -> event.getStartTimeZoneId()
+                .flatMap(Util::toZoneId)
+                .map(z -> u.atOffset(ZoneOffset.UTC).atZoneSameInstant(z).toLocalDateTime())
+                .orElse(u))
+            .orElse(null);
+
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be positive: " + interval);
+        }
+
+        byMonth = compile("BYMONTH", event.getRepeatByMonth(), 1, 12, false);
+        byWeekNo = compile("BYWEEKNO", event.getRepeatByWeekNo(), -53, 53, true);
+        byYearDay = compile("BYYEARDAY", event.getRepeatByYearDay(), -366, 366, true);
+        byMonthDay = compile("BYMONTHDAY", event.getRepeatByMonthDay(), -31, 31, true);
+        bySetPos = compile("BYSETPOS", event.getRepeatBySetPos(), -366, 366, true);
+
+        var byHour = compile("BYHOUR", event.getRepeatByHour(), 0, 23, false);
+        var byMinute = compile("BYMINUTE", event.getRepeatByMinute(), 0, 59, false);
+
+        hours = byHour.length > 0 ? byHour : new int[] {start.getHour()};
+        minutes = byMinute.length > 0 ? byMinute : new int[] {start.getMinute()};
+        allHours = byHour.length > 0 ? byHour : range(24);
+        allMinutes = byMinute.length > 0 ? byMinute : range(60);
+
+        var byDay = event.getRepeatByDay();
+
+        byDayOrdinal = new int[byDay.size()];
+        byDayWeekday = new DayOfWeek[byDay.size()];
+
+        for (int i = 0; i < byDay.size(); ++i) {
+            byDayOrdinal[i] = byDay.get(i).getOrdinal();
+            byDayWeekday[i] = byDay.get(i).getDayOfWeek();
+        }
+
+        weekStart = event.getRepeatWeekStart().orElse(DayOfWeek.MONDAY);
+        monthScopedByDay = frequency == FrequencyType.MONTHLY
+            || (frequency == FrequencyType.YEARLY && byMonth.length > 0);
+
+        boolean noParts = byMonth.length == 0 && byWeekNo.length == 0 && byYearDay.length == 0
+            && byMonthDay.length == 0 && byDayOrdinal.length == 0 && bySetPos.length == 0
+            && byHour.length == 0 && byMinute.length == 0;
+
+        //Months or years without the day of DTSTART are skipped. That breaks the arithmetic.
+        if (frequency == FrequencyType.MONTHLY) {
+            closedForm = noParts && start.getDayOfMonth() <= 28;
+        } else if (frequency == FrequencyType.YEARLY) {
+            closedForm = noParts && !(start.getMonthValue() == 2 && start.getDayOfMonth() == 29);
+        } else {
+            closedForm = noParts;
+        }
+    }
+
+    private static int[] compile(String part, List<Integer> values, int min, int max, boolean signed) {
+        //The lists returned by the getters can still be changed
+        checkRange(part, values, min, max, signed);
+
+        var result = new int[values.size()];
+
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = values.get(i);
+        }
+
+        Arrays.sort(result);
+
+        return result;
+    }
+
+    /**
+     * Throws if a value of a BYxxx part is out of the range RFC 5545 allows.
+     * A signed part can not be 0. A null list is allowed.
+     */
+    static List<Integer> checkRange(String part, List<Integer> values, int min, int max, boolean signed) {
+        if (values == null) {
+            return null;
+        }
+
+        for (Integer v : values) {
+            if (v == null || v < min || v > max || (signed && v == 0)) {
+                throw new IllegalArgumentException(part + " value out of range: " + v);
+            }
+        }
+
+        return values;
+    }
+
+    private static int[] range(int n) {
+        var result = new int[n];
+
+        for (int i = 0; i < n; ++i) {
+            result[i] = i;
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the frequency of the rule
+     * @return the frequency
+     */
+    public FrequencyType getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Get the local date and time of DTSTART
+     * @return the local date and time of DTSTART
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Iterates over all occurrences in chronological order, starting with
+     * DTSTART. The iteration ends after COUNT occurrences or at UNTIL.
+     * A rule with neither is iterated until the year 9999.
+     */
+    @Override
+    public Iterator<LocalDateTime> iterator() {
+        return new OccurrenceIterator();
+    }
+
+    /**
+     * Returns the occurrences that start within a window.
+     *
+     * @param from The start of the window. Inclusive.
+     * @param to The end of the window. Exclusive.
+     * @return the occurrences in chronological order
+     */
+    public List<LocalDateTime> between(LocalDateTime from, LocalDateTime to) {
+        var result = new ArrayList<LocalDateTime>();
+
+        if (closedForm) {
+            long last = lastIndex();
+
+            for (long k = indexAtOrAfter(from); k <= last; ++k) {
+                var dt = nth(k);
+
+                if (dt == null || !dt.isBefore(to)) {
+                    break;
+                }
+
+                result.add(dt);
+            }
+
+            return result;
+        }
+
+        var it = seek(from);
+
+        while (it.hasNext()) {
+            var dt = it.next();
+
+            if (!dt.isBefore(to)) {
+                break;
+            }
+            if (!dt.isBefore(from)) {
+                result.add(dt);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first occurrence at or after a date and time.
+     *
+     * @param t the date and time
+     * @return the occurrence or empty if the rule ends before t
+     */
+    public Optional<LocalDateTime> firstOnOrAfter(LocalDateTime t) {
+        if (closedForm) {
+            long k = indexAtOrAfter(t);
+            long last = lastIndex();
+
+            return k > last ? Optional.empty() : Optional.ofNullable(nth(k));
+        }
+
+        var it = seek(t);
+
+        while (it.hasNext()) {
+            var dt = it.next();
+
+            if (!dt.isBefore(t)) {
+                return Optional.of(dt);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Counts the occurrences that start within a window.
+     *
+     * @param from The start of the window. Inclusive.
+     * @param to The end of the window. Exclusive.
+     * @return the number of occurrences
+     */
+    public long countBetween(LocalDateTime from, LocalDateTime to) {
+        if (!closedForm) {
+            return between(from, to).size();
+        }
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+
+        long first = indexAtOrAfter(from);
+        long end = Math.min(indexAtOrAfter(to), lastIndex() + 1);
+
+        return Math.max(0, end - first);
+    }
+
+    /**
+     * Returns the last occurrence of a rule that ends with COUNT or UNTIL.
+     *
+     * @return the last occurrence or empty if the rule repeats forever
+     * or has no occurrence at all
+     */
+    public Optional<LocalDateTime> last() {
+        if (count < 0 && until == null) {
+            return Optional.empty();
+        }
+        if (closedForm) {
+            long last = lastIndex();
+
+            return last < 0 ? Optional.empty() : Optional.ofNullable(nth(last));
+        }
+
+        LocalDateTime result = null;
+
+        for (var dt : this) {
+            result = dt;
+        }
+
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Returns the total number of occurrences of a rule that ends with COUNT or UNTIL.
+     *
+     * @return the number of occurrences or empty if the rule repeats forever
+     */
+    public OptionalLong count() {
+        if (count < 0 && until == null) {
+            return OptionalLong.empty();
+        }
+        if (closedForm) {
+            return OptionalLong.of(lastIndex() + 1);
+        }
+
+        long n = 0;
+
+        for (var it = iterator(); it.hasNext(); it.next()) {
+            ++n;
+        }
+
+        return OptionalLong.of(n);
+    }
+
+    private ChronoUnit unit() {
+        switch (frequency) {
+        case YEARLY:
+            return ChronoUnit.YEARS;
+        case MONTHLY:
+            return ChronoUnit.MONTHS;
+        case WEEKLY:
+            return ChronoUnit.WEEKS;
+        case DAILY:
+            return ChronoUnit.DAYS;
+        case HOURLY:
+            return ChronoUnit.HOURS;
+        default:
+            return ChronoUnit.MINUTES;
+        }
+    }
+
+    /*
+    The k-th occurrence of a closed form rule. Returns null past the year 9999.
+    */
+    private LocalDateTime nth(long k) {
+        var dt = start.plus(k * interval, unit());
+
+        return dt.getYear() > MAX_YEAR ? null : dt;
+    }
+
+    /*
+    The index of the first occurrence of a closed form rule at or after t.
+    ChronoUnit.between() gives an estimate that is off by at most one period.
+    A t past the year 9999 gives the index of the first occurrence that nth()
+    does not return.
+    */
+    private long indexAtOrAfter(LocalDateTime t) {
+        if (!t.isAfter(start)) {
+            return 0;
+        }
+        if (t.getYear() > MAX_YEAR) {
+            t = END;
+        }
+
+        long k = Math.floorDiv(unit().between(start, t), interval);
+
+        while (nth(k) != null && nth(k).isBefore(t)) {
+            ++k;
+        }
+        //Past the year 9999 is after t, since t is not
+        while (k > 0 && (nth(k - 1) == null || !nth(k - 1).isBefore(t))) {
+            --k;
+        }
+
+        return k;
+    }
+
+    /*
+    The index of the last occurrence of a closed form rule. -1 if the rule
+    has no occurrence. FOREVER if the rule has neither COUNT nor UNTIL.
+    */
+    private long lastIndex() {
+        long last = FOREVER;
+
+        if (count >= 0) {
+            last = count - 1;
+        }
+        if (until != null) {
+            long k = indexAtOrAfter(until);
+            var dt = nth(k);
+
+            if (dt == null || dt.isAfter(until)) {
+                --k;
+            }
+
+            last = Math.min(last, k);
+        }
+
+        return last;
+    }
+
+    /*
+    Returns an iterator positioned at the chunk that contains t. Occurrences
+    before t may still be returned. With COUNT, every occurrence since
+    DTSTART must be counted, so the iteration starts at DTSTART.
+    */
+    private Iterator<LocalDateTime> seek(LocalDateTime t) {
+        if (count >= 0 || !t.isAfter(start)) {
+            return iterator();
+        }
+
+        var s = start.toLocalDate();
+        var d = t.toLocalDate();
+        long chunk;
+
+        switch (frequency) {
+        case YEARLY:
+            chunk = Math.floorDiv(d.getYear() - s.getYear(), interval);
+            break;
+        case MONTHLY:
+            chunk = Math.floorDiv(ChronoUnit.MONTHS.between(YearMonth.from(s), YearMonth.from(d)), interval);
+            break;
+        case WEEKLY:
+            chunk = Math.floorDiv(ChronoUnit.WEEKS.between(weekStartOf(s), weekStartOf(d)), interval);
+            break;
+        default:
+            chunk = ChronoUnit.MONTHS.between(YearMonth.from(s), YearMonth.from(d));
+        }
+
+        return new OccurrenceIterator(chunk);
+    }
+
+    /*
+    The occurrences are generated one chunk at a time. For the YEARLY, MONTHLY
+    and WEEKLY frequencies a chunk is a single period of the rule. For DAILY
+    and finer frequencies a chunk is a calendar month and holds many periods.
+    */
+    private LocalDate chunkStart(long chunk) {
+        LocalDate from;
+
+        switch (frequency) {
+        case YEARLY:
+            long year = start.getYear() + chunk * interval;
+
+            if (year > MAX_YEAR) {
+                return null;
+            }
+
+            from = LocalDate.of((int) year, 1, 1);
+            break;
+        case MONTHLY:
+            from = start.toLocalDate().withDayOfMonth(1).plusMonths(Math.min(chunk * interval, MAX_YEAR * 12L));
+            break;
+        case WEEKLY:
+            from = weekStartOf(start.toLocalDate()).plusWeeks(Math.min(chunk * interval, MAX_YEAR * 53L));
+            break;
+        default:
+            from = start.toLocalDate().withDayOfMonth(1).plusMonths(Math.min(chunk, MAX_YEAR * 12L));
+        }
+
+        return from.getYear() > MAX_YEAR ? null : from;
+    }
+
+    private LocalDate chunkEnd(LocalDate from) {
+        switch (frequency) {
+        case YEARLY:
+            return from.plusYears(1);
+        case WEEKLY:
+            return from.plusDays(7);
+        default:
+            return from.plusMonths(1);
+        }
+    }
+
+    private void expandChunk(LocalDate from, List<LocalDate> dates, List<LocalDateTime> out) {
+        dates.clear();
+
+        collectDates(from, chunkEnd(from), dates);
+
+        Collections.sort(dates);
+
+        int second = start.getSecond();
+        long startDay = start.toLocalDate().toEpochDay();
+        LocalDate previous = null;
+
+        switch (frequency) {
+        case YEARLY:
+        case MONTHLY:
+        case WEEKLY:
+            for (var date : dates) {
+                if (date.equals(previous)) {
+                    continue;
+                }
+
+                previous = date;
+
+                for (int h : hours) {
+                    for (int m : minutes) {
+                        out.add(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), h, m, second));
+                    }
+                }
+            }
+
+            applySetPos(out, 0);
+            break;
+        case DAILY:
+            for (var date : dates) {
+                if (date.equals(previous) || Math.floorMod(date.toEpochDay() - startDay, interval) != 0) {
+                    continue;
+                }
+
+                previous = date;
+
+                int base = out.size();
+
+                for (int h : hours) {
+                    for (int m : minutes) {
+                        out.add(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), h, m, second));
+                    }
+                }
+
+                applySetPos(out, base);
+            }
+            break;
+        case HOURLY:
+            for (var date : dates) {
+                if (date.equals(previous)) {
+                    continue;
+                }
+
+                previous = date;
+
+                long firstHour = (date.toEpochDay() - startDay) * 24 - start.getHour();
+
+                for (int h : allHours) {
+                    if (Math.floorMod(firstHour + h, interval) != 0) {
+                        continue;
+                    }
+
+                    int base = out.size();
+
+                    for (int m : minutes) {
+                        out.add(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), h, m, second));
+                    }
+
+                    applySetPos(out, base);
+                }
+            }
+            break;
+        default:
+            for (var date : dates) {
+                if (date.equals(previous)) {
+                    continue;
+                }
+
+                previous = date;
+
+                long firstMinute = (date.toEpochDay() - startDay) * 1440 - (start.getHour() * 60 + start.getMinute());
+
+                for (int h : allHours) {
+                    for (int m : allMinutes) {
+                        if (Math.floorMod(firstMinute + h * 60 + m, interval) != 0) {
+                            continue;
+                        }
+
+                        int base = out.size();
+
+                        out.add(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), h, m, second));
+
+                        applySetPos(out, base);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+    Picks the BYSETPOS members of a period. The period occupies the
+    sorted tail of the list starting at base.
+    */
+    private void applySetPos(List<LocalDateTime> out, int base) {
+        if (bySetPos.length == 0) {
+            return;
+        }
+
+        int size = out.size() - base;
+        var selected = new boolean[size];
+
+        for (int pos : bySetPos) {
+            int idx = pos > 0 ? pos - 1 : size + pos;
+
+            if (idx >= 0 && idx < size) {
+                selected[idx] = true;
+            }
+        }
+
+        int dest = base;
+
+        for (int i = 0; i < size; ++i) {
+            if (selected[i]) {
+                out.set(dest++, out.get(base + i));
+            }
+        }
+
+        out.subList(dest, out.size()).clear();
+    }
+
+    /*
+    Generates candidate dates in [from, to). The most selective BY* part
+    is used to generate dates directly. Every candidate is then checked
+    against all the other parts.
+    */
+    private void collectDates(LocalDate from, LocalDate to, List<LocalDate> out) {
+        var last = to.minusDays(1);
+
+        if (byYearDay.length > 0) {
+            for (int y = from.getYear(); y <= last.getYear(); ++y) {
+                int len = LocalDate.of(y, 1, 1).lengthOfYear();
+
+                for (int yd : byYearDay) {
+                    int d = yd > 0 ? yd : len + yd + 1;
+
+                    if (d >= 1 && d <= len) {
+                        addIfMatches(LocalDate.ofYearDay(y, d), from, to, out);
+                    }
+                }
+            }
+        } else if (byMonthDay.length > 0) {
+            for (var ym = YearMonth.from(from); !ym.atDay(1).isAfter(last); ym = ym.plusMonths(1)) {
+                if (!monthAllowed(ym.getMonthValue())) {
+                    continue;
+                }
+
+                int len = ym.lengthOfMonth();
+
+                for (int md : byMonthDay) {
+                    int d = md > 0 ? md : len + md + 1;
+
+                    if (d >= 1 && d <= len) {
+                        addIfMatches(ym.atDay(d), from, to, out);
+                    }
+                }
+            }
+        } else if (byDayOrdinal.length > 0) {
+            if (monthScopedByDay) {
+                for (var ym = YearMonth.from(from); !ym.atDay(1).isAfter(last); ym = ym.plusMonths(1)) {
+                    if (!monthAllowed(ym.getMonthValue())) {
+                        continue;
+                    }
+
+                    for (int i = 0; i < byDayOrdinal.length; ++i) {
+                        addWeekdays(ym.atDay(1), ym.atEndOfMonth(), byDayOrdinal[i], byDayWeekday[i], from, to, out);
+                    }
+                }
+            } else if (frequency == FrequencyType.YEARLY && byWeekNo.length > 0) {
+                collectWeeks(from, to, out);
+            } else if (frequency == FrequencyType.YEARLY) {
+                for (int y = from.getYear(); y <= last.getYear(); ++y) {
+                    for (int i = 0; i < byDayOrdinal.length; ++i) {
+                        addWeekdays(LocalDate.of(y, 1, 1), LocalDate.of(y, 12, 31), byDayOrdinal[i], byDayWeekday[i], from, to, out);
+                    }
+                }
+            } else {
+                //The ordinal has no meaning for the other frequencies
+                for (var dow : byDayWeekday) {
+                    addWeekdays(from, last, 0, dow, from, to, out);
+                }
+            }
+        } else if (byWeekNo.length > 0 && frequency == FrequencyType.YEARLY) {
+            collectWeeks(from, to, out);
+        } else {
+            switch (frequency) {
+            case YEARLY:
+                if (byMonth.length > 0) {
+                    for (int m : byMonth) {
+                        addDayOfMonth(YearMonth.of(from.getYear(), m), from, to, out);
+                    }
+                } else {
+                    addDayOfMonth(YearMonth.of(from.getYear(), start.getMonthValue()), from, to, out);
+                }
+                break;
+            case MONTHLY:
+                addDayOfMonth(YearMonth.from(from), from, to, out);
+                break;
+            case WEEKLY:
+                addIfMatches(from.plusDays(Math.floorMod(start.getDayOfWeek().getValue() - from.getDayOfWeek().getValue(), 7)), from, to, out);
+                break;
+            default:
+                for (var d = from; d.isBefore(to); d = d.plusDays(1)) {
+                    addIfMatches(d, from, to, out);
+                }
+            }
+        }
+    }
+
+    private void addDayOfMonth(YearMonth ym, LocalDate from, LocalDate to, List<LocalDate> out) {
+        //Months that do not have the day of DTSTART are skipped
+        if (start.getDayOfMonth() <= ym.lengthOfMonth()) {
+            addIfMatches(ym.atDay(start.getDayOfMonth()), from, to, out);
+        }
+    }
+
+    private void addWeekdays(LocalDate first, LocalDate last, int ordinal, DayOfWeek dow, LocalDate from, LocalDate to, List<LocalDate> out) {
+        if (ordinal == 0) {
+            var d = first.plusDays(Math.floorMod(dow.getValue() - first.getDayOfWeek().getValue(), 7));
+
+            for (; !d.isAfter(last); d = d.plusDays(7)) {
+                addIfMatches(d, from, to, out);
+            }
+        } else if (ordinal > 0) {
+            var d = first.plusDays(Math.floorMod(dow.getValue() - first.getDayOfWeek().getValue(), 7) + (ordinal - 1) * 7L);
+
+            if (!d.isAfter(last)) {
+                addIfMatches(d, from, to, out);
+            }
+        } else {
+            var d = last.minusDays(Math.floorMod(last.getDayOfWeek().getValue() - dow.getValue(), 7) + (-ordinal - 1) * 7L);
+
+            if (!d.isBefore(first)) {
+                addIfMatches(d, from, to, out);
+            }
+        }
+    }
+
+    private void collectWeeks(LocalDate from, LocalDate to, List<LocalDate> out) {
+        //Weeks that straddle the new year can belong to the adjacent week numbering years
+        for (int wy = from.getYear() - 1; wy <= to.getYear(); ++wy) {
+            int weeks = weeksInYear(wy);
+            var firstWeek = firstWeekStart(wy);
+
+            for (int n : byWeekNo) {
+                int num = n > 0 ? n : weeks + n + 1;
+
+                if (num < 1 || num > weeks) {
+                    continue;
+                }
+
+                var ws = firstWeek.plusWeeks(num - 1);
+
+                for (int i = 0; i < 7; ++i) {
+                    addIfMatches(ws.plusDays(i), from, to, out);
+                }
+            }
+        }
+    }
+
+    private void addIfMatches(LocalDate d, LocalDate from, LocalDate to, List<LocalDate> out) {
+        if (!d.isBefore(from) && d.isBefore(to) && matches(d)) {
+            out.add(d);
+        }
+    }
+
+    private boolean matches(LocalDate d) {
+        if (!monthAllowed(d.getMonthValue())) {
+            return false;
+        }
+        if (byWeekNo.length > 0 && frequency == FrequencyType.YEARLY && !matchesWeekNo(d)) {
+            return false;
+        }
+        if (byYearDay.length > 0 && !matchesOrdinal(byYearDay, d.getDayOfYear(), d.lengthOfYear())) {
+            return false;
+        }
+        if (byMonthDay.length > 0 && !matchesOrdinal(byMonthDay, d.getDayOfMonth(), d.lengthOfMonth())) {
+            return false;
+        }
+        if (byDayOrdinal.length > 0 && !matchesByDay(d)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean monthAllowed(int month) {
+        if (byMonth.length == 0) {
+            return true;
+        }
+
+        return Arrays.binarySearch(byMonth, month) >= 0;
+    }
+
+    private static boolean matchesOrdinal(int[] values, int value, int length) {
+        for (int v : values) {
+            if (v == value || length + v + 1 == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matchesByDay(LocalDate d) {
+        for (int i = 0; i < byDayOrdinal.length; ++i) {
+            if (byDayWeekday[i] != d.getDayOfWeek()) {
+                continue;
+            }
+
+            int ordinal = byDayOrdinal[i];
+            int value;
+            int length;
+
+            if (ordinal == 0) {
+                return true;
+            } else if (monthScopedByDay) {
+                value = d.getDayOfMonth();
+                length = d.lengthOfMonth();
+            } else if (frequency == FrequencyType.YEARLY && byWeekNo.length == 0) {
+                value = d.getDayOfYear();
+                length = d.lengthOfYear();
+            } else {
+                return true;
+            }
+
+            int n = ordinal > 0 ? (value - 1) / 7 + 1 : -((length - value) / 7 + 1);
+
+            if (n == ordinal) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matchesWeekNo(LocalDate d) {
+        var ws = weekStartOf(d);
+        //A week belongs to the year that has at least 4 of its days
+        int wy = ws.plusDays(3).getYear();
+        int num = (int) ((ws.toEpochDay() - firstWeekStart(wy).toEpochDay()) / 7) + 1;
+        int weeks = weeksInYear(wy);
+
+        for (int n : byWeekNo) {
+            if (n == num || weeks + n + 1 == num) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private LocalDate weekStartOf(LocalDate d) {
+        return d.minusDays(Math.floorMod(d.getDayOfWeek().getValue() - weekStart.getValue(), 7));
+    }
+
+    private LocalDate firstWeekStart(int year) {
+        var jan1 = LocalDate.of(year, 1, 1);
+        int offset = Math.floorMod(jan1.getDayOfWeek().getValue() - weekStart.getValue(), 7);
+
+        return offset <= 3 ? jan1.minusDays(offset) : jan1.plusDays(7 - offset);
+    }
+
+    private int weeksInYear(int year) {
+        return (int) ((firstWeekStart(year + 1).toEpochDay() - firstWeekStart(year).toEpochDay()) / 7);
+    }
+
+    private class OccurrenceIterator implements Iterator<LocalDateTime> {
+        private final List<LocalDateTime> buffer = new ArrayList<>();
+        private final List<LocalDate> dates = new ArrayList<>();
+        private long chunk;
+        private int pos;
+        private long emitted;
+        private boolean done;
+        private boolean startDone;
+        private LocalDateTime next;
+
+        OccurrenceIterator() {
+            this(0);
+        }
+
+        OccurrenceIterator(long firstChunk) {
+            chunk = firstChunk;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = advance();
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            var result = next;
+
+            next = null;
+
+            return result;
+        }
+
+        private LocalDateTime advance() {
+            if (count >= 0 && emitted >= count) {
+                done = true;
+
+                return null;
+            }
+            //DTSTART is the first occurrence even if the rule does not match it
+            if (!startDone) {
+                startDone = true;
+
+                if (until != null && start.isAfter(until)) {
+                    done = true;
+
+                    return null;
+                }
+
+                ++emitted;
+
+                return start;
+            }
+
+            while (true) {
+                if (pos < buffer.size()) {
+                    var dt = buffer.get(pos++);
+
+                    if (!dt.isAfter(start)) {
+                        continue;
+                    }
+                    if (until != null && dt.isAfter(until)) {
+                        done = true;
+
+                        return null;
+                    }
+
+                    ++emitted;
+
+                    return dt;
+                }
+
+                var from = chunkStart(chunk++);
+
+                if (from == null || (until != null && from.atStartOfDay().isAfter(until))) {
+                    done = true;
+
+                    return null;
+                }
+
+                buffer.clear();
+                pos = 0;
+
+                expandChunk(from, dates, buffer);
+            }
+        }
+    }
+}
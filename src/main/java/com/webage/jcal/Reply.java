@@ -0,0 +1,202 @@
+package com.webage.jcal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The response of one attendee to one event, read from an iTIP REPLY or
+ * COUNTER calendar. A message with several events or attendees gives
+ * several replies.
+ */
+public final class Reply {
+    private final MethodType method;
+    private final String uid;
+    private final String attendee;
+    private final PartStatType partStat;
+    private final int sequence;
+    private final String dateTimeStamp;
+    private final String recurrenceId;
+
+    Reply(MethodType method, String uid, String attendee, PartStatType partStat, int sequence, String dateTimeStamp, String recurrenceId) {
+        this.method = method;
+        this.uid = uid;
+        this.attendee = attendee;
+        this.partStat = partStat;
+        this.sequence = sequence;
+        this.dateTimeStamp = dateTimeStamp;
+        this.recurrenceId = recurrenceId;
+    }
+
+    /**
+     * Get the METHOD of the message. REPLY or COUNTER.
+     * @return the method
+     */
+    public MethodType getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the UID of the event
+     * @return the UID
+     */
+    public String getUID() {
+        return uid;
+    }
+
+    /**
+     * Get the email of the attendee in lower case
+     * @return the email
+     */
+    public String getAttendee() {
+        return attendee;
+    }
+
+    /**
+     * Get the PARTSTAT
+     * @return the PARTSTAT
+     */
+    public PartStatType getPartStat() {
+        return partStat;
+    }
+
+    /**
+     * Get the SEQUENCE of the event the attendee responded to
+     * @return the SEQUENCE. 0 if the message has none.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the DTSTAMP of the message. It tells which of two replies to the
+     * same SEQUENCE is newer.
+     * @return the DTSTAMP. Empty String if the message has none.
+     */
+    public String getDateTimeStamp() {
+        return dateTimeStamp;
+    }
+
+    /**
+     * Get the RECURRENCE-ID. A reply with a RECURRENCE-ID is about a single
+     * occurrence of a repeating event.
+     * @return the RECURRENCE-ID
+     */
+    public Optional<String> getRecurrenceId() {
+        return Optional.ofNullable(recurrenceId);
+    }
+
+    /**
+     * Returns true if this reply is newer than another reply to the same event.
+     * @param other the other reply
+     * @return true if this reply is newer
+     */
+    boolean isNewerThan(Reply other) {
+        if (sequence != other.sequence) {
+            return sequence > other.sequence;
+        }
+
+        //DTSTAMP is always in UTC so the text sorts in time order
+        return dateTimeStamp.compareTo(other.dateTimeStamp) > 0;
+    }
+
+    /**
+     * Reads the replies in a REPLY or COUNTER calendar. Attendees with a
+     * PARTSTAT that does not apply to events are skipped.
+     *
+     * @param ics the calendar
+     * @return the replies
+     * @throws IllegalArgumentException if it is not a REPLY or COUNTER calendar
+     */
+    public static List<Reply> parse(CharSequence ics) {
+        var result = new ArrayList<Reply>(1);
+        var attendees = new ArrayList<ContentLines.Line>(1);
+        MethodType method = null;
+        boolean inEvent = false;
+        int depth = 0;
+        String uid = null;
+        String dtStamp = "";
+        String recurrenceId = null;
+        int sequence = 0;
+
+        for (var line : ContentLines.of(ics)) {
+            var name = line.getName();
+
+            if (name.equals("BEGIN")) {
+                ++depth;
+
+                if (line.getValue().equalsIgnoreCase("VEVENT") && depth == 2) {
+                    inEvent = true;
+                    uid = null;
+                    dtStamp = "";
+                    recurrenceId = null;
+                    sequence = 0;
+                    attendees.clear();
+                }
+            } else if (name.equals("END")) {
+                if (inEvent && depth == 2) {
+                    inEvent = false;
+
+                    if (method == null) {
+                        throw new IllegalArgumentException("The calendar has no METHOD");
+                    }
+                    if (uid == null) {
+                        throw new IllegalArgumentException("An event has no UID");
+                    }
+
+                    for (var a : attendees) {
+                        var param = a.getParameter("PARTSTAT");
+                        var partStat = param.isPresent() ? PartStatType.of(param.get()) : PartStatType.NEEDS_ACTION;
+
+                        if (partStat != null) {
+                            result.add(new Reply(method, uid, Util.normalizeEmail(a.getValue()),
+                                partStat, sequence, dtStamp, recurrenceId));
+                        }
+                    }
+                }
+
+                --depth;
+            } else if (depth == 1 && name.equals("METHOD")) {
+                var value = line.getValue().trim();
+
+                if (value.equalsIgnoreCase("REPLY")) {
+                    method = MethodType.REPLY;
+                } else if (value.equalsIgnoreCase("COUNTER")) {
+                    method = MethodType.COUNTER;
+                } else {
+                    throw new IllegalArgumentException("Not a REPLY or COUNTER: " + value);
+                }
+            } else if (inEvent && depth == 2) {
+                switch (name) {
+                case "UID":
+                    uid = line.getValue();
+                    break;
+                case "DTSTAMP":
+                    dtStamp = line.getValue().trim();
+                    break;
+                case "RECURRENCE-ID":
+                    recurrenceId = line.getValue().trim();
+                    break;
+                case "SEQUENCE":
+                    try {
+                        sequence = Integer.parseInt(line.getValue().trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Bad SEQUENCE: " + line.getValue());
+                    }
+                    break;
+                case "ATTENDEE":
+                    attendees.add(line);
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        if (method == null) {
+            throw new IllegalArgumentException("The calendar has no METHOD");
+        }
+
+        return result;
+    }
+}
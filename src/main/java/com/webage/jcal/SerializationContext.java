@@ -0,0 +1,72 @@
+package com.webage.jcal;
+
+/**
+ * Scratch buffers used while a calendar is written. Each thread keeps one
+ * context and reuses it, so a thread that writes one invite after another
+ * does not allocate new buffers for every invite.
+ *
+ * A context is acquired and released around a write. Writing can nest, for
+ * example an e-mail invite writes its calendar. A nested write gets a fresh
+ * context instead of the one that is in use.
+ */
+final class SerializationContext {
+    private static final int CHAR_CAPACITY = 16 * 1024;
+    private static final int BYTE_CAPACITY = 8 * 1024;
+    //A buffer grown past this by a very large calendar is not kept
+    private static final int MAX_RETAINED_CHARS = 1024 * 1024;
+    private static final ThreadLocal<SerializationContext> CURRENT = ThreadLocal.withInitial(SerializationContext::new);
+
+    private StringBuilder chars = new StringBuilder(CHAR_CAPACITY);
+    private final byte[] bytes = new byte[BYTE_CAPACITY];
+    private boolean inUse;
+
+    private SerializationContext() {
+    }
+
+    /**
+     * Returns the context of the current thread, or a new context if
+     * the one of the current thread is in use. Call release() when done.
+     *
+     * @return the context
+     */
+    static SerializationContext acquire() {
+        var ctx = CURRENT.get();
+
+        if (ctx.inUse) {
+            ctx = new SerializationContext();
+        }
+
+        ctx.inUse = true;
+
+        return ctx;
+    }
+
+    /**
+     * Hands the context back to the thread.
+     */
+    void release() {
+        if (chars.capacity() > MAX_RETAINED_CHARS) {
+            chars = new StringBuilder(CHAR_CAPACITY);
+        }
+
+        inUse = false;
+    }
+
+    /**
+     * Returns an empty StringBuilder
+     * @return the StringBuilder
+     */
+    StringBuilder chars() {
+        chars.setLength(0);
+
+        return chars;
+    }
+
+    /**
+     * Returns a byte buffer of 8K. The content is undefined.
+     * @return the byte buffer
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+}
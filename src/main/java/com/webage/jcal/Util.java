@@ -1,5 +1,11 @@
 package com.webage.jcal;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -8,19 +14,14 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.SignStyle;
 import java.time.temporal.ChronoField;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 class Util {
     private static final int MAX_LINE_LENGTH = 75;
-    private static final Map<String, String> escapades = Map.of(
-        "\\", "\\\\\\\\",
-        ";", "\\\\;",
-        ",", "\\\\,",
-        "\n", "\\\\n");
-    private static final Pattern escapePattern = Pattern.compile("(\\\\|;|,|\\n)");
     private static DateTimeFormatter localDateFormatter = new DateTimeFormatterBuilder()
         .appendValue(ChronoField.YEAR, 4, 10, SignStyle.EXCEEDS_PAD)
         .appendValue(ChronoField.MONTH_OF_YEAR, 2)
@@ -66,10 +67,7 @@ class Util {
      * @return UTC formatted string. Example: 20201110T091030Z
      */
     public static String convertAndFormatUTC(LocalDateTime dt, TimeZone tz) {
-        var local = dt.atZone(ZoneId.of(tz.getID()));
-        var utcTime = local.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
-        
-        return utcDateFormatter.format(utcTime);
+        return utcDateFormatter.format(toUTC(dt, tz));
     }
 
     /**
@@ -84,20 +82,46 @@ class Util {
     }
 
     public static void breakLine(StringBuilder sb) {
-        var insertionIdx = MAX_LINE_LENGTH;
-        var remainingLength = sb.length() - insertionIdx;
-        var CRLF_SPACE = "\r\n ";
+        breakLine(sb, 0);
+    }
+
+    /**
+     * Folds the line that starts at an offset of the StringBuilder.
+     * 
+     * @param sb the StringBuilder
+     * @param start the offset where the line starts
+     */
+    public static void breakLine(StringBuilder sb, int start) {
+        var oldLength = sb.length();
+        var remainingLength = oldLength - (start + MAX_LINE_LENGTH);
+
+        if (remainingLength <= 0) {
+            return;
+        }
 
-        while (remainingLength > 0) {
-            sb.insert(insertionIdx, CRLF_SPACE);
+        /*
+        Keep in mind that the leading space counts in the maxmum line
+        length limit. But the trailing \r\n is excluded from the length limit.
+        So a continuation line has room for one less character.
+        */
+        var continuationLength = MAX_LINE_LENGTH - 1;
+        var folds = (remainingLength + continuationLength - 1) / continuationLength;
+        var src = oldLength;
+        var dst = oldLength + 3 * folds;
 
-            /*
-            Move the insertion index. Keep in mind that the 
-            leading space counts in the maxmum line length limit.
-            But the trailing \r\n is excluded from the length limit.
-            */
-            insertionIdx = insertionIdx + (CRLF_SPACE.length() - 1) + MAX_LINE_LENGTH;
-            remainingLength = sb.length() - insertionIdx;
+        sb.setLength(dst);
+
+        //Move the continuation lines into place starting from the last one
+        for (int fold = folds; fold > 0; --fold) {
+            var segmentLength = fold == folds ? remainingLength - (folds - 1) * continuationLength : continuationLength;
+
+            for (int i = 0; i < segmentLength; ++i) {
+                sb.setCharAt(--dst, sb.charAt(--src));
+            }
+
+            sb.setCharAt(--dst, ' ');
+            sb.setCharAt(--dst, '\n');
+            sb.setCharAt(--dst, '\r');
         }
     }
 
@@ -109,35 +133,575 @@ class Util {
         return sb.toString();
     }
 
+    /**
+     * Appends text with backslash, semicolon, comma and newline escaped.
+     * Runs of characters that need no escaping are copied in one go.
+     * 
+     * @param sb the StringBuilder
+     * @param str the text
+     */
     public static void appendEscaped(StringBuilder sb, String str) {
-        Matcher matcher = escapePattern.matcher(str);
+        int len = str.length();
+        int start = 0;
+
+        for (int i = 0; i < len; ++i) {
+            char c = str.charAt(i);
 
-        while (matcher.find()) {
-            var token = matcher.group(1);
+            //Backslash has the highest code of the four. Most letters are above it.
+            if (c > '\\' || (c != '\\' && c != ';' && c != ',' && c != '\n')) {
+                continue;
+            }
 
-            matcher.appendReplacement(sb, escapades.get(token));
+            sb.append(str, start, i);
+            sb.append('\\').append(c == '\n' ? 'n' : c);
+
+            start = i + 1;
         }
 
-        matcher.appendTail(sb);
+        sb.append(str, start, len);
+    }
+
+    /**
+     * Removes the escapes of a TEXT value. This undoes appendEscaped().
+     * 
+     * @param str the escaped text
+     * @return the text
+     */
+    public static String unescape(String str) {
+        if (str.indexOf('\\') < 0) {
+            return str;
+        }
+
+        var sb = new StringBuilder(str.length());
+
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+
+            if (c == '\\' && i + 1 < str.length()) {
+                c = str.charAt(++i);
+
+                sb.append(c == 'n' || c == 'N' ? '\n' : c);
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
     }
 
     public static void outputProperty(StringBuilder output, String propName, String value) {
-        StringBuilder sb = new StringBuilder(propName.length() + value.length());
+        int start = output.length();
 
-        sb.append(propName);
+        output.append(propName);
 
-        appendEscaped(sb, value);
+        appendEscaped(output, value);
 
-        breakLine(sb);
+        breakLine(output, start);
+
+        output.append("\r\n");
+    }
+
+    /**
+     * Returns the number of bytes writeUTF8() writes for the characters.
+     * 
+     * @param cs the characters
+     * @return the number of bytes
+     */
+    public static long utf8Length(CharSequence cs) {
+        long bytes = 0;
+        int len = cs.length();
+
+        for (int i = 0; i < len; ++i) {
+            char c = cs.charAt(i);
+
+            if (c < 0x80) {
+                ++bytes;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                    ++i;
+                    bytes += 4;
+                } else {
+                    ++bytes;
+                }
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Returns the number of UTF-8 bytes outputProperty() writes, the line
+     * break included.
+     * 
+     * @param propName the property name and parameters up to the colon
+     * @param value the value
+     * @return the number of bytes
+     */
+    public static long propertyLength(String propName, String value) {
+        return new LineLength().add(propName, false).add(value, true).end(0);
+    }
+
+    /**
+     * Returns the number of UTF-8 bytes outputRawProperty() writes, the line
+     * break included.
+     * 
+     * @param propName the property name and parameters up to the colon
+     * @param value the value
+     * @return the number of bytes
+     */
+    public static long rawPropertyLength(String propName, String value) {
+        return new LineLength().add(propName, false).add(value, false).end(0);
+    }
+
+    /*
+    Counts the bytes of a folded line the way breakLine() and writeUTF8()
+    make it. A fold can split a surrogate pair. Each half is then written as
+    '?', just like the UTF-8 Charset does.
+    */
+    static final class LineLength {
+        private long column;
+        private long nextFold = MAX_LINE_LENGTH;
+        private long bytes;
+        private boolean pendingHigh;
+
+        LineLength add(String s, boolean escape) {
+            for (int i = 0, len = s.length(); i < len; ++i) {
+                char c = s.charAt(i);
+
+                if (escape && (c == '\\' || c == ';' || c == ',' || c == '\n')) {
+                    put('\\');
+                    put(c == '\n' ? 'n' : c);
+                } else {
+                    put(c);
+                }
+            }
+
+            return this;
+        }
+
+        private void put(char c) {
+            boolean folded = false;
+
+            if (column == nextFold) {
+                bytes += 3;
+                nextFold += MAX_LINE_LENGTH - 1;
+                folded = true;
+            }
+
+            ++column;
+
+            if (pendingHigh) {
+                pendingHigh = false;
+
+                if (!folded && Character.isLowSurrogate(c)) {
+                    bytes += 4;
+
+                    return;
+                }
+
+                ++bytes;
+            }
+
+            if (c < 0x80) {
+                ++bytes;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                pendingHigh = true;
+            } else if (Character.isLowSurrogate(c)) {
+                ++bytes;
+            } else {
+                bytes += 3;
+            }
+        }
+
+        /*
+        Adds ASCII characters that follow, plus the CRLF at the end.
+        */
+        long end(long asciiChars) {
+            if (pendingHigh) {
+                pendingHigh = false;
+                ++bytes;
+            }
+
+            long total = column + asciiChars;
+
+            if (total > nextFold) {
+                //One fold at nextFold and one every 74 characters after it
+                bytes += 3 * (1 + (total - nextFold - 1) / (MAX_LINE_LENGTH - 1));
+            }
+
+            return bytes + asciiChars + 2;
+        }
+    }
+
+    /**
+     * Encodes characters to UTF-8 and writes them to a stream. A lone surrogate
+     * is written as '?', the same as the UTF-8 Charset does.
+     * 
+     * @param cs the characters
+     * @param out the stream
+     * @param buff a scratch buffer of at least 4 bytes
+     * @throws IOException if the stream fails
+     */
+    public static void writeUTF8(CharSequence cs, OutputStream out, byte[] buff) throws IOException {
+        int pos = 0;
+        int len = cs.length();
+        int limit = buff.length - 4;
+
+        for (int i = 0; i < len; ++i) {
+            if (pos > limit) {
+                out.write(buff, 0, pos);
+                pos = 0;
+            }
+
+            char c = cs.charAt(i);
+
+            if (c < 0x80) {
+                buff[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buff[pos++] = (byte) (0xC0 | (c >> 6));
+                buff[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, cs.charAt(++i));
+
+                    buff[pos++] = (byte) (0xF0 | (cp >> 18));
+                    buff[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buff[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buff[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    buff[pos++] = '?';
+                }
+            } else {
+                buff[pos++] = (byte) (0xE0 | (c >> 12));
+                buff[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buff[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        if (pos > 0) {
+            out.write(buff, 0, pos);
+        }
+    }
+
+    /**
+     * A 64 bit FNV-1a hash of the characters followed by a final mix. This is
+     * not a cryptographic hash.
+     * 
+     * @param cs the characters
+     * @return the hash
+     */
+    public static long hash64(CharSequence cs) {
+        long h = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < cs.length(); ++i) {
+            h ^= cs.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        return mix64(h);
+    }
+
+    /**
+     * The finalizer of MurmurHash3. Spreads every input bit over the whole result.
+     * 
+     * @param h the value to mix
+     * @return the mixed value
+     */
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    /**
+     * Empties a list so that it can be reused. A list that can not be
+     * cleared in place, such as one made by List.of(), is replaced.
+     * 
+     * @param <T> the element type
+     * @param list the list
+     * @return the empty list
+     */
+    public static <T> List<T> cleared(List<T> list) {
+        if (list instanceof ArrayList) {
+            list.clear();
+
+            return list;
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Normalizes an email so that it can be used as a key. The mailto: prefix
+     * is removed and the address is lowercased.
+     * 
+     * @param email the email or mailto: URI
+     * @return the normalized email
+     */
+    public static String normalizeEmail(String email) {
+        var s = email.trim();
+
+        if (s.regionMatches(true, 0, "mailto:", 0, 7)) {
+            s = s.substring(7);
+        }
+
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    public static List<Integer> toList(int[] values) {
+        var list = new ArrayList<Integer>(values.length);
+
+        for (var v : values) {
+            list.add(v);
+        }
+
+        return list;
+    }
+
+    /**
+     * Resolves a time zone ID to a ZoneId. Non-standard IDs, like the
+     * ones used by Outlook, can not be resolved.
+     * 
+     * @param tzId the time zone ID
+     * @return the ZoneId or empty if the ID is not known to java.time
+     */
+    public static Optional<ZoneId> toZoneId(String tzId) {
+        try {
+            return Optional.of(ZoneId.of(tzId));
+        } catch (DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes a property whose value is not text. For example a URI.
+     * The value is folded but not escaped.
+     * 
+     * @param output the StringBuilder
+     * @param propName the property name and parameters up to the colon
+     * @param value the value
+     */
+    public static void outputRawProperty(StringBuilder output, String propName, String value) {
+        int start = output.length();
+
+        output.append(propName);
+        output.append(value);
+
+        breakLine(output, start);
 
-        output.append(sb);
         output.append("\r\n");
     }
 
     public static LocalDateTime toUTC(LocalDateTime dt, TimeZone tz) {
-        var local = dt.atZone(ZoneId.of(tz.getID()));
-        var utcTime = local.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        return ZoneOffsetTable.of(tz.getID()).toUTC(dt);
+    }
+
+    /**
+     * Returns a date and time as seconds from the epoch, as if it were in UTC.
+     * 
+     * @param dt the date and time
+     * @return the seconds
+     */
+    public static long toEpochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * The reverse of toEpochSecond().
+     * 
+     * @param seconds the seconds from the epoch
+     * @param nanos the nanoseconds
+     * @return the date and time
+     */
+    public static LocalDateTime toLocalDateTime(long seconds, int nanos) {
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Appends the date part of seconds from the epoch the way formatLocalDate()
+     * formats it. Example: 20201110
+     * 
+     * @param sb the StringBuilder
+     * @param seconds the seconds from the epoch
+     */
+    public static void appendDate(StringBuilder sb, long seconds) {
+        long days = Math.floorDiv(seconds, 86400);
+
+        //Howard Hinnant's days to civil date
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9999) {
+            localDateFormatter.formatTo(LocalDate.ofEpochDay(days), sb);
+
+            return;
+        }
+
+        appendDigits(sb, (int) year / 100);
+        appendDigits(sb, (int) year % 100);
+        appendDigits(sb, (int) month);
+        appendDigits(sb, (int) day);
+    }
+
+    /**
+     * Appends seconds from the epoch the way formatLocalDateTime() formats
+     * the date and time. Example: 20201110T091000
+     * 
+     * @param sb the StringBuilder
+     * @param seconds the seconds from the epoch
+     */
+    public static void appendDateTime(StringBuilder sb, long seconds) {
+        int secondOfDay = (int) Math.floorMod(seconds, 86400L);
+
+        appendDate(sb, seconds);
+        sb.append('T');
+        appendDigits(sb, secondOfDay / 3600);
+        appendDigits(sb, secondOfDay / 60 % 60);
+        sb.append("00");
+    }
+
+    /**
+     * Appends seconds from the epoch in UTC "Z" format, like formatUTC().
+     * Example: 20201110T091000Z
+     * 
+     * @param sb the StringBuilder
+     * @param seconds the seconds from the epoch
+     */
+    public static void appendUTC(StringBuilder sb, long seconds) {
+        appendDateTime(sb, seconds);
+        sb.append('Z');
+    }
+
+    /**
+     * Parses text made by formatUTC() back to seconds from the epoch.
+     * 
+     * @param text the text
+     * @return the seconds, or Long.MIN_VALUE if formatUTC() could not have
+     * made the text
+     */
+    public static long parseUTC(String text) {
+        if (text == null || text.length() != 16 || text.charAt(8) != 'T' || !text.endsWith("00Z")) {
+            return Long.MIN_VALUE;
+        }
+
+        int date = digits(text, 0, 8);
+        int time = digits(text, 9, 13);
+
+        if (date < 0 || time < 0) {
+            return Long.MIN_VALUE;
+        }
+
+        try {
+            return toEpochSecond(LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, time / 100, time % 100));
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    static int digits(String text, int start, int end) {
+        int value = 0;
+
+        for (int i = start; i < end; ++i) {
+            char c = text.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    private static void appendDigits(StringBuilder sb, int value) {
+        sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Writes a String that can be null and longer than writeUTF() allows.
+     * @param out the output
+     * @param str the String or null
+     * @throws IOException if the output fails
+     */
+    static void writeString(DataOutput out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+
+            return;
+        }
+
+        var bytes = str.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a String written by writeString().
+     * @param in the input
+     * @return the String or null
+     * @throws IOException if the input fails
+     */
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        var bytes = new byte[length];
+
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a date and time that can be null.
+     * @param out the output
+     * @param dt the date and time or null
+     * @throws IOException if the output fails
+     */
+    static void writeDateTime(DataOutput out, LocalDateTime dt) throws IOException {
+        out.writeBoolean(dt != null);
+
+        if (dt != null) {
+            out.writeLong(dt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dt.getNano());
+        }
+    }
+
+    /**
+     * Reads a date and time written by writeDateTime().
+     * @param in the input
+     * @return the date and time or null
+     * @throws IOException if the input fails
+     */
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        long seconds = in.readLong();
 
-        return utcTime;
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
     }
 }
@@ -1,9 +1,16 @@
 package com.webage.jcal;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,8 +19,12 @@ import java.util.List;
  * This is the root element of an iCal file.
  */
 public class VCalendar {
-    private MethodType method = MethodType.REQUEST;
-    private String productId = "jcal";
+    private static final int WRITE_CHUNK_SIZE = 8192;
+    private static final MethodType DEFAULT_METHOD = MethodType.REQUEST;
+    private static final String DEFAULT_PRODUCT_ID = "jcal";
+
+    private MethodType method = DEFAULT_METHOD;
+    private String productId = DEFAULT_PRODUCT_ID;
     private List<VEvent> eventList = new ArrayList<>();
     private List<String> vTimeZones = new ArrayList<>();
 
@@ -98,37 +109,209 @@ public class VCalendar {
         this.vTimeZones.add(tz.toVTimeZone());
     }
 
+    /**
+     * Clears the invite so that it can be filled in again. The METHOD and
+     * PRODID go back to their defaults. The lists of events and VTIMEZONE
+     * are emptied and kept.
+     */
+    public void reset() {
+        method = DEFAULT_METHOD;
+        productId = DEFAULT_PRODUCT_ID;
+        eventList = Util.cleared(eventList);
+        vTimeZones = Util.cleared(vTimeZones);
+    }
+
     /**
      * Writes the calendar invite to a StringBuilder.
      * 
      * @param sb a StringBuilder
      */
     public void output(StringBuilder sb) {
+        outputHeader(sb);
+
+        getEventList().forEach(event -> event.output(sb));
+
+        sb.append("END:VCALENDAR\r\n");
+    }
+
+    private void outputHeader(StringBuilder sb) {
         sb.append("BEGIN:VCALENDAR\r\n");
 
+        outputProperties(sb);
+
+        vTimeZones.forEach(tz -> {
+            sb.append(tz);
+        });
+    }
+
+    /*
+    PRODID, VERSION, CALSCALE and METHOD.
+    */
+    void outputProperties(StringBuilder sb) {
         Util.outputProperty(sb, "PRODID:", getProductId());
         
         sb.append("VERSION:2.0\r\n");
         sb.append("CALSCALE:GREGORIAN\r\n");
 
         sb.append(String.format("METHOD:%s\r\n", getMethod().getMethod()));
+    }
 
-        vTimeZones.forEach(tz -> {
-            sb.append(tz);
-        });
+    /**
+     * Returns the number of bytes of the invite in UTF-8. This is the
+     * length of toUTF8() and of what writeTo() writes. The invite is not
+     * written. Use it to size a buffer or to set Content-Length.
+     * 
+     * @return the number of bytes
+     */
+    public long encodedLength() {
+        long length = "BEGIN:VCALENDAR\r\n".length()
+            + Util.propertyLength("PRODID:", getProductId())
+            + "VERSION:2.0\r\n".length()
+            + "CALSCALE:GREGORIAN\r\n".length()
+            + "METHOD:".length() + getMethod().getMethod().length() + 2
+            + "END:VCALENDAR\r\n".length();
 
-        getEventList().forEach(event -> event.output(sb));
+        for (var tz : vTimeZones) {
+            length += Util.utf8Length(tz);
+        }
+        for (var event : getEventList()) {
+            length += event.encodedLength();
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes the calendar invite to a stream in UTF-8. The invite is written a
+     * few events at a time. The whole invite is never held in memory.
+     * The stream is not closed.
+     * 
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        var ctx = SerializationContext.acquire();
+
+        try {
+            writeTo(out, ctx);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    /**
+     * Writes the calendar invite to a channel in UTF-8. Events found in the
+     * cache are copied from it. The others are encoded and put in the
+     * cache. The output is the same as writeTo() with an OutputStream.
+     * The channel must be in blocking mode. It is not closed.
+     *
+     * @param channel the channel
+     * @param cache the cache of encoded events
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(WritableByteChannel channel, EncodedEventCache cache) throws IOException {
+        var ctx = SerializationContext.acquire();
+        var out = cache.open(channel);
+
+        try {
+            var sb = ctx.chars();
+
+            outputHeader(sb);
+            Util.writeUTF8(sb, out, ctx.bytes());
+
+            for (var event : getEventList()) {
+                cache.write(event, out, ctx);
+            }
+
+            sb = ctx.chars();
+            sb.append("END:VCALENDAR\r\n");
+            Util.writeUTF8(sb, out, ctx.bytes());
+            out.flush();
+        } finally {
+            cache.release(out);
+            ctx.release();
+        }
+    }
+
+    void writeTo(OutputStream out, SerializationContext ctx) throws IOException {
+        writeTo(out, ctx, getEventList());
+    }
+
+    /*
+    Writes the header of this calendar with other events. The events are
+    taken from the Iterable one at a time as they are written.
+    */
+    void writeTo(OutputStream out, SerializationContext ctx, Iterable<VEvent> events) throws IOException {
+        var sb = ctx.chars();
+        var buff = ctx.bytes();
+
+        outputHeader(sb);
+
+        for (var event : events) {
+            if (sb.length() >= WRITE_CHUNK_SIZE) {
+                Util.writeUTF8(sb, out, buff);
+                sb.setLength(0);
+            }
+
+            event.writeTo(sb, out, buff);
+        }
 
         sb.append("END:VCALENDAR\r\n");
+
+        Util.writeUTF8(sb, out, buff);
+    }
+
+    /**
+     * Writes the calendar invite to a UTF-8 encoded ByteBuffer and computes
+     * a SHA-256 digest of the bytes at the same time.
+     * 
+     * @return the bytes and the digest
+     */
+    public EncodedCalendar encode() {
+        try {
+            return encode(MessageDigest.getInstance("SHA-256"));
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the calendar invite to a UTF-8 encoded ByteBuffer and computes
+     * a digest of the bytes at the same time. Use Fnv64Digest for a fast
+     * non-cryptographic hash.
+     * 
+     * @param digest the digest algorithm. It is reset first.
+     * @return the bytes and the digest
+     */
+    public EncodedCalendar encode(MessageDigest digest) {
+        var buffer = new EncodedCalendar.Buffer();
+
+        digest.reset();
+
+        try {
+            writeTo(new DigestOutputStream(buffer, digest));
+        } catch (IOException e) {
+            //Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+
+        return new EncodedCalendar(buffer.toByteBuffer(), digest.digest());
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        var ctx = SerializationContext.acquire();
 
-        output(sb);
+        try {
+            var sb = ctx.chars();
 
-        return sb.toString();
+            output(sb);
+
+            return sb.toString();
+        } finally {
+            ctx.release();
+        }
     }
 
     /**
@@ -148,12 +331,18 @@ public class VCalendar {
      * @return the ByteBuffer.
      */
     public ByteBuffer toUTF8() {
-        StringBuilder sb = new StringBuilder();
+        var ctx = SerializationContext.acquire();
 
-        output(sb);
+        try {
+            var sb = ctx.chars();
 
-        return StandardCharsets.UTF_8
-            .encode(CharBuffer.wrap(sb));
+            output(sb);
+
+            return StandardCharsets.UTF_8
+                .encode(CharBuffer.wrap(sb));
+        } finally {
+            ctx.release();
+        }
     }
 
     /**
@@ -170,6 +359,18 @@ public class VCalendar {
     public static class Builder {
         private VCalendar cal = new VCalendar();
 
+        /**
+         * Clears the invite held by this builder so that the builder can be
+         * used again without allocating a new invite. The invite returned by an
+         * earlier call to build() is the same object and is cleared as well.
+         * @return the builder
+         */
+        public Builder reset() {
+            cal.reset();
+
+            return this;
+        }
+
         /**
          * Sets the METHOD
          * @param method the method
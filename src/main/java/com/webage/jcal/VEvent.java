@@ -1,39 +1,146 @@
 package com.webage.jcal;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.TimeZone;
 
 /**
- * A class that represents a VEVENT
+ * A class that represents a VEVENT.
+ *
+ * Many events can be held in memory at once, so the fields are kept
+ * small. Optional values are primitives marked by a bit in a presence
+ * mask, dates are seconds from the epoch, and the property lines, like
+ * ORGANIZER and DTSTART, are only formatted when they are asked for or
+ * written. The lists are created when they are first used.
  */
 public class VEvent {
-    private String organizer;
-    private Optional<String> description = Optional.empty();
+    //Changes whenever writeFields() changes
+    private static final int FIELDS_VERSION = 2;
+    private static final String[] ATTENDEE_PREFIXES = new String[PartStatType.values().length];
+    private static final StatusType[] STATUSES = StatusType.values();
+    private static final FrequencyType[] FREQUENCIES = FrequencyType.values();
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    //The bits of the presence mask
+    private static final int START = 1;
+    private static final int START_DATE = 1 << 1;
+    private static final int END = 1 << 2;
+    private static final int END_DATE = 1 << 3;
+    private static final int CREATED = 1 << 4;
+    private static final int SEQUENCE = 1 << 5;
+    private static final int STATUS = 1 << 6;
+    private static final int FREQUENCY = 1 << 7;
+    private static final int UNTIL = 1 << 8;
+    private static final int INTERVAL = 1 << 9;
+    private static final int COUNT = 1 << 10;
+    private static final int WEEK_START = 1 << 11;
+
+    static {
+        for (var p : PartStatType.values()) {
+            ATTENDEE_PREFIXES[p.ordinal()] = "ATTENDEE;ROLE=REQ-PARTICIPANT;PARTSTAT=" + p.getPartStat() + ";RSVP=TRUE;";
+        }
+    }
+
+    private int present;
+    private byte status;
+    private byte repeatFrequency;
+    private byte repeatWeekStart;
+    private int sequence;
+    private int repeatInterval;
+    private int repeatCount;
+    private int startNanos;
+    //Local dates and times are seconds from the epoch as if they were in UTC
+    private long start;
+    private long end;
+    private long createdDate;
+    private long dateTimeStamp;
+    private long repeatUntil;
+    private String organizerName;
+    private String organizerEmail;
     private String uid;
-    private String startDateTime;
-    private Optional<String> endDateTime = Optional.empty();
-    private Optional<String> createdDate = Optional.empty();
-    private String dateTimeStamp;
-    private Optional<Integer> sequence = Optional.empty();
-    private Optional<String> summary = Optional.empty();
-    private Optional<FrequencyType> repeatFrequency = Optional.empty();
-    private Optional<LocalDateTime> repeatUntil = Optional.empty();
-    private Optional<Integer> repeatInterval = Optional.empty();
-    private Optional<Integer> repeatCount = Optional.empty();
-    private Optional<StatusType> status = Optional.of(StatusType.CONFIRMED);
-    private List<String> attendeeList = new ArrayList<>();
-    private Optional<String> location = Optional.empty();
-    private Optional<String> locationURL = Optional.empty();
+    private String startTimeZoneId;
+    private String endTimeZoneId;
+    //Only set when DTSTAMP is not a UTC time that dateTimeStamp can hold
+    private String dateTimeStampText;
+    private String description;
+    private String summary;
+    private String location;
+    private String locationURL;
+    private List<WeekdayNum> repeatByDay;
+    private List<Integer> repeatByMonthDay;
+    private List<Integer> repeatByYearDay;
+    private List<Integer> repeatByWeekNo;
+    private List<Integer> repeatByMonth;
+    private List<Integer> repeatByHour;
+    private List<Integer> repeatByMinute;
+    private List<Integer> repeatBySetPos;
+    private List<String> attendeeList;
+    private Map<String, PartStatType> attendeeStatus;
+    private List<Attachment> attachmentList;
     
     /**
      * Create a VEVENT
      */
     VEvent() {
-        dateTimeStamp = Util.convertAndFormatUTC(LocalDateTime.now(), TimeZone.getDefault());
+        present = STATUS;
+        status = (byte) StatusType.CONFIRMED.ordinal();
+        dateTimeStamp = Util.toEpochSecond(Util.toUTC(LocalDateTime.now(), TimeZone.getDefault()));
+    }
+
+    /**
+     * Clears all the properties so that the event can be filled in again.
+     * DTSTAMP is set to the current time and STATUS goes back to CONFIRMED.
+     * The lists are emptied and kept.
+     */
+    public void reset() {
+        present = STATUS;
+        status = (byte) StatusType.CONFIRMED.ordinal();
+        dateTimeStamp = Util.toEpochSecond(Util.toUTC(LocalDateTime.now(), TimeZone.getDefault()));
+        dateTimeStampText = null;
+        organizerName = null;
+        organizerEmail = null;
+        uid = null;
+        startTimeZoneId = null;
+        endTimeZoneId = null;
+        description = null;
+        summary = null;
+        location = null;
+        locationURL = null;
+        repeatByDay = clear(repeatByDay);
+        repeatByMonthDay = clear(repeatByMonthDay);
+        repeatByYearDay = clear(repeatByYearDay);
+        repeatByWeekNo = clear(repeatByWeekNo);
+        repeatByMonth = clear(repeatByMonth);
+        repeatByHour = clear(repeatByHour);
+        repeatByMinute = clear(repeatByMinute);
+        repeatBySetPos = clear(repeatBySetPos);
+        attendeeList = clear(attendeeList);
+        attachmentList = clear(attachmentList);
+
+        if (attendeeStatus != null) {
+            attendeeStatus.clear();
+        }
+    }
+
+    private static <T> List<T> clear(List<T> list) {
+        return list == null ? null : Util.cleared(list);
+    }
+
+    private boolean has(int bit) {
+        return (present & bit) != 0;
     }
 
     /**
@@ -41,7 +148,15 @@ public class VEvent {
      * @return the ORGANIZER line
      */
     public String getOrganizer() {
-        return organizer;
+        return organizerEmail == null ? null : "CN=" + organizerName + ":mailto:" + organizerEmail;
+    }
+
+    /**
+     * Get the email of the organizer
+     * @return the email, or null if there is no organizer
+     */
+    String getOrganizerEmail() {
+        return organizerEmail;
     }
 
     /**
@@ -49,7 +164,7 @@ public class VEvent {
      * @param organizerEmail the email of the organizer
      */
     public void setOrganizer(String organizerEmail) {
-        this.organizer = String.format("CN=%s:mailto:%s", organizerEmail, organizerEmail);
+        setOrganizer(organizerEmail, organizerEmail);
     }
 
     /**
@@ -58,7 +173,8 @@ public class VEvent {
      * @param email email of the organizer
      */
     public void setOrganizer(String name, String email) {
-        this.organizer = String.format("CN=%s:mailto:%s", name, email);
+        this.organizerName = String.valueOf(name);
+        this.organizerEmail = String.valueOf(email);
     }
 
     /**
@@ -66,14 +182,14 @@ public class VEvent {
      * @return the DESCRIPTION text
      */
     public Optional<String> getDescription() {
-        return description;
+        return Optional.ofNullable(description);
     }
     /**
      * Sets the DESCRIPTION text
      * @param description the DESCRIPTION text
      */
     public void setDescription(String description) {
-        this.description = Optional.of(description);
+        this.description = Objects.requireNonNull(description);
     }
     /**
      * Get the UID
@@ -94,7 +210,15 @@ public class VEvent {
      * @return the DTSTART line
      */
     public String getStartDateTime() {
-        return startDateTime;
+        if (!has(START)) {
+            return null;
+        }
+
+        var sb = new StringBuilder(48);
+
+        appendStart(sb);
+
+        return sb.toString();
     }
     /**
      * Configures the DTSTART line
@@ -102,7 +226,7 @@ public class VEvent {
      * @param timeZone the time zone
      */
     public void setStartDateTime(LocalDateTime startDateTime, TimeZone timeZone) {
-        this.startDateTime = Util.formatLocalDateTime(startDateTime, timeZone);
+        setStartDateTime(startDateTime, timeZone.getID());
     }
     /**
      * Configures the DTSTART line
@@ -110,21 +234,83 @@ public class VEvent {
      * @param timeZoneId A time zone ID. 
      */
     public void setStartDateTime(LocalDateTime startDateTime, String timeZoneId) {
-        this.startDateTime = Util.formatLocalDateTime(startDateTime, timeZoneId);
+        this.start = Util.toEpochSecond(startDateTime);
+        this.startNanos = startDateTime.getNano();
+        this.startTimeZoneId = Objects.requireNonNull(timeZoneId);
+        this.present = (present | START) & ~START_DATE;
     }
     /**
      * Configures the DTSTART line with a date but no time. This is a day long event.
      * @param startDate The start date.
      */
     public void setStartDate(LocalDate startDate) {
-        this.startDateTime = Util.formatLocalDate(startDate);
+        this.start = Util.toEpochSecond(startDate.atStartOfDay());
+        this.startNanos = 0;
+        this.startTimeZoneId = null;
+        this.present |= START | START_DATE;
+    }
+    /**
+     * Get the start date and time of the event in its own time zone.
+     * For a day long event this is the start of the day.
+     * @return the local start date and time
+     */
+    public LocalDateTime getStartLocalDateTime() {
+        return has(START) ? Util.toLocalDateTime(start, startNanos) : null;
+    }
+    /*
+    DTSTART as local epoch seconds. See ZoneOffsetTable. Only valid if
+    hasStart() is true.
+    */
+    long getStartLocalEpochSecond() {
+        return start;
+    }
+    boolean hasStart() {
+        return has(START);
+    }
+    /*
+    DTEND as local epoch seconds. Only valid if hasEnd() is true.
+    */
+    long getEndLocalEpochSecond() {
+        return end;
+    }
+    boolean hasEnd() {
+        return has(END);
+    }
+    /**
+     * Get the time zone ID of DTSTART. This is empty for a day long event.
+     * @return the time zone ID of DTSTART
+     */
+    public Optional<String> getStartTimeZoneId() {
+        return Optional.ofNullable(startTimeZoneId);
+    }
+    /**
+     * Returns true if this is a day long event, that is, DTSTART has a date but no time.
+     * @return true if this is a day long event
+     */
+    public boolean isAllDay() {
+        return has(START_DATE);
     }
     /**
      * Get the DTEND line
      * @return the DTEND line
      */
     public Optional<String> getEndDateTime() {
-        return endDateTime;
+        if (!has(END)) {
+            return Optional.empty();
+        }
+
+        var sb = new StringBuilder(48);
+
+        appendEnd(sb);
+
+        return Optional.of(sb.toString());
+    }
+    /**
+     * Get the time zone ID of DTEND. This is empty if there is no DTEND or it is just a date.
+     * @return the time zone ID of DTEND
+     */
+    public Optional<String> getEndTimeZoneId() {
+        return Optional.ofNullable(endTimeZoneId);
     }
     /**
      * Sets the the DTEND line
@@ -132,7 +318,7 @@ public class VEvent {
      * @param timeZone the time zone
      */
     public void setEndDateTime(LocalDateTime endDateTime, TimeZone timeZone) {
-        this.endDateTime = Optional.of(Util.formatLocalDateTime(endDateTime, timeZone));
+        setEndDateTime(endDateTime, timeZone.getID());
     }
     /**
      * Sets the the DTEND line
@@ -140,56 +326,62 @@ public class VEvent {
      * @param timeZoneId the time zone ID
      */
     public void setEndDateTime(LocalDateTime endDateTime, String timeZoneId) {
-        this.endDateTime = Optional.of(Util.formatLocalDateTime(endDateTime, timeZoneId));
+        this.end = Util.toEpochSecond(endDateTime);
+        this.endTimeZoneId = Objects.requireNonNull(timeZoneId);
+        this.present = (present | END) & ~END_DATE;
     }
     /**
      * Sets the the DTEND line with just a date and not time.
      * @param endDate the end date
      */
     public void setEndDate(LocalDate endDate) {
-        this.endDateTime = Optional.of(Util.formatLocalDate(endDate));
+        this.end = Util.toEpochSecond(endDate.atStartOfDay());
+        this.endTimeZoneId = null;
+        this.present |= END | END_DATE;
     }
     /**
      * Get the sequence number of the event
      * @return the sequence number of the event
      */
     public Optional<Integer> getSequence() {
-        return sequence;
+        return has(SEQUENCE) ? Optional.of(sequence) : Optional.empty();
     }
     /**
      * Set the sequence number of the event
      * @param sequence the sequence number of the event
      */
     public void setSequence(int sequence) {
-        this.sequence = Optional.of(sequence);
+        this.sequence = sequence;
+        this.present |= SEQUENCE;
     }
     /**
      * Get the STATUS line of the event
      * @return the STATUS line of the event
      */
     public Optional<StatusType> getStatus() {
-        return status;
+        return has(STATUS) ? Optional.of(STATUSES[status]) : Optional.empty();
     }
     /**
      * Set the the STATUS line of the event
      * @param status the STATUS line
      */
     public void setStatus(StatusType status) {
-        this.status = Optional.of(status);
+        this.status = (byte) status.ordinal();
+        this.present |= STATUS;
     }
     /**
      * Get the SUMMARY line of the event
      * @return the SUMMARY line of the event
      */
     public Optional<String> getSummary() {
-        return summary;
+        return Optional.ofNullable(summary);
     }
     /**
      * Set the SUMMARY line of the event
      * @param summary the SUMMARY line of the event
      */
     public void setSummary(String summary) {
-        this.summary = Optional.of(summary);
+        this.summary = Objects.requireNonNull(summary);
     }
 
     /**
@@ -197,7 +389,15 @@ public class VEvent {
      * @return the CREATED line
      */
     public Optional<String> getCreatedDate() {
-        return createdDate;
+        if (!has(CREATED)) {
+            return Optional.empty();
+        }
+
+        var sb = new StringBuilder(16);
+
+        Util.appendUTC(sb, createdDate);
+
+        return Optional.of(sb.toString());
     }
 
     /**
@@ -207,7 +407,8 @@ public class VEvent {
      * @param timeZone Time zone
      */
     public void setCreatedDate(LocalDateTime createdOn, TimeZone timeZone) {
-        this.createdDate = Optional.of(Util.convertAndFormatUTC(createdOn, timeZone));
+        this.createdDate = Util.toEpochSecond(Util.toUTC(createdOn, timeZone));
+        this.present |= CREATED;
     }
 
     /**
@@ -215,7 +416,15 @@ public class VEvent {
      * @return the DTSTAMP line
      */
     public String getDateTimeStamp() {
-        return dateTimeStamp;
+        if (dateTimeStampText != null) {
+            return dateTimeStampText;
+        }
+
+        var sb = new StringBuilder(16);
+
+        Util.appendUTC(sb, dateTimeStamp);
+
+        return sb.toString();
     }
 
     /**
@@ -223,7 +432,14 @@ public class VEvent {
      * @param dateTimeStamp the DTSTAMP line
      */
     public void setDateTimeStamp(String dateTimeStamp) {
-        this.dateTimeStamp = dateTimeStamp;
+        long seconds = Util.parseUTC(dateTimeStamp);
+
+        if (seconds == Long.MIN_VALUE) {
+            this.dateTimeStampText = dateTimeStamp;
+        } else {
+            this.dateTimeStamp = seconds;
+            this.dateTimeStampText = null;
+        }
     }
 
     /**
@@ -232,8 +448,7 @@ public class VEvent {
      * @param email Email of attendee
      */
     public void addAttendee(String name, String email) {
-        attendeeList.add(String.format("CN=%s:mailto:%s",
-            name, email));
+        getAttendeeList().add("CN=" + name + ":mailto:" + email);
     }
 
     /**
@@ -241,8 +456,7 @@ public class VEvent {
      * @param email Email of attendee
      */
     public void addAttendee(String email) {
-        attendeeList.add(String.format("CN=%s:mailto:%s",
-            email, email));
+        addAttendee(email, email);
     }
 
     /**
@@ -250,9 +464,20 @@ public class VEvent {
      * @return a list of all ATTENDEE lines
      */
     public List<String> getAttendeeList() {
+        if (attendeeList == null) {
+            attendeeList = new ArrayList<>();
+        }
+
         return attendeeList;
     }
 
+    /*
+    The ATTENDEE lines without creating a list for an event that has none.
+    */
+    List<String> attendees() {
+        return attendeeList == null ? List.of() : attendeeList;
+    }
+
     /**
      * Sets a list of all ATTENDEE lines
      * @param attendeeList a list of all ATTENDEE lines
@@ -261,12 +486,34 @@ public class VEvent {
         this.attendeeList = attendeeList;
     }
 
+    /**
+     * Get the PARTSTAT of an attendee
+     * @param email Email of attendee
+     * @return the PARTSTAT. Empty if the attendee has not been given one.
+     */
+    public Optional<PartStatType> getAttendeeStatus(String email) {
+        return attendeeStatus == null ? Optional.empty() : Optional.ofNullable(attendeeStatus.get(Util.normalizeEmail(email)));
+    }
+
+    /**
+     * Sets the PARTSTAT of an attendee. The default is NEEDS-ACTION.
+     * @param email Email of attendee
+     * @param partStat the PARTSTAT
+     */
+    public void setAttendeeStatus(String email, PartStatType partStat) {
+        if (attendeeStatus == null) {
+            attendeeStatus = new HashMap<>(4);
+        }
+
+        attendeeStatus.put(Util.normalizeEmail(email), partStat);
+    }
+
     /**
      * Get the FREQ of a RRULE
      * @return the FREQ of a RRULE
      */
     public Optional<FrequencyType> getRepeatFrequency() {
-        return repeatFrequency;
+        return has(FREQUENCY) ? Optional.of(FREQUENCIES[repeatFrequency]) : Optional.empty();
     }
 
     /**
@@ -274,7 +521,8 @@ public class VEvent {
      * @param repeatFrequency the FREQ of a RRULE
      */
     public void setRepeatFrequency(FrequencyType repeatFrequency) {
-        this.repeatFrequency = Optional.of(repeatFrequency);
+        this.repeatFrequency = (byte) repeatFrequency.ordinal();
+        this.present |= FREQUENCY;
     }
 
     /**
@@ -282,7 +530,7 @@ public class VEvent {
      * @return the UNTIL of a RRULE
      */
     public Optional<LocalDateTime> getRepeatUntil() {
-        return repeatUntil;
+        return has(UNTIL) ? Optional.of(Util.toLocalDateTime(repeatUntil, 0)) : Optional.empty();
     }
 
     /**
@@ -291,7 +539,7 @@ public class VEvent {
      * @param tz The time zone
      */
     public void setRepeatUntil(LocalDateTime until, TimeZone tz) {
-        this.repeatUntil = Optional.of(Util.toUTC(until, tz));
+        setRepeatUntil(Util.toUTC(until, tz));
     }
 
     /**
@@ -299,7 +547,8 @@ public class VEvent {
      * @param untilUTC The date and time in UTC
      */
     public void setRepeatUntil(LocalDateTime untilUTC) {
-        this.repeatUntil = Optional.of(untilUTC);
+        this.repeatUntil = Util.toEpochSecond(untilUTC);
+        this.present |= UNTIL;
     }
 
     /**
@@ -307,7 +556,7 @@ public class VEvent {
      * @return the repeat interval of a RRULE
      */
     public Optional<Integer> getRepeatInterval() {
-        return repeatInterval;
+        return has(INTERVAL) ? Optional.of(repeatInterval) : Optional.empty();
     }
 
     /**
@@ -315,7 +564,8 @@ public class VEvent {
      * @param repeatInterval the repeat interval of a RRULE
      */
     public void setRepeatInterval(int repeatInterval) {
-        this.repeatInterval = Optional.of(repeatInterval);
+        this.repeatInterval = repeatInterval;
+        this.present |= INTERVAL;
     }
 
     /**
@@ -323,7 +573,7 @@ public class VEvent {
      * @return the repeat count of a RRULE
      */
     public Optional<Integer> getRepeatCount() {
-        return repeatCount;
+        return has(COUNT) ? Optional.of(repeatCount) : Optional.empty();
     }
 
     /**
@@ -331,7 +581,8 @@ public class VEvent {
      * @param repeatCount the repeat count of a RRULE
      */
     public void setRepeatCount(int repeatCount) {
-        this.repeatCount = Optional.of(repeatCount);
+        this.repeatCount = repeatCount;
+        this.present |= COUNT;
     }
 
     /**
@@ -339,7 +590,204 @@ public class VEvent {
      * @param repeatCount the repeat count of a RRULE
      */
     public void setRepeatCount(Optional<Integer> repeatCount) {
-        this.repeatCount = repeatCount;
+        if (repeatCount.isPresent()) {
+            setRepeatCount(repeatCount.get().intValue());
+        } else {
+            this.present &= ~COUNT;
+        }
+    }
+
+    /**
+     * Get the BYDAY days of a RRULE
+     * @return the BYDAY days of a RRULE
+     */
+    public List<WeekdayNum> getRepeatByDay() {
+        if (repeatByDay == null) {
+            repeatByDay = new ArrayList<>();
+        }
+
+        return repeatByDay;
+    }
+
+    /**
+     * Sets the BYDAY days of a RRULE
+     * @param repeatByDay the BYDAY days of a RRULE
+     */
+    public void setRepeatByDay(List<WeekdayNum> repeatByDay) {
+        this.repeatByDay = repeatByDay;
+    }
+
+    /**
+     * Get the BYMONTHDAY days of a RRULE
+     * @return the BYMONTHDAY days of a RRULE
+     */
+    public List<Integer> getRepeatByMonthDay() {
+        if (repeatByMonthDay == null) {
+            repeatByMonthDay = new ArrayList<>();
+        }
+
+        return repeatByMonthDay;
+    }
+
+    /**
+     * Sets the BYMONTHDAY days of a RRULE. Negative values count from the end of the month.
+     * @param repeatByMonthDay the BYMONTHDAY days of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByMonthDay(List<Integer> repeatByMonthDay) {
+        this.repeatByMonthDay = Recurrence.checkRange("BYMONTHDAY", repeatByMonthDay, -31, 31, true);
+    }
+
+    /**
+     * Get the BYYEARDAY days of a RRULE
+     * @return the BYYEARDAY days of a RRULE
+     */
+    public List<Integer> getRepeatByYearDay() {
+        if (repeatByYearDay == null) {
+            repeatByYearDay = new ArrayList<>();
+        }
+
+        return repeatByYearDay;
+    }
+
+    /**
+     * Sets the BYYEARDAY days of a RRULE. Negative values count from the end of the year.
+     * @param repeatByYearDay the BYYEARDAY days of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByYearDay(List<Integer> repeatByYearDay) {
+        this.repeatByYearDay = Recurrence.checkRange("BYYEARDAY", repeatByYearDay, -366, 366, true);
+    }
+
+    /**
+     * Get the BYWEEKNO weeks of a RRULE
+     * @return the BYWEEKNO weeks of a RRULE
+     */
+    public List<Integer> getRepeatByWeekNo() {
+        if (repeatByWeekNo == null) {
+            repeatByWeekNo = new ArrayList<>();
+        }
+
+        return repeatByWeekNo;
+    }
+
+    /**
+     * Sets the BYWEEKNO weeks of a RRULE. Only valid for a YEARLY rule.
+     * @param repeatByWeekNo the BYWEEKNO weeks of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByWeekNo(List<Integer> repeatByWeekNo) {
+        this.repeatByWeekNo = Recurrence.checkRange("BYWEEKNO", repeatByWeekNo, -53, 53, true);
+    }
+
+    /**
+     * Get the BYMONTH months of a RRULE
+     * @return the BYMONTH months of a RRULE
+     */
+    public List<Integer> getRepeatByMonth() {
+        if (repeatByMonth == null) {
+            repeatByMonth = new ArrayList<>();
+        }
+
+        return repeatByMonth;
+    }
+
+    /**
+     * Sets the BYMONTH months of a RRULE. January is 1.
+     * @param repeatByMonth the BYMONTH months of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByMonth(List<Integer> repeatByMonth) {
+        this.repeatByMonth = Recurrence.checkRange("BYMONTH", repeatByMonth, 1, 12, false);
+    }
+
+    /**
+     * Get the BYHOUR hours of a RRULE
+     * @return the BYHOUR hours of a RRULE
+     */
+    public List<Integer> getRepeatByHour() {
+        if (repeatByHour == null) {
+            repeatByHour = new ArrayList<>();
+        }
+
+        return repeatByHour;
+    }
+
+    /**
+     * Sets the BYHOUR hours of a RRULE
+     * @param repeatByHour the BYHOUR hours of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByHour(List<Integer> repeatByHour) {
+        this.repeatByHour = Recurrence.checkRange("BYHOUR", repeatByHour, 0, 23, false);
+    }
+
+    /**
+     * Get the BYMINUTE minutes of a RRULE
+     * @return the BYMINUTE minutes of a RRULE
+     */
+    public List<Integer> getRepeatByMinute() {
+        if (repeatByMinute == null) {
+            repeatByMinute = new ArrayList<>();
+        }
+
+        return repeatByMinute;
+    }
+
+    /**
+     * Sets the BYMINUTE minutes of a RRULE
+     * @param repeatByMinute the BYMINUTE minutes of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatByMinute(List<Integer> repeatByMinute) {
+        this.repeatByMinute = Recurrence.checkRange("BYMINUTE", repeatByMinute, 0, 59, false);
+    }
+
+    /**
+     * Get the BYSETPOS positions of a RRULE
+     * @return the BYSETPOS positions of a RRULE
+     */
+    public List<Integer> getRepeatBySetPos() {
+        if (repeatBySetPos == null) {
+            repeatBySetPos = new ArrayList<>();
+        }
+
+        return repeatBySetPos;
+    }
+
+    /**
+     * Sets the BYSETPOS positions of a RRULE. Negative values count from the end of the set.
+     * @param repeatBySetPos the BYSETPOS positions of a RRULE
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public void setRepeatBySetPos(List<Integer> repeatBySetPos) {
+        this.repeatBySetPos = Recurrence.checkRange("BYSETPOS", repeatBySetPos, -366, 366, true);
+    }
+
+    /**
+     * Get the WKST of a RRULE
+     * @return the WKST of a RRULE
+     */
+    public Optional<DayOfWeek> getRepeatWeekStart() {
+        return has(WEEK_START) ? Optional.of(DAYS[repeatWeekStart]) : Optional.empty();
+    }
+
+    /**
+     * Sets the WKST of a RRULE. The default is Monday.
+     * @param repeatWeekStart the WKST of a RRULE
+     */
+    public void setRepeatWeekStart(DayOfWeek repeatWeekStart) {
+        this.repeatWeekStart = (byte) repeatWeekStart.ordinal();
+        this.present |= WEEK_START;
+    }
+
+    /**
+     * Compiles the RRULE of this event into an evaluator that generates the
+     * dates and times of the occurrences.
+     * @return the recurrence, or empty if the event does not repeat
+     */
+    public Optional<Recurrence> getRecurrence() {
+        return getRepeatFrequency().map(f -> new Recurrence(this));
     }
 
     /**
@@ -347,7 +795,7 @@ public class VEvent {
      * @return the LOCATION line
      */
     public Optional<String> getLocation() {
-        return location;
+        return Optional.ofNullable(location);
     }
 
     /**
@@ -355,7 +803,7 @@ public class VEvent {
      * @param location the LOCATION line
      */
     public void setLocation(String location) {
-        this.location = Optional.of(location);
+        this.location = Objects.requireNonNull(location);
     }
 
     /**
@@ -363,7 +811,7 @@ public class VEvent {
      * @return the URL associated with the LOCATION
      */
     public Optional<String> getLocationURL() {
-        return locationURL;
+        return Optional.ofNullable(locationURL);
     }
 
     /**
@@ -371,7 +819,35 @@ public class VEvent {
      * @param locationURL the URL associated with the LOCATION
      */
     public void setLocationURL(String locationURL) {
-        this.locationURL = Optional.of(locationURL);
+        this.locationURL = Objects.requireNonNull(locationURL);
+    }
+
+    /**
+     * Get the ATTACH properties
+     * @return the attachments
+     */
+    public List<Attachment> getAttachmentList() {
+        if (attachmentList == null) {
+            attachmentList = new ArrayList<>();
+        }
+
+        return attachmentList;
+    }
+
+    /**
+     * Sets the ATTACH properties
+     * @param attachmentList the attachments
+     */
+    public void setAttachmentList(List<Attachment> attachmentList) {
+        this.attachmentList = attachmentList;
+    }
+
+    /**
+     * Adds an ATTACH property
+     * @param attachment the attachment
+     */
+    public void addAttachment(Attachment attachment) {
+        getAttachmentList().add(attachment);
     }
 
     /**
@@ -379,63 +855,586 @@ public class VEvent {
      * @param sb the StringBuilder
      */
     public void output(StringBuilder sb) {
+        output(sb, true);
+    }
+
+    /**
+     * Returns a fingerprint of the content of the event. Two events with the
+     * same properties have the same fingerprint. DTSTAMP and SEQUENCE are
+     * left out. They say when and how many times an event was sent, not what
+     * the event is. Use this to cheaply tell if an event has changed.
+     * 
+     * @return a 64 bit fingerprint
+     */
+    public long fingerprint() {
+        var ctx = SerializationContext.acquire();
+
+        try {
+            var sb = ctx.chars();
+
+            output(sb, false);
+
+            return Util.hash64(sb);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    /**
+     * Returns a fingerprint of what the occurrences of the event depend on:
+     * DTSTART, its time zone and the RRULE. Events that repeat the same way
+     * have the same fingerprint even if the rest of them differs.
+     * 
+     * @return a 64 bit fingerprint
+     */
+    long recurrenceFingerprint() {
+        var ctx = SerializationContext.acquire();
+
+        try {
+            var sb = ctx.chars();
+
+            sb.append(start).append('.').append(startNanos).append(';').append(startTimeZoneId).append(';');
+            outputRepeatRule(sb);
+
+            return Util.hash64(sb);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    private void output(StringBuilder sb, boolean withRevision) {
+        outputProperties(sb, withRevision);
+
+        if (attachmentList != null) {
+            attachmentList.forEach(a -> a.output(sb));
+        }
+
+        sb.append("END:VEVENT\r\n");
+    }
+
+    /**
+     * Writes the VEVENT section. Inline attachments are streamed to the
+     * stream. Everything else goes to the StringBuilder, which is flushed
+     * to the stream only when needed.
+     * 
+     * @param sb the StringBuilder
+     * @param out the stream
+     * @param buff a scratch buffer
+     * @throws IOException if the stream fails
+     */
+    void writeTo(StringBuilder sb, OutputStream out, byte[] buff) throws IOException {
+        outputProperties(sb, true);
+
+        if (attachmentList != null) {
+            for (var a : attachmentList) {
+                if (a.isInline()) {
+                    Util.writeUTF8(sb, out, buff);
+                    sb.setLength(0);
+
+                    a.writeTo(out, buff);
+                } else {
+                    a.output(sb);
+                }
+            }
+        }
+
+        sb.append("END:VEVENT\r\n");
+    }
+
+    private void outputProperties(StringBuilder sb, boolean withRevision) {
         sb.append("BEGIN:VEVENT\r\n");
 
-        outputStartDate(sb);
+        outputDates(sb, withRevision);
+        outputOrganizer(sb);
+        Util.outputProperty(sb, "UID:", uid);
+        outputState(sb, withRevision);
+
+        if (summary != null) {
+            Util.outputProperty(sb, "SUMMARY:", summary);
+        }
+        if (description != null) {
+            Util.outputProperty(sb, "DESCRIPTION:", description);
+        }
+
+        /*
+        PARTSTAT is left out of the fingerprint. A response from an attendee
+        does not change the event.
+        */
+        if (attendeeList != null) {
+            attendeeList.forEach(a -> Util.outputProperty(sb, attendeePrefix(a, withRevision), a));
+        }
+
+        if (location != null) {
+            Util.outputProperty(sb, locationPrefix(), location);
+        }
+    }
+
+    /**
+     * Writes the VEVENT to a jCal or xCal writer. The properties are the
+     * same as output() writes and come in the same order. They are taken
+     * from the fields, so nothing is escaped and parsed again.
+     * @param w the writer
+     */
+    void writeComponent(ComponentWriter w) {
+        w.begin("vevent");
+
+        if (has(START)) {
+            writeDateTime(w, "dtstart", start, startTimeZoneId);
+        }
+        if (has(END)) {
+            writeDateTime(w, "dtend", end, endTimeZoneId);
+        }
+        if (has(FREQUENCY)) {
+            var sb = new StringBuilder(64);
+
+            outputRepeatRule(sb);
+            //Without "RRULE:" and the line break
+            w.property("rrule", "recur", sb.substring(6, sb.length() - 2));
+        }
+
+        w.property("dtstamp", "date-time", getDateTimeStamp());
+        w.property("organizer", "cal-address", "mailto:" + organizerEmail, "cn", organizerName);
+        w.property("uid", "text", uid);
+
+        if (has(CREATED)) {
+            var sb = new StringBuilder(16);
+
+            Util.appendUTC(sb, createdDate);
+            w.property("created", "date-time", sb.toString());
+        }
+        if (has(SEQUENCE)) {
+            w.property("sequence", "integer", Integer.toString(sequence));
+        }
+        if (has(STATUS)) {
+            w.property("status", "text", STATUSES[status].getStatus());
+        }
+        if (summary != null) {
+            w.property("summary", "text", summary);
+        }
+        if (description != null) {
+            w.property("description", "text", description);
+        }
+
+        if (attendeeList != null) {
+            for (var a : attendeeList) {
+                writeAttendee(w, a);
+            }
+        }
+
+        if (location != null) {
+            w.property("location", "text", location, "altrep", locationURL);
+        }
+        if (attachmentList != null) {
+            attachmentList.forEach(a -> a.writeComponent(w));
+        }
+
+        w.end();
+    }
+
+    private static void writeDateTime(ComponentWriter w, String name, long seconds, String timeZoneId) {
+        var sb = new StringBuilder(16);
+
+        if (timeZoneId == null) {
+            Util.appendDate(sb, seconds);
+            w.property(name, "date", sb.toString());
+        } else {
+            Util.appendDateTime(sb, seconds);
+            w.property(name, "date-time", sb.toString(), "tzid", timeZoneId);
+        }
+    }
 
-        getEndDateTime().ifPresent(dt -> {
+    /*
+    An attendee from addAttendee() is split into its name and email. Any
+    other ATTENDEE line is parsed as it is.
+    */
+    private void writeAttendee(ComponentWriter w, String attendee) {
+        var partStat = partStatOf(attendee);
+        int mailto = attendee.lastIndexOf(":mailto:");
+
+        if (!attendee.startsWith("CN=") || mailto < 0) {
+            w.translate(ATTENDEE_PREFIXES[partStat.ordinal()] + attendee + "\r\n");
+
+            return;
+        }
+
+        w.property("attendee", "cal-address", attendee.substring(mailto + 1),
+            "role", "REQ-PARTICIPANT",
+            "partstat", partStat.getPartStat(),
+            "rsvp", "TRUE",
+            "cn", attendee.substring(3, mailto));
+    }
+
+    /*
+    DTSTART, DTEND, RRULE and DTSTAMP. None of them is folded.
+    */
+    private void outputDates(StringBuilder sb, boolean withRevision) {
+        if (has(START)) {
+            sb.append("DTSTART;");
+            appendStart(sb);
+            sb.append("\r\n");
+        }
+        if (has(END)) {
             sb.append("DTEND;");
-            sb.append(dt);
+            appendEnd(sb);
             sb.append("\r\n");
-        });
+        }
 
         outputRepeatRule(sb);
         
-        sb.append(String.format("DTSTAMP:%s\r\n", getDateTimeStamp()));
+        if (withRevision) {
+            sb.append("DTSTAMP:");
 
-        Util.outputProperty(sb, "ORGANIZER;", getOrganizer());
-        Util.outputProperty(sb, "UID:", getUID());
+            if (dateTimeStampText != null) {
+                sb.append(dateTimeStampText);
+            } else {
+                Util.appendUTC(sb, dateTimeStamp);
+            }
 
-        getCreatedDate().ifPresent(c -> sb.append(String.format("CREATED:%s\r\n", c)));
+            sb.append("\r\n");
+        }
+    }
 
-        getSequence().ifPresent(s -> sb.append(String.format("SEQUENCE:%d\r\n", s)));
+    /*
+    CREATED, SEQUENCE and STATUS. None of them is folded.
+    */
+    private void outputState(StringBuilder sb, boolean withRevision) {
+        if (has(CREATED)) {
+            sb.append("CREATED:");
+            Util.appendUTC(sb, createdDate);
+            sb.append("\r\n");
+        }
+        if (withRevision && has(SEQUENCE)) {
+            sb.append("SEQUENCE:").append(sequence).append("\r\n");
+        }
+        if (has(STATUS)) {
+            sb.append("STATUS:").append(STATUSES[status].getStatus()).append("\r\n");
+        }
+    }
 
-        getStatus().ifPresent(s -> sb.append(String.format("STATUS:%s\r\n", s.getStatus())));
+    private void outputOrganizer(StringBuilder sb) {
+        int start = sb.length();
 
-        getSummary().ifPresent(s -> Util.outputProperty(sb, "SUMMARY:", s));
-        getDescription().ifPresent(d -> Util.outputProperty(sb, "DESCRIPTION:", d));
+        sb.append("ORGANIZER;CN=");
+        Util.appendEscaped(sb, organizerName);
+        sb.append(":mailto:");
+        Util.appendEscaped(sb, organizerEmail);
+        Util.breakLine(sb, start);
+        sb.append("\r\n");
+    }
 
-        getAttendeeList().forEach(a -> Util.outputProperty(sb, "ATTENDEE;ROLE=REQ-PARTICIPANT;PARTSTAT=NEEDS-ACTION;RSVP=TRUE;", a));
+    private void appendStart(StringBuilder sb) {
+        appendDateTime(sb, start, startTimeZoneId);
+    }
 
-        getLocation().ifPresent(loc -> {
-            getLocationURL().ifPresentOrElse(locURL -> {
-                Util.outputProperty(sb, String.format("LOCATION;ALTREP=\"%s\":", locURL), loc);
-            },
-            () -> {
-                Util.outputProperty(sb, "LOCATION:", loc);
-            });
-        });
+    private void appendEnd(StringBuilder sb) {
+        appendDateTime(sb, end, endTimeZoneId);
+    }
 
-        sb.append("END:VEVENT\r\n");
+    /*
+    A date and time in a time zone, or just a date if there is no time zone.
+    */
+    private static void appendDateTime(StringBuilder sb, long seconds, String timeZoneId) {
+        if (timeZoneId == null) {
+            sb.append("VALUE=DATE:");
+            Util.appendDate(sb, seconds);
+        } else {
+            sb.append("TZID=").append(timeZoneId).append(':');
+            Util.appendDateTime(sb, seconds);
+        }
     }
 
-    private void outputRepeatRule(StringBuilder sb) {
-        getRepeatFrequency().ifPresent(f -> {
-            sb.append("RRULE:");
-            sb.append(String.format("FREQ=%s", f.getFrequency()));
-            getRepeatUntil().ifPresent(u -> sb.append(String.format(";UNTIL=%s", Util.formatUTC(u))));
-            getRepeatCount().ifPresent(c -> sb.append(String.format(";COUNT=%d", c)));
-            getRepeatInterval().ifPresent(i -> sb.append(String.format(";INTERVAL=%d", i)));
-            sb.append("\r\n");
-        });
+    private String attendeePrefix(String attendee, boolean withRevision) {
+        var partStat = withRevision ? partStatOf(attendee) : PartStatType.NEEDS_ACTION;
+
+        return ATTENDEE_PREFIXES[partStat.ordinal()];
+    }
+
+    private PartStatType partStatOf(String attendee) {
+        return attendeeStatus != null && !attendeeStatus.isEmpty()
+            ? attendeeStatus.getOrDefault(Util.normalizeEmail(emailOf(attendee)), PartStatType.NEEDS_ACTION)
+            : PartStatType.NEEDS_ACTION;
+    }
+
+    private String locationPrefix() {
+        return locationURL == null ? "LOCATION:" : "LOCATION;ALTREP=\"" + locationURL + "\":";
+    }
+
+    /**
+     * Returns the number of bytes output() writes when encoded in UTF-8.
+     * The event is not written. Only the lengths of the properties are
+     * added up. Inline attachments from a Source are read to find their size.
+     * 
+     * @return the number of bytes
+     */
+    public long encodedLength() {
+        long length = "BEGIN:VEVENT\r\n".length() + "END:VEVENT\r\n".length();
+        var ctx = SerializationContext.acquire();
+
+        //The lines that are not folded are cheap to write out and count
+        try {
+            var sb = ctx.chars();
+
+            outputDates(sb, true);
+            outputState(sb, true);
+            length += Util.utf8Length(sb);
+        } finally {
+            ctx.release();
+        }
+
+        length += new Util.LineLength()
+            .add("ORGANIZER;CN=", false)
+            .add(organizerName, true)
+            .add(":mailto:", false)
+            .add(organizerEmail, true)
+            .end(0);
+        length += Util.propertyLength("UID:", uid);
+
+        if (summary != null) {
+            length += Util.propertyLength("SUMMARY:", summary);
+        }
+        if (description != null) {
+            length += Util.propertyLength("DESCRIPTION:", description);
+        }
+        if (attendeeList != null) {
+            for (var a : attendeeList) {
+                length += Util.propertyLength(attendeePrefix(a, true), a);
+            }
+        }
+        if (location != null) {
+            length += Util.propertyLength(locationPrefix(), location);
+        }
+        if (attachmentList != null) {
+            for (var a : attachmentList) {
+                length += a.encodedLength();
+            }
+        }
+
+        return length;
     }
 
-    private void outputStartDate(StringBuilder sb) {
-        sb.append("DTSTART;");
-        sb.append(getStartDateTime());
+    /**
+     * Writes every property of the event in a compact binary form.
+     * readFields() reads it back into an equal event.
+     * @param out the output
+     * @throws IOException if the output fails or an inline attachment can not be read
+     */
+    void writeFields(DataOutput out) throws IOException {
+        out.writeByte(FIELDS_VERSION);
+        out.writeInt(present);
+        out.writeByte(status);
+        out.writeByte(repeatFrequency);
+        out.writeByte(repeatWeekStart);
+        out.writeInt(sequence);
+        out.writeInt(repeatInterval);
+        out.writeInt(repeatCount);
+        out.writeInt(startNanos);
+        out.writeLong(start);
+        out.writeLong(end);
+        out.writeLong(createdDate);
+        out.writeLong(dateTimeStamp);
+        out.writeLong(repeatUntil);
+        Util.writeString(out, organizerName);
+        Util.writeString(out, organizerEmail);
+        Util.writeString(out, uid);
+        Util.writeString(out, startTimeZoneId);
+        Util.writeString(out, endTimeZoneId);
+        Util.writeString(out, dateTimeStampText);
+        Util.writeString(out, description);
+        Util.writeString(out, summary);
+        Util.writeString(out, location);
+        Util.writeString(out, locationURL);
+
+        var byDay = repeatByDay == null ? List.<WeekdayNum>of() : repeatByDay;
+
+        out.writeShort(byDay.size());
+
+        for (var day : byDay) {
+            out.writeByte(day.getOrdinal());
+            out.writeByte(day.getDayOfWeek().ordinal());
+        }
+
+        for (var list : Arrays.asList(repeatByMonthDay, repeatByYearDay, repeatByWeekNo, repeatByMonth, repeatByHour, repeatByMinute, repeatBySetPos)) {
+            out.writeShort(list == null ? 0 : list.size());
+
+            if (list != null) {
+                for (int value : list) {
+                    out.writeShort(value);
+                }
+            }
+        }
+
+        out.writeInt(attendeeList == null ? 0 : attendeeList.size());
+
+        if (attendeeList != null) {
+            for (var a : attendeeList) {
+                Util.writeString(out, a);
+            }
+        }
+
+        out.writeInt(attendeeStatus == null ? 0 : attendeeStatus.size());
+
+        if (attendeeStatus != null) {
+            for (var entry : attendeeStatus.entrySet()) {
+                Util.writeString(out, entry.getKey());
+                out.writeByte(entry.getValue().ordinal());
+            }
+        }
+
+        out.writeInt(attachmentList == null ? 0 : attachmentList.size());
+
+        if (attachmentList != null) {
+            for (var a : attachmentList) {
+                a.writeFields(out);
+            }
+        }
+    }
+
+    /**
+     * Reads an event written by writeFields().
+     * @param in the input
+     * @return the event
+     * @throws IOException if the input fails or is not an event
+     */
+    static VEvent readFields(DataInput in) throws IOException {
+        int version = in.readByte();
+
+        if (version != FIELDS_VERSION) {
+            throw new IOException("Unknown event format: " + version);
+        }
+
+        var ev = new VEvent();
+
+        ev.present = in.readInt();
+        ev.status = in.readByte();
+        ev.repeatFrequency = in.readByte();
+        ev.repeatWeekStart = in.readByte();
+        ev.sequence = in.readInt();
+        ev.repeatInterval = in.readInt();
+        ev.repeatCount = in.readInt();
+        ev.startNanos = in.readInt();
+        ev.start = in.readLong();
+        ev.end = in.readLong();
+        ev.createdDate = in.readLong();
+        ev.dateTimeStamp = in.readLong();
+        ev.repeatUntil = in.readLong();
+        ev.organizerName = Util.readString(in);
+        ev.organizerEmail = Util.readString(in);
+        ev.uid = Util.readString(in);
+        ev.startTimeZoneId = Util.readString(in);
+        ev.endTimeZoneId = Util.readString(in);
+        ev.dateTimeStampText = Util.readString(in);
+        ev.description = Util.readString(in);
+        ev.summary = Util.readString(in);
+        ev.location = Util.readString(in);
+        ev.locationURL = Util.readString(in);
+
+        for (int i = 0, n = in.readShort(); i < n; ++i) {
+            int ordinal = in.readByte();
+
+            ev.getRepeatByDay().add(WeekdayNum.of(ordinal, DAYS[in.readByte()]));
+        }
+
+        ev.repeatByMonthDay = readShorts(in);
+        ev.repeatByYearDay = readShorts(in);
+        ev.repeatByWeekNo = readShorts(in);
+        ev.repeatByMonth = readShorts(in);
+        ev.repeatByHour = readShorts(in);
+        ev.repeatByMinute = readShorts(in);
+        ev.repeatBySetPos = readShorts(in);
+
+        for (int i = 0, n = in.readInt(); i < n; ++i) {
+            ev.getAttendeeList().add(Util.readString(in));
+        }
+
+        for (int i = 0, n = in.readInt(); i < n; ++i) {
+            var email = Util.readString(in);
+
+            ev.setAttendeeStatus(email, PartStatType.values()[in.readByte()]);
+        }
+
+        for (int i = 0, n = in.readInt(); i < n; ++i) {
+            ev.addAttachment(Attachment.readFields(in));
+        }
+
+        return ev;
+    }
+
+    private static List<Integer> readShorts(DataInput in) throws IOException {
+        int n = in.readShort();
+
+        if (n == 0) {
+            return null;
+        }
+
+        var list = new ArrayList<Integer>(n);
+
+        for (int i = 0; i < n; ++i) {
+            list.add((int) in.readShort());
+        }
+
+        return list;
+    }
+
+    /*
+    The email of an ATTENDEE line made by addAttendee().
+    */
+    static String emailOf(String attendee) {
+        int i = attendee.lastIndexOf(":mailto:");
+
+        return i < 0 ? attendee : attendee.substring(i + ":mailto:".length());
+    }
+
+    private void outputRepeatRule(StringBuilder sb) {
+        if (!has(FREQUENCY)) {
+            return;
+        }
+
+        sb.append("RRULE:");
+        sb.append("FREQ=").append(FREQUENCIES[repeatFrequency].getFrequency());
+
+        if (has(UNTIL)) {
+            sb.append(";UNTIL=");
+            Util.appendUTC(sb, repeatUntil);
+        }
+        if (has(COUNT)) {
+            sb.append(";COUNT=").append(repeatCount);
+        }
+        if (has(INTERVAL)) {
+            sb.append(";INTERVAL=").append(repeatInterval);
+        }
+
+        outputRulePart(sb, "BYMONTH", repeatByMonth);
+        outputRulePart(sb, "BYWEEKNO", repeatByWeekNo);
+        outputRulePart(sb, "BYYEARDAY", repeatByYearDay);
+        outputRulePart(sb, "BYMONTHDAY", repeatByMonthDay);
+        outputRulePart(sb, "BYDAY", repeatByDay);
+        outputRulePart(sb, "BYHOUR", repeatByHour);
+        outputRulePart(sb, "BYMINUTE", repeatByMinute);
+        outputRulePart(sb, "BYSETPOS", repeatBySetPos);
+
+        if (has(WEEK_START)) {
+            sb.append(";WKST=").append(WeekdayNum.dayCode(DAYS[repeatWeekStart]));
+        }
+
         sb.append("\r\n");
     }
 
+    private static void outputRulePart(StringBuilder sb, String name, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        sb.append(';').append(name).append('=');
+
+        for (int i = 0; i < values.size(); ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+
+            sb.append(values.get(i));
+        }
+    }
+
     /**
      * Returns a builder that makes it a litle easier to construct a VEvent.
      * @return a builder
@@ -450,6 +1449,19 @@ public class VEvent {
     public static class Builder {
         private VEvent event = new VEvent();
 
+        /**
+         * Clears the event held by this builder so that the builder can be
+         * used again without allocating a new event. The event returned by an
+         * earlier call to build() is the same object and is cleared as well.
+         * 
+         * @return a builder
+         */
+        public Builder reset() {
+            event.reset();
+
+            return this;
+        }
+
         /**
          * Sets the organizer of the event. This field is mandatory.
          * 
@@ -645,6 +1657,21 @@ public class VEvent {
             return this;
         }
 
+        /**
+         * Adds an attendee who has already responded.
+         * 
+         * @param name Name of attendee
+         * @param email Email of attendee
+         * @param partStat the response of the attendee
+         * @return a builder
+         */
+        public Builder attendee(String name, String email, PartStatType partStat) {
+            event.addAttendee(name, email);
+            event.setAttendeeStatus(email, partStat);
+
+            return this;
+        }
+
         /**
          * Add a new attendee to the event.
          * 
@@ -721,6 +1748,141 @@ public class VEvent {
             return this;
         }
 
+        /**
+         * Sets the BYDAY part of the repeat rule. Example: WeekdayNum.of(2, DayOfWeek.TUESDAY)
+         * for the second Tuesday of the month.
+         * 
+         * @param days the days
+         * @return a builder
+         */
+        public Builder byDay(WeekdayNum... days) {
+            event.setRepeatByDay(new ArrayList<>(Arrays.asList(days)));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYDAY part of the repeat rule to every occurrence of the given days of the week.
+         * 
+         * @param days the days of the week
+         * @return a builder
+         */
+        public Builder byDay(DayOfWeek... days) {
+            var list = new ArrayList<WeekdayNum>(days.length);
+
+            for (var d : days) {
+                list.add(WeekdayNum.of(d));
+            }
+
+            event.setRepeatByDay(list);
+
+            return this;
+        }
+
+        /**
+         * Sets the BYMONTHDAY part of the repeat rule. Negative values count from the end of the month.
+         * 
+         * @param days the days of the month
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byMonthDay(int... days) {
+            event.setRepeatByMonthDay(Util.toList(days));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYYEARDAY part of the repeat rule. Negative values count from the end of the year.
+         * 
+         * @param days the days of the year
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byYearDay(int... days) {
+            event.setRepeatByYearDay(Util.toList(days));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYWEEKNO part of the repeat rule. Only valid for a yearly rule.
+         * 
+         * @param weeks the week numbers
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byWeekNo(int... weeks) {
+            event.setRepeatByWeekNo(Util.toList(weeks));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYMONTH part of the repeat rule. January is 1.
+         * 
+         * @param months the months
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byMonth(int... months) {
+            event.setRepeatByMonth(Util.toList(months));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYHOUR part of the repeat rule.
+         * 
+         * @param hours the hours of the day
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byHour(int... hours) {
+            event.setRepeatByHour(Util.toList(hours));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYMINUTE part of the repeat rule.
+         * 
+         * @param minutes the minutes of the hour
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder byMinute(int... minutes) {
+            event.setRepeatByMinute(Util.toList(minutes));
+
+            return this;
+        }
+
+        /**
+         * Sets the BYSETPOS part of the repeat rule. For example, -1 picks the
+         * last of the dates selected in each period.
+         * 
+         * @param positions the positions
+         * @return a builder
+         * @throws IllegalArgumentException if a value is out of range
+         */
+        public Builder bySetPos(int... positions) {
+            event.setRepeatBySetPos(Util.toList(positions));
+
+            return this;
+        }
+
+        /**
+         * Sets the day a week starts on. The default is Monday.
+         * 
+         * @param weekStart the first day of the week
+         * @return a builder
+         */
+        public Builder weekStart(DayOfWeek weekStart) {
+            event.setRepeatWeekStart(weekStart);
+
+            return this;
+        }
+
         /**
          * Set the location information.
          * 
@@ -746,6 +1908,44 @@ public class VEvent {
             return this;
         }
 
+        /**
+         * Adds an attachment.
+         * 
+         * @param attachment the attachment
+         * @return a builder
+         */
+        public Builder attach(Attachment attachment) {
+            event.addAttachment(attachment);
+
+            return this;
+        }
+
+        /**
+         * Adds a link to a document.
+         * 
+         * @param uri the URI of the document
+         * @return a builder
+         */
+        public Builder attach(String uri) {
+            event.addAttachment(Attachment.uri(uri));
+
+            return this;
+        }
+
+        /**
+         * Adds a file as an inline attachment. The file is read and encoded
+         * when the event is written.
+         * 
+         * @param file the file
+         * @param formatType the media type. Example: "application/pdf"
+         * @return a builder
+         */
+        public Builder attach(Path file, String formatType) {
+            event.addAttachment(Attachment.inline(file, formatType));
+
+            return this;
+        }
+
         /**
          * Returns a fully constructed and initialized event.
          * 
@@ -0,0 +1,117 @@
+package com.webage.jcal;
+
+import java.time.DayOfWeek;
+import java.util.Objects;
+
+/**
+ * A day of the week with an optional ordinal, as used by the BYDAY part of a RRULE.
+ * For example, "2TU" is the second Tuesday and "-1SU" is the last Sunday
+ * of the month or year. An ordinal of 0 means every such day.
+ */
+public final class WeekdayNum {
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final int ordinal;
+    private final DayOfWeek dayOfWeek;
+
+    private WeekdayNum(int ordinal, DayOfWeek dayOfWeek) {
+        if (ordinal < -53 || ordinal > 53) {
+            throw new IllegalArgumentException("BYDAY ordinal out of range: " + ordinal);
+        }
+
+        this.ordinal = ordinal;
+        this.dayOfWeek = Objects.requireNonNull(dayOfWeek);
+    }
+
+    /**
+     * Every occurrence of a day of the week. Example: every Monday.
+     * @param dayOfWeek the day of the week
+     * @return the WeekdayNum
+     */
+    public static WeekdayNum of(DayOfWeek dayOfWeek) {
+        return new WeekdayNum(0, dayOfWeek);
+    }
+
+    /**
+     * The n-th occurrence of a day of the week. Negative values count
+     * from the end. Example: 2 and TUESDAY for the second Tuesday,
+     * -1 and FRIDAY for the last Friday.
+     * @param ordinal the ordinal. Between -53 and 53. 0 means every such day.
+     * @param dayOfWeek the day of the week
+     * @return the WeekdayNum
+     */
+    public static WeekdayNum of(int ordinal, DayOfWeek dayOfWeek) {
+        return new WeekdayNum(ordinal, dayOfWeek);
+    }
+
+    /**
+     * Get the ordinal. 0 means every such day of the week.
+     * @return the ordinal
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Get the day of the week.
+     * @return the day of the week
+     */
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    /**
+     * Returns the two letter iCalendar code of a day of the week. Example: "MO".
+     * @param dayOfWeek the day of the week
+     * @return the iCalendar code
+     */
+    public static String dayCode(DayOfWeek dayOfWeek) {
+        return DAY_CODES[dayOfWeek.ordinal()];
+    }
+
+    /*
+    Parses a BYDAY value such as "MO", "2TU" or "-1SU".
+    */
+    static WeekdayNum parse(String text) {
+        var s = text.trim();
+
+        if (s.length() >= 2) {
+            var code = s.substring(s.length() - 2);
+
+            for (int i = 0; i < DAY_CODES.length; ++i) {
+                if (DAY_CODES[i].equalsIgnoreCase(code)) {
+                    var ordinal = s.substring(0, s.length() - 2);
+
+                    try {
+                        return new WeekdayNum(ordinal.isEmpty() ? 0 : Integer.parseInt(ordinal), DayOfWeek.of(i + 1));
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Bad BYDAY value: " + text);
+    }
+
+    @Override
+    public String toString() {
+        return ordinal == 0 ? dayCode(dayOfWeek) : ordinal + dayCode(dayOfWeek);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof WeekdayNum)) {
+            return false;
+        }
+
+        var other = (WeekdayNum) o;
+
+        return ordinal == other.ordinal && dayOfWeek == other.dayOfWeek;
+    }
+
+    @Override
+    public int hashCode() {
+        return ordinal * 7 + dayOfWeek.ordinal();
+    }
+}
@@ -0,0 +1,186 @@
+package com.webage.jcal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes a calendar as xCal, the XML form of iCalendar from RFC 6321.
+ *
+ * <pre>
+ * var cal = VCalendar.builder().event(ev).build();
+ *
+ * XCalWriter.write(cal, response.getOutputStream());
+ * </pre>
+ *
+ * The XML has the same properties as toString() and is written one event
+ * at a time. Element names are the property names in lower case. Dates and
+ * times are in the ISO form, such as "2024-05-06T09:30:00". Text and
+ * parameter values come from the model as they are, without iCalendar
+ * escaping. There is no white space between elements.
+ */
+public final class XCalWriter extends ComponentWriter {
+    private static final Set<String> URI_PARAMETERS = Set.of("altrep", "dir");
+    private static final Set<String> ADDRESS_PARAMETERS = Set.of("sent-by", "member", "delegated-from", "delegated-to");
+
+    private XCalWriter(Writer writer, OutputStream stream) {
+        super(writer, stream);
+    }
+
+    /**
+     * Writes a calendar as xCal. The Writer is flushed but not closed.
+     * @param calendar the calendar
+     * @param out the Writer
+     * @throws IOException if the Writer fails
+     */
+    public static void write(VCalendar calendar, Writer out) throws IOException {
+        new XCalWriter(out, null).write(calendar);
+    }
+
+    /**
+     * Writes a calendar as xCal in UTF-8. The stream is flushed but not closed.
+     * @param calendar the calendar
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public static void write(VCalendar calendar, OutputStream out) throws IOException {
+        new XCalWriter(null, out).write(calendar);
+    }
+
+    /**
+     * Returns a calendar as xCal.
+     * @param calendar the calendar
+     * @return the XML text
+     */
+    public static String toXml(VCalendar calendar) {
+        var out = new StringWriter();
+
+        try {
+            write(calendar, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toString();
+    }
+
+    @Override
+    void startDocument() {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        out.append("<icalendar xmlns=\"urn:ietf:params:xml:ns:icalendar-2.0\">");
+    }
+
+    @Override
+    void endDocument() {
+        out.append("</icalendar>");
+    }
+
+    @Override
+    void beginComponent(String name, boolean first) {
+        out.append('<').append(name).append("><properties>");
+    }
+
+    @Override
+    void endProperties(boolean hasComponents) {
+        out.append("</properties>");
+
+        if (hasComponents) {
+            out.append("<components>");
+        }
+    }
+
+    @Override
+    void endComponent(String name, boolean hasComponents) {
+        if (hasComponents) {
+            out.append("</components>");
+        }
+
+        out.append("</").append(name).append('>');
+    }
+
+    @Override
+    void writeProperty(String name, List<String[]> params, String type, String value, boolean first) {
+        out.append('<').append(name).append('>');
+
+        if (!params.isEmpty()) {
+            out.append("<parameters>");
+
+            for (var p : params) {
+                String paramType = URI_PARAMETERS.contains(p[0])
+                    ? "uri"
+                    : ADDRESS_PARAMETERS.contains(p[0]) ? "cal-address" : p[0].equals("rsvp") ? "boolean" : "text";
+
+                out.append('<').append(p[0]).append('>');
+                appendValue(paramType, paramType.equals("boolean") ? p[1].toLowerCase(Locale.ROOT) : p[1]);
+                out.append("</").append(p[0]).append('>');
+            }
+
+            out.append("</parameters>");
+        }
+
+        switch (type) {
+        case "date":
+        case "date-time":
+            for (var v : value.split(",")) {
+                appendValue(type, isoDateTime(v));
+            }
+            break;
+        case "utc-offset":
+            appendValue(type, isoUtcOffset(value));
+            break;
+        case "boolean":
+            appendValue(type, value.toLowerCase(Locale.ROOT));
+            break;
+        case "recur":
+            out.append("<recur>");
+
+            for (var p : recurParts(value)) {
+                for (int j = 1; j < p.length; ++j) {
+                    appendValue(p[0], p[j]);
+                }
+            }
+
+            out.append("</recur>");
+            break;
+        default:
+            appendValue(type, value);
+        }
+
+        out.append("</").append(name).append('>');
+    }
+
+    private void appendValue(String element, String value) {
+        out.append('<').append(element).append('>');
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '\r':
+                out.append("&#13;");
+                break;
+            default:
+                //Other control characters are not allowed in XML 1.0
+                if (c >= 0x20 || c == '\n' || c == '\t') {
+                    out.append(c);
+                }
+            }
+        }
+
+        out.append("</").append(element).append('>');
+    }
+}
@@ -0,0 +1,257 @@
+package com.webage.jcal;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A precomputed table of the UTC offsets of a time zone. Converts local date and
+ * time to UTC epoch seconds and back without creating a ZonedDateTime.
+ *
+ * The table holds every transition of the zone up to the end of year 2199.
+ * A local time that falls in a gap is moved later by the length of the gap.
+ * A local time that falls in an overlap gets the earlier offset. This is the
+ * same as ZonedDateTime.of(). Times past the end of the table are converted
+ * with ZoneRules.
+ *
+ * Local date and time can be given as "local epoch seconds". That is, the
+ * value of LocalDateTime.toEpochSecond(ZoneOffset.UTC).
+ */
+public final class ZoneOffsetTable {
+    private static final int END_YEAR = 2199;
+    private static final ConcurrentHashMap<String, ZoneOffsetTable> cache = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    //UTC epoch second of each transition
+    private final long[] instants;
+    //Local epoch second from which the offset after a transition applies
+    private final long[] localBoundaries;
+    //offsets[0] applies before the first transition. offsets[i + 1] after transition i.
+    private final int[] offsets;
+    private final long instantLimit;
+    private final long localLimit;
+
+    private ZoneOffsetTable(ZoneId zone) {
+        this.zone = zone;
+
+        var rules = zone.getRules();
+        var transitions = collectTransitions(rules);
+        int n = transitions.size();
+
+        instants = new long[n];
+        localBoundaries = new long[n];
+        offsets = new int[n + 1];
+        offsets[0] = n > 0
+            ? transitions.get(0).getOffsetBefore().getTotalSeconds()
+            : rules.getOffset(Instant.EPOCH).getTotalSeconds();
+
+        for (int i = 0; i < n; ++i) {
+            var t = transitions.get(i);
+            int before = t.getOffsetBefore().getTotalSeconds();
+            int after = t.getOffsetAfter().getTotalSeconds();
+
+            instants[i] = t.toEpochSecond();
+            //A gap keeps the offset before until its end. An overlap keeps it until the end of the overlap.
+            localBoundaries[i] = instants[i] + Math.max(before, after);
+            offsets[i + 1] = after;
+        }
+
+        if (rules.getTransitionRules().isEmpty()) {
+            instantLimit = Long.MAX_VALUE;
+            localLimit = Long.MAX_VALUE;
+        } else {
+            localLimit = LocalDateTime.of(END_YEAR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+            //Stay clear of the largest possible offset
+            instantLimit = localLimit - 18 * 3600;
+        }
+    }
+
+    private static List<ZoneOffsetTransition> collectTransitions(ZoneRules rules) {
+        var result = new ArrayList<>(rules.getTransitions());
+        var transitionRules = rules.getTransitionRules();
+
+        if (!transitionRules.isEmpty()) {
+            long lastInstant = result.isEmpty() ? Long.MIN_VALUE : result.get(result.size() - 1).toEpochSecond();
+            int fromYear = result.isEmpty() ? 1900 : result.get(result.size() - 1).getDateTimeBefore().getYear();
+
+            for (int year = fromYear; year <= END_YEAR; ++year) {
+                for (var rule : transitionRules) {
+                    var t = rule.createTransition(year);
+
+                    if (t.toEpochSecond() > lastInstant) {
+                        result.add(t);
+                    }
+                }
+            }
+
+            result.sort(Comparator.comparingLong(ZoneOffsetTransition::toEpochSecond));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the table of a time zone. Tables are built once and then shared.
+     * @param zone the time zone
+     * @return the table
+     */
+    public static ZoneOffsetTable of(ZoneId zone) {
+        return cache.computeIfAbsent(zone.getId(), id -> new ZoneOffsetTable(zone));
+    }
+
+    /**
+     * Returns the table of a time zone.
+     * @param tzId a time zone ID known to java.time. Such as "America/New_York".
+     * @return the table
+     */
+    public static ZoneOffsetTable of(String tzId) {
+        var table = cache.get(tzId);
+
+        return table != null ? table : cache.computeIfAbsent(tzId, id -> new ZoneOffsetTable(ZoneId.of(id)));
+    }
+
+    /*
+    The table of a TZID found in a calendar. Outlook time zone IDs are mapped
+    to IANA ones. An ID that can not be resolved is treated as UTC. Unlike
+    of() this does not cache anything for an unknown ID, so callers that see
+    many events should keep their own map.
+    */
+    static ZoneOffsetTable ofCalendarZone(String tzId) {
+        return Util
+            .toZoneId(tzId)
+            .or(() -> OutlookTimeZone.fromWindowsTimeZone(tzId).flatMap(tz -> Util.toZoneId(tz.getIANATimeZone())))
+            .map(ZoneOffsetTable::of)
+            .orElseGet(() -> of("UTC"));
+    }
+
+    /**
+     * Get the time zone of the table
+     * @return the time zone
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns the UTC offset at an instant.
+     * @param epochSecond the instant in UTC epoch seconds
+     * @return the offset in seconds
+     */
+    public int getOffsetSeconds(long epochSecond) {
+        if (epochSecond >= instantLimit) {
+            return zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+
+        return offsets[upperBound(instants, epochSecond)];
+    }
+
+    /**
+     * Converts local date and time to UTC epoch seconds.
+     * @param localEpochSecond the local date and time as local epoch seconds
+     * @return the UTC epoch seconds
+     */
+    public long toEpochSecond(long localEpochSecond) {
+        if (localEpochSecond >= localLimit) {
+            var local = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+
+            return ZonedDateTime.of(local, zone).toEpochSecond();
+        }
+
+        return localEpochSecond - offsets[upperBound(localBoundaries, localEpochSecond)];
+    }
+
+    /**
+     * Converts local date and time to UTC epoch seconds.
+     * @param local the local date and time
+     * @return the UTC epoch seconds
+     */
+    public long toEpochSecond(LocalDateTime local) {
+        return toEpochSecond(local.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Converts UTC epoch seconds to local epoch seconds.
+     * @param epochSecond the UTC epoch seconds
+     * @return the local epoch seconds
+     */
+    public long toLocalEpochSecond(long epochSecond) {
+        return epochSecond + getOffsetSeconds(epochSecond);
+    }
+
+    /**
+     * Converts local date and time to UTC date and time.
+     * @param local the local date and time
+     * @return the date and time in UTC
+     */
+    public LocalDateTime toUTC(LocalDateTime local) {
+        return LocalDateTime.ofEpochSecond(toEpochSecond(local), local.getNano(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts UTC epoch seconds to local date and time.
+     * @param epochSecond the UTC epoch seconds
+     * @return the local date and time
+     */
+    public LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(toLocalEpochSecond(epochSecond), 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts a batch of local epoch seconds to UTC epoch seconds.
+     * The input and output can be the same array.
+     * @param localEpochSeconds the local date and times
+     * @param epochSeconds receives the UTC epoch seconds
+     * @param length the number of values to convert
+     */
+    public void toEpochSeconds(long[] localEpochSeconds, long[] epochSeconds, int length) {
+        for (int i = 0; i < length; ++i) {
+            epochSeconds[i] = toEpochSecond(localEpochSeconds[i]);
+        }
+    }
+
+    /**
+     * Converts a batch of local date and times to UTC epoch seconds.
+     * @param locals the local date and times
+     * @return the UTC epoch seconds
+     */
+    public long[] toEpochSeconds(List<LocalDateTime> locals) {
+        var result = new long[locals.size()];
+
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = toEpochSecond(locals.get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts a batch of UTC epoch seconds to local epoch seconds.
+     * The input and output can be the same array.
+     * @param epochSeconds the UTC epoch seconds
+     * @param localEpochSeconds receives the local epoch seconds
+     * @param length the number of values to convert
+     */
+    public void toLocalEpochSeconds(long[] epochSeconds, long[] localEpochSeconds, int length) {
+        for (int i = 0; i < length; ++i) {
+            localEpochSeconds[i] = toLocalEpochSecond(epochSeconds[i]);
+        }
+    }
+
+    /*
+    Returns the number of values that are less than or equal to key.
+    */
+    private static int upperBound(long[] values, long key) {
+        int idx = Arrays.binarySearch(values, key);
+
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+}
@@ -0,0 +1,329 @@
+package com.webage.jcal.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webage.jcal.VCalendar;
+import com.webage.jcal.VEvent;
+
+/**
+ * Converts rows to iCalendar on all cores. The calling thread reads the
+ * input and hands out batches of rows. The converter threads parse the rows,
+ * build the events and encode them to UTF-8. For a single calendar the
+ * batches are written in input order by the calling thread. With one file per
+ * row the converter threads write the files themselves.
+ *
+ * At most a few batches per thread are in flight, so memory use does not
+ * grow with the size of the input.
+ */
+final class BatchConverter {
+    private static final String END = "END:VCALENDAR\r\n";
+    private static final int BATCHES_PER_THREAD = 4;
+
+    /**
+     * The totals of a run.
+     */
+    static final class Stats {
+        long rows;
+        long events;
+        long errors;
+        long bytes;
+        long nanos;
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+
+            return String.format("%d rows, %d events, %d errors, %.1f MB in %.3f s (%.0f events/s, %.1f MB/s)",
+                rows, events, errors, bytes / 1e6, seconds,
+                events / Math.max(seconds, 1e-9), bytes / 1e6 / Math.max(seconds, 1e-9));
+        }
+    }
+
+    private static final class Result {
+        ByteBuffer bytes;
+        long byteCount;
+        int rows;
+        int events;
+        List<String> errors = new ArrayList<>();
+    }
+
+    /*
+    The reusable objects of a converter thread.
+    */
+    private static final class Worker {
+        final VEvent.Builder eventBuilder = VEvent.builder();
+        final VCalendar.Builder calendarBuilder = VCalendar.builder();
+        final StringBuilder sb = new StringBuilder(64 * 1024);
+    }
+
+    private final Options options;
+    private final PrintStream err;
+    private final EventMapper mapper;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    //Files written by this run. A repeated UID must not overwrite an earlier row.
+    private final Set<String> fileNames = ConcurrentHashMap.newKeySet();
+
+    BatchConverter(Options options, PrintStream err) {
+        this.options = options;
+        this.err = err;
+        this.mapper = new EventMapper(options.timeZoneId);
+    }
+
+    /**
+     * Converts all the rows of the input.
+     * @param reader the input
+     * @return the totals
+     * @throws IOException if the input can not be read or the output can not be written
+     */
+    Stats run(RowReader reader) throws IOException {
+        var stats = new Stats();
+        long start = System.nanoTime();
+        var threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads, r -> {
+            var t = new Thread(r, "jcal-convert-" + threadCount.incrementAndGet());
+
+            t.setDaemon(true);
+
+            return t;
+        });
+        var inFlight = new ArrayDeque<Future<Result>>();
+        int maxInFlight = options.threads * BATCHES_PER_THREAD;
+
+        if (options.outputDir != null) {
+            Files.createDirectories(options.outputDir);
+        }
+
+        try (var out = openOutput()) {
+            if (out != null) {
+                var header = emptyCalendar(VCalendar.builder()).build().toString();
+                var bytes = StandardCharsets.UTF_8.encode(header.substring(0, header.length() - END.length()));
+
+                stats.bytes += bytes.remaining();
+                write(out, bytes);
+            }
+
+            var batch = new ArrayList<Row>(options.batchSize);
+            Row row;
+
+            while ((row = reader.next()) != null) {
+                batch.add(row);
+
+                if (batch.size() == options.batchSize) {
+                    if (inFlight.size() == maxInFlight) {
+                        complete(inFlight.removeFirst(), out, stats);
+                    }
+
+                    inFlight.addLast(submit(executor, batch));
+                    batch = new ArrayList<>(options.batchSize);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                inFlight.addLast(submit(executor, batch));
+            }
+            while (!inFlight.isEmpty()) {
+                complete(inFlight.removeFirst(), out, stats);
+            }
+
+            if (out != null) {
+                write(out, StandardCharsets.UTF_8.encode(END));
+                stats.bytes += END.length();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        stats.nanos = System.nanoTime() - start;
+
+        return stats;
+    }
+
+    private Future<Result> submit(ExecutorService executor, List<Row> batch) {
+        return executor.submit(() -> convert(batch));
+    }
+
+    private void complete(Future<Result> future, WritableByteChannel out, Stats stats) throws IOException {
+        Result result;
+
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+
+            throw new IOException(e.getCause());
+        }
+
+        if (out != null) {
+            write(out, result.bytes);
+        }
+
+        result.errors.forEach(err::println);
+
+        stats.rows += result.rows;
+        stats.events += result.events;
+        stats.errors += result.errors.size();
+        stats.bytes += result.byteCount;
+    }
+
+    /*
+    Runs on a converter thread.
+    */
+    private Result convert(List<Row> batch) {
+        var worker = workers.get();
+        var result = new Result();
+        var sb = worker.sb;
+
+        sb.setLength(0);
+
+        for (var row : batch) {
+            ++result.rows;
+
+            VEvent event;
+
+            try {
+                event = mapper.toEvent(worker.eventBuilder, row.getFields());
+            } catch (IllegalArgumentException | DateTimeException e) {
+                result.errors.add("line " + row.getLineNumber() + ": " + e.getMessage());
+
+                continue;
+            }
+
+            if (options.outputDir == null) {
+                event.output(sb);
+            } else {
+                var name = fileName(event.getUID());
+
+                if (!fileNames.add(name)) {
+                    result.errors.add("line " + row.getLineNumber() + ": Duplicate UID: " + event.getUID());
+
+                    continue;
+                }
+
+                var bytes = emptyCalendar(worker.calendarBuilder)
+                    .event(event)
+                    .build()
+                    .toUTF8();
+
+                result.byteCount += bytes.remaining();
+
+                try (var channel = FileChannel.open(options.outputDir.resolve(name),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    write(channel, bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            ++result.events;
+        }
+
+        if (options.outputDir == null) {
+            result.bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(sb));
+            result.byteCount = result.bytes.remaining();
+        }
+
+        return result;
+    }
+
+    private VCalendar.Builder emptyCalendar(VCalendar.Builder builder) {
+        builder.reset()
+            .method(options.method)
+            .build()
+            .setProductId(options.productId);
+
+        return builder;
+    }
+
+    private WritableByteChannel openOutput() throws IOException {
+        if (options.outputDir != null) {
+            return null;
+        }
+        if (options.isStdout()) {
+            //Closing this channel would close System.out
+            var stdout = Channels.newChannel(System.out);
+
+            return new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    return stdout.write(src);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                    System.out.flush();
+                }
+            };
+        }
+
+        return FileChannel.open(options.output,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static void write(WritableByteChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Returns a safe file name made from the UID. When a character had to
+     * be replaced a hash of the UID is added, so that UIDs like "a/1" and
+     * "a:1" do not get the same name.
+     * @param uid the UID
+     * @return the file name
+     */
+    static String fileName(String uid) {
+        var sb = new StringBuilder(uid.length() + 13);
+        boolean replaced = false;
+
+        for (int i = 0; i < uid.length(); ++i) {
+            char c = uid.charAt(i);
+
+            if (Character.isLetterOrDigit(c) || c == '-' || c == '_' || (c == '.' && i > 0)) {
+                sb.append(c);
+            } else {
+                sb.append('_');
+                replaced = true;
+            }
+        }
+
+        if (replaced) {
+            //String.hashCode() is the same on every JVM, so a rerun writes the same files
+            sb.append('-').append(Integer.toHexString(uid.hashCode()));
+        }
+
+        return sb.append(".ics").toString();
+    }
+}
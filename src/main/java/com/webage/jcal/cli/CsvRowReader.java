@@ -0,0 +1,146 @@
+package com.webage.jcal.cli;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads RFC 4180 CSV. The first record is the header with the field names.
+ * A quoted value can span lines. Blank lines are skipped.
+ */
+final class CsvRowReader implements RowReader {
+    private final Reader in;
+    private final List<String> header;
+    private long line = 1;
+    private int pushback = -2;
+
+    CsvRowReader(Reader in) throws IOException {
+        this.in = in;
+
+        var names = readRecord();
+
+        if (names == null) {
+            names = List.of();
+        } else if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) {
+            names.set(0, names.get(0).substring(1));
+        }
+
+        header = names;
+    }
+
+    @Override
+    public Row next() throws IOException {
+        while (true) {
+            long lineNumber = line;
+            var values = readRecord();
+
+            if (values == null) {
+                return null;
+            }
+            if (values.size() == 1 && values.get(0).isEmpty()) {
+                continue;
+            }
+
+            var fields = new LinkedHashMap<String, Object>(header.size() * 4 / 3 + 1);
+
+            for (int i = 0; i < header.size() && i < values.size(); ++i) {
+                fields.put(header.get(i).trim(), values.get(i));
+            }
+
+            return new Row() {
+                @Override
+                public long getLineNumber() {
+                    return lineNumber;
+                }
+
+                @Override
+                public Map<String, Object> getFields() {
+                    return fields;
+                }
+            };
+        }
+    }
+
+    /*
+    Returns the values of the next record or null at the end of the input.
+    */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+
+        if (c < 0) {
+            return null;
+        }
+
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        boolean quoted = false;
+
+        for (;; c = read()) {
+            if (quoted) {
+                if (c < 0) {
+                    break;
+                }
+                if (c == '"') {
+                    int next = read();
+
+                    if (next == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        pushback = next;
+                    }
+
+                    continue;
+                }
+                if (c == '\n') {
+                    ++line;
+                }
+
+                value.append((char) c);
+
+                continue;
+            }
+
+            if (c < 0 || c == '\n') {
+                break;
+            }
+
+            if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+        }
+
+        if (c == '\n') {
+            ++line;
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+
+            pushback = -2;
+
+            return c;
+        }
+
+        return in.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,217 @@
+package com.webage.jcal.cli;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import com.webage.jcal.FrequencyType;
+import com.webage.jcal.StatusType;
+import com.webage.jcal.VEvent;
+
+/**
+ * Turns the fields of a row into a VEvent. The field names are:
+ *
+ * <pre>
+ * uid            mandatory
+ * organizer      mandatory. The email of the organizer.
+ * organizer_name
+ * start          mandatory. 2024-05-01 for an all day event or 2024-05-01T09:30
+ * end            same format as start
+ * tz             a time zone ID such as America/New_York
+ * summary
+ * description
+ * location
+ * location_url
+ * status         TENTATIVE, CONFIRMED or CANCELLED
+ * attendees      "Bugs Bunny &lt;bugs@wb.com&gt;; daffy@wb.com" or a JSON array
+ * repeat         DAILY, WEEKLY, MONTHLY, ...
+ * until          same format as start
+ * count
+ * interval
+ * </pre>
+ *
+ * Empty values are ignored.
+ */
+final class EventMapper {
+    private final String defaultTimeZoneId;
+
+    EventMapper(String defaultTimeZoneId) {
+        this.defaultTimeZoneId = defaultTimeZoneId;
+    }
+
+    /**
+     * Builds an event from the fields of a row.
+     * @param builder the builder. It is reset first.
+     * @param fields the fields
+     * @return the event
+     * @throws IllegalArgumentException if a field is missing or malformed
+     * @throws java.time.DateTimeException if a date or time zone is malformed
+     */
+    VEvent toEvent(VEvent.Builder builder, Map<String, Object> fields) {
+        var tzId = optional(fields, "tz");
+
+        if (tzId == null) {
+            tzId = defaultTimeZoneId;
+        }
+
+        //Fails for an unknown zone. TimeZone.getTimeZone() would quietly use GMT.
+        ZoneId.of(tzId);
+
+        var tz = TimeZone.getTimeZone(tzId);
+
+        builder.reset()
+            .uid(required(fields, "uid"));
+
+        var organizerName = optional(fields, "organizer_name");
+
+        if (organizerName != null) {
+            builder.organizer(organizerName, required(fields, "organizer"));
+        } else {
+            builder.organizer(required(fields, "organizer"));
+        }
+
+        var start = required(fields, "start").trim();
+
+        if (isDate(start)) {
+            builder.starts(LocalDate.parse(start));
+        } else {
+            builder.starts(LocalDateTime.parse(start), tzId);
+        }
+
+        var end = optional(fields, "end");
+
+        if (end != null) {
+            end = end.trim();
+
+            if (isDate(end)) {
+                builder.ends(LocalDate.parse(end));
+            } else {
+                builder.ends(LocalDateTime.parse(end), tzId);
+            }
+        }
+
+        var value = optional(fields, "summary");
+
+        if (value != null) {
+            builder.summary(value);
+        }
+
+        value = optional(fields, "description");
+
+        if (value != null) {
+            builder.description(value);
+        }
+
+        value = optional(fields, "location");
+
+        if (value != null) {
+            var url = optional(fields, "location_url");
+
+            if (url != null) {
+                builder.location(value, url);
+            } else {
+                builder.location(value);
+            }
+        }
+
+        value = optional(fields, "status");
+
+        if (value != null) {
+            builder.status(StatusType.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        }
+
+        for (var attendee : list(fields, "attendees")) {
+            int open = attendee.indexOf('<');
+
+            if (open >= 0 && attendee.endsWith(">")) {
+                builder.attendee(attendee.substring(0, open).trim(), attendee.substring(open + 1, attendee.length() - 1).trim());
+            } else {
+                builder.attendee(attendee);
+            }
+        }
+
+        value = optional(fields, "repeat");
+
+        if (value != null) {
+            builder.repeats(FrequencyType.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+
+            var until = optional(fields, "until");
+
+            if (until != null) {
+                until = until.trim();
+
+                builder.until(isDate(until) ? LocalDate.parse(until).atStartOfDay() : LocalDateTime.parse(until), tz);
+            }
+
+            value = optional(fields, "count");
+
+            if (value != null) {
+                builder.repeatCount(Integer.parseInt(value.trim()));
+            }
+
+            value = optional(fields, "interval");
+
+            if (value != null) {
+                builder.repeatInterval(Integer.parseInt(value.trim()));
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static boolean isDate(String value) {
+        return value.indexOf('T') < 0;
+    }
+
+    private static String required(Map<String, Object> fields, String name) {
+        var value = optional(fields, name);
+
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+
+        return value;
+    }
+
+    private static String optional(Map<String, Object> fields, String name) {
+        var value = fields.get(name);
+
+        if (value instanceof List) {
+            throw new IllegalArgumentException("Field can not be an array: " + name);
+        }
+
+        var s = (String) value;
+
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> list(Map<String, Object> fields, String name) {
+        var value = fields.get(name);
+
+        if (value instanceof List) {
+            return (List<String>) value;
+        }
+
+        var s = (String) value;
+
+        if (s == null || s.isBlank()) {
+            return List.of();
+        }
+
+        var result = new ArrayList<String>();
+
+        for (var item : s.split(";")) {
+            if (!item.isBlank()) {
+                result.add(item.trim());
+            }
+        }
+
+        return result;
+    }
+}
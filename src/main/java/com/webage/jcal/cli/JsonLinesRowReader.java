@@ -0,0 +1,249 @@
+package com.webage.jcal.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads JSON lines. Each line is a flat JSON object. A value is a string,
+ * a number, a boolean, null or an array of those. Null values are left out.
+ * Blank lines are skipped. A line is parsed by the thread that converts it.
+ */
+final class JsonLinesRowReader implements RowReader {
+    private final BufferedReader in;
+    private long line;
+
+    JsonLinesRowReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public Row next() throws IOException {
+        String text;
+
+        do {
+            text = in.readLine();
+            ++line;
+        } while (text != null && text.isBlank());
+
+        if (text == null) {
+            return null;
+        }
+
+        long lineNumber = line;
+        var json = text;
+
+        return new Row() {
+            @Override
+            public long getLineNumber() {
+                return lineNumber;
+            }
+
+            @Override
+            public Map<String, Object> getFields() {
+                return new Parser(json).parseObject();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> parseObject() {
+            var fields = new LinkedHashMap<String, Object>();
+
+            expect('{');
+
+            if (peek() == '}') {
+                ++pos;
+            } else {
+                do {
+                    skipWhitespace();
+
+                    var name = parseString();
+
+                    expect(':');
+
+                    var value = parseValue(true);
+
+                    if (value != null) {
+                        fields.put(name, value);
+                    }
+                } while (next() == ',');
+
+                --pos;
+                expect('}');
+            }
+
+            if (peek() != -1) {
+                throw error("Unexpected text after the object");
+            }
+
+            return fields;
+        }
+
+        private Object parseValue(boolean allowArray) {
+            int c = peek();
+
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '[' && allowArray) {
+                ++pos;
+
+                var values = new ArrayList<String>();
+
+                if (peek() == ']') {
+                    ++pos;
+
+                    return values;
+                }
+
+                do {
+                    var value = parseValue(false);
+
+                    if (value != null) {
+                        values.add((String) value);
+                    }
+                } while (next() == ',');
+
+                --pos;
+                expect(']');
+
+                return values;
+            }
+
+            int start = pos;
+
+            while (pos < text.length() && "-+.eE0123456789abcdefghijklmnopqrstuvwxyz".indexOf(text.charAt(pos)) >= 0) {
+                ++pos;
+            }
+
+            var literal = text.substring(start, pos);
+
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false")) {
+                return literal;
+            }
+            if (!literal.isEmpty() && (literal.charAt(0) == '-' || Character.isDigit(literal.charAt(0)))) {
+                try {
+                    Double.parseDouble(literal);
+
+                    return literal;
+                } catch (NumberFormatException e) {
+                    //Reported below
+                }
+            }
+
+            pos = start;
+
+            throw error("Unsupported value");
+        }
+
+        private String parseString() {
+            expect('"');
+
+            var sb = new StringBuilder();
+
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+
+                char c = text.charAt(pos++);
+
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+
+                c = text.charAt(pos++);
+
+                switch (c) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Bad escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    sb.append(c);
+                }
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                --pos;
+
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private int next() {
+            int c = peek();
+
+            ++pos;
+
+            return c;
+        }
+
+        private int peek() {
+            skipWhitespace();
+
+            return pos < text.length() ? text.charAt(pos) : -1;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                ++pos;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (pos + 1));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.webage.jcal.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+
+/**
+ * A command line tool that converts CSV or JSON lines event specs into
+ * .ics files. See EventMapper for the field names. Run it with --help
+ * for the options.
+ *
+ * <pre>
+ * java -cp jcal.jar com.webage.jcal.cli.Main -o events.ics events.csv
+ * java -cp jcal.jar com.webage.jcal.cli.Main -d invites events.jsonl
+ * </pre>
+ *
+ * The exit status is 0 on success, 1 if some rows could not be converted
+ * and 2 if the command line is wrong or the input or output fails.
+ */
+public final class Main {
+    private Main() {
+    }
+
+    /**
+     * Runs the converter.
+     * @param args the command line
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    static int run(String[] args, PrintStream err) {
+        Options options;
+
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            err.println(e.getMessage());
+            err.print(Options.USAGE);
+
+            return 2;
+        }
+
+        if (options.help) {
+            err.print(Options.USAGE);
+
+            return 0;
+        }
+
+        try (var reader = RowReader.of(options.format, open(options))) {
+            var stats = new BatchConverter(options, err).run(reader);
+
+            if (!options.quiet) {
+                err.println(stats);
+            }
+
+            return stats.errors == 0 ? 0 : 1;
+        } catch (IOException e) {
+            err.println("Conversion failed: " + e);
+
+            return 2;
+        }
+    }
+
+    private static BufferedReader open(Options options) throws IOException {
+        var in = options.isStdin() ? System.in : Files.newInputStream(options.input);
+
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
@@ -0,0 +1,165 @@
+package com.webage.jcal.cli;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Locale;
+
+import com.webage.jcal.MethodType;
+
+/**
+ * The command line options.
+ */
+final class Options {
+    static final String USAGE = String.join("\n",
+        "Usage: java -cp jcal.jar com.webage.jcal.cli.Main [options] <input>",
+        "",
+        "Converts CSV or JSON lines event specs to iCalendar. Use - as the input to read stdin.",
+        "",
+        "  -f, --format csv|jsonl  the input format. Default: from the file extension",
+        "  -o, --output FILE       write a single calendar to the file. Default: stdout",
+        "  -d, --output-dir DIR    write one calendar per row named after the UID",
+        "  -m, --method METHOD     REQUEST or CANCEL. Default: REQUEST",
+        "      --prodid TEXT       the PRODID. Default: jcal",
+        "      --tz ZONE           the time zone of rows without a tz field. Default: UTC",
+        "  -t, --threads N         the number of converter threads. Default: the number of processors",
+        "      --batch N           the number of rows handed to a thread at a time. Default: 512",
+        "  -q, --quiet             do not print the stats",
+        "  -h, --help              print this help",
+        "");
+
+    Path input;
+    String format;
+    Path output;
+    Path outputDir;
+    MethodType method = MethodType.REQUEST;
+    String productId = "jcal";
+    String timeZoneId = "UTC";
+    int threads = Runtime.getRuntime().availableProcessors();
+    int batchSize = 512;
+    boolean quiet;
+    boolean help;
+
+    /**
+     * Parses the command line.
+     * @param args the arguments
+     * @return the options
+     * @throws IllegalArgumentException if the command line is not valid
+     */
+    static Options parse(String[] args) {
+        var options = new Options();
+
+        for (int i = 0; i < args.length; ++i) {
+            var arg = args[i];
+
+            switch (arg) {
+            case "-f":
+            case "--format":
+                options.format = value(args, ++i, arg).toLowerCase(Locale.ROOT);
+                break;
+            case "-o":
+            case "--output":
+                options.output = Path.of(value(args, ++i, arg));
+                break;
+            case "-d":
+            case "--output-dir":
+                options.outputDir = Path.of(value(args, ++i, arg));
+                break;
+            case "-m":
+            case "--method":
+                options.method = MethodType.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                break;
+            case "--prodid":
+                options.productId = value(args, ++i, arg);
+                break;
+            case "--tz":
+                options.timeZoneId = ZoneId.of(value(args, ++i, arg)).getId();
+                break;
+            case "-t":
+            case "--threads":
+                options.threads = positive(value(args, ++i, arg), arg);
+                break;
+            case "--batch":
+                options.batchSize = positive(value(args, ++i, arg), arg);
+                break;
+            case "-q":
+            case "--quiet":
+                options.quiet = true;
+                break;
+            case "-h":
+            case "--help":
+                options.help = true;
+                break;
+            default:
+                if (arg.startsWith("-") && !arg.equals("-")) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+                if (options.input != null) {
+                    throw new IllegalArgumentException("Only one input can be given");
+                }
+
+                options.input = Path.of(arg);
+            }
+        }
+
+        if (options.help) {
+            return options;
+        }
+        if (options.input == null) {
+            throw new IllegalArgumentException("No input given");
+        }
+        if (options.output != null && options.outputDir != null) {
+            throw new IllegalArgumentException("Use either --output or --output-dir");
+        }
+        if (options.format == null) {
+            options.format = formatOf(options.input);
+        }
+        if (!options.format.equals("csv") && !options.format.equals("jsonl")) {
+            throw new IllegalArgumentException("Unknown format: " + options.format);
+        }
+
+        return options;
+    }
+
+    boolean isStdin() {
+        return input.toString().equals("-");
+    }
+
+    boolean isStdout() {
+        return outputDir == null && (output == null || output.toString().equals("-"));
+    }
+
+    private static String formatOf(Path input) {
+        var name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".csv")) {
+            return "csv";
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+            return "jsonl";
+        }
+
+        throw new IllegalArgumentException("Can not tell the format of " + input + ". Use --format.");
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+
+        return args[i];
+    }
+
+    private static int positive(String value, String option) {
+        try {
+            int n = Integer.parseInt(value);
+
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            //Reported below
+        }
+
+        throw new IllegalArgumentException("Not a positive number for " + option + ": " + value);
+    }
+}
@@ -0,0 +1,22 @@
+package com.webage.jcal.cli;
+
+import java.util.Map;
+
+/**
+ * One event spec read from the input. The fields are parsed on demand so
+ * that the work can be done by a converter thread instead of the reader.
+ */
+interface Row {
+    /**
+     * Get the line in the input where the row starts
+     * @return the line number. The first line is 1.
+     */
+    long getLineNumber();
+
+    /**
+     * Get the fields of the row. A value is a String or a List of String.
+     * @return the fields
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    Map<String, Object> getFields();
+}
@@ -0,0 +1,35 @@
+package com.webage.jcal.cli;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads event specs one row at a time.
+ */
+interface RowReader extends Closeable {
+    /**
+     * Reads the next row.
+     * @return the row or null at the end of the input
+     * @throws IOException if the input can not be read
+     */
+    Row next() throws IOException;
+
+    /**
+     * Returns a reader for the format.
+     * @param format "csv" or "jsonl"
+     * @param in the input
+     * @return the reader
+     * @throws IOException if the input can not be read
+     */
+    static RowReader of(String format, BufferedReader in) throws IOException {
+        switch (format) {
+        case "csv":
+            return new CsvRowReader(in);
+        case "jsonl":
+            return new JsonLinesRowReader(in);
+        default:
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.webage.jcal.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.webage.jcal.EncodedCalendar;
+import com.webage.jcal.Fnv64Digest;
+import com.webage.jcal.VCalendar;
+
+/**
+ * An HTTP server for ICS feeds built on the server that comes with the JDK.
+ *
+ * A feed is encoded once and the bytes are served to every client until the
+ * feed is refreshed. The gzip version is made on the first request that asks
+ * for it and is cached too. A client that sends the ETag it already has in
+ * If-None-Match gets 304 Not Modified and no body.
+ *
+ * Requests are handled on virtual threads when the JVM has them. Otherwise a
+ * cached thread pool is used.
+ *
+ * <pre>
+ * var server = FeedServer.builder()
+ *     .port(8080)
+ *     .feed("/team.ics", () -&gt; loadTeamCalendar())
+ *     .refreshAfter(Duration.ofMinutes(5))
+ *     .build();
+ *
+ * server.start();
+ * </pre>
+ */
+public class FeedServer {
+    private static final String CONTENT_TYPE = "text/calendar; charset=utf-8";
+    //Smaller responses are not worth compressing
+    private static final int MIN_GZIP_LENGTH = 1024;
+
+    private int port = 8080;
+    private String host;
+    private Duration refreshAfter = Duration.ofMinutes(1);
+    private Duration maxAge;
+    private Map<String, Feed> feeds = new LinkedHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    FeedServer() {
+    }
+
+    /**
+     * Starts listening.
+     * @throws IOException if the port can not be opened
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("The server is already running");
+        }
+
+        var address = host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+
+        server = HttpServer.create(address, 0);
+        executor = newExecutor();
+
+        server.setExecutor(executor);
+        feeds.forEach((path, feed) -> server.createContext(path, exchange -> handle(feed, exchange)));
+        server.start();
+    }
+
+    /**
+     * Stops the server. Requests in progress get up to a second to finish.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+
+        server.stop(1);
+        executor.shutdown();
+
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Get the port the server listens on. When the port was set to 0 this is
+     * the port picked by the system.
+     * @return the port
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    /**
+     * Drops the cached response of a feed. The next request encodes the feed again.
+     * Call this when the events of a feed have changed. For a published
+     * calendar this picks up changes made to the same VCalendar object.
+     * @param path the path of the feed
+     */
+    public void invalidate(String path) {
+        feed(path).entry = null;
+    }
+
+    /**
+     * Replaces a feed with a calendar. The calendar is encoded right away
+     * and served from then on. It is not refreshed, so a supplier given to
+     * the builder is no longer called.
+     * @param path the path of the feed
+     * @param calendar the calendar
+     */
+    public void publish(String path, VCalendar calendar) {
+        feed(path).publish(calendar);
+    }
+
+    private Feed feed(String path) {
+        var feed = feeds.get(path);
+
+        if (feed == null) {
+            throw new IllegalArgumentException("No such feed: " + path);
+        }
+
+        return feed;
+    }
+
+    private void handle(Feed feed, HttpExchange exchange) throws IOException {
+        try {
+            respond(feed, exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(Feed feed, HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        var headers = exchange.getResponseHeaders();
+
+        //A context matches every path under it. Only the exact path is a feed.
+        if (!exchange.getRequestURI().getPath().equals(feed.path)) {
+            exchange.sendResponseHeaders(404, -1);
+
+            return;
+        }
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            headers.set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+
+            return;
+        }
+
+        Entry entry;
+
+        try {
+            entry = feed.get(refreshAfter);
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(500, -1);
+
+            return;
+        }
+
+        var encoded = entry.calendar;
+        boolean gzip = encoded.getLength() >= MIN_GZIP_LENGTH
+            && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+
+        headers.set("Vary", "Accept-Encoding");
+        headers.set("ETag", gzip ? entry.gzipETag : encoded.getETag());
+        headers.set("Cache-Control", "max-age=" + (maxAge != null ? maxAge : refreshAfter).getSeconds());
+
+        //The ETag of either encoding means the client has the current events
+        var ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+
+        if (encoded.matches(ifNoneMatch) || entry.matchesGzip(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+
+            return;
+        }
+
+        headers.set("Content-Type", CONTENT_TYPE);
+
+        ByteBuffer body;
+
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+            body = entry.gzip();
+        } else {
+            body = encoded.getBytes();
+        }
+
+        if (method.equals("HEAD")) {
+            headers.set("Content-Length", Integer.toString(body.remaining()));
+            exchange.sendResponseHeaders(200, -1);
+
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, body.remaining());
+        exchange.getResponseBody().write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+    }
+
+    /*
+    True unless gzip is missing or has q=0.
+    */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (var item : acceptEncoding.split(",")) {
+            var parts = item.split(";");
+            var coding = parts[0].trim().toLowerCase(Locale.ROOT);
+
+            if (!coding.equals("gzip") && !coding.equals("x-gzip")) {
+                continue;
+            }
+
+            for (int i = 1; i < parts.length; ++i) {
+                var param = parts[i].trim().toLowerCase(Locale.ROOT);
+
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /*
+    Virtual threads need Java 21. The library is built for Java 11,
+    so they are looked up at run time.
+    */
+    private static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                var t = new Thread(r, "jcal-feed");
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        }
+    }
+
+    private static class Feed {
+        final String path;
+        private volatile Supplier<VCalendar> source;
+        //A fixed calendar is only encoded again after invalidate()
+        private volatile boolean fixed;
+        volatile Entry entry;
+
+        Feed(String path, Supplier<VCalendar> source, boolean fixed) {
+            this.path = path;
+            this.source = source;
+            this.fixed = fixed;
+        }
+
+        Entry get(Duration refreshAfter) {
+            var e = entry;
+
+            if (e != null && (fixed || !e.isStale(refreshAfter))) {
+                return e;
+            }
+
+            //Only one request encodes the feed. The others wait for it.
+            synchronized (this) {
+                e = entry;
+
+                if (e == null || (!fixed && e.isStale(refreshAfter))) {
+                    e = new Entry(source.get().encode(new Fnv64Digest()), System.nanoTime());
+                    entry = e;
+                }
+
+                return e;
+            }
+        }
+
+        /*
+        Under the lock, so that a request that is encoding the old source
+        can not overwrite the published entry.
+        */
+        synchronized void publish(VCalendar calendar) {
+            source = () -> calendar;
+            fixed = true;
+            entry = new Entry(calendar.encode(new Fnv64Digest()), System.nanoTime());
+        }
+    }
+
+    private static class Entry {
+        final EncodedCalendar calendar;
+        final long createdAt;
+        //A strong ETag must differ between encodings of the same content
+        final String gzipETag;
+        private ByteBuffer gzip;
+
+        Entry(EncodedCalendar calendar, long createdAt) {
+            var tag = calendar.getETag();
+
+            this.calendar = calendar;
+            this.createdAt = createdAt;
+            this.gzipETag = tag.substring(0, tag.length() - 1) + "-gzip\"";
+        }
+
+        boolean isStale(Duration refreshAfter) {
+            return System.nanoTime() - createdAt >= refreshAfter.toNanos();
+        }
+
+        synchronized ByteBuffer gzip() {
+            if (gzip == null) {
+                var bytes = calendar.getBytes();
+                var out = new ByteArrayOutputStream(bytes.remaining() / 4);
+
+                try (var zip = new GZIPOutputStream(out, 8192)) {
+                    zip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                } catch (IOException e) {
+                    //Writing to memory does not fail
+                    throw new UncheckedIOException(e);
+                }
+
+                gzip = ByteBuffer.wrap(out.toByteArray());
+            }
+
+            return gzip.duplicate();
+        }
+
+        /*
+        The same list parsing as EncodedCalendar.matches(). A "*" is
+        already matched there.
+        */
+        boolean matchesGzip(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+
+            for (var candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(gzipETag)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a feed server.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a feed server.
+     */
+    public static class Builder {
+        private FeedServer server = new FeedServer();
+
+        /**
+         * Sets the port. Use 0 to let the system pick a free port. The default is 8080.
+         * @param port the port
+         * @return the builder
+         */
+        public Builder port(int port) {
+            server.port = port;
+
+            return this;
+        }
+
+        /**
+         * Sets the address to listen on. The default is all addresses.
+         * @param host the host name or IP address
+         * @return the builder
+         */
+        public Builder host(String host) {
+            server.host = host;
+
+            return this;
+        }
+
+        /**
+         * Adds a feed. The supplier is called when the feed is first requested
+         * and then again once the cached response is older than refreshAfter.
+         * @param path the path of the feed. Example: "/team.ics"
+         * @param source supplies the calendar
+         * @return the builder
+         */
+        public Builder feed(String path, Supplier<VCalendar> source) {
+            return feed(path, Objects.requireNonNull(source), false);
+        }
+
+        /**
+         * Adds a feed with a calendar that is encoded once and not refreshed.
+         * Call publish() to replace it, or invalidate() after changing the
+         * VCalendar object.
+         * @param path the path of the feed. Example: "/team.ics"
+         * @param calendar the calendar
+         * @return the builder
+         */
+        public Builder feed(String path, VCalendar calendar) {
+            Objects.requireNonNull(calendar);
+
+            return feed(path, () -> calendar, true);
+        }
+
+        private Builder feed(String path, Supplier<VCalendar> source, boolean fixed) {
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("A path must start with /: " + path);
+            }
+
+            server.feeds.put(path, new Feed(path, source, fixed));
+
+            return this;
+        }
+
+        /**
+         * Sets how long a cached response is served before the feed is encoded
+         * again. The default is one minute.
+         * @param refreshAfter the time
+         * @return the builder
+         */
+        public Builder refreshAfter(Duration refreshAfter) {
+            server.refreshAfter = refreshAfter;
+
+            return this;
+        }
+
+        /**
+         * Sets the max-age of the Cache-Control header. The default is the refresh time.
+         * @param maxAge the max-age
+         * @return the builder
+         */
+        public Builder maxAge(Duration maxAge) {
+            server.maxAge = maxAge;
+
+            return this;
+        }
+
+        /**
+         * Returns the server. Call start() to start it.
+         * @return the server
+         */
+        public FeedServer build() {
+            return server;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.webage.jcal.smtp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.webage.jcal.MimeInvite;
+
+/**
+ * An SMTP session on one socket. Commands are buffered and only go out on
+ * flush(), so that with PIPELINING a whole envelope is sent in one packet.
+ * Not thread safe. Each dispatcher worker has its own.
+ */
+final class SmtpConnection implements Closeable {
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final StringBuilder line = new StringBuilder(128);
+    private boolean pipelining;
+    private int messageCount;
+
+    private SmtpConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), 8 * 1024);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+    }
+
+    /**
+     * Connects, reads the greeting and sends EHLO. Falls back to HELO for
+     * a server that does not know EHLO.
+     */
+    static SmtpConnection open(String host, int port, int timeoutMillis, String heloName) throws IOException {
+        var socket = new Socket();
+
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+
+            var conn = new SmtpConnection(socket);
+
+            conn.expect(conn.readReply(), 2);
+
+            conn.write("EHLO " + heloName);
+            conn.flush();
+
+            var ehlo = conn.readReply();
+
+            if (ehlo.code / 100 == 2) {
+                for (int i = 1; i < ehlo.lines.size(); ++i) {
+                    if (ehlo.lines.get(i).trim().equalsIgnoreCase("PIPELINING")) {
+                        conn.pipelining = true;
+                    }
+                }
+            } else {
+                conn.write("HELO " + heloName);
+                conn.flush();
+                conn.expect(conn.readReply(), 2);
+            }
+
+            return conn;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+
+            throw e;
+        }
+    }
+
+    boolean isPipelining() {
+        return pipelining;
+    }
+
+    int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Buffers a command. The CRLF is added.
+     */
+    void write(String command) throws IOException {
+        out.write(command.getBytes(StandardCharsets.UTF_8));
+        out.write('\r');
+        out.write('\n');
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Buffers a message with dot stuffing and the line with a single dot
+     * that ends it.
+     */
+    void writeMessage(MimeInvite invite) throws IOException {
+        var stuffed = new DotStuffingOutputStream(out);
+
+        invite.writeTo(stuffed);
+        stuffed.finish();
+        ++messageCount;
+    }
+
+    /**
+     * Reads a reply, which can span several lines.
+     */
+    Reply readReply() throws IOException {
+        var lines = new ArrayList<String>(1);
+
+        while (true) {
+            var text = readLine();
+
+            if (text.length() < 3) {
+                throw new IOException("Bad SMTP reply: " + text);
+            }
+
+            lines.add(text.length() > 4 ? text.substring(4) : "");
+
+            if (text.length() == 3 || text.charAt(3) != '-') {
+                try {
+                    return new Reply(Integer.parseInt(text.substring(0, 3)), lines);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad SMTP reply: " + text);
+                }
+            }
+        }
+    }
+
+    /**
+     * Throws if the reply is not of a class, such as 2 for 2xx.
+     */
+    Reply expect(Reply reply, int replyClass) throws SmtpException {
+        if (reply.code / 100 != replyClass) {
+            throw reply.toException();
+        }
+
+        return reply;
+    }
+
+    /**
+     * Says goodbye and closes the socket. Errors are ignored. The server
+     * may already be gone.
+     */
+    void quit() {
+        try {
+            write("QUIT");
+            flush();
+            readReply();
+        } catch (IOException e) {
+            //Closing anyway
+        }
+
+        close();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //Nothing more to do
+        }
+    }
+
+    private String readLine() throws IOException {
+        line.setLength(0);
+
+        while (true) {
+            int b = in.read();
+
+            if (b < 0) {
+                throw new EOFException("The SMTP server closed the connection");
+            }
+            if (b == '\n') {
+                int length = line.length();
+
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+
+                return line.toString();
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new IOException("SMTP reply line too long");
+            }
+
+            line.append((char) b);
+        }
+    }
+
+    /**
+     * A reply code and its lines of text.
+     */
+    static final class Reply {
+        final int code;
+        final List<String> lines;
+
+        Reply(int code, List<String> lines) {
+            this.code = code;
+            this.lines = lines;
+        }
+
+        boolean isPositive() {
+            return code / 100 == 2;
+        }
+
+        SmtpException toException() {
+            return new SmtpException(code, String.join(" ", lines));
+        }
+    }
+
+    /*
+    Doubles a dot at the start of a line and ends the message with CRLF.CRLF.
+    */
+    private static final class DotStuffingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private boolean lineStart = true;
+        private int last;
+
+        DotStuffingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (lineStart && b == '.') {
+                out.write('.');
+            }
+
+            out.write(b);
+            lineStart = b == '\n';
+            last = b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int end = off + len;
+            int start = off;
+
+            //Runs without a dot at the start of a line go out in one go
+            for (int i = off; i < end; ++i) {
+                if (lineStart && b[i] == '.') {
+                    out.write(b, start, i - start);
+                    out.write('.');
+                    start = i;
+                }
+
+                lineStart = b[i] == '\n';
+            }
+
+            out.write(b, start, end - start);
+
+            if (len > 0) {
+                last = b[end - 1];
+            }
+        }
+
+        void finish() throws IOException {
+            if (last != '\n') {
+                out.write('\r');
+                out.write('\n');
+            }
+
+            out.write('.');
+            out.write('\r');
+            out.write('\n');
+        }
+
+        @Override
+        public void close() {
+            //The connection stays open
+        }
+    }
+}
@@ -0,0 +1,803 @@
+package com.webage.jcal.smtp;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.webage.jcal.MimeInvite;
+
+/**
+ * Sends e-mail invites to an SMTP relay in the background.
+ *
+ * Each worker keeps one connection open and sends a batch of messages on
+ * it. When the server supports PIPELINING the envelope of a message
+ * (MAIL, RCPT and DATA) goes out in one packet, right behind the end of
+ * the previous message. Submitting blocks while the queue is full, so a
+ * producer can not get ahead of the relay by more than the queue size.
+ *
+ * A 4xx reply or a broken connection is tried again after a delay that
+ * doubles each time. A 5xx reply fails the message right away, and so
+ * does an invite that throws while it is written. Workers run
+ * on virtual threads when the JVM has them.
+ *
+ * <pre>
+ * try (var dispatcher = SmtpDispatcher.builder()
+ *         .host("smtp.example.com")
+ *         .connections(4)
+ *         .build()) {
+ *     for (var invite : invites) {
+ *         dispatcher.submit(invite);
+ *     }
+ * }
+ * </pre>
+ *
+ * There is no TLS or authentication. Use a relay on a trusted network.
+ */
+public final class SmtpDispatcher implements AutoCloseable {
+    //How often an idle worker checks for retries and shutdown
+    private static final long POLL_MILLIS = 50;
+    //The longest wait for a retry, about 73 years. System.nanoTime() plus it does not wrap.
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE / 4;
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration timeout;
+    private final Duration idleTimeout;
+    private final String heloName;
+
+    private final BlockingQueue<Job> queue;
+    private final DelayQueue<Job> retries = new DelayQueue<>();
+    private final ExecutorService executor;
+    private volatile boolean closed;
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder connectCount = new LongAdder();
+
+    private SmtpDispatcher(Builder builder) {
+        host = builder.host;
+        port = builder.port;
+        connections = builder.connections;
+        batchSize = builder.batchSize;
+        messagesPerConnection = builder.messagesPerConnection;
+        maxAttempts = builder.maxAttempts;
+        retryDelay = builder.retryDelay;
+        timeout = builder.timeout;
+        idleTimeout = builder.idleTimeout;
+        heloName = builder.heloName != null ? builder.heloName : localHostName();
+        queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+        executor = newExecutor(connections);
+
+        for (int i = 0; i < connections; ++i) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Queues an invite. Blocks while the queue is full.
+     *
+     * The future completes once the server has accepted the message. Its
+     * value is the list of recipients that the server refused, which is
+     * empty when everyone will get the invite. The future fails with an
+     * SmtpException when the server refuses the message or all of the
+     * recipients, or when the last attempt fails.
+     *
+     * @param invite the invite
+     * @return the future
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * for room in the queue
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public CompletableFuture<List<String>> submit(MimeInvite invite) throws InterruptedException {
+        var job = newJob(invite);
+
+        queue.put(job);
+        checkQueued(job);
+
+        return job.future;
+    }
+
+    /**
+     * Queues an invite if there is room for it within a time.
+     * @param invite the invite
+     * @param wait how long to wait for room in the queue
+     * @return the future as for submit(), or empty if the queue stayed full
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public Optional<CompletableFuture<List<String>>> offer(MimeInvite invite, Duration wait) throws InterruptedException {
+        var job = newJob(invite);
+
+        if (!queue.offer(job, wait.toNanos(), TimeUnit.NANOSECONDS)) {
+            return Optional.empty();
+        }
+
+        checkQueued(job);
+
+        return Optional.of(job.future);
+    }
+
+    /*
+    close() may have drained the queue between newJob() and the put. A job
+    that is still in the queue then has nobody to send it. A job that is
+    gone was taken by a worker or by close() and its future is completed.
+    */
+    private void checkQueued(Job job) {
+        if (closed && queue.remove(job)) {
+            throw new IllegalStateException("The dispatcher is closed");
+        }
+    }
+
+    private Job newJob(MimeInvite invite) {
+        if (closed) {
+            throw new IllegalStateException("The dispatcher is closed");
+        }
+
+        var from = envelopeAddress(Objects.requireNonNull(invite.getFrom(), "from"));
+        var to = new ArrayList<String>(invite.getTo().size());
+
+        for (var address : invite.getTo()) {
+            to.add(envelopeAddress(address));
+        }
+
+        if (to.isEmpty()) {
+            throw new IllegalArgumentException("The invite has no recipients");
+        }
+
+        Objects.requireNonNull(invite.getCalendar(), "calendar");
+
+        return new Job(invite, from, to);
+    }
+
+    /**
+     * Stops taking invites, sends everything already queued, retries
+     * included, and closes the connections. Blocks until done.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        executor.shutdown();
+
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.DAYS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        //An invite submitted as the workers finished has nobody left to send it
+        var left = new ArrayList<Job>();
+
+        queue.drainTo(left);
+        left.forEach(job -> job.future.completeExceptionally(new IllegalStateException("The dispatcher is closed")));
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the number of messages the server has accepted
+     * @return the number of messages
+     */
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    /**
+     * Get the number of messages that failed for good
+     * @return the number of messages
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Get the number of times a message was put back for another attempt
+     * @return the number of retries
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * Get the number of connections opened so far
+     * @return the number of connections
+     */
+    public long getConnectCount() {
+        return connectCount.sum();
+    }
+
+    /**
+     * Get the number of invites waiting in the queue. Retries are not counted.
+     * @return the number of invites
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /*
+    The loop of one worker. It owns one connection at a time.
+    */
+    private void work() {
+        var batch = new ArrayList<Job>(batchSize);
+        //Jobs of the batch that send() already put back for a retry
+        var requeued = new HashSet<Job>();
+        SmtpConnection conn = null;
+        long lastUsed = System.nanoTime();
+
+        try {
+            while (true) {
+                if (!take(batch)) {
+                    break;
+                }
+
+                if (batch.isEmpty()) {
+                    if (conn != null && System.nanoTime() - lastUsed >= idleTimeout.toNanos()) {
+                        conn.quit();
+                        conn = null;
+                    }
+
+                    continue;
+                }
+
+                try {
+                    if (conn == null) {
+                        conn = SmtpConnection.open(host, port, (int) timeout.toMillis(), heloName);
+                        connectCount.increment();
+                    }
+
+                    send(conn, batch, requeued);
+
+                    if (conn.getMessageCount() >= messagesPerConnection) {
+                        conn.quit();
+                        conn = null;
+                    }
+                } catch (IOException e) {
+                    if (conn != null) {
+                        conn.close();
+                        conn = null;
+                    }
+
+                    for (var job : batch) {
+                        if (!job.future.isDone() && !requeued.contains(job)) {
+                            retryOrFail(job, e);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    //A broken invite must not stop the worker. send() failed it. The stream may be half written.
+                    if (conn != null) {
+                        conn.close();
+                        conn = null;
+                    }
+
+                    //The rest of the batch did nothing wrong. It goes again without losing an attempt.
+                    for (var job : batch) {
+                        if (!job.future.isDone() && !requeued.contains(job)) {
+                            job.dueAt = System.nanoTime();
+                            retries.add(job);
+                        }
+                    }
+                }
+
+                lastUsed = System.nanoTime();
+                batch.clear();
+                requeued.clear();
+            }
+        } finally {
+            if (conn != null) {
+                conn.quit();
+            }
+        }
+    }
+
+    /*
+    Fills the batch with retries that are due and then new invites. The
+    batch is left empty when there is nothing to do yet. Returns false once
+    the dispatcher is closed and there is nothing left at all.
+    */
+    private boolean take(List<Job> batch) {
+        retries.drainTo(batch, batchSize);
+
+        if (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+
+        if (!batch.isEmpty()) {
+            return true;
+        }
+
+        if (closed && queue.isEmpty() && retries.isEmpty()) {
+            return false;
+        }
+
+        try {
+            var job = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+            if (job != null) {
+                batch.add(job);
+                queue.drainTo(batch, batchSize - 1);
+            }
+        } catch (InterruptedException e) {
+            //Only close() shuts the executor down and it lets the queue drain
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /*
+    Sends a batch on one connection. With PIPELINING the envelope of the
+    next message is written behind the end of the current one, so there is
+    one round trip per message instead of one per command. A job put back
+    for a retry is added to requeued, so that it is not put back again if
+    the connection fails later in the batch.
+    */
+    private void send(SmtpConnection conn, List<Job> batch, Set<Job> requeued) throws IOException {
+        boolean pipelining = conn.isPipelining();
+
+        if (pipelining) {
+            writeEnvelope(conn, batch.get(0));
+            conn.flush();
+        }
+
+        for (int i = 0; i < batch.size(); ++i) {
+            var job = batch.get(i);
+            var next = i + 1 < batch.size() ? batch.get(i + 1) : null;
+            var refusal = pipelining ? readEnvelope(conn, job) : sendEnvelope(conn, job);
+
+            if (refusal == null) {
+                try {
+                    conn.writeMessage(job.invite);
+                } catch (RuntimeException e) {
+                    fail(job, e);
+
+                    throw e;
+                }
+
+                if (pipelining && next != null) {
+                    writeEnvelope(conn, next);
+                }
+
+                conn.flush();
+
+                var reply = conn.readReply();
+
+                if (reply.isPositive()) {
+                    sentCount.increment();
+                    job.future.complete(Collections.unmodifiableList(job.refused));
+                } else {
+                    retryOrFail(job, reply.toException());
+                    requeued.add(job);
+                }
+            } else {
+                retryOrFail(job, refusal);
+                requeued.add(job);
+
+                //Clear the half done transaction. The next envelope can follow RSET.
+                conn.write("RSET");
+
+                if (pipelining && next != null) {
+                    writeEnvelope(conn, next);
+                }
+
+                conn.flush();
+                conn.expect(conn.readReply(), 2);
+            }
+        }
+    }
+
+    private static void writeEnvelope(SmtpConnection conn, Job job) throws IOException {
+        conn.write("MAIL FROM:<" + job.from + ">");
+
+        for (var rcpt : job.to) {
+            conn.write("RCPT TO:<" + rcpt + ">");
+        }
+
+        conn.write("DATA");
+    }
+
+    /*
+    Reads the replies to a pipelined envelope. Returns null if the server
+    is ready for the message, or the reason it is not.
+    */
+    private static SmtpException readEnvelope(SmtpConnection conn, Job job) throws IOException {
+        job.refused.clear();
+
+        var mail = conn.readReply();
+        SmtpException refusal = mail.isPositive() ? null : mail.toException();
+        SmtpException lastRcpt = null;
+
+        for (var rcpt : job.to) {
+            var reply = conn.readReply();
+
+            if (!reply.isPositive()) {
+                job.refused.add(rcpt);
+                lastRcpt = reply.toException();
+            }
+        }
+
+        if (refusal == null && job.refused.size() == job.to.size()) {
+            refusal = lastRcpt;
+        }
+
+        var data = conn.readReply();
+
+        if (data.code == 354) {
+            if (refusal != null) {
+                //A server should not take DATA without recipients. End the empty message.
+                conn.write(".");
+                conn.flush();
+                conn.readReply();
+            }
+
+            return refusal;
+        }
+
+        return refusal != null ? refusal : data.toException();
+    }
+
+    /*
+    The envelope one command at a time for a server without PIPELINING.
+    */
+    private static SmtpException sendEnvelope(SmtpConnection conn, Job job) throws IOException {
+        job.refused.clear();
+
+        var reply = command(conn, "MAIL FROM:<" + job.from + ">");
+
+        if (!reply.isPositive()) {
+            return reply.toException();
+        }
+
+        SmtpException lastRcpt = null;
+
+        for (var rcpt : job.to) {
+            reply = command(conn, "RCPT TO:<" + rcpt + ">");
+
+            if (!reply.isPositive()) {
+                job.refused.add(rcpt);
+                lastRcpt = reply.toException();
+            }
+        }
+
+        if (job.refused.size() == job.to.size()) {
+            return lastRcpt;
+        }
+
+        reply = command(conn, "DATA");
+
+        return reply.code == 354 ? null : reply.toException();
+    }
+
+    private static SmtpConnection.Reply command(SmtpConnection conn, String command) throws IOException {
+        conn.write(command);
+        conn.flush();
+
+        return conn.readReply();
+    }
+
+    private void retryOrFail(Job job, IOException e) {
+        boolean permanent = e instanceof SmtpException && !((SmtpException) e).isTransient();
+
+        if (permanent || job.attempts >= maxAttempts) {
+            fail(job, e);
+
+            return;
+        }
+
+        long delay = backoff(retryDelay, job.attempts);
+
+        ++job.attempts;
+        job.dueAt = System.nanoTime() + delay;
+        retryCount.increment();
+        retries.add(job);
+    }
+
+    /*
+    The wait before the next attempt in nanoseconds. It doubles with each
+    attempt and stops at MAX_DELAY_NANOS instead of overflowing.
+    */
+    static long backoff(Duration retryDelay, int attempts) {
+        try {
+            long delay = Math.multiplyExact(retryDelay.toNanos(), 1L << Math.min(attempts - 1, 20));
+
+            return Math.min(delay, MAX_DELAY_NANOS);
+        } catch (ArithmeticException e) {
+            return MAX_DELAY_NANOS;
+        }
+    }
+
+    private void fail(Job job, Exception e) {
+        failedCount.increment();
+        job.future.completeExceptionally(e);
+    }
+
+    /*
+    The bare address for MAIL and RCPT. Example: "Jane" <jane@example.com>
+    becomes jane@example.com.
+    */
+    static String envelopeAddress(String address) {
+        int open = address.lastIndexOf('<');
+        int close = address.lastIndexOf('>');
+        var result = open >= 0 && close > open ? address.substring(open + 1, close) : address.trim();
+
+        for (int i = 0; i < result.length(); ++i) {
+            char c = result.charAt(i);
+
+            if (c == '\r' || c == '\n' || c == '<' || c == '>') {
+                throw new IllegalArgumentException("Invalid e-mail address: " + address);
+            }
+        }
+
+        return result;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getCanonicalHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    /*
+    Virtual threads need Java 21. The library is built for Java 11,
+    so they are looked up at run time.
+    */
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads, r -> {
+                var t = new Thread(r, "jcal-smtp");
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        }
+    }
+
+    private static class Job implements Delayed {
+        final MimeInvite invite;
+        final String from;
+        final List<String> to;
+        final List<String> refused = new ArrayList<>(0);
+        final CompletableFuture<List<String>> future = new CompletableFuture<>();
+        int attempts = 1;
+        long dueAt;
+
+        Job(MimeInvite invite, String from, List<String> to) {
+            this.invite = invite;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((Job) other).dueAt);
+        }
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a dispatcher.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a dispatcher.
+     */
+    public static class Builder {
+        private String host = "localhost";
+        private int port = 25;
+        private int connections = 4;
+        private int queueCapacity = 1000;
+        private int batchSize = 20;
+        private int messagesPerConnection = 100;
+        private int maxAttempts = 4;
+        private Duration retryDelay = Duration.ofSeconds(1);
+        private Duration timeout = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofSeconds(10);
+        private String heloName;
+
+        /**
+         * Sets the host name of the SMTP server. The default is localhost.
+         * @param host the host name or IP address
+         * @return the builder
+         */
+        public Builder host(String host) {
+            this.host = Objects.requireNonNull(host);
+
+            return this;
+        }
+
+        /**
+         * Sets the port of the SMTP server. The default is 25.
+         * @param port the port
+         * @return the builder
+         */
+        public Builder port(int port) {
+            this.port = port;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of connections, one per worker. The default is 4.
+         * @param connections the number of connections
+         * @return the builder
+         */
+        public Builder connections(int connections) {
+            if (connections < 1) {
+                throw new IllegalArgumentException("connections must be at least 1");
+            }
+
+            this.connections = connections;
+
+            return this;
+        }
+
+        /**
+         * Sets how many invites can wait to be sent before submit() blocks.
+         * The default is 1000.
+         * @param queueCapacity the number of invites
+         * @return the builder
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity must be at least 1");
+            }
+
+            this.queueCapacity = queueCapacity;
+
+            return this;
+        }
+
+        /**
+         * Sets the most invites a worker takes from the queue at once.
+         * The default is 20.
+         * @param batchSize the number of invites
+         * @return the builder
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be at least 1");
+            }
+
+            this.batchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Sets how many messages are sent on a connection before it is
+         * closed and a new one opened. The default is 100.
+         * @param messagesPerConnection the number of messages
+         * @return the builder
+         */
+        public Builder messagesPerConnection(int messagesPerConnection) {
+            if (messagesPerConnection < 1) {
+                throw new IllegalArgumentException("messagesPerConnection must be at least 1");
+            }
+
+            this.messagesPerConnection = messagesPerConnection;
+
+            return this;
+        }
+
+        /**
+         * Sets how many times a message is tried in all. The default is 4.
+         * @param maxAttempts the number of attempts
+         * @return the builder
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+
+            this.maxAttempts = maxAttempts;
+
+            return this;
+        }
+
+        /**
+         * Sets the wait before the first retry. It doubles for every retry
+         * after that. The default is one second.
+         * @param retryDelay the delay
+         * @return the builder
+         */
+        public Builder retryDelay(Duration retryDelay) {
+            this.retryDelay = Objects.requireNonNull(retryDelay);
+
+            return this;
+        }
+
+        /**
+         * Sets the timeout to connect and to wait for a reply. The default
+         * is 30 seconds.
+         * @param timeout the timeout
+         * @return the builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = Objects.requireNonNull(timeout);
+
+            return this;
+        }
+
+        /**
+         * Sets how long a connection with nothing to send stays open.
+         * The default is 10 seconds.
+         * @param idleTimeout the time
+         * @return the builder
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = Objects.requireNonNull(idleTimeout);
+
+            return this;
+        }
+
+        /**
+         * Sets the name sent with EHLO. The default is the name of the local host.
+         * @param heloName the host name
+         * @return the builder
+         */
+        public Builder heloName(String heloName) {
+            this.heloName = Objects.requireNonNull(heloName);
+
+            return this;
+        }
+
+        /**
+         * Returns a new dispatcher with its workers running. Connections
+         * are opened when there is something to send.
+         * @return the dispatcher
+         */
+        public SmtpDispatcher build() {
+            return new SmtpDispatcher(this);
+        }
+    }
+}
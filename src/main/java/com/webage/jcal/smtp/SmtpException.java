@@ -0,0 +1,40 @@
+package com.webage.jcal.smtp;
+
+import java.io.IOException;
+
+/**
+ * An SMTP server refused a command.
+ */
+public class SmtpException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int replyCode;
+
+    /**
+     * Creates the exception.
+     * @param replyCode the SMTP reply code, such as 550
+     * @param message the reply text
+     */
+    public SmtpException(int replyCode, String message) {
+        super(replyCode + " " + message);
+
+        this.replyCode = replyCode;
+    }
+
+    /**
+     * Get the SMTP reply code, such as 550
+     * @return the reply code
+     */
+    public int getReplyCode() {
+        return replyCode;
+    }
+
+    /**
+     * Returns true if the server may accept the command later. That is, the
+     * reply code is 4xx.
+     * @return true if the command can be tried again
+     */
+    public boolean isTransient() {
+        return replyCode >= 400 && replyCode < 500;
+    }
+}
@@ -1,14 +1,32 @@
 package com.webage.jcal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.TimeZone;
 
 import org.junit.Test;
@@ -30,11 +48,37 @@ public class AppTest {
         assertEquals("abc123", sb.toString());
     }
 
+    @Test
+    public void testLongLineBreak() {
+        for (int length = 0; length < 400; ++length) {
+            var line = new StringBuilder("X-PROP:");
+
+            for (int i = 0; i < length; ++i) {
+                line.append((char) ('a' + i % 26));
+            }
+
+            var value = line.toString();
+            var sb = new StringBuilder("BEGIN:VEVENT\r\n").append(value);
+
+            Util.breakLine(sb, "BEGIN:VEVENT\r\n".length());
+
+            var lines = sb.toString().split("\r\n");
+
+            for (var l : lines) {
+                assertTrue(l, l.length() <= 75);
+            }
+
+            assertEquals(value, sb.substring("BEGIN:VEVENT\r\n".length()).replace("\r\n ", ""));
+        }
+    }
+
     @Test
     public void testEscape() {
         var result = Util.escapeText("Hello,Mama;Papa\nkaka\\mama\npapa");
 
         assertEquals("Hello\\,Mama\\;Papa\\nkaka\\\\mama\\npapa", result);
+        assertEquals("Plain text", Util.escapeText("Plain text"));
+        assertEquals("\\;\\,", Util.escapeText(";,"));
     }
 
     @Test
@@ -252,6 +296,29 @@ public class AppTest {
         }
     }
 
+    @Test
+    public void testOutlookTimeZoneLookup() {
+        assertEquals(Optional.of(OutlookTimeZone.TZ_ROMANCE_STANDARD_TIME), OutlookTimeZone.fromIANATimeZone("Europe/Paris"));
+        assertEquals(Optional.of(OutlookTimeZone.TZ_GMT_STANDARD_TIME), OutlookTimeZone.fromIANATimeZone("Europe/Lisbon"));
+        assertEquals(Optional.of(OutlookTimeZone.TZ_INDIA_STANDARD_TIME), OutlookTimeZone.fromIANATimeZone("Asia/Kolkata"));
+        assertEquals(Optional.of(OutlookTimeZone.TZ_INDIA_STANDARD_TIME), OutlookTimeZone.fromIANATimeZone("Asia/Calcutta"));
+        assertEquals(Optional.of(OutlookTimeZone.TZ_EASTERN_STANDARD_TIME), OutlookTimeZone.fromIANATimeZone("America/New_York"));
+        //A hit does not allocate
+        assertSame(OutlookTimeZone.fromIANATimeZone("Europe/Paris"), OutlookTimeZone.fromIANATimeZone("Europe/Paris"));
+        assertSame(OutlookTimeZone.fromWindowsTimeZone("Romance Standard Time"), OutlookTimeZone.fromIANATimeZone("Europe/Paris"));
+        assertEquals(Optional.of(OutlookTimeZone.TZ_UTC_MINUS_11), OutlookTimeZone.fromWindowsTimeZone("UTC-11"));
+        assertEquals(Optional.empty(), OutlookTimeZone.fromIANATimeZone("Mars/Olympus_Mons"));
+        assertEquals(Optional.empty(), OutlookTimeZone.fromIANATimeZone(null));
+        assertEquals(Optional.empty(), OutlookTimeZone.fromWindowsTimeZone("Europe/Paris"));
+
+        for (var tz : OutlookTimeZone.values()) {
+            assertEquals(Optional.of(tz), OutlookTimeZone.fromWindowsTimeZone(tz.toString()));
+            assertEquals(Optional.of(tz), OutlookTimeZone.fromIANATimeZone(tz.getIANATimeZone()));
+            assertTrue(tz.toVTimeZone().startsWith("BEGIN:VTIMEZONE\r\nTZID:" + tz + "\r\n"));
+            assertTrue(tz.toVTimeZone().endsWith("END:VTIMEZONE\r\n"));
+        }
+    }
+
     @Test
     public void testEmail() {
         var tz = TimeZone.getTimeZone("America/New_York");
@@ -343,4 +410,495 @@ public class AppTest {
 
         assertTrue(str.contains("LOCATION;ALTREP=\"https://goo.gl/maps/MzhntySdbstb7Yfd8\":TEST LOCATION\r\n"));
     }
+
+    @Test
+    public void testZoneOffsetTable() {
+        var zones = new String[] {"America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata", "Pacific/Apia", "UTC"};
+        var random = new Random(42);
+
+        for (var id : zones) {
+            var zone = ZoneId.of(id);
+            var table = ZoneOffsetTable.of(zone);
+
+            for (int i = 0; i < 20000; ++i) {
+                //Between 1900 and 2300, on 15 minute boundaries to hit gaps and overlaps often
+                long local = -2208988800L + (long) (random.nextDouble() * 400 * 365 * 86400) / 900 * 900;
+                var dt = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+                var expected = ZonedDateTime.of(dt, zone);
+
+                assertEquals(id + " " + dt, expected.toEpochSecond(), table.toEpochSecond(dt));
+                assertEquals(id + " " + dt, expected.getOffset().getTotalSeconds(), table.getOffsetSeconds(expected.toEpochSecond()));
+                assertEquals(expected.toLocalDateTime(), table.toLocalDateTime(expected.toEpochSecond()));
+            }
+        }
+
+        //Gap: 2:30AM does not exist and moves to 3:30AM EDT
+        var table = ZoneOffsetTable.of("America/New_York");
+
+        assertEquals(LocalDateTime.of(2024, 3, 10, 7, 30), table.toUTC(LocalDateTime.of(2024, 3, 10, 2, 30)));
+        //Overlap: 1:30AM happens twice. The earlier offset wins.
+        assertEquals(LocalDateTime.of(2024, 11, 3, 5, 30), table.toUTC(LocalDateTime.of(2024, 11, 3, 1, 30)));
+        assertEquals("20221104T040000Z", Util.convertAndFormatUTC(LocalDateTime.of(2022, 11, 4, 0, 0), TimeZone.getTimeZone("America/New_York")));
+    }
+
+    @Test
+    public void testFingerprint() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var ev1 = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+            .summary("Test event")
+            .build();
+        var ev2 = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+            .summary("Test event")
+            .build();
+
+        ev2.setDateTimeStamp("20000101T000000Z");
+        ev2.setSequence(4);
+
+        assertEquals(ev1.fingerprint(), ev2.fingerprint());
+
+        ev2.setSummary("Test event 2");
+
+        assertTrue(ev1.fingerprint() != ev2.fingerprint());
+    }
+
+    @Test
+    public void testCalendarDiff() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var previous = VCalendar.builder().build();
+        var current = VCalendar.builder().build();
+
+        for (int i = 1; i <= 3; ++i) {
+            previous.addEvent(VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, i, 9, 30), tz)
+                .summary("Test event " + i)
+                .build());
+        }
+
+        previous.getEventList().get(0).setSequence(2);
+        previous.getEventList().get(1).setSequence(5);
+
+        for (int i = 1; i <= 4; ++i) {
+            if (i == 3) {
+                continue;
+            }
+
+            current.addEvent(VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, i, 9, 30), tz)
+                .summary(i == 2 ? "Moved event" : "Test event " + i)
+                .build());
+        }
+
+        var diff = CalendarDiff.between(previous, current);
+
+        assertEquals(1, diff.getUnchangedCount());
+        assertEquals("uid-4", diff.getAdded().get(0).getUID());
+        assertEquals("uid-2", diff.getChanged().get(0).getUID());
+        assertEquals(Optional.of(6), diff.getChanged().get(0).getSequence());
+        assertEquals(Optional.of(2), current.getEventList().get(0).getSequence());
+
+        var messages = diff.toMessages();
+
+        assertEquals(3, messages.size());
+        assertEquals(MethodType.REQUEST, messages.get(0).getMethod());
+
+        var cancel = messages.get(2).toString();
+
+        assertTrue(cancel.contains("METHOD:CANCEL\r\n"));
+        assertTrue(cancel.contains("UID:uid-3\r\n"));
+        assertTrue(cancel.contains("SEQUENCE:1\r\n"));
+        assertTrue(cancel.contains("STATUS:CANCELLED\r\n"));
+    }
+
+    @Test
+    public void testCalendarDiffDuplicateUID() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var once = VCalendar.builder().build();
+        var twice = VCalendar.builder().build();
+
+        for (int i = 1; i <= 2; ++i) {
+            var ev = VEvent
+                .builder()
+                .uid("uid-1")
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, i, 9, 30), tz)
+                .summary("Test event " + i)
+                .build();
+
+            if (i == 1) {
+                once.addEvent(ev);
+            }
+
+            twice.addEvent(ev);
+        }
+
+        once.getEventList().get(0).setSequence(3);
+
+        for (var cals : List.of(List.of(once, twice), List.of(twice, once))) {
+            try {
+                CalendarDiff.between(cals.get(0), cals.get(1));
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("uid-1"));
+            }
+        }
+
+        //Nothing was changed
+        assertEquals(Optional.of(3), once.getEventList().get(0).getSequence());
+        assertEquals(Optional.empty(), twice.getEventList().get(1).getSequence());
+        assertTrue(twice.getEventList().get(1).getStatus().get() != StatusType.CANCELLED);
+    }
+
+    @Test
+    public void testEncodeWithDigest() throws Exception {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var cal = VCalendar.builder().build();
+
+        for (int i = 0; i < 200; ++i) {
+            cal.addEvent(VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+                .summary("Test event \u00e9\u4e2d\ud83d\ude00 \ud83d" + i)
+                .build());
+        }
+
+        var expected = cal.toUTF8();
+        var bytes = new byte[expected.remaining()];
+
+        expected.get(bytes);
+
+        var encoded = cal.encode();
+        var actual = new byte[encoded.getLength()];
+
+        encoded.getBytes().get(actual);
+
+        assertTrue(Arrays.equals(bytes, actual));
+        assertTrue(Arrays.equals(MessageDigest.getInstance("SHA-256").digest(bytes), encoded.getDigest()));
+        assertEquals(66, encoded.getETag().length());
+        assertTrue(encoded.matches("\"abc\", W/" + encoded.getETag()));
+        assertTrue(!encoded.matches("\"abc\""));
+
+        var fast = cal.encode(new Fnv64Digest());
+
+        assertEquals(8, fast.getDigest().length);
+        assertEquals(fast.getETag(), cal.encode(new Fnv64Digest()).getETag());
+
+        cal.getEventList().get(0).setSummary("Changed");
+
+        assertTrue(!fast.getETag().equals(cal.encode(new Fnv64Digest()).getETag()));
+    }
+
+    @Test
+    public void testMimeInviteHeaderInjection() {
+        var builder = MimeInvite.builder();
+
+        for (Runnable r : List.<Runnable>of(
+                () -> builder.from("xyz@example.com\r\nBcc: all@example.com"),
+                () -> builder.from("abc", "xyz@example.com\nBcc: all@example.com"),
+                () -> builder.to("bugs.bunny@wb.com\r\nBcc: all@example.com"),
+                () -> builder.to("Bugs Bunny", "bugs.bunny@wb.com\rX: y"))) {
+            try {
+                r.run();
+                fail();
+            } catch (IllegalArgumentException e) {
+                //Expected
+            }
+        }
+
+        assertTrue(builder.build().getTo().isEmpty());
+    }
+
+    @Test
+    public void testMimeInvite() throws IOException {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+            .summary("Test event")
+            .description("A long description. ".repeat(50))
+            .build();
+        var cal = VCalendar.builder().event(ev).build();
+        var out = new ByteArrayOutputStream();
+
+        MimeInvite.builder()
+            .from("abc", "xyz@example.com")
+            .to("Bugs Bunny", "bugs.bunny@wb.com")
+            .subject("Caf\u00e9 meeting")
+            .text("Hello caf\u00e9 = caf\u00e9 \nSee you there. " + "x".repeat(100))
+            .html("<p>Hello</p>")
+            .calendar(cal)
+            .boundary("BOUNDARY")
+            .build()
+            .writeTo(out);
+
+        var mail = out.toString(StandardCharsets.US_ASCII);
+
+        assertTrue(mail.contains("From: \"abc\" <xyz@example.com>\r\n"));
+        assertTrue(mail.contains("Subject: =?UTF-8?B?Q2Fmw6kgbWVldGluZw==?=\r\n"));
+        assertTrue(mail.contains("Content-Type: multipart/alternative; boundary=\"BOUNDARY\"\r\n"));
+        assertTrue(mail.contains("Hello caf=C3=A9 =3D caf=C3=A9=20\r\nSee you there."));
+        assertTrue(mail.contains("Content-Type: text/calendar; charset=UTF-8; method=REQUEST\r\n"));
+        assertTrue(mail.endsWith("\r\n--BOUNDARY--\r\n"));
+
+        for (var line : mail.split("\r\n")) {
+            assertTrue(line, line.length() <= 76);
+        }
+
+        var parts = mail.split("--BOUNDARY");
+        var calendarPart = parts[3].substring(parts[3].indexOf("\r\n\r\n") + 4);
+        var decoded = Base64.getMimeDecoder().decode(calendarPart.trim());
+
+        assertEquals(cal.toString(), new String(decoded, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAttachment() throws IOException {
+        var data = new byte[200_000];
+
+        new Random(7).nextBytes(data);
+
+        var file = Files.createTempFile("jcal", ".bin");
+
+        try {
+            Files.write(file, data);
+
+            var ev = VEvent
+                .builder()
+                .uid("uid-1")
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30), TimeZone.getTimeZone("UTC"))
+                .summary("Test event")
+                .attach("https://example.com/agenda;v=1,2")
+                .attach(file, "application/octet-stream")
+                .build();
+            var cal = VCalendar.builder().event(ev).build();
+            var str = cal.toString();
+
+            assertTrue(str.contains("\r\nATTACH:https://example.com/agenda;v=1,2\r\n"));
+
+            for (var line : str.split("\r\n")) {
+                assertTrue(line, line.length() <= 75);
+            }
+
+            var unfolded = str.replace("\r\n ", "");
+            var start = unfolded.indexOf("ATTACH;FMTTYPE=application/octet-stream;ENCODING=BASE64;VALUE=BINARY;X-FILENAME=");
+            var value = unfolded.substring(unfolded.indexOf(':', start) + 1, unfolded.indexOf("\r\n", start));
+
+            assertTrue(Arrays.equals(data, Base64.getDecoder().decode(value)));
+
+            var out = new ByteArrayOutputStream();
+
+            cal.writeTo(out);
+
+            assertEquals(cal.toUTF8(), ByteBuffer.wrap(out.toByteArray()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testEncodedLength() {
+        var random = new Random(11);
+        var pieces = new String[] {"a", "\u00E9", "\u4E2D", "\uD83D\uDE00", ";", ",", "\\", "\n", " "};
+
+        for (int i = 0; i < 200; ++i) {
+            var text = new StringBuilder();
+            int length = random.nextInt(300);
+
+            for (int j = 0; j < length; ++j) {
+                text.append(pieces[random.nextInt(pieces.length)]);
+            }
+
+            var data = new byte[random.nextInt(500)];
+
+            random.nextBytes(data);
+
+            var builder = VEvent
+                .builder()
+                .uid("uid-" + text.substring(0, Math.min(text.length(), 20)))
+                .organizer("Organizer " + text.substring(0, Math.min(text.length(), i % 80)), "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30), TimeZone.getTimeZone("America/New_York"))
+                .summary(text.toString())
+                .description(text.toString() + text)
+                .attendee("Bugs Bunny", "bugs.bunny@wb.com", PartStatType.values()[i % PartStatType.values().length])
+                .attendee("D\u00E6ffy D\u00FCck " + i, "daffy@wb.com")
+                .attach("https://example.com/" + i + "/" + text.substring(0, Math.min(text.length(), i)))
+                .attach(Attachment.inline(() -> Channels.newChannel(new ByteArrayInputStream(data)), "application/octet-stream", "f" + i + ".bin"));
+
+            if (i % 2 == 0) {
+                builder.location("Room " + text, "https://example.com/map?room=" + i);
+            }
+            if (i % 3 == 0) {
+                builder.repeats(FrequencyType.WEEKLY).byDay(DayOfWeek.MONDAY, DayOfWeek.FRIDAY).repeatCount(i + 1);
+            }
+
+            var cal = VCalendar.builder().event(builder.build()).build();
+
+            assertEquals(cal.toUTF8().remaining(), cal.encodedLength());
+        }
+    }
+
+    @Test
+    public void testReset() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var eventBuilder = VEvent.builder();
+        var calendarBuilder = VCalendar.builder();
+
+        calendarBuilder
+            .method(MethodType.CANCEL)
+            .event(eventBuilder
+                .uid("uid-1")
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+                .summary("First event")
+                .attendee("Bugs Bunny", "bugs.bunny@wb.com")
+                .repeats(FrequencyType.WEEKLY)
+                .byDay(DayOfWeek.MONDAY)
+                .build())
+            .build()
+            .toString();
+
+        var reused = calendarBuilder
+            .reset()
+            .event(eventBuilder
+                .reset()
+                .uid("uid-2")
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDate.of(2022, 11, 3))
+                .summary("Second event")
+                .build())
+            .build();
+        var fresh = VCalendar
+            .builder()
+            .event(VEvent
+                .builder()
+                .uid("uid-2")
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDate.of(2022, 11, 3))
+                .summary("Second event")
+                .build())
+            .build();
+
+        reused.getEventList().get(0).setDateTimeStamp("20221101T000000Z");
+        fresh.getEventList().get(0).setDateTimeStamp("20221101T000000Z");
+
+        assertEquals(fresh.toString(), reused.toString());
+    }
+
+    @Test
+    public void testCompactFields() {
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("Bugs, Bunny", "bugs.bunny@wb.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30, 15, 42), "America/New_York")
+            .ends(LocalDate.of(2022, 11, 3))
+            .createdOn(LocalDateTime.of(2022, 11, 1, 12, 0), TimeZone.getTimeZone("UTC"))
+            .build();
+
+        assertEquals("CN=Bugs, Bunny:mailto:bugs.bunny@wb.com", ev.getOrganizer());
+        assertEquals("TZID=America/New_York:20221102T093000", ev.getStartDateTime());
+        assertEquals(LocalDateTime.of(2022, 11, 2, 9, 30, 15, 42), ev.getStartLocalDateTime());
+        assertEquals(Optional.of("VALUE=DATE:20221103"), ev.getEndDateTime());
+        assertEquals(Optional.of("20221101T120000Z"), ev.getCreatedDate());
+        assertEquals(Optional.of(StatusType.CONFIRMED), ev.getStatus());
+        assertEquals(Optional.empty(), ev.getSequence());
+        assertEquals(Optional.empty(), ev.getRepeatCount());
+        assertTrue(ev.getRepeatByDay().isEmpty());
+        assertTrue(VCalendar.builder().event(ev).build().toString().contains("ORGANIZER;CN=Bugs\\, Bunny:mailto:bugs.bunny@wb.com\r\n"));
+
+        ev.setRepeatCount(3);
+        ev.setRepeatCount(Optional.empty());
+
+        assertEquals(Optional.empty(), ev.getRepeatCount());
+
+        //A DTSTAMP that does not fit the compact form is kept as it is
+        ev.setDateTimeStamp("20221101T101530Z");
+
+        assertEquals("20221101T101530Z", ev.getDateTimeStamp());
+
+        ev.setDateTimeStamp("20221101T101500Z");
+
+        assertEquals("20221101T101500Z", ev.getDateTimeStamp());
+
+        ev.setStartDate(LocalDate.of(12022, 1, 5));
+
+        assertTrue(ev.isAllDay());
+        assertEquals("VALUE=DATE:+120220105", ev.getStartDateTime());
+    }
+
+    @Test
+    public void testReplyIngestion() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30), tz)
+            .summary("Test event")
+            .attendee("Bugs Bunny", "Bugs.Bunny@wb.com")
+            .attendee("Daffy Duck", "daffy@wb.com")
+            .build();
+        var fingerprint = ev.fingerprint();
+        var store = new AttendeeStatusStore();
+        var messages = new ArrayList<String>();
+
+        messages.add(reply("uid-1", 0, "20221101T100000Z", "bugs.bunny@wb.com", PartStatType.DECLINED, MethodType.REPLY));
+        messages.add(reply("uid-1", 0, "20221101T120000Z", "bugs.bunny@wb.com", PartStatType.ACCEPTED, MethodType.REPLY));
+        messages.add(reply("uid-1", 0, "20221101T110000Z", "bugs.bunny@wb.com", PartStatType.TENTATIVE, MethodType.REPLY));
+        messages.add(reply("uid-1", 0, "20221101T110000Z", "daffy@wb.com", PartStatType.TENTATIVE, MethodType.COUNTER));
+        messages.add("BEGIN:VCALENDAR\r\nMETHOD:REQUEST\r\nEND:VCALENDAR\r\n");
+
+        var result = store.ingest(messages);
+
+        assertEquals(1, result.getCounters().size());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(3, result.getApplied() + result.getStale());
+        assertEquals(Optional.of(PartStatType.ACCEPTED), store.getStatus("uid-1", "BUGS.BUNNY@wb.com"));
+        assertEquals(Optional.empty(), store.getStatus("uid-1", "daffy@wb.com"));
+
+        store.applyTo(ev);
+
+        var unfolded = VCalendar.builder().event(ev).build().toString().replace("\r\n ", "");
+
+        assertTrue(unfolded.contains("ATTENDEE;ROLE=REQ-PARTICIPANT;PARTSTAT=ACCEPTED;RSVP=TRUE;CN=Bugs Bunny:mailto:Bugs.Bunny@wb.com\r\n"));
+        assertTrue(unfolded.contains("ATTENDEE;ROLE=REQ-PARTICIPANT;PARTSTAT=NEEDS-ACTION;RSVP=TRUE;CN=Daffy Duck:mailto:daffy@wb.com\r\n"));
+        assertEquals(fingerprint, ev.fingerprint());
+
+        //A reply to a newer SEQUENCE wins regardless of DTSTAMP
+        assertTrue(store.apply(Reply.parse(reply("uid-1", 1, "20221101T000000Z", "bugs.bunny@wb.com", PartStatType.DECLINED, MethodType.REPLY)).get(0)));
+        assertEquals(Optional.of(PartStatType.DECLINED), store.getStatus("uid-1", "bugs.bunny@wb.com"));
+    }
+
+    private static String reply(String uid, int sequence, String dtStamp, String email, PartStatType partStat, MethodType method) {
+        var ev = VEvent
+            .builder()
+            .uid(uid)
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30), TimeZone.getTimeZone("UTC"))
+            .attendee(email, email, partStat)
+            .build();
+
+        ev.setSequence(sequence);
+        ev.setDateTimeStamp(dtStamp);
+
+        return VCalendar.builder().method(method).event(ev).build().toString();
+    }
 }
@@ -0,0 +1,114 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class AttendeeIndexTest {
+    @Test
+    public void testBitmapOperations() {
+        var random = new Random(3);
+        //Sparse chunks are arrays, dense ones are bitmaps. Mix both.
+        int[] densities = {1, 20, 2000, 6000, 40000};
+
+        for (int round = 0; round < 20; ++round) {
+            var a = randomBits(random, densities[round % densities.length]);
+            var b = randomBits(random, densities[(round / densities.length) % densities.length]);
+            var bitmapA = toBitmap(a);
+            var bitmapB = toBitmap(b);
+
+            var and = (BitSet) a.clone();
+            var or = (BitSet) a.clone();
+
+            and.and(b);
+            or.or(b);
+
+            assertArrayEquals(a.stream().toArray(), bitmapA.toArray());
+            assertEquals(a.cardinality(), bitmapA.cardinality());
+            assertArrayEquals(and.stream().toArray(), bitmapA.and(bitmapB).toArray());
+            assertEquals(and.cardinality(), bitmapA.and(bitmapB).cardinality());
+            assertArrayEquals(or.stream().toArray(), bitmapA.or(bitmapB).toArray());
+            assertEquals(or.cardinality(), bitmapA.or(bitmapB).cardinality());
+            assertEquals(bitmapA.and(bitmapB), EventBitmap.and(bitmapB, bitmapA));
+
+            for (int i = 0; i < 1000; ++i) {
+                int ordinal = random.nextInt(300_000);
+
+                assertEquals(a.get(ordinal), bitmapA.contains(ordinal));
+            }
+        }
+
+        assertEquals(EventBitmap.of(1, 2, 3), EventBitmap.of(3, 1, 2, 2));
+        assertTrue(EventBitmap.of(1).and(EventBitmap.of(2)).isEmpty());
+        assertFalse(EventBitmap.of(70000).contains(70000 & 0xFFFF));
+    }
+
+    @Test
+    public void testIndexAndView() {
+        var tz = TimeZone.getTimeZone("America/New_York");
+        var cal = VCalendar.builder().method(MethodType.CANCEL).build();
+
+        for (int i = 0; i < 100; ++i) {
+            var builder = VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", i % 10 == 0 ? "Boss@example.com" : "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30).plusDays(i), tz)
+                .summary("Event " + i);
+
+            if (i % 2 == 0) {
+                builder.attendee("Bugs Bunny", "bugs.bunny@wb.com");
+            }
+            if (i % 3 == 0) {
+                builder.attendee("Daffy Duck", "Daffy@wb.com");
+            }
+
+            cal.addEvent(builder.build());
+        }
+
+        var index = AttendeeIndex.of(cal);
+        var both = index.getAttendeeEvents("bugs.bunny@wb.com").and(index.getAttendeeEvents("daffy@wb.com"));
+
+        assertEquals(17, both.cardinality());
+        assertEquals(67, index.getAttendeeEvents("bugs.bunny@wb.com").or(index.getAttendeeEvents("daffy@wb.com")).cardinality());
+        assertEquals(10, index.getOrganizerEvents("boss@example.com").cardinality());
+        assertEquals(0, index.getEvents("nobody@wb.com").cardinality());
+        assertEquals(4, index.getEmails().size());
+
+        var view = index.view(both);
+
+        assertEquals(MethodType.CANCEL, view.getMethod());
+        assertEquals(17, view.getEventList().size());
+        //The view holds the same events, not copies
+        assertTrue(view.getEventList().get(1) == cal.getEventList().get(6));
+        assertTrue(view.toString().contains("UID:uid-96\r\n"));
+        assertFalse(view.toString().contains("UID:uid-2\r\n"));
+    }
+
+    private static BitSet randomBits(Random random, int count) {
+        var bits = new BitSet();
+
+        for (int i = 0; i < count; ++i) {
+            //Three chunks of 65536
+            bits.set(random.nextInt(3 * 65536));
+        }
+
+        return bits;
+    }
+
+    private static EventBitmap toBitmap(BitSet bits) {
+        var builder = EventBitmap.builder();
+
+        bits.stream().forEach(builder::add);
+
+        return builder.build();
+    }
+}
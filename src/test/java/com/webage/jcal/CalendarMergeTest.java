@@ -0,0 +1,138 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CalendarMergeTest {
+    private static final String[] ZONES = {"America/New_York", "Asia/Kolkata", "UTC", "Pacific/Chatham"};
+
+    @Test
+    public void testMergeAndDeduplicate() {
+        var random = new Random(17);
+        var builder = CalendarMerge.builder();
+        var all = new ArrayList<VEvent>();
+
+        for (int s = 0; s < 8; ++s) {
+            var events = new ArrayList<VEvent>();
+
+            for (int i = 0, n = random.nextInt(200); i < n; ++i) {
+                var start = LocalDateTime.of(2024, 3, 1, 0, 0).plusMinutes(30 * random.nextInt(2000));
+                var eb = VEvent
+                    .builder()
+                    .uid("uid-" + random.nextInt(300))
+                    .organizer("abc", "xyz@example.com")
+                    .summary("Source " + s);
+
+                switch (random.nextInt(3)) {
+                case 0:
+                    eb.starts(start.toLocalDate());
+                    break;
+                case 1:
+                    eb.starts(start, OutlookTimeZone.TZ_INDIA_STANDARD_TIME);
+                    break;
+                default:
+                    eb.starts(start, ZONES[random.nextInt(ZONES.length)]);
+                }
+
+                var ev = eb.build();
+
+                ev.setSequence(random.nextInt(4));
+                events.add(ev);
+            }
+
+            events.sort(CalendarMerge.byStart());
+            all.addAll(events);
+            builder.source(events);
+        }
+
+        //The naive way: pick the winner of each UID, then sort everything
+        var winners = new HashMap<String, VEvent>();
+
+        for (var ev : all) {
+            var best = winners.get(ev.getUID());
+
+            if (best == null || ev.getSequence().get() > best.getSequence().get()) {
+                winners.put(ev.getUID(), ev);
+            }
+        }
+
+        var expected = new ArrayList<>(winners.values());
+
+        //Stable on the order of the sources, which all already follows
+        expected.sort((a, b) -> Integer.compare(all.indexOf(a), all.indexOf(b)));
+        expected.sort(CalendarMerge.byStart());
+
+        var merged = new ArrayList<VEvent>();
+
+        builder.build().forEach(merged::add);
+
+        assertEquals(expected.size(), merged.size());
+
+        for (int i = 0; i < expected.size(); ++i) {
+            assertTrue(expected.get(i) == merged.get(i));
+        }
+    }
+
+    @Test
+    public void testTimeZonesAndOutput() throws Exception {
+        var tz = OutlookTimeZone.TZ_EASTERN_STANDARD_TIME;
+        var work = VCalendar.builder().outlookVTimeZone(tz).build();
+        var home = VCalendar.builder().outlookVTimeZone(tz).outlookVTimeZone(OutlookTimeZone.TZ_INDIA_STANDARD_TIME).build();
+
+        work.addEvent(event("a", 1, LocalDateTime.of(2024, 5, 1, 9, 0), tz));
+        work.addEvent(event("b", 1, LocalDateTime.of(2024, 5, 2, 9, 0), tz));
+        //9:00 in New York is 18:30 in India. The later SEQUENCE of "b" wins.
+        home.addEvent(event("b", 2, LocalDateTime.of(2024, 5, 1, 18, 0), OutlookTimeZone.TZ_INDIA_STANDARD_TIME));
+        home.addEvent(event("c", 0, LocalDateTime.of(2024, 5, 1, 19, 0), OutlookTimeZone.TZ_INDIA_STANDARD_TIME));
+
+        var merge = CalendarMerge.builder().source(work).source(home).method(MethodType.CANCEL).build();
+        var cal = merge.toCalendar();
+        var out = new ByteArrayOutputStream();
+
+        merge.writeTo(out);
+
+        assertEquals(2, merge.getVTimeZones().size());
+        assertEquals(List.of("b", "a", "c"), List.of(
+            cal.getEventList().get(0).getUID(), cal.getEventList().get(1).getUID(), cal.getEventList().get(2).getUID()));
+        assertEquals(Integer.valueOf(2), cal.getEventList().get(0).getSequence().get());
+        assertEquals(cal.toString(), out.toString(StandardCharsets.UTF_8));
+
+        var unsorted = VCalendar.builder().build();
+
+        unsorted.addEvent(event("x", 0, LocalDateTime.of(2024, 5, 2, 9, 0), tz));
+        unsorted.addEvent(event("y", 0, LocalDateTime.of(2024, 5, 1, 9, 0), tz));
+
+        try {
+            CalendarMerge.builder().source(unsorted).build().toCalendar();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("UID y"));
+        }
+
+        //Day long events start at midnight UTC
+        var day = VEvent.builder().uid("d").organizer("xyz@example.com").starts(LocalDate.of(2024, 5, 1)).build();
+
+        assertTrue(CalendarMerge.byStart().compare(day, cal.getEventList().get(0)) < 0);
+    }
+
+    private static VEvent event(String uid, int sequence, LocalDateTime start, OutlookTimeZone tz) {
+        var ev = VEvent.builder().uid(uid).organizer("xyz@example.com").starts(start, tz).build();
+
+        ev.setSequence(sequence);
+        ev.setDateTimeStamp("20240101T000000Z");
+
+        return ev;
+    }
+}
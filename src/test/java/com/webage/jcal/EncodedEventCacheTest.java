@@ -0,0 +1,122 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+public class EncodedEventCacheTest {
+    private static VCalendar calendar(int count, String summary) {
+        var cal = VCalendar.builder().build();
+
+        for (int i = 0; i < count; ++i) {
+            var ev = VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2024, 1, 1, 9, 0).plusDays(i), "America/New_York")
+                .summary(summary + " " + i)
+                .description("Caf\u00e9 ".repeat(i % 40))
+                .build();
+
+            ev.setSequence(1);
+            cal.addEvent(ev);
+        }
+
+        return cal;
+    }
+
+    private static byte[] write(VCalendar cal, EncodedEventCache cache) throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        cal.writeTo(Channels.newChannel(out), cache);
+
+        return out.toByteArray();
+    }
+
+    private static byte[] write(VCalendar cal) throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        cal.writeTo(out);
+
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testHitsAndInvalidate() throws IOException {
+        var cache = EncodedEventCache.builder().build();
+        var cal = calendar(500, "Meeting");
+        var expected = write(cal);
+
+        assertArrayEquals(expected, write(cal, cache));
+        assertArrayEquals(expected, write(cal, cache));
+        assertEquals(500, cache.getMissCount());
+        assertEquals(500, cache.getHitCount());
+        assertEquals(500, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+        assertTrue(cache.getBytes() >= expected.length - 200);
+
+        //A new SEQUENCE is a new entry
+        var ev = cal.getEventList().get(7);
+
+        ev.setSummary("Moved");
+        ev.setSequence(2);
+        expected = write(cal);
+
+        assertArrayEquals(expected, write(cal, cache));
+        assertEquals(501, cache.getMissCount());
+
+        //A change that keeps the SEQUENCE needs invalidate()
+        ev.setSummary("Moved again");
+
+        //Both SEQUENCEs of the event go
+        cache.invalidate("uid-7");
+
+        assertEquals(499, cache.size());
+
+        expected = write(cal);
+
+        assertArrayEquals(expected, write(cal, cache));
+        assertEquals(502, cache.getMissCount());
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testBudget() throws IOException {
+        var cache = EncodedEventCache.builder().maxBytes(64 * 1024).blockSize(128).segments(4).build();
+        var cal = calendar(2000, "Meeting");
+        var expected = write(cal);
+
+        for (int i = 0; i < 3; ++i) {
+            assertArrayEquals(expected, write(cal, cache));
+            assertTrue(cache.getBytes() <= cache.getMaxBytes());
+        }
+
+        assertEquals(64 * 1024, cache.getMaxBytes());
+        assertTrue(cache.getEvictionCount() > 0);
+        assertTrue(cache.getBytes() > cache.getMaxBytes() / 2);
+
+        //An event larger than the staging buffer is not cached
+        var big = calendar(1, "Big");
+
+        big.getEventList().get(0).setDescription("x".repeat(100_000));
+        cache = EncodedEventCache.builder().maxBytes(4 * 1024 * 1024).segments(1).build();
+        expected = write(big);
+
+        assertArrayEquals(expected, write(big, cache));
+        assertArrayEquals(expected, write(big, cache));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,308 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventStoreTest {
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jcal-store");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testPutGetAndReopen() throws IOException {
+        var cal = VCalendar.builder().build();
+
+        try (var store = EventStore.builder().directory(dir).segmentSize(4096).open()) {
+            for (int i = 0; i < 200; ++i) {
+                var ev = event(i, "Version 1");
+
+                store.put(ev);
+            }
+            for (int i = 0; i < 200; ++i) {
+                var ev = event(i, "Version 2");
+
+                if (i % 4 == 0) {
+                    assertTrue(store.remove("uid-" + i));
+                } else if (i % 4 == 1) {
+                    store.put(ev);
+                }
+            }
+
+            assertFalse(store.remove("uid-0"));
+            assertEquals(150, store.size());
+        }
+
+        for (int i = 0; i < 200; ++i) {
+            if (i % 4 == 2 || i % 4 == 3) {
+                cal.addEvent(event(i, "Version 1"));
+            }
+        }
+        for (int i = 0; i < 200; ++i) {
+            if (i % 4 == 1) {
+                cal.addEvent(event(i, "Version 2"));
+            }
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(150, store.size());
+            assertTrue(store.get("uid-0").isEmpty());
+            assertEquals(text(event(5, "Version 2")), text(store.get("uid-5").get()));
+            assertEquals(cal.toString(), store.toCalendar().toString());
+
+            var out = new ByteArrayOutputStream();
+
+            store.writeTo(out);
+
+            assertEquals(cal.toString(), out.toString(StandardCharsets.UTF_8));
+
+            long before = logSize();
+
+            store.compact();
+
+            assertTrue(logSize() < before);
+            assertEquals(cal.toString(), store.toCalendar().toString());
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(150, store.size());
+            assertEquals(cal.toString(), store.toCalendar().toString());
+        }
+    }
+
+    @Test
+    public void testRecovery() throws IOException {
+        try (var store = EventStore.open(dir)) {
+            store.put(event(1, "First"));
+            store.put(event(2, "Second"));
+            store.remove("uid-1");
+        }
+
+        //A crash leaves the index marked dirty and half a record at the end of the log
+        try (var index = FileChannel.open(dir.resolve("uid.idx"), StandardOpenOption.WRITE)) {
+            index.write(ByteBuffer.allocate(4), 12);
+        }
+        try (var log = FileChannel.open(dir.resolve("00000001.log"), StandardOpenOption.APPEND)) {
+            log.write(ByteBuffer.wrap(new byte[] {0, 0, 1, 0, 1, 2, 3}));
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(1, store.size());
+            assertTrue(store.get("uid-1").isEmpty());
+            assertEquals("Second", store.get("uid-2").get().getSummary().get());
+
+            store.put(event(3, "Third"));
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(2, store.size());
+            assertEquals("Third", store.get("uid-3").get().getSummary().get());
+        }
+    }
+
+    @Test
+    public void testLargeAttachment() throws IOException {
+        var data = new byte[200_001];
+
+        new Random(7).nextBytes(data);
+
+        //The channel returns a few bytes at a time
+        Attachment.Source source = () -> new ReadableByteChannel() {
+            private int pos;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (pos == data.length) {
+                    return -1;
+                }
+
+                int n = Math.min(Math.min(dst.remaining(), 1000), data.length - pos);
+
+                dst.put(data, pos, n);
+                pos += n;
+
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDate.of(2022, 11, 2))
+            .attach(Attachment.inline(source, "application/octet-stream", "data.bin"))
+            .build();
+
+        ev.setDateTimeStamp("20221101T000000Z");
+
+        try (var store = EventStore.open(dir)) {
+            store.put(ev);
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(text(ev), text(store.get("uid-1").get()));
+        }
+    }
+
+    @Test
+    public void testInterruptedCompaction() throws IOException {
+        var old = Files.createDirectory(dir.resolve("old"));
+        int first = 0;
+
+        try (var store = EventStore.builder().directory(dir).segmentSize(4096).open()) {
+            for (int i = 0; i < 100; ++i) {
+                store.put(event(i, "Version 1"));
+            }
+            for (int i = 0; i < 50; ++i) {
+                store.put(event(i, "Version 2"));
+            }
+            for (int i = 50; i < 60; ++i) {
+                store.remove("uid-" + i);
+            }
+        }
+
+        for (var file : logFiles()) {
+            Files.copy(file, old.resolve(file.getFileName()));
+            first = Math.max(first, Integer.parseInt(file.getFileName().toString().replace(".log", "")) + 1);
+        }
+
+        String expected;
+
+        try (var store = EventStore.open(dir)) {
+            store.compact();
+            expected = store.toCalendar().toString();
+        }
+
+        //A crash after the copies are on disk leaves the old segments behind
+        for (var file : logFiles(old)) {
+            Files.copy(file, dir.resolve(file.getFileName()));
+        }
+
+        long size = logSize();
+
+        //Without the marker the copies may be partial, so everything is kept
+        try (var store = EventStore.open(dir)) {
+            assertEquals(90, store.size());
+            assertEquals(expected, store.toCalendar().toString());
+        }
+
+        assertEquals(size, logSize());
+
+        Files.writeString(dir.resolve("compact.id"), Integer.toString(first));
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(90, store.size());
+            assertEquals(expected, store.toCalendar().toString());
+        }
+
+        assertFalse(Files.exists(dir.resolve("compact.id")));
+
+        for (var file : logFiles(old)) {
+            assertFalse(Files.exists(dir.resolve(file.getFileName())));
+        }
+
+        try (var store = EventStore.open(dir)) {
+            assertEquals(expected, store.toCalendar().toString());
+        }
+    }
+
+    private List<Path> logFiles() throws IOException {
+        return logFiles(dir);
+    }
+
+    private static List<Path> logFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.toString().endsWith(".log")).collect(Collectors.toList());
+        }
+    }
+
+    private long logSize() throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(p -> p.toString().endsWith(".log")).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private static String text(VEvent ev) {
+        var sb = new StringBuilder();
+
+        ev.output(sb);
+
+        return sb.toString();
+    }
+
+    private static VEvent event(int i, String summary) {
+        var data = ("attachment " + i).getBytes(StandardCharsets.UTF_8);
+        var builder = VEvent
+            .builder()
+            .uid("uid-" + i)
+            .organizer("abc", "xyz@example.com")
+            .summary(summary)
+            .description("Line one\nLine two, \u00E9")
+            .attendee("Bugs Bunny", "bugs.bunny@wb.com", PartStatType.ACCEPTED)
+            .attendee("Daffy Duck", "daffy@wb.com")
+            .attach("https://example.com/agenda")
+            .attach(Attachment.inline(() -> Channels.newChannel(new ByteArrayInputStream(data)), "text/plain", "notes.txt"));
+
+        if (i % 2 == 0) {
+            builder
+                .starts(LocalDateTime.of(2022, 11, 2, 9, 30), TimeZone.getTimeZone("America/New_York"))
+                .ends(LocalDateTime.of(2022, 11, 2, 10, 30), TimeZone.getTimeZone("America/New_York"))
+                .repeats(FrequencyType.WEEKLY)
+                .byDay(DayOfWeek.MONDAY)
+                .repeatCount(i + 1)
+                .location("Room " + i, "https://example.com/rooms/" + i);
+        } else {
+            builder.starts(LocalDate.of(2022, 11, 2));
+        }
+
+        var ev = builder.build();
+
+        ev.setDateTimeStamp("20221101T000000Z");
+        ev.setSequence(i);
+
+        return ev;
+    }
+}
@@ -0,0 +1,159 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FreeSlotFinderTest {
+    private static final String NY = "America/New_York";
+
+    @Test
+    public void testCommonSlots() {
+        var finder = FreeSlotFinder.builder()
+            .timeZone(NY)
+            .workingHours(LocalTime.of(9, 0), LocalTime.of(17, 0))
+            .step(Duration.ofMinutes(30))
+            .build();
+        //Monday 6 May 2024
+        var monday = LocalDate.of(2024, 5, 6);
+        var bugs = List.of(
+            event(monday.atTime(9, 0), monday.atTime(10, 15), NY),
+            //12:00 to 13:00 in New York
+            event(monday.atTime(17, 0), monday.atTime(18, 0), "Europe/London"));
+        var daffy = List.of(
+            event(monday.atTime(10, 0), monday.atTime(12, 0), NY),
+            day(monday.plusDays(1)));
+        var weekly = VEvent
+            .builder()
+            .uid("w")
+            .organizer("xyz@example.com")
+            .starts(monday.minusWeeks(4).atTime(14, 30), NY)
+            .ends(monday.minusWeeks(4).atTime(16, 45), NY)
+            .repeats(FrequencyType.WEEKLY)
+            .byDay(DayOfWeek.MONDAY)
+            .build();
+        var cancelled = event(monday.atTime(13, 0), monday.atTime(14, 0), NY);
+
+        cancelled.setStatus(StatusType.CANCELLED);
+
+        var porky = List.of(weekly, cancelled);
+        var slots = finder.find(List.of(bugs, daffy, porky), monday.atStartOfDay(), monday.plusWeeks(1).atStartOfDay(), Duration.ofMinutes(45), 3);
+
+        assertEquals(List.of(
+            //The next step after 13:45 is 14:00, too late before 14:30. 16:45 to 17:00 is too short.
+            zoned(monday.atTime(13, 0)),
+            //Tuesday is taken by a day long event
+            zoned(monday.plusDays(2).atTime(9, 0)),
+            zoned(monday.plusDays(2).atTime(10, 0))), starts(slots));
+        assertEquals(zoned(monday.atTime(13, 45)), slots.get(0).getEnd());
+
+        //A window that ends early cuts the working day short
+        slots = finder.find(List.of(bugs, daffy, porky), monday.atStartOfDay(), monday.atTime(13, 40), Duration.ofMinutes(30), 5);
+
+        assertEquals(List.of(zoned(monday.atTime(13, 0))), starts(slots));
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        var random = new Random(5);
+        var cache = OccurrenceCache.builder().build();
+        var finder = FreeSlotFinder.builder().timeZone(NY).step(Duration.ofMinutes(5)).occurrenceCache(cache).build();
+        var from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        var to = LocalDateTime.of(2024, 4, 1, 0, 0);
+        var people = new ArrayList<List<VEvent>>();
+
+        for (int p = 0; p < 60; ++p) {
+            var events = new ArrayList<VEvent>();
+
+            for (int i = 0; i < 10; ++i) {
+                var start = from.plusMinutes(5 * random.nextInt(31 * 24 * 12));
+
+                events.add(event(start, start.plusMinutes(5 * (1 + random.nextInt(12))), random.nextBoolean() ? NY : "Asia/Kolkata"));
+            }
+
+            people.add(events);
+        }
+
+        var length = Duration.ofMinutes(20);
+        var slots = finder.find(people, from, to, length, 1000);
+        var expected = new ArrayList<ZonedDateTime>();
+        var zone = ZoneId.of(NY);
+
+        //Try every step of every working day
+        for (var day = from.toLocalDate(); day.isBefore(to.toLocalDate()); day = day.plusDays(1)) {
+            if (day.getDayOfWeek().getValue() > 5) {
+                continue;
+            }
+
+            var t = day.atTime(9, 0).atZone(zone);
+
+            while (!t.plus(length).isAfter(day.atTime(17, 0).atZone(zone))) {
+                if (free(people, t, t.plus(length))) {
+                    expected.add(t);
+                    t = t.plus(length);
+                } else {
+                    t = t.plusMinutes(5);
+                }
+            }
+        }
+
+        assertTrue(expected.size() > 100);
+        assertEquals(expected, starts(slots));
+        assertEquals(expected.subList(0, 7), starts(finder.find(people, from, to, length, 7)));
+    }
+
+    private static boolean free(List<? extends List<VEvent>> people, ZonedDateTime start, ZonedDateTime end) {
+        for (var events : people) {
+            for (var ev : events) {
+                var tz = ZoneId.of(ev.getStartTimeZoneId().get());
+                var evStart = ev.getStartLocalDateTime().atZone(tz);
+                var evEnd = evStart.plus(Duration.between(ev.getStartLocalDateTime(), endOf(ev)));
+
+                if (evStart.isBefore(end) && evEnd.isAfter(start)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static LocalDateTime endOf(VEvent ev) {
+        var s = ev.getEndDateTime().get();
+
+        return LocalDateTime.parse(s.substring(s.indexOf(':') + 1), DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+    }
+
+    private static List<ZonedDateTime> starts(List<FreeSlotFinder.Slot> slots) {
+        var result = new ArrayList<ZonedDateTime>();
+
+        slots.forEach(s -> result.add(s.getStart()));
+
+        return result;
+    }
+
+    private static ZonedDateTime zoned(LocalDateTime t) {
+        return t.atZone(ZoneId.of(NY));
+    }
+
+    private static VEvent event(LocalDateTime start, LocalDateTime end, String tzId) {
+        return VEvent.builder().uid("uid").organizer("xyz@example.com").starts(start, tzId).ends(end, tzId).build();
+    }
+
+    private static VEvent day(LocalDate date) {
+        return VEvent.builder().uid("uid").organizer("xyz@example.com").starts(date).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.webage.jcal.soak.CalendarGenerator;
+
+public class IndexedCalendarTest {
+    @Test
+    public void testRoundTrip() {
+        var cal = CalendarGenerator.builder().seed(11).events(300).maxAttendees(40).build().calendar();
+        var bytes = cal.toUTF8();
+        var indexed = IndexedCalendar.of(Arrays.copyOfRange(bytes.array(), bytes.position(), bytes.limit()));
+
+        assertEquals(cal.getEventList().size(), indexed.size());
+        assertEquals(cal.getVTimeZones(), indexed.getVTimeZones());
+
+        var copy = indexed.toCalendar();
+
+        copy.setMethod(cal.getMethod());
+        copy.setProductId(cal.getProductId());
+        //A fold can split a surrogate pair, which UTF-8 turns into two '?'. So compare with the bytes.
+        assertEquals(StandardCharsets.UTF_8.decode(bytes).toString(), copy.toString());
+
+        for (int i = 0; i < indexed.size(); ++i) {
+            var ev = cal.getEventList().get(i);
+            var lazy = indexed.getEvent(i);
+
+            assertEquals(ev.getUID(), lazy.getUID());
+            assertEquals(ev.getSequence(), lazy.getSequence());
+            assertEquals(ev.getStartLocalDateTime(), lazy.getStartLocalDateTime().get());
+            assertEquals(ev.getStartTimeZoneId(), lazy.getStartTimeZoneId());
+            assertEquals(ev.isAllDay(), lazy.isAllDay());
+            assertEquals(ev.getSummary(), lazy.getText("SUMMARY"));
+            assertEquals(ev.getAttendeeList().size(), lazy.getValues("ATTENDEE").size());
+        }
+    }
+
+    @Test
+    public void testFoldingAndNesting() {
+        var ics = "BEGIN:VCALENDAR\n"
+            + "VERSION:2.0\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:a\r\n"
+            + "DTSTART;TZID=Europe/Paris:20240506T\r\n"
+            + " 093000\r\n"
+            //A folded line may split the bytes of a character
+            + "SUMMARY:Caf\u00c3\r\n"
+            + "\t\u00a9\\, ol\u00c3\u00a9\r\n"
+            + "BEGIN:VALARM\r\n"
+            + "SUMMARY:Not the event\r\n"
+            + "END:VALARM\r\n"
+            + "DTEND:20240506T100000Z\r\n"
+            + "END:VEVENT\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:b\r\n"
+            + "DTSTART;VALUE=DATE:20240507\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+        //The text above is ISO-8859-1 so that each char is one byte
+        var indexed = IndexedCalendar.of(ics.getBytes(StandardCharsets.ISO_8859_1));
+        var a = indexed.getEvent(0);
+
+        assertEquals(2, indexed.size());
+        assertEquals(Optional.of(LocalDateTime.of(2024, 5, 6, 9, 30)), a.getStartLocalDateTime());
+        assertEquals(Optional.of("Europe/Paris"), a.getStartTimeZoneId());
+        assertEquals(Optional.of("Caf\u00e9, ol\u00e9"), a.getText("SUMMARY"));
+        assertEquals(List.of("Caf\u00e9\\, ol\u00e9"), a.getValues("summary"));
+        assertEquals(Optional.of("UTC"), a.getEndTimeZoneId());
+        assertEquals(Optional.empty(), a.getSequence());
+
+        var b = indexed.getEvent(1).toVEvent();
+
+        assertEquals("b", b.getUID());
+        assertTrue(b.isAllDay());
+        assertFalse(indexed.getEvent(0).isAllDay());
+
+        try {
+            IndexedCalendar.of("BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\n".getBytes(StandardCharsets.UTF_8));
+            fail();
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void testByteOrderMark() {
+        var ics = "\ufeffBEGIN:VCALENDAR\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:a\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+        var indexed = IndexedCalendar.of(ics.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, indexed.size());
+        assertEquals("a", indexed.getEvent(0).getUID());
+    }
+}
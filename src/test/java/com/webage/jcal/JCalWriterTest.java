@@ -0,0 +1,144 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class JCalWriterTest {
+    @Test
+    public void testJCal() throws Exception {
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("Bugs Bunny", "bugs@wb.com")
+            .starts(LocalDateTime.of(2024, 5, 6, 9, 30), "America/New_York")
+            .repeats(FrequencyType.WEEKLY)
+            .byDay(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
+            .repeatCount(10)
+            .summary("Caf\u00e9, \"lunch\"\nand talk")
+            .build();
+
+        ev.setDateTimeStamp("20240101T000000Z");
+        ev.setSequence(3);
+
+        var cal = VCalendar.builder().event(ev).build();
+        var json = JCalWriter.toJson(cal);
+
+        assertEquals("[\"vcalendar\",[[\"prodid\",{},\"text\",\"jcal\"],[\"version\",{},\"text\",\"2.0\"],"
+            + "[\"calscale\",{},\"text\",\"GREGORIAN\"],[\"method\",{},\"text\",\"REQUEST\"]],"
+            + "[[\"vevent\",["
+            + "[\"dtstart\",{\"tzid\":\"America/New_York\"},\"date-time\",\"2024-05-06T09:30:00\"],"
+            + "[\"rrule\",{},\"recur\",{\"freq\":\"WEEKLY\",\"count\":10,\"byday\":[\"MO\",\"FR\"]}],"
+            + "[\"dtstamp\",{},\"date-time\",\"2024-01-01T00:00:00Z\"],"
+            + "[\"organizer\",{\"cn\":\"Bugs Bunny\"},\"cal-address\",\"mailto:bugs@wb.com\"],"
+            + "[\"uid\",{},\"text\",\"uid-1\"],"
+            + "[\"sequence\",{},\"integer\",3],"
+            + "[\"status\",{},\"text\",\"CONFIRMED\"],"
+            + "[\"summary\",{},\"text\",\"Caf\u00e9, \\\"lunch\\\"\\nand talk\"]"
+            + "],[]]]]", json);
+
+        var bytes = new ByteArrayOutputStream();
+
+        JCalWriter.write(cal, bytes);
+        assertEquals(json, bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSpecialCharacters() throws Exception {
+        var ev = VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("Doe: John; Lead, \"Ann\"", "john@example.com")
+            .starts(LocalDateTime.of(2024, 5, 6, 9, 30), "America/New_York")
+            .attendee("Smith, Ann: QA; \\Team", "ann@example.com")
+            .summary("a;b,c\\d")
+            .attach(Attachment.inline(() -> Channels.newChannel(new ByteArrayInputStream("hello".getBytes(StandardCharsets.US_ASCII))), "text/plain", "a;b.txt"))
+            .build();
+
+        ev.setDateTimeStamp("20240101T000000Z");
+
+        var cal = VCalendar.builder().event(ev).build();
+        var json = JCalWriter.toJson(cal);
+
+        assertTrue(json, json.contains("[\"organizer\",{\"cn\":\"Doe: John; Lead, \\\"Ann\\\"\"},\"cal-address\",\"mailto:john@example.com\"]"));
+        assertTrue(json, json.contains("[\"attendee\",{\"role\":\"REQ-PARTICIPANT\",\"partstat\":\"NEEDS-ACTION\",\"rsvp\":\"TRUE\","
+            + "\"cn\":\"Smith, Ann: QA; \\\\Team\"},\"cal-address\",\"mailto:ann@example.com\"]"));
+        assertTrue(json, json.contains("[\"summary\",{},\"text\",\"a;b,c\\\\d\"]"));
+        assertTrue(json, json.contains("[\"attach\",{\"fmttype\":\"text/plain\",\"encoding\":\"BASE64\",\"x-filename\":\"a;b.txt\"},\"binary\",\"aGVsbG8=\"]"));
+
+        var factory = DocumentBuilderFactory.newInstance();
+
+        factory.setNamespaceAware(true);
+
+        var doc = factory.newDocumentBuilder().parse(new ByteArrayInputStream(XCalWriter.toXml(cal).getBytes(StandardCharsets.UTF_8)));
+        var organizer = (Element) doc.getElementsByTagName("organizer").item(0);
+        var attendee = (Element) doc.getElementsByTagName("attendee").item(0);
+
+        assertEquals("Doe: John; Lead, \"Ann\"", organizer.getElementsByTagName("cn").item(0).getTextContent());
+        assertEquals("mailto:john@example.com", organizer.getElementsByTagName("cal-address").item(0).getTextContent());
+        assertEquals("Smith, Ann: QA; \\Team", attendee.getElementsByTagName("cn").item(0).getTextContent());
+        assertEquals("a;b,c\\d", doc.getElementsByTagName("summary").item(0).getTextContent());
+    }
+
+    @Test
+    public void testEmptyNumber() {
+        var cal = VCalendar.builder()
+            .vTimeZone("BEGIN:VTIMEZONE\r\nTZID:Test\r\nPRIORITY:\r\nX-RULE;VALUE=RECUR:FREQ=DAILY;COUNT=\r\nEND:VTIMEZONE\r\n")
+            .build();
+        var json = JCalWriter.toJson(cal);
+
+        assertTrue(json, json.contains("[\"priority\",{},\"integer\",\"\"]"));
+        assertTrue(json, json.contains("[\"x-rule\",{},\"recur\",{\"freq\":\"DAILY\",\"count\":\"\"}]"));
+    }
+
+    @Test
+    public void testXCal() throws Exception {
+        var cal = VCalendar.builder().outlookVTimeZone(OutlookTimeZone.TZ_EASTERN_STANDARD_TIME).build();
+
+        for (int i = 0; i < 500; ++i) {
+            cal.addEvent(VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("xyz@example.com")
+                .starts(LocalDateTime.of(2024, 5, 6, 9, 30).plusDays(i), OutlookTimeZone.TZ_EASTERN_STANDARD_TIME)
+                .attendee("A & B <team>", "team@example.com")
+                .location("Room 1", "https://example.com/?a=1&b=2")
+                .build());
+        }
+
+        var bytes = new ByteArrayOutputStream();
+
+        XCalWriter.write(cal, bytes);
+        assertEquals(XCalWriter.toXml(cal), bytes.toString(StandardCharsets.UTF_8));
+
+        var factory = DocumentBuilderFactory.newInstance();
+
+        factory.setNamespaceAware(true);
+
+        var doc = factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals("icalendar", doc.getDocumentElement().getLocalName());
+        assertEquals(500, doc.getElementsByTagName("vevent").getLength());
+        assertEquals(1, doc.getElementsByTagName("vtimezone").getLength());
+
+        var attendee = (Element) doc.getElementsByTagName("attendee").item(0);
+        var cn = attendee.getElementsByTagName("cn").item(0);
+
+        assertEquals("A & B <team>", cn.getTextContent());
+
+        var offset = doc.getElementsByTagName("tzoffsetto").item(0).getTextContent();
+
+        assertTrue(offset, offset.matches("[-+]\\d\\d:\\d\\d"));
+    }
+}
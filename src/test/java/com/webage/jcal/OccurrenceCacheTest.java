@@ -0,0 +1,89 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Test;
+
+public class OccurrenceCacheTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    public void testHitsAndChanges() {
+        var cache = OccurrenceCache.builder().build();
+        var ev = weekly("a");
+        var expected = ev.getRecurrence().get().between(FROM, TO);
+
+        assertEquals(expected, cache.between(ev, FROM, TO));
+        assertEquals(expected, cache.between(ev, FROM, TO));
+        //A copy of the event repeats the same way and shares the entry
+        assertEquals(expected, cache.between(weekly("b"), FROM, TO));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(expected.size(), cache.getWeight());
+
+        //A changed event is not answered from the old entry
+        ev.setRepeatCount(3);
+
+        assertEquals(3, cache.between(ev, FROM, TO).size());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+
+        cache.invalidate(ev);
+
+        assertEquals(1, cache.size());
+        assertEquals(expected.size(), cache.getWeight());
+
+        //Events that do not repeat are not cached
+        var once = VEvent.builder().uid("c").organizer("xyz@example.com").starts(START, "UTC").build();
+
+        assertEquals(List.of(START), cache.between(once, FROM, TO));
+        assertEquals(List.of(), cache.between(once, TO, TO.plusDays(1)));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictByWeight() {
+        var cache = OccurrenceCache.builder().maxOccurrences(100).segments(1).build();
+        var ev = weekly("a");
+
+        //Each quarter has 13 or 14 Mondays
+        for (int i = 0; i < 20; ++i) {
+            var from = FROM.plusMonths(3 * i);
+
+            cache.between(ev, from, from.plusMonths(3));
+            assertTrue(cache.getWeight() <= 100);
+        }
+
+        assertTrue(cache.size() < 20);
+
+        //The most recent window is still there
+        var last = FROM.plusMonths(57);
+
+        cache.between(ev, last, last.plusMonths(3));
+        assertEquals(20, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        //A window bigger than the cache is computed but not kept
+        cache.clear();
+        assertEquals(105, cache.between(ev, FROM, TO.plusYears(1)).size());
+        assertEquals(0, cache.size());
+    }
+
+    private static VEvent weekly(String uid) {
+        return VEvent
+            .builder()
+            .uid(uid)
+            .organizer("xyz@example.com")
+            .starts(START, "America/New_York")
+            .repeats(FrequencyType.WEEKLY)
+            .byDay(DayOfWeek.MONDAY)
+            .build();
+    }
+}
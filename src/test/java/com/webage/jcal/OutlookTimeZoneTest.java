@@ -0,0 +1,119 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+public class OutlookTimeZoneTest {
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2034-01-01T00:00:00Z");
+    private static final List<String> DAYS = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+    //A STANDARD or DAYLIGHT part of a VTIMEZONE
+    private static class Part {
+        LocalTime time;
+        int month;
+        int week;
+        DayOfWeek day;
+        ZoneOffset from;
+        ZoneOffset to;
+    }
+
+    private static List<Part> parse(String vTimeZone) {
+        var result = new ArrayList<Part>();
+        Part part = null;
+
+        for (var line : vTimeZone.split("\r\n")) {
+            if (line.equals("BEGIN:STANDARD") || line.equals("BEGIN:DAYLIGHT")) {
+                part = new Part();
+                result.add(part);
+            } else if (line.startsWith("DTSTART:")) {
+                part.time = LocalTime.parse(line.substring(line.lastIndexOf('T') + 1), DateTimeFormatter.ofPattern("HHmmss"));
+            } else if (line.startsWith("RRULE:")) {
+                for (var rulePart : line.substring(6).split(";")) {
+                    if (rulePart.startsWith("BYMONTH=")) {
+                        part.month = Integer.parseInt(rulePart.substring(8));
+                    } else if (rulePart.startsWith("BYDAY=")) {
+                        var day = rulePart.substring(6);
+
+                        part.week = day.length() > 2 ? Integer.parseInt(day.substring(0, day.length() - 2)) : 1;
+                        part.day = DayOfWeek.of(DAYS.indexOf(day.substring(day.length() - 2)) + 1);
+                    } else {
+                        assertEquals("FREQ=YEARLY", rulePart);
+                    }
+                }
+            } else if (line.startsWith("TZOFFSETFROM:")) {
+                part.from = ZoneOffset.of(line.substring(13));
+            } else if (line.startsWith("TZOFFSETTO:")) {
+                part.to = ZoneOffset.of(line.substring(11));
+            }
+        }
+
+        return result;
+    }
+
+    //The offset of the latest change at or before t
+    private static ZoneOffset offsetAt(List<Part> parts, Instant t) {
+        int year = t.atOffset(ZoneOffset.UTC).getYear();
+        Instant latest = null;
+        ZoneOffset result = null;
+
+        for (int y = year - 1; y <= year; ++y) {
+            for (var part : parts) {
+                var month = YearMonth.of(y, part.month);
+                var date = part.week > 0
+                    ? month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(part.week, part.day))
+                    : month.atEndOfMonth().with(TemporalAdjusters.dayOfWeekInMonth(part.week, part.day));
+                var change = LocalDateTime.of(date, part.time).toInstant(part.from);
+
+                if (!change.isAfter(t) && (latest == null || change.isAfter(latest))) {
+                    latest = change;
+                    result = part.to;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testRulesMatchTzdata() {
+        for (var outlookZone : OutlookTimeZone.values()) {
+            var parts = parse(outlookZone.toVTimeZone());
+            var rules = ZoneId.of(outlookZone.getIANATimeZone()).getRules();
+
+            if (parts.size() == 1 && parts.get(0).month == 0) {
+                //A fixed offset must be the one in effect most of the time
+                var hours = new HashMap<ZoneOffset, Integer>();
+
+                for (var t = FROM; t.isBefore(TO); t = t.plusSeconds(3600)) {
+                    hours.merge(rules.getOffset(t), 1, Integer::sum);
+                }
+
+                int matching = hours.getOrDefault(parts.get(0).to, 0);
+
+                assertTrue(outlookZone.toString(), hours.values().stream().allMatch(n -> n <= matching));
+
+                continue;
+            }
+
+            for (var t = FROM; t.isBefore(TO); t = t.plusSeconds(3600)) {
+                assertEquals(outlookZone + " at " + t, rules.getOffset(t), offsetAt(parts, t));
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.webage.jcal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class RecurrenceTest {
+    private static final TimeZone tz = TimeZone.getTimeZone("America/New_York");
+
+    private VEvent.Builder event(LocalDateTime start) {
+        return VEvent
+            .builder()
+            .uid("uid-1")
+            .organizer("abc", "xyz@example.com")
+            .starts(start, tz);
+    }
+
+    private static List<LocalDateTime> list(Iterable<LocalDateTime> it, int max) {
+        var result = new ArrayList<LocalDateTime>();
+
+        for (var dt : it) {
+            if (result.size() == max) {
+                break;
+            }
+
+            result.add(dt);
+        }
+
+        return result;
+    }
+
+    private static LocalDateTime at(int y, int m, int d) {
+        return LocalDateTime.of(y, m, d, 9, 0);
+    }
+
+    @Test
+    public void testSecondTuesdayMonthly() {
+        var ev = event(at(2024, 1, 9))
+            .repeats(FrequencyType.MONTHLY)
+            .byDay(WeekdayNum.of(2, DayOfWeek.TUESDAY))
+            .repeatCount(5)
+            .build();
+
+        var str = VCalendar.builder().event(ev).build().toString();
+
+        assertTrue(str.contains("RRULE:FREQ=MONTHLY;COUNT=5;BYDAY=2TU\r\n"));
+        assertEquals(List.of(at(2024, 1, 9), at(2024, 2, 13), at(2024, 3, 12), at(2024, 4, 9), at(2024, 5, 14)),
+            list(ev.getRecurrence().get(), 10));
+    }
+
+    @Test
+    public void testStartNotInRule() {
+        //RFC 5545: DTSTART is the first occurrence and counts toward COUNT
+        var ev = event(at(2024, 1, 1))
+            .repeats(FrequencyType.MONTHLY)
+            .byDay(WeekdayNum.of(2, DayOfWeek.TUESDAY))
+            .repeatCount(3)
+            .build();
+        var r = ev.getRecurrence().get();
+
+        assertEquals(List.of(at(2024, 1, 1), at(2024, 1, 9), at(2024, 2, 13)), list(r, 10));
+        assertEquals(3, r.count().getAsLong());
+        assertEquals(at(2024, 2, 13), r.last().get());
+        assertEquals(List.of(at(2024, 1, 1)), r.between(at(2024, 1, 1), at(2024, 1, 2)));
+        assertEquals(at(2024, 1, 9), r.firstOnOrAfter(at(2024, 1, 2)).get());
+
+        ev = event(at(2024, 1, 1))
+            .repeats(FrequencyType.MONTHLY)
+            .byDay(WeekdayNum.of(2, DayOfWeek.TUESDAY))
+            .build();
+        r = ev.getRecurrence().get();
+
+        assertEquals(List.of(at(2024, 1, 1), at(2024, 1, 9), at(2024, 2, 13)), list(r, 3));
+        assertEquals(List.of(at(2024, 1, 1), at(2024, 1, 9)), r.between(at(2023, 12, 1), at(2024, 2, 1)));
+        assertEquals(List.of(at(2024, 3, 12)), r.between(at(2024, 3, 1), at(2024, 4, 1)));
+    }
+
+    @Test
+    public void testLastWeekdayOfQuarter() {
+        var ev = event(at(2024, 3, 29))
+            .repeats(FrequencyType.MONTHLY)
+            .repeatInterval(3)
+            .byDay(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)
+            .bySetPos(-1)
+            .build();
+
+        assertEquals(List.of(at(2024, 3, 29), at(2024, 6, 28), at(2024, 9, 30), at(2024, 12, 31), at(2025, 3, 31)),
+            list(ev.getRecurrence().get(), 5));
+    }
+
+    @Test
+    public void testFridayThe13th() {
+        var ev = event(at(1998, 2, 13))
+            .repeats(FrequencyType.MONTHLY)
+            .byDay(DayOfWeek.FRIDAY)
+            .byMonthDay(13)
+            .build();
+
+        assertEquals(List.of(at(1998, 2, 13), at(1998, 3, 13), at(1998, 11, 13), at(1999, 8, 13), at(2000, 10, 13)),
+            list(ev.getRecurrence().get(), 5));
+    }
+
+    @Test
+    public void testYearlyByWeekNo() {
+        var ev = event(at(1997, 5, 12))
+            .repeats(FrequencyType.YEARLY)
+            .byWeekNo(20)
+            .byDay(DayOfWeek.MONDAY)
+            .build();
+
+        assertEquals(List.of(at(1997, 5, 12), at(1998, 5, 11), at(1999, 5, 17)),
+            list(ev.getRecurrence().get(), 3));
+    }
+
+    @Test
+    public void testYearlyNthWeekday() {
+        var ev = event(at(1997, 5, 19))
+            .repeats(FrequencyType.YEARLY)
+            .byDay(WeekdayNum.of(20, DayOfWeek.MONDAY))
+            .build();
+
+        assertEquals(List.of(at(1997, 5, 19), at(1998, 5, 18), at(1999, 5, 17)),
+            list(ev.getRecurrence().get(), 3));
+
+        ev = event(at(2022, 10, 30))
+            .repeats(FrequencyType.YEARLY)
+            .byMonth(10)
+            .byDay(WeekdayNum.of(-1, DayOfWeek.SUNDAY))
+            .build();
+
+        assertEquals(List.of(at(2022, 10, 30), at(2023, 10, 29), at(2024, 10, 27)),
+            list(ev.getRecurrence().get(), 3));
+    }
+
+    @Test
+    public void testWeekStart() {
+        var ev = event(at(1997, 8, 5))
+            .repeats(FrequencyType.WEEKLY)
+            .repeatInterval(2)
+            .repeatCount(4)
+            .byDay(DayOfWeek.TUESDAY, DayOfWeek.SUNDAY)
+            .weekStart(DayOfWeek.MONDAY)
+            .build();
+
+        assertEquals(List.of(at(1997, 8, 5), at(1997, 8, 10), at(1997, 8, 19), at(1997, 8, 24)),
+            list(ev.getRecurrence().get(), 10));
+
+        ev.setRepeatWeekStart(DayOfWeek.SUNDAY);
+
+        assertEquals(List.of(at(1997, 8, 5), at(1997, 8, 17), at(1997, 8, 19), at(1997, 8, 31)),
+            list(ev.getRecurrence().get(), 10));
+        assertTrue(VCalendar.builder().event(ev).build().toString()
+            .contains("RRULE:FREQ=WEEKLY;COUNT=4;INTERVAL=2;BYDAY=TU,SU;WKST=SU\r\n"));
+    }
+
+    @Test
+    public void testUntilAndWindow() {
+        var ev = event(at(2022, 4, 24))
+            .repeats(FrequencyType.DAILY)
+            .until(LocalDateTime.of(2022, 4, 27, 0, 0), tz)
+            .build();
+
+        assertEquals(List.of(at(2022, 4, 24), at(2022, 4, 25), at(2022, 4, 26)),
+            list(ev.getRecurrence().get(), 10));
+
+        ev = event(at(2015, 1, 5))
+            .repeats(FrequencyType.WEEKLY)
+            .byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+            .build();
+
+        var window = ev.getRecurrence().get().between(at(2026, 1, 1), at(2027, 1, 1));
+
+        assertEquals(156, window.size());
+        assertEquals(at(2026, 1, 2), window.get(0));
+    }
+
+    @Test
+    public void testClosedForm() {
+        var ev = event(at(2015, 3, 2))
+            .repeats(FrequencyType.DAILY)
+            .build();
+        var r = ev.getRecurrence().get();
+
+        assertEquals(at(2026, 1, 1), r.firstOnOrAfter(LocalDateTime.of(2026, 1, 1, 0, 0)).get());
+        assertEquals(at(2026, 1, 2), r.firstOnOrAfter(LocalDateTime.of(2026, 1, 1, 9, 1)).get());
+        assertEquals(365, r.countBetween(at(2026, 1, 1), at(2027, 1, 1)));
+        assertTrue(r.last().isEmpty());
+        assertTrue(r.count().isEmpty());
+
+        ev = event(at(2015, 3, 2))
+            .repeats(FrequencyType.WEEKLY)
+            .repeatInterval(2)
+            .until(LocalDateTime.of(2026, 6, 1, 0, 0), tz)
+            .build();
+        r = ev.getRecurrence().get();
+
+        var all = list(r, 10000);
+
+        assertEquals(all.size(), r.count().getAsLong());
+        assertEquals(all.get(all.size() - 1), r.last().get());
+        assertEquals(at(2026, 5, 25), r.last().get());
+        assertEquals(0, r.countBetween(at(2026, 6, 1), at(2030, 1, 1)));
+        assertTrue(r.firstOnOrAfter(at(2026, 6, 1)).isEmpty());
+
+        ev = event(at(2020, 1, 15))
+            .repeats(FrequencyType.MONTHLY)
+            .repeatCount(40)
+            .build();
+        r = ev.getRecurrence().get();
+
+        assertEquals(at(2023, 4, 15), r.last().get());
+        assertEquals(list(r, 100).subList(12, 24), r.between(at(2021, 1, 1), at(2022, 1, 1)));
+    }
+
+    @Test
+    public void testYear9999() {
+        var past = LocalDateTime.of(10001, 1, 1, 0, 0);
+
+        for (var frequency : FrequencyType.values()) {
+            var r = event(LocalDateTime.of(9999, 12, 31, 23, 0)).repeats(frequency).build().getRecurrence().get();
+            var all = list(r, 100);
+
+            assertEquals(all.size(), r.countBetween(r.getStart(), LocalDateTime.MAX));
+            assertEquals(all.size(), r.countBetween(r.getStart(), past));
+            assertEquals(0, r.countBetween(past, LocalDateTime.MAX));
+            assertTrue(r.firstOnOrAfter(past).isEmpty());
+            assertTrue(r.firstOnOrAfter(LocalDateTime.MAX).isEmpty());
+            assertEquals(all, r.between(r.getStart(), LocalDateTime.MAX));
+        }
+
+        var r = event(at(2024, 1, 1)).repeats(FrequencyType.YEARLY).build().getRecurrence().get();
+
+        assertEquals(9999 - 2024 + 1, r.countBetween(at(2024, 1, 1), LocalDateTime.MAX));
+        assertEquals(at(9999, 1, 1), r.firstOnOrAfter(at(9998, 6, 1)).get());
+
+        r = event(LocalDateTime.of(9999, 12, 31, 23, 0)).repeats(FrequencyType.MINUTELY).repeatInterval(7).build().getRecurrence().get();
+
+        assertEquals(9, r.countBetween(LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+
+    @Test
+    public void testSeek() {
+        var ev = event(at(2015, 1, 13))
+            .repeats(FrequencyType.MONTHLY)
+            .byDay(WeekdayNum.of(2, DayOfWeek.TUESDAY))
+            .build();
+        var r = ev.getRecurrence().get();
+
+        assertEquals(at(2026, 1, 13), r.firstOnOrAfter(at(2026, 1, 1)).get());
+        assertEquals(12, r.countBetween(at(2026, 1, 1), at(2027, 1, 1)));
+
+        //Months without a 31st day are skipped, so this one is iterated
+        ev = event(at(2024, 1, 31))
+            .repeats(FrequencyType.MONTHLY)
+            .repeatCount(4)
+            .build();
+        r = ev.getRecurrence().get();
+
+        assertEquals(at(2024, 7, 31), r.last().get());
+        assertEquals(4, r.count().getAsLong());
+    }
+
+    @Test
+    public void testOutOfRangeParts() {
+        List<Runnable> invalid = List.of(
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.MONTHLY).byMonthDay(0),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.MONTHLY).byMonthDay(32),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.DAILY).byHour(24),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.DAILY).byMinute(60),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.YEARLY).byMonth(13),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.YEARLY).byWeekNo(54),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.YEARLY).byYearDay(-367),
+            () -> event(at(2024, 1, 1)).repeats(FrequencyType.MONTHLY).bySetPos(0),
+            () -> event(at(2024, 1, 1)).build().setRepeatByHour(List.of(-1)));
+
+        for (var r : invalid) {
+            try {
+                r.run();
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("out of range"));
+            }
+        }
+
+        //The limits themselves are fine
+        var ev = event(at(2024, 1, 1))
+            .repeats(FrequencyType.MONTHLY)
+            .byMonthDay(-31, 31)
+            .byHour(0, 23)
+            .bySetPos(-366)
+            .build();
+
+        assertEquals(List.of(-31, 31), ev.getRepeatByMonthDay());
+    }
+}
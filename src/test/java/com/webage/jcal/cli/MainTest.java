@@ -0,0 +1,113 @@
+package com.webage.jcal.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MainTest {
+    private Path dir;
+    private ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+    private PrintStream err = new PrintStream(errBytes, true, StandardCharsets.UTF_8);
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jcal-cli");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testCsvToOneCalendar() throws IOException {
+        var input = dir.resolve("events.csv");
+        var output = dir.resolve("events.ics");
+        var csv = new StringBuilder("uid,organizer,start,end,tz,summary,description,attendees\r\n");
+
+        for (int i = 0; i < 1000; ++i) {
+            csv.append("uid-").append(i)
+                .append(",xyz@example.com,2022-11-02T09:30,2022-11-02T10:00,America/New_York,")
+                .append("\"Meeting, number ").append(i).append("\",")
+                .append("\"Line one\nLine \"\"two\"\"\",")
+                .append("Bugs Bunny <bugs.bunny@wb.com>; daffy@wb.com\r\n");
+        }
+
+        Files.writeString(input, csv);
+
+        int status = Main.run(new String[] {"-t", "3", "--batch", "64", "-o", output.toString(), input.toString()}, err);
+
+        assertEquals(errBytes.toString(StandardCharsets.UTF_8), 0, status);
+
+        var ics = Files.readString(output);
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+        assertEquals(1000, ics.split("BEGIN:VEVENT").length - 1);
+        assertTrue(ics.indexOf("UID:uid-998\r\n") < ics.indexOf("UID:uid-999\r\n"));
+        assertTrue(ics.contains("SUMMARY:Meeting\\, number 7\r\n"));
+        assertTrue(ics.contains("DESCRIPTION:Line one\\nLine \"two\"\r\n"));
+        assertTrue(ics.contains("DTSTART;TZID=America/New_York:20221102T093000\r\n"));
+        assertTrue(ics.replace("\r\n ", "").contains("CN=Bugs Bunny:mailto:bugs.bunny@wb.com\r\n"));
+        assertTrue(errBytes.toString(StandardCharsets.UTF_8).contains("1000 rows, 1000 events, 0 errors"));
+    }
+
+    @Test
+    public void testJsonLinesToFiles() throws IOException {
+        var input = dir.resolve("events.jsonl");
+        var output = dir.resolve("out");
+
+        Files.writeString(input, String.join("\n",
+            "{\"uid\": \"a/1\", \"organizer\": \"xyz@example.com\", \"start\": \"2022-11-02\", \"summary\": \"All day\", \"attendees\": [\"daffy@wb.com\"]}",
+            "",
+            "{\"uid\": \"b\", \"organizer\": \"xyz@example.com\", \"start\": \"2022-11-02T09:30\", \"repeat\": \"weekly\", \"count\": 4, \"location\": null}",
+            "{\"uid\": \"c\", \"start\": \"2022-11-02\"}",
+            "{\"uid\": \"d\", \"organizer\": \"xyz@example.com\", \"start\": \"2022-11-02\"",
+            "{\"uid\": \"a:1\", \"organizer\": \"xyz@example.com\", \"start\": \"2022-11-03\"}",
+            "{\"uid\": \"b\", \"organizer\": \"xyz@example.com\", \"start\": \"2022-11-04\"}",
+            ""));
+
+        int status = Main.run(new String[] {"-q", "-m", "cancel", "-d", output.toString(), input.toString()}, err);
+        var messages = errBytes.toString(StandardCharsets.UTF_8);
+
+        assertEquals(1, status);
+        assertTrue(messages, messages.contains("line 4: Missing field: organizer"));
+        assertTrue(messages, messages.contains("line 5: "));
+        assertTrue(messages, messages.contains("line 7: Duplicate UID: b"));
+
+        //Different UIDs that look the same once cleaned up get different files
+        var a = Files.readString(output.resolve(BatchConverter.fileName("a/1")));
+        var b = Files.readString(output.resolve("b.ics"));
+
+        assertTrue(Files.readString(output.resolve(BatchConverter.fileName("a:1"))).contains("UID:a:1\r\n"));
+
+        assertTrue(a.contains("METHOD:CANCEL\r\n"));
+        assertTrue(a.contains("DTSTART;VALUE=DATE:20221102\r\n"));
+        assertTrue(a.replace("\r\n ", "").contains("CN=daffy@wb.com:mailto:daffy@wb.com\r\n"));
+        assertTrue(b.contains("DTSTART;TZID=UTC:20221102T093000\r\n"));
+        assertTrue(b.contains("RRULE:FREQ=WEEKLY;COUNT=4\r\n"));
+        assertEquals(3, output.toFile().list().length);
+    }
+
+    @Test
+    public void testBadCommandLine() {
+        assertEquals(2, Main.run(new String[] {"events.txt"}, err));
+        assertEquals(2, Main.run(new String[] {"--threads", "0", "events.csv"}, err));
+        assertEquals(0, Main.run(new String[] {"--help"}, err));
+        assertTrue(errBytes.toString(StandardCharsets.UTF_8).contains("Usage:"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.webage.jcal.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.webage.jcal.VCalendar;
+import com.webage.jcal.VEvent;
+
+public class FeedServerTest {
+    private final AtomicInteger encodeCount = new AtomicInteger();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private FeedServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = FeedServer.builder()
+            .port(0)
+            .host("127.0.0.1")
+            .feed("/team.ics", () -> {
+                encodeCount.incrementAndGet();
+
+                return calendar("Team meeting");
+            })
+            .build();
+
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static VCalendar calendar(String summary) {
+        var cal = VCalendar.builder().build();
+
+        for (int i = 0; i < 20; ++i) {
+            cal.addEvent(VEvent
+                .builder()
+                .uid("uid-" + i)
+                .organizer("abc", "xyz@example.com")
+                .starts(LocalDateTime.of(2022, 11, 2 + i, 9, 30), TimeZone.getTimeZone("UTC"))
+                .summary(summary)
+                .build());
+        }
+
+        return cal;
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    public void testConditionalGet() throws Exception {
+        var response = get("/team.ics");
+        var body = new String(response.body(), StandardCharsets.UTF_8);
+        var eTag = response.headers().firstValue("ETag").get();
+
+        assertEquals(200, response.statusCode());
+        assertEquals("text/calendar; charset=utf-8", response.headers().firstValue("Content-Type").get());
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(body.contains("SUMMARY:Team meeting\r\n"));
+
+        response = get("/team.ics", "If-None-Match", eTag);
+
+        assertEquals(304, response.statusCode());
+        assertEquals(0, response.body().length);
+        assertEquals(1, encodeCount.get());
+
+        server.invalidate("/team.ics");
+        response = get("/team.ics", "If-None-Match", eTag);
+
+        assertEquals(2, encodeCount.get());
+
+        server.publish("/team.ics", calendar("Moved"));
+        response = get("/team.ics", "If-None-Match", eTag);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(new String(response.body(), StandardCharsets.UTF_8).contains("SUMMARY:Moved\r\n"));
+        assertFalse(eTag.equals(response.headers().firstValue("ETag").get()));
+        assertEquals(2, encodeCount.get());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        var plain = get("/team.ics");
+        var response = get("/team.ics", "Accept-Encoding", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").get());
+        assertTrue(response.body().length < plain.body().length);
+
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertEquals(new String(plain.body(), StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        var eTag = response.headers().firstValue("ETag").get();
+
+        assertFalse(eTag.equals(plain.headers().firstValue("ETag").get()));
+        assertEquals(304, get("/team.ics", "Accept-Encoding", "gzip", "If-None-Match", "\"other\", W/" + eTag).statusCode());
+        //Only a whole ETag in the list matches
+        assertEquals(200, get("/team.ics", "Accept-Encoding", "gzip", "If-None-Match", eTag + "-old").statusCode());
+        assertFalse(get("/team.ics", "Accept-Encoding", "gzip;q=0").headers().firstValue("Content-Encoding").isPresent());
+    }
+
+    @Test
+    public void testPublishOutlivesRefresh() throws Exception {
+        server.stop();
+        server = FeedServer.builder()
+            .port(0)
+            .host("127.0.0.1")
+            .feed("/team.ics", () -> {
+                encodeCount.incrementAndGet();
+
+                return calendar("Team meeting");
+            })
+            .feed("/fixed.ics", calendar("Fixed"))
+            .refreshAfter(Duration.ofMillis(50))
+            .build();
+        server.start();
+
+        server.publish("/team.ics", calendar("Moved"));
+        server.publish("/fixed.ics", calendar("Fixed and moved"));
+        Thread.sleep(100);
+
+        assertTrue(new String(get("/team.ics").body(), StandardCharsets.UTF_8).contains("SUMMARY:Moved\r\n"));
+        assertTrue(new String(get("/fixed.ics").body(), StandardCharsets.UTF_8).contains("SUMMARY:Fixed and moved\r\n"));
+        assertEquals(0, encodeCount.get());
+
+        //A changed calendar object is picked up by invalidate()
+        var cal = calendar("Fixed");
+
+        server.publish("/fixed.ics", cal);
+        cal.getEventList().get(0).setSummary("Edited");
+        server.invalidate("/fixed.ics");
+
+        assertTrue(new String(get("/fixed.ics").body(), StandardCharsets.UTF_8).contains("SUMMARY:Edited\r\n"));
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        assertEquals(404, get("/team.ics/other").statusCode());
+        assertEquals(404, get("/other.ics").statusCode());
+    }
+}
@@ -0,0 +1,227 @@
+package com.webage.jcal.smtp;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small SMTP server for tests. It keeps the messages in memory.
+ * Recipients that start with "reject" get 550. The first tempFailures
+ * messages get 451 after DATA.
+ */
+class FakeSmtpServer implements Closeable {
+    final ConcurrentLinkedQueue<Message> messages = new ConcurrentLinkedQueue<>();
+    final AtomicInteger connectionCount = new AtomicInteger();
+    //Commands that arrived while more input was already waiting
+    final AtomicInteger pipelinedCount = new AtomicInteger();
+    final AtomicInteger tempFailures = new AtomicInteger();
+    //Count down to let DATA replies go out
+    volatile CountDownLatch gate = new CountDownLatch(0);
+    private final boolean pipelining;
+    private final ServerSocket server;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    FakeSmtpServer(boolean pipelining) throws IOException {
+        this.pipelining = pipelining;
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        var acceptor = new Thread(this::accept, "fake-smtp");
+
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+
+        synchronized (sockets) {
+            for (var s : sockets) {
+                s.close();
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                var socket = server.accept();
+
+                //Replies to pipelined commands are written one by one
+                socket.setTcpNoDelay(true);
+
+                synchronized (sockets) {
+                    sockets.add(socket);
+                }
+
+                connectionCount.incrementAndGet();
+
+                var t = new Thread(() -> session(socket), "fake-smtp-session");
+
+                t.setDaemon(true);
+                t.start();
+            }
+        } catch (IOException e) {
+            //Closed
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket) {
+            var in = new BufferedInputStream(socket.getInputStream());
+            var out = socket.getOutputStream();
+            String from = null;
+            var rcpts = new ArrayList<String>();
+
+            reply(out, "220 fake ESMTP");
+
+            while (true) {
+                var line = readLine(in);
+
+                if (line == null) {
+                    return;
+                }
+                if (in.available() > 0) {
+                    pipelinedCount.incrementAndGet();
+                }
+
+                var upper = line.toUpperCase(Locale.ROOT);
+
+                if (upper.startsWith("EHLO")) {
+                    reply(out, pipelining ? "250-fake\r\n250-8BITMIME\r\n250 PIPELINING" : "250-fake\r\n250 8BITMIME");
+                } else if (upper.startsWith("MAIL FROM:")) {
+                    from = address(line);
+                    rcpts.clear();
+                    reply(out, "250 OK");
+                } else if (upper.startsWith("RCPT TO:")) {
+                    if (from == null) {
+                        reply(out, "503 No MAIL");
+                    } else if (address(line).startsWith("reject")) {
+                        reply(out, "550 No such user");
+                    } else {
+                        rcpts.add(address(line));
+                        reply(out, "250 OK");
+                    }
+                } else if (upper.equals("DATA")) {
+                    if (rcpts.isEmpty()) {
+                        reply(out, "554 No valid recipients");
+
+                        continue;
+                    }
+
+                    reply(out, "354 Go ahead");
+
+                    var data = readData(in);
+
+                    if (data == null) {
+                        //A message cut short is dropped
+                        return;
+                    }
+
+                    gate.await();
+
+                    if (tempFailures.getAndDecrement() > 0) {
+                        reply(out, "451 Try again later");
+                    } else {
+                        messages.add(new Message(from, new ArrayList<>(rcpts), data));
+                        reply(out, "250 Queued");
+                    }
+
+                    from = null;
+                    rcpts.clear();
+                } else if (upper.equals("RSET")) {
+                    from = null;
+                    rcpts.clear();
+                    reply(out, "250 OK");
+                } else if (upper.equals("QUIT")) {
+                    reply(out, "221 Bye");
+
+                    return;
+                } else {
+                    reply(out, "502 Not implemented");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            //The client went away
+        }
+    }
+
+    private static String address(String line) {
+        return line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+    }
+
+    /*
+    Reads up to the line with a single dot and undoes the dot stuffing.
+    Returns null if the client goes away first.
+    */
+    private static String readData(InputStream in) throws IOException {
+        var data = new StringBuilder();
+
+        while (true) {
+            var line = readLine(in);
+
+            if (line == null) {
+                return null;
+            }
+            if (line.equals(".")) {
+                return data.toString();
+            }
+
+            data.append(line.startsWith(".") ? line.substring(1) : line).append("\r\n");
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new ByteArrayOutputStream();
+
+        while (true) {
+            int b = in.read();
+
+            if (b < 0) {
+                return null;
+            }
+            if (b == '\n') {
+                var bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            line.write(b);
+        }
+    }
+
+    private static void reply(OutputStream out, String text) throws IOException {
+        out.write((text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    static class Message {
+        final String from;
+        final List<String> recipients;
+        final String data;
+
+        Message(String from, List<String> recipients, String data) {
+            this.from = from;
+            this.recipients = recipients;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.webage.jcal.smtp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.webage.jcal.Attachment;
+import com.webage.jcal.MimeInvite;
+import com.webage.jcal.VCalendar;
+import com.webage.jcal.VEvent;
+
+public class SmtpDispatcherTest {
+    private FakeSmtpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeSmtpServer(true);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private static MimeInvite invite(int i, String... to) {
+        var ev = VEvent
+            .builder()
+            .uid("uid-" + i)
+            .organizer("abc", "xyz@example.com")
+            .starts(LocalDateTime.of(2022, 11, 2, 9, 30).plusDays(i), TimeZone.getTimeZone("UTC"))
+            .summary("Meeting " + i)
+            .build();
+        var builder = MimeInvite.builder()
+            .from("abc", "xyz@example.com")
+            .subject("Meeting " + i)
+            //A dot at the start of a line must survive the trip
+            .text("Agenda\n.first item\n.")
+            .calendar(VCalendar.builder().event(ev).build())
+            .date(ZonedDateTime.of(2022, 11, 1, 8, 0, 0, 0, ZoneOffset.UTC))
+            .boundary("BOUNDARY");
+
+        for (var email : to) {
+            builder.to(email);
+        }
+
+        return builder.build();
+    }
+
+    private static MimeInvite brokenInvite(int i, String to) {
+        var invite = invite(i, to);
+        var ev = invite.getCalendar().getEventList().get(0);
+
+        ev.addAttachment(Attachment.inline(() -> {
+            throw new IllegalStateException("No attachment");
+        }, "text/plain", "notes.txt"));
+
+        return invite;
+    }
+
+    private static String mime(MimeInvite invite) throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        invite.writeTo(out);
+
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private SmtpDispatcher.Builder dispatcher() {
+        return SmtpDispatcher.builder()
+            .host("127.0.0.1")
+            .port(server.getPort())
+            .heloName("test.example.com")
+            .retryDelay(Duration.ofMillis(10))
+            .timeout(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testPipelinedBatches() throws Exception {
+        var invites = new ArrayList<MimeInvite>();
+        var futures = new ArrayList<CompletableFuture<List<String>>>();
+
+        try (var dispatcher = dispatcher().connections(2).batchSize(10).build()) {
+            for (int i = 0; i < 100; ++i) {
+                var invite = invite(i, "\"User " + i + "\" <user" + i + "@example.com>", "boss@example.com");
+
+                invites.add(invite);
+                futures.add(dispatcher.submit(invite));
+            }
+
+            for (var f : futures) {
+                assertTrue(f.get(10, TimeUnit.SECONDS).isEmpty());
+            }
+
+            assertEquals(100, dispatcher.getSentCount());
+            assertEquals(0, dispatcher.getFailedCount());
+            assertTrue(dispatcher.getConnectCount() <= 2);
+        }
+
+        assertEquals(100, server.messages.size());
+        assertTrue(server.connectionCount.get() <= 2);
+        assertTrue(server.pipelinedCount.get() > 0);
+
+        var expected = new ArrayList<String>();
+
+        for (var invite : invites) {
+            expected.add(mime(invite));
+        }
+
+        for (var m : server.messages) {
+            assertEquals("xyz@example.com", m.from);
+            assertEquals("boss@example.com", m.recipients.get(1));
+            assertTrue(expected.remove(m.data));
+        }
+    }
+
+    @Test
+    public void testRetriesAndRejections() throws Exception {
+        for (boolean pipelining : new boolean[] {true, false}) {
+            server.close();
+            server = new FakeSmtpServer(pipelining);
+            server.tempFailures.set(2);
+
+            try (var dispatcher = dispatcher().connections(1).build()) {
+                var partly = dispatcher.submit(invite(1, "reject1@example.com", "ok1@example.com"));
+                var rejected = dispatcher.submit(invite(2, "reject2@example.com"));
+                var ok = dispatcher.submit(invite(3, "ok3@example.com"));
+
+                assertEquals(List.of("reject1@example.com"), partly.get(10, TimeUnit.SECONDS));
+                assertTrue(ok.get(10, TimeUnit.SECONDS).isEmpty());
+
+                try {
+                    rejected.get(10, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException e) {
+                    assertEquals(550, ((SmtpException) e.getCause()).getReplyCode());
+                }
+
+                assertEquals(2, dispatcher.getRetryCount());
+                assertEquals(2, dispatcher.getSentCount());
+                assertEquals(1, dispatcher.getFailedCount());
+            }
+
+            assertEquals(2, server.messages.size());
+        }
+    }
+
+    @Test
+    public void testBrokenInvite() throws Exception {
+        server.gate = new CountDownLatch(1);
+
+        try (var dispatcher = dispatcher().connections(1).batchSize(10).maxAttempts(1).build()) {
+            var first = dispatcher.submit(invite(0, "a@example.com"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            while (dispatcher.getQueueSize() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            //The next batch has the broken invite in the middle
+            var ok1 = dispatcher.submit(invite(1, "b@example.com"));
+            var broken = dispatcher.submit(brokenInvite(2, "c@example.com"));
+            var ok3 = dispatcher.submit(invite(3, "d@example.com"));
+            var ok4 = dispatcher.submit(invite(4, "e@example.com"));
+
+            server.gate.countDown();
+
+            try {
+                broken.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            for (var f : List.of(first, ok1, ok3, ok4)) {
+                assertTrue(f.get(10, TimeUnit.SECONDS).isEmpty());
+            }
+
+            assertEquals(4, dispatcher.getSentCount());
+            assertEquals(1, dispatcher.getFailedCount());
+            assertEquals(0, dispatcher.getRetryCount());
+        }
+
+        assertEquals(4, server.messages.size());
+    }
+
+    @Test
+    public void testRetryBeforeBrokenInvite() throws Exception {
+        server.gate = new CountDownLatch(1);
+
+        try (var dispatcher = dispatcher().connections(1).batchSize(10).build()) {
+            var first = dispatcher.submit(invite(0, "a@example.com"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            while (dispatcher.getQueueSize() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            //The next batch gets 451 and is put back before the broken invite throws
+            var retried = dispatcher.submit(invite(1, "b@example.com"));
+            var broken = dispatcher.submit(brokenInvite(2, "c@example.com"));
+
+            server.tempFailures.set(2);
+            server.gate.countDown();
+
+            assertTrue(first.get(10, TimeUnit.SECONDS).isEmpty());
+            assertTrue(retried.get(10, TimeUnit.SECONDS).isEmpty());
+
+            try {
+                broken.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+
+        //Each invite goes out once
+        var subjects = new ArrayList<String>();
+
+        for (var m : server.messages) {
+            int start = m.data.indexOf("Subject: ");
+
+            subjects.add(m.data.substring(start, m.data.indexOf("\r\n", start)));
+        }
+
+        subjects.sort(null);
+
+        assertEquals(List.of("Subject: Meeting 0", "Subject: Meeting 1"), subjects);
+    }
+
+    @Test
+    public void testBuildTwice() throws Exception {
+        var builder = dispatcher().connections(1);
+
+        var first = builder.build();
+
+        try (var second = builder.build()) {
+            assertNotSame(first, second);
+
+            first.close();
+
+            assertTrue(second.submit(invite(1, "a@example.com")).get(10, TimeUnit.SECONDS).isEmpty());
+
+            try {
+                first.submit(invite(2, "b@example.com"));
+                fail();
+            } catch (IllegalStateException e) {
+                //Closed
+            }
+        } finally {
+            first.close();
+        }
+
+        assertEquals(1, server.messages.size());
+    }
+
+    @Test
+    public void testSubmitWhileClosing() throws Exception {
+        var futures = new ConcurrentLinkedQueue<CompletableFuture<List<String>>>();
+        var dispatcher = dispatcher().connections(1).build();
+        var submitter = new Thread(() -> {
+            try {
+                for (int i = 0; ; ++i) {
+                    futures.add(dispatcher.submit(invite(i, "a@example.com")));
+                }
+            } catch (IllegalStateException | InterruptedException e) {
+                //Closed
+            }
+        });
+
+        submitter.start();
+        Thread.sleep(50);
+        dispatcher.close();
+        submitter.join(10_000);
+
+        //Every invite that got in is either sent or failed
+        for (var f : futures) {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testBackoff() {
+        assertEquals(Duration.ofSeconds(1).toNanos(), SmtpDispatcher.backoff(Duration.ofSeconds(1), 1));
+        assertEquals(Duration.ofSeconds(8).toNanos(), SmtpDispatcher.backoff(Duration.ofSeconds(1), 4));
+        assertEquals(Duration.ofSeconds(1L << 20).toNanos(), SmtpDispatcher.backoff(Duration.ofSeconds(1), 50));
+
+        //Long delays saturate instead of wrapping negative
+        long max = SmtpDispatcher.backoff(Duration.ofHours(6), 20);
+
+        assertTrue(max > 0);
+        assertEquals(max, SmtpDispatcher.backoff(Duration.ofHours(6), 50));
+        assertEquals(max, SmtpDispatcher.backoff(Duration.ofDays(365 * 1000), 1));
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        server.gate = new CountDownLatch(1);
+
+        try (var dispatcher = dispatcher().connections(1).batchSize(1).queueCapacity(2).build()) {
+            var first = dispatcher.submit(invite(1, "a@example.com"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            //Wait for the worker to take the first invite
+            while (dispatcher.getQueueSize() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            dispatcher.submit(invite(2, "b@example.com"));
+            dispatcher.submit(invite(3, "c@example.com"));
+
+            assertFalse(dispatcher.offer(invite(4, "d@example.com"), Duration.ofMillis(100)).isPresent());
+            assertFalse(first.isDone());
+
+            server.gate.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, server.messages.size());
+    }
+}
@@ -0,0 +1,259 @@
+package com.webage.jcal.soak;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import com.webage.jcal.FrequencyType;
+import com.webage.jcal.OutlookTimeZone;
+import com.webage.jcal.PartStatType;
+import com.webage.jcal.StatusType;
+import com.webage.jcal.VCalendar;
+import com.webage.jcal.VEvent;
+
+/**
+ * Makes synthetic calendars that look like real ones. The same seed always
+ * gives the same calendars.
+ *
+ * About a third of the events repeat. Attendee counts follow a heavy tailed
+ * distribution: most events have a handful of attendees and a few have
+ * thousands, up to maxAttendees. Text mixes many scripts, emoji and the
+ * characters that must be escaped. Events use IANA zones, Outlook zones and
+ * whole days.
+ */
+public final class CalendarGenerator {
+    private static final String[] WORDS = {
+        "meeting", "review", "planning", "sync", "quarterly", "budget", "roadmap", "launch",
+        "r\u00E9union", "\u00DCbersicht", "fa\u00E7ade", "na\u00EFve", "sm\u00F6rg\u00E5sbord", "Z\u00FCrich", "S\u00E3o Paulo",
+        "\u0432\u0441\u0442\u0440\u0435\u0447\u0430", "\u043E\u0431\u0437\u043E\u0440",
+        "\u043F\u043B\u0430\u043D\u0438\u0440\u043E\u0432\u0430\u043D\u0438\u0435",
+        "\u03C3\u03C5\u03BD\u03AC\u03BD\u03C4\u03B7\u03C3\u03B7",
+        "\u4F1A\u8BAE", "\u8FDB\u5EA6\u62A5\u544A", "\u30EC\u30D3\u30E5\u30FC", "\u6253\u3061\u5408\u308F\u305B", "\uD68C\uC758",
+        "\u0627\u062C\u062A\u0645\u0627\u0639", "\u05E4\u05D2\u05D9\u05E9\u05D4",
+        "\u0938\u092E\u0940\u0915\u094D\u0937\u093E", "\u0E1B\u0E23\u0E30\u0E0A\u0E38\u0E21",
+        "\uD83D\uDCC5", "\uD83D\uDE80", "\u2705", "\uD83D\uDC69\u200D\uD83D\uDCBB", "\uD83C\uDDEF\uD83C\uDDF5",
+        ",", ";", "\\", "\n"
+    };
+    private static final String[] ZONES = {
+        "UTC", "America/New_York", "America/Chicago", "America/Denver", "America/Los_Angeles",
+        "America/Sao_Paulo", "America/St_Johns", "Europe/London", "Europe/Paris", "Europe/Berlin",
+        "Europe/Helsinki", "Europe/Moscow", "Africa/Cairo", "Africa/Lagos", "Asia/Jerusalem",
+        "Asia/Dubai", "Asia/Kolkata", "Asia/Kathmandu", "Asia/Shanghai", "Asia/Tokyo",
+        "Asia/Singapore", "Australia/Sydney", "Australia/Adelaide", "Pacific/Auckland", "Pacific/Chatham"
+    };
+    private static final FrequencyType[] FREQUENCIES = {
+        FrequencyType.DAILY, FrequencyType.WEEKLY, FrequencyType.WEEKLY, FrequencyType.WEEKLY,
+        FrequencyType.MONTHLY, FrequencyType.YEARLY
+    };
+    private static final String DTSTAMP = "20240101T000000Z";
+
+    private final Random random;
+    private final int events;
+    private final double recurringShare;
+    private final int maxAttendees;
+    private long nextId;
+
+    private CalendarGenerator(long seed, int events, double recurringShare, int maxAttendees) {
+        this.random = new Random(seed);
+        this.events = events;
+        this.recurringShare = recurringShare;
+        this.maxAttendees = maxAttendees;
+    }
+
+    /**
+     * Returns the next calendar.
+     * @return the calendar
+     */
+    public VCalendar calendar() {
+        var builder = VCalendar.builder();
+        var outlookZone = OutlookTimeZone.values()[random.nextInt(OutlookTimeZone.values().length)];
+
+        builder.outlookVTimeZone(outlookZone);
+
+        for (int i = 0; i < events; ++i) {
+            builder.event(event(outlookZone));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the next event. Its times are in an IANA zone or are whole days.
+     * @return the event
+     */
+    public VEvent event() {
+        return event(null);
+    }
+
+    private VEvent event(OutlookTimeZone outlookZone) {
+        var id = nextId++;
+        var start = LocalDateTime.of(2024, 1, 1, 0, 0)
+            .plusDays(random.nextInt(730))
+            .plusMinutes(15 * (28 + random.nextInt(48)));
+        var minutes = 15 * (1 + random.nextInt(16));
+        var builder = VEvent
+            .builder()
+            .uid("synthetic-" + id + "@example.com")
+            .organizer(text(1 + random.nextInt(3)), "organizer" + random.nextInt(1000) + "@example.com")
+            .summary(text(2 + random.nextInt(10)))
+            .description(text(random.nextInt(400)));
+
+        int kind = random.nextInt(10);
+
+        if (kind == 0) {
+            builder.starts(start.toLocalDate()).ends(start.toLocalDate().plusDays(1 + random.nextInt(3)));
+        } else if (kind == 1 && outlookZone != null) {
+            builder.starts(start, outlookZone).ends(start.plusMinutes(minutes), outlookZone);
+        } else {
+            var zone = ZONES[random.nextInt(ZONES.length)];
+
+            builder.starts(start, zone).ends(start.plusMinutes(minutes), zone);
+        }
+
+        if (random.nextDouble() < recurringShare) {
+            repeat(builder, start.toLocalDate());
+        }
+        if (random.nextInt(3) == 0) {
+            builder.location(text(1 + random.nextInt(4)), "https://maps.example.com/?q=" + random.nextInt(100000));
+        } else if (random.nextBoolean()) {
+            builder.location(text(1 + random.nextInt(4)));
+        }
+        if (random.nextInt(20) == 0) {
+            builder.status(random.nextBoolean() ? StatusType.TENTATIVE : StatusType.CANCELLED);
+        }
+
+        var statuses = PartStatType.values();
+
+        for (int i = 0, n = attendeeCount(); i < n; ++i) {
+            builder.attendee(text(1 + random.nextInt(2)), "user" + random.nextInt(1_000_000) + "@example.com",
+                statuses[random.nextInt(statuses.length)]);
+        }
+
+        var ev = builder.build();
+
+        ev.setDateTimeStamp(DTSTAMP);
+
+        return ev;
+    }
+
+    private void repeat(VEvent.Builder builder, LocalDate start) {
+        var frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+
+        builder.repeats(frequency);
+
+        if (frequency == FrequencyType.WEEKLY && random.nextBoolean()) {
+            builder.byDay(DayOfWeek.MONDAY, DayOfWeek.values()[1 + random.nextInt(4)]);
+        }
+        if (random.nextInt(4) == 0) {
+            builder.repeatInterval(2 + random.nextInt(3));
+        }
+
+        switch (random.nextInt(3)) {
+        case 0:
+            builder.repeatCount(1 + random.nextInt(52));
+            break;
+        case 1:
+            builder.until(start.plusDays(30 + random.nextInt(700)).atStartOfDay());
+            break;
+        default:
+            break;
+        }
+    }
+
+    /*
+    A Pareto distribution with shape 1.2. Half the events have one or two
+    attendees, about 3% have more than 20 and one in 4000 has more than 1000.
+    */
+    private int attendeeCount() {
+        double u = random.nextDouble();
+        double count = Math.pow(1 - u, -1 / 1.2);
+
+        return (int) Math.min(maxAttendees, Math.floor(count));
+    }
+
+    private String text(int words) {
+        var sb = new StringBuilder(words * 8);
+
+        for (int i = 0; i < words; ++i) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+
+            //Plain English most of the time, like real calendars
+            sb.append(random.nextInt(3) == 0 ? WORDS[random.nextInt(WORDS.length)] : WORDS[random.nextInt(8)]);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns a builder that makes it easy to set up a generator.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A class that makes it easy to set up a generator.
+     */
+    public static class Builder {
+        private long seed = 1;
+        private int events = 100;
+        private double recurringShare = 0.3;
+        private int maxAttendees = 20_000;
+
+        /**
+         * Sets the seed. The default is 1.
+         * @param seed the seed
+         * @return the builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of events in each calendar. The default is 100.
+         * @param events the number of events
+         * @return the builder
+         */
+        public Builder events(int events) {
+            this.events = events;
+
+            return this;
+        }
+
+        /**
+         * Sets the share of events that repeat. The default is 0.3.
+         * @param recurringShare a number from 0 to 1
+         * @return the builder
+         */
+        public Builder recurringShare(double recurringShare) {
+            this.recurringShare = recurringShare;
+
+            return this;
+        }
+
+        /**
+         * Sets the largest number of attendees of an event. The default is 20000.
+         * @param maxAttendees the number of attendees
+         * @return the builder
+         */
+        public Builder maxAttendees(int maxAttendees) {
+            this.maxAttendees = maxAttendees;
+
+            return this;
+        }
+
+        /**
+         * Returns the generator
+         * @return the generator
+         */
+        public CalendarGenerator build() {
+            return new CalendarGenerator(seed, events, recurringShare, maxAttendees);
+        }
+    }
+}
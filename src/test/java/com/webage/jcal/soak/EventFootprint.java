@@ -0,0 +1,97 @@
+package com.webage.jcal.soak;
+
+import java.lang.management.ManagementFactory;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.function.IntFunction;
+
+import com.webage.jcal.FrequencyType;
+import com.webage.jcal.VEvent;
+
+/**
+ * Measures how much heap an event takes. It builds many events of a few
+ * typical shapes, keeps them all, and divides the growth of the heap after
+ * a full collection by the number of events. The UIDs are unique and count
+ * towards the size. The other text is shared between the events, the way it
+ * often is when events come from a template. The figures it prints on
+ * JDK 17 are listed in the README.
+ *
+ * <pre>
+ * mvn -Psoak test-compile exec:exec -Dsoak.main=com.webage.jcal.soak.EventFootprint
+ * </pre>
+ */
+public final class EventFootprint {
+    private static final int COUNT = 200_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 6, 9, 30);
+
+    private EventFootprint() {
+    }
+
+    /**
+     * Prints the bytes per event of each shape.
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        measure("Minimal", i -> VEvent
+            .builder()
+            .uid("event-" + i + "@example.com")
+            .organizer("Bugs Bunny", "bugs.bunny@wb.com")
+            .starts(START, "America/New_York")
+            .ends(START.plusHours(1), "America/New_York")
+            .summary("Weekly sync")
+            .build());
+        measure("Typical", i -> VEvent
+            .builder()
+            .uid("event-" + i + "@example.com")
+            .organizer("Bugs Bunny", "bugs.bunny@wb.com")
+            .starts(START, "America/New_York")
+            .ends(START.plusHours(1), "America/New_York")
+            .summary("Weekly sync")
+            .description("Agenda:\n1. Status\n2. Risks")
+            .location("Room 42", "https://maps.example.com/?q=42")
+            .attendee("Daffy Duck", "daffy@wb.com")
+            .attendee("Porky Pig", "porky@wb.com")
+            .attendee("Elmer Fudd", "elmer@wb.com")
+            .repeats(FrequencyType.WEEKLY)
+            .byDay(DayOfWeek.MONDAY)
+            .repeatCount(10)
+            .createdOn(START.minusDays(7), TimeZone.getTimeZone("UTC"))
+            .build());
+    }
+
+    private static void measure(String shape, IntFunction<VEvent> factory) {
+        var events = new VEvent[COUNT];
+
+        //Warm up so that the classes and caches are in place before measuring
+        for (int i = 0; i < 10_000; ++i) {
+            factory.apply(i);
+        }
+
+        long before = usedHeap();
+
+        for (int i = 0; i < COUNT; ++i) {
+            events[i] = factory.apply(i);
+        }
+
+        long after = usedHeap();
+
+        System.out.printf(Locale.ROOT, "%-8s %6.0f bytes per event%n", shape, (after - before) / (double) COUNT);
+
+        //Keep the events alive until they are measured
+        if (events[COUNT - 1] == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        var memory = ManagementFactory.getMemoryMXBean();
+
+        for (int i = 0; i < 4; ++i) {
+            System.gc();
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,585 @@
+package com.webage.jcal.soak;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.webage.jcal.MimeInvite;
+import com.webage.jcal.VCalendar;
+
+/**
+ * Drives VCalendar output for a long time and reports how the JVM copes.
+ * Worker threads take turns writing a pool of synthetic calendars with
+ * toUTF8(), writeTo(), encodedLength() and MimeInvite. Every interval it
+ * prints the throughput, the allocation rate of the workers, the GC pauses
+ * and the heap still in use after the last collection. A heap that keeps
+ * growing after hours of work points to a leak.
+ *
+ * <pre>
+ * mvn -Psoak test-compile exec:exec -Dsoak.args="--duration 2h --threads 8"
+ * </pre>
+ */
+public final class SoakRunner {
+    static final String USAGE = String.join("\n",
+        "Usage: SoakRunner [options]",
+        "",
+        "  -d, --duration TIME     how long to run, like 90s, 30m, 4h or PT4H. Default: 1h",
+        "  -t, --threads N         the number of writer threads. Default: the number of processors",
+        "  -c, --calendars N       the number of calendars in the pool. Default: 32",
+        "  -e, --events N          the number of events per calendar. Default: 200",
+        "      --max-attendees N   the largest number of attendees of an event. Default: 20000",
+        "      --seed N            the generator seed. Default: 1",
+        "  -r, --report-every TIME how often to print a line. Default: 10s",
+        "  -h, --help              print this help",
+        "");
+
+    private SoakRunner() {
+    }
+
+    /**
+     * Runs the soak test.
+     * @param args the command line
+     */
+    public static void main(String[] args) {
+        Options options;
+
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+
+            return;
+        }
+
+        if (options.help) {
+            System.out.print(USAGE);
+
+            return;
+        }
+
+        run(options, System.out);
+    }
+
+    /**
+     * Runs the soak test and prints the progress.
+     * @param options the options
+     * @param out where the progress and the final report go
+     * @return the final report
+     */
+    static Report run(Options options, PrintStream out) {
+        var generator = CalendarGenerator
+            .builder()
+            .seed(options.seed)
+            .events(options.events)
+            .maxAttendees(options.maxAttendees)
+            .build();
+        var pool = new VCalendar[options.calendars];
+
+        for (int i = 0; i < pool.length; ++i) {
+            pool[i] = generator.calendar();
+        }
+
+        out.printf(Locale.ROOT, "Soaking %d calendars of %d events on %d threads for %s%n",
+            pool.length, options.events, options.threads, options.duration);
+
+        var gc = new GcMonitor();
+        var calendars = new LongAdder();
+        var bytes = new LongAdder();
+        var failure = new AtomicLong();
+        var workers = new Worker[options.threads];
+        var report = new Report();
+
+        for (int i = 0; i < workers.length; ++i) {
+            workers[i] = new Worker(i, pool, calendars, bytes, failure);
+            workers[i].start();
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + options.duration.toNanos();
+        long lastTime = start;
+        long lastCalendars = 0;
+        long lastBytes = 0;
+        long lastAllocated = allocatedBytes(workers);
+
+        try {
+            while (failure.get() == 0) {
+                long now = System.nanoTime();
+
+                if (now >= deadline) {
+                    break;
+                }
+
+                Thread.sleep(Math.max(1, Math.min(options.reportEvery.toMillis(), (deadline - now) / 1_000_000)));
+
+                now = System.nanoTime();
+
+                long c = calendars.sum();
+                long b = bytes.sum();
+                long allocated = allocatedBytes(workers);
+                long retained = gc.retainedBytes();
+                double seconds = (now - lastTime) / 1e9;
+
+                report.sample((now - start) / 1e9, retained);
+                out.printf(Locale.ROOT, "%8.0fs %10.1f cal/s %8.1f MB/s  alloc %8.1f MB/s  gc %6d pauses, max %5d ms  retained %8.1f MB%n",
+                    (now - start) / 1e9,
+                    (c - lastCalendars) / seconds,
+                    (b - lastBytes) / seconds / 1e6,
+                    allocated < 0 ? Double.NaN : (allocated - lastAllocated) / seconds / 1e6,
+                    gc.pauses(),
+                    gc.maxPauseMillis(),
+                    retained / 1e6);
+
+                lastTime = now;
+                lastCalendars = c;
+                lastBytes = b;
+                lastAllocated = allocated;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (var worker : workers) {
+                worker.running = false;
+            }
+            for (var worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            gc.close();
+        }
+
+        if (failure.get() != 0) {
+            throw new IllegalStateException("A writer failed. See the stack trace above.");
+        }
+
+        report.seconds = (System.nanoTime() - start) / 1e9;
+        report.calendars = calendars.sum();
+        report.bytes = bytes.sum();
+        report.allocatedBytes = allocatedBytes(workers);
+        report.pauses = gc.pauses();
+        report.maxPauseMillis = gc.maxPauseMillis();
+        report.totalPauseMillis = gc.totalPauseMillis();
+
+        out.println(report);
+
+        return report;
+    }
+
+    /*
+    The bytes the worker threads have allocated so far, or -1 if the JVM can
+    not tell.
+    */
+    private static long allocatedBytes(Worker[] workers) {
+        var bean = ManagementFactory.getThreadMXBean();
+
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) bean;
+
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long total = 0;
+
+        for (var worker : workers) {
+            total += worker.allocated = Math.max(worker.allocated, threads.getThreadAllocatedBytes(worker.getId()));
+        }
+
+        return total;
+    }
+
+    /**
+     * A thread that writes calendars from the pool until it is told to stop.
+     */
+    private static final class Worker extends Thread {
+        private final int number;
+        private final VCalendar[] pool;
+        private final LongAdder calendars;
+        private final LongAdder bytes;
+        private final AtomicLong failure;
+        private final CountingOutputStream sink = new CountingOutputStream();
+        volatile boolean running = true;
+        //Kept so the total does not drop when the thread ends
+        long allocated;
+
+        Worker(int number, VCalendar[] pool, LongAdder calendars, LongAdder bytes, AtomicLong failure) {
+            super("soak-" + number);
+
+            this.number = number;
+            this.pool = pool;
+            this.calendars = calendars;
+            this.bytes = bytes;
+            this.failure = failure;
+
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (long i = number; running; ++i) {
+                    var cal = pool[(int) (i % pool.length)];
+
+                    bytes.add(write(cal, (int) (i % 4)));
+                    calendars.increment();
+                }
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                failure.incrementAndGet();
+            }
+        }
+
+        private long write(VCalendar cal, int how) throws IOException {
+            switch (how) {
+            case 0:
+                return cal.toUTF8().remaining();
+            case 1:
+                sink.count = 0;
+                cal.writeTo(sink);
+
+                return sink.count;
+            case 2:
+                return cal.encodedLength();
+            default:
+                sink.count = 0;
+                MimeInvite
+                    .builder()
+                    .from("Organizer", "organizer@example.com")
+                    .to("attendee@example.com")
+                    .subject("Invitation")
+                    .text("You are invited.")
+                    .calendar(cal)
+                    .date(ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                    .build()
+                    .writeTo(sink);
+
+                return sink.count;
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes and drops them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Listens for the end of each collection and adds up the pauses.
+     * Collectors that run next to the application, like the ZGC cycles or
+     * the G1 concurrent marking, do not stop it and are left out of the
+     * pauses. The heap in use right after the last collection is the
+     * retained heap. Unlike the current usage it does not go up and down
+     * with garbage that has not been collected yet.
+     */
+    private static final class GcMonitor implements NotificationListener, AutoCloseable {
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private final Set<String> heapPools = new HashSet<>();
+        private long retainedBytes;
+        private long pauses;
+        private long maxPauseMillis;
+        private long totalPauseMillis;
+
+        GcMonitor() {
+            for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            for (var bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter) {
+                    var emitter = (NotificationEmitter) bean;
+
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+
+            var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            var name = info.getGcName();
+
+            retainedBytes = 0;
+            info.getGcInfo().getMemoryUsageAfterGc().forEach((pool, usage) -> {
+                if (heapPools.contains(pool)) {
+                    retainedBytes += usage.getUsed();
+                }
+            });
+
+            if (name.contains("Cycles") || name.contains("Concurrent")) {
+                return;
+            }
+
+            long millis = info.getGcInfo().getDuration();
+
+            ++pauses;
+            maxPauseMillis = Math.max(maxPauseMillis, millis);
+            totalPauseMillis += millis;
+        }
+
+        synchronized long retainedBytes() {
+            return retainedBytes;
+        }
+
+        synchronized long pauses() {
+            return pauses;
+        }
+
+        synchronized long maxPauseMillis() {
+            return maxPauseMillis;
+        }
+
+        synchronized long totalPauseMillis() {
+            return totalPauseMillis;
+        }
+
+        @Override
+        public void close() {
+            for (var emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (javax.management.ListenerNotFoundException e) {
+                    //Nothing to remove
+                }
+            }
+        }
+    }
+
+    /**
+     * The totals of a run.
+     */
+    static final class Report {
+        double seconds;
+        long calendars;
+        long bytes;
+        long allocatedBytes;
+        long pauses;
+        long maxPauseMillis;
+        long totalPauseMillis;
+        private final List<double[]> retained = new ArrayList<>();
+
+        void sample(double seconds, long retainedBytes) {
+            retained.add(new double[] {seconds, retainedBytes});
+        }
+
+        /**
+         * Get the number of calendars written per second.
+         * @return the throughput
+         */
+        double calendarsPerSecond() {
+            return calendars / seconds;
+        }
+
+        /**
+         * Get how fast the retained heap grew, from a least squares fit of
+         * the samples. It stays near zero when nothing leaks.
+         * @return the growth in bytes per hour
+         */
+        double retainedGrowthPerHour() {
+            int n = retained.size();
+
+            if (n < 2) {
+                return 0;
+            }
+
+            double sx = 0, sy = 0, sxx = 0, sxy = 0;
+
+            for (var p : retained) {
+                sx += p[0];
+                sy += p[1];
+                sxx += p[0] * p[0];
+                sxy += p[0] * p[1];
+            }
+
+            double d = n * sxx - sx * sx;
+
+            return d == 0 ? 0 : (n * sxy - sx * sy) / d * 3600;
+        }
+
+        @Override
+        public String toString() {
+            long lastRetained = retained.isEmpty() ? 0 : (long) retained.get(retained.size() - 1)[1];
+
+            return String.format(Locale.ROOT,
+                "%d calendars, %.1f MB in %.0fs: %.1f cal/s, %.1f MB/s. Allocated %.1f MB/s. "
+                + "%d GC pauses, max %d ms, total %d ms (%.2f%%). Retained %.1f MB, growing %.1f MB/h.",
+                calendars, bytes / 1e6, seconds, calendarsPerSecond(), bytes / seconds / 1e6,
+                allocatedBytes < 0 ? Double.NaN : allocatedBytes / seconds / 1e6,
+                pauses, maxPauseMillis, totalPauseMillis, totalPauseMillis / seconds / 10,
+                lastRetained / 1e6, retainedGrowthPerHour() / 1e6);
+        }
+    }
+
+    /**
+     * The command line options.
+     */
+    static final class Options {
+        Duration duration = Duration.ofHours(1);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int calendars = 32;
+        int events = 200;
+        int maxAttendees = 20_000;
+        long seed = 1;
+        Duration reportEvery = Duration.ofSeconds(10);
+        boolean help;
+
+        /**
+         * Parses the command line.
+         * @param args the arguments
+         * @return the options
+         * @throws IllegalArgumentException if the command line is not valid
+         */
+        static Options parse(String[] args) {
+            var options = new Options();
+
+            for (int i = 0; i < args.length; ++i) {
+                var arg = args[i];
+
+                switch (arg) {
+                case "-d":
+                case "--duration":
+                    options.duration = duration(value(args, ++i, arg), arg);
+                    break;
+                case "-t":
+                case "--threads":
+                    options.threads = positive(value(args, ++i, arg), arg);
+                    break;
+                case "-c":
+                case "--calendars":
+                    options.calendars = positive(value(args, ++i, arg), arg);
+                    break;
+                case "-e":
+                case "--events":
+                    options.events = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--max-attendees":
+                    options.maxAttendees = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--seed":
+                    try {
+                        options.seed = Long.parseLong(value(args, ++i, arg));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Not a number for " + arg + ": " + args[i]);
+                    }
+                    break;
+                case "-r":
+                case "--report-every":
+                    options.reportEvery = duration(value(args, ++i, arg), arg);
+                    break;
+                case "-h":
+                case "--help":
+                    options.help = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+
+            return options;
+        }
+
+        /*
+        Takes 90s, 30m, 4h, 500ms or an ISO 8601 duration like PT4H.
+        */
+        private static Duration duration(String value, String option) {
+            try {
+                if (value.startsWith("P") || value.startsWith("p")) {
+                    return positive(Duration.parse(value), value, option);
+                }
+                if (value.endsWith("ms")) {
+                    return positive(Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2))), value, option);
+                }
+
+                long n = Long.parseLong(value.substring(0, value.length() - 1));
+
+                switch (value.charAt(value.length() - 1)) {
+                case 's':
+                    return positive(Duration.ofSeconds(n), value, option);
+                case 'm':
+                    return positive(Duration.ofMinutes(n), value, option);
+                case 'h':
+                    return positive(Duration.ofHours(n), value, option);
+                default:
+                    break;
+                }
+            } catch (RuntimeException e) {
+                //Reported below
+            }
+
+            throw new IllegalArgumentException("Not a duration for " + option + ": " + value);
+        }
+
+        private static Duration positive(Duration d, String value, String option) {
+            if (d.isNegative() || d.isZero()) {
+                throw new IllegalArgumentException("Not a duration for " + option + ": " + value);
+            }
+
+            return d;
+        }
+
+        private static String value(String[] args, int i, String option) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+
+            return args[i];
+        }
+
+        private static int positive(String value, String option) {
+            try {
+                int n = Integer.parseInt(value);
+
+                if (n > 0) {
+                    return n;
+                }
+            } catch (NumberFormatException e) {
+                //Reported below
+            }
+
+            throw new IllegalArgumentException("Not a positive number for " + option + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.webage.jcal.soak;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class SoakRunnerTest {
+    @Test
+    public void testGeneratorIsReproducible() {
+        var a = CalendarGenerator.builder().seed(7).events(300).build();
+        var b = CalendarGenerator.builder().seed(7).events(300).build();
+        var c = CalendarGenerator.builder().seed(8).events(300).build();
+
+        var first = a.calendar();
+        var text = first.toString();
+
+        assertEquals(text, b.calendar().toString());
+        assertNotEquals(text, c.calendar().toString());
+        assertEquals(300, first.getEventList().size());
+        assertEquals(first.toUTF8().remaining(), first.encodedLength());
+        assertTrue(text.contains("RRULE:"));
+        assertTrue(text.contains("VALUE=DATE:"));
+        assertTrue(text.contains("\\n"));
+        assertTrue(first.getEventList().stream().anyMatch(ev -> !ev.getDescription().get().chars().allMatch(ch -> ch < 128)));
+    }
+
+    @Test
+    public void testShortSoak() {
+        var options = SoakRunner.Options.parse(new String[] {
+            "--duration", "1500ms", "--report-every", "500ms", "--threads", "2", "--calendars", "4", "--events", "20"
+        });
+        var out = new ByteArrayOutputStream();
+        var report = SoakRunner.run(options, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        assertTrue(report.calendars > 0);
+        assertTrue(report.calendarsPerSecond() > 0);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("cal/s"));
+    }
+}